@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.n52.sos.ds.TestDataSqlScriptGenerator;
+
+/**
+ * Synthetic observations with the same structure as the SQL test data created by
+ * {@link TestDataSqlScriptGenerator}: each sensor has its own offering and observes
+ * {@value TestDataSqlScriptGenerator#OBSERVED_PROPERTY_ID} at every feature of interest. The values are created with a
+ * fixed seed, so that every benchmark run works on the same data.
+ *
+ * @since 6.1.2
+ */
+public class BenchmarkDataSet {
+
+    private static final long SEED = 52L;
+
+    private final int featureCount;
+
+    private final int sensorCount;
+
+    private final int observationCount;
+
+    /**
+     * Constructor
+     *
+     * @param featureCount
+     *            the number of features of interest
+     * @param sensorCount
+     *            the number of sensors
+     * @param observationCount
+     *            the number of observations per feature and sensor
+     */
+    public BenchmarkDataSet(int featureCount, int sensorCount, int observationCount) {
+        this.featureCount = featureCount;
+        this.sensorCount = sensorCount;
+        this.observationCount = observationCount;
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public int getSensorCount() {
+        return sensorCount;
+    }
+
+    public int getObservationCount() {
+        return observationCount;
+    }
+
+    public String getFeature(int featureId) {
+        return TestDataSqlScriptGenerator.getFeatureIdentifier(featureId);
+    }
+
+    public String getProcedure(int sensorId) {
+        return TestDataSqlScriptGenerator.getProcedureIdentifier(sensorId);
+    }
+
+    public String getOffering(int sensorId) {
+        return TestDataSqlScriptGenerator.getOfferingIdentifier(sensorId);
+    }
+
+    public String getObservableProperty() {
+        return TestDataSqlScriptGenerator.OBSERVED_PROPERTY_ID;
+    }
+
+    public String getUnit() {
+        return TestDataSqlScriptGenerator.UNIT_ID;
+    }
+
+    public DateTime getPhenomenonTime(int observationBatch) {
+        return TestDataSqlScriptGenerator.getPhenomenonTime(observationBatch);
+    }
+
+    /**
+     * @return the longitude and latitude of each feature of interest
+     */
+    public double[][] getCoordinates() {
+        Random random = new Random(SEED);
+        double[][] coordinates = new double[featureCount][];
+        for (int featureId = 0; featureId < featureCount; featureId++) {
+            coordinates[featureId] =
+                    new double[] { -180.0 + random.nextDouble() * 360.0, -90.0 + random.nextDouble() * 180.0 };
+        }
+        return coordinates;
+    }
+
+    /**
+     * Passes the observations to the consumer in the order of the generated SQL script.
+     *
+     * @param consumer
+     *            the observation consumer
+     */
+    public void forEachObservation(ObservationConsumer consumer) {
+        Random random = new Random(SEED);
+        for (int observationBatch = 0; observationBatch < observationCount; observationBatch++) {
+            DateTime phenomenonTime = getPhenomenonTime(observationBatch);
+            for (int featureId = 0; featureId < featureCount; featureId++) {
+                for (int sensorId = 0; sensorId < sensorCount; sensorId++) {
+                    consumer.accept(featureId, sensorId, phenomenonTime,
+                            TestDataSqlScriptGenerator.generateRandomResult(random,
+                                    TestDataSqlScriptGenerator.RESULT_MIN_VALUE,
+                                    TestDataSqlScriptGenerator.RESULT_MAX_VALUE));
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumer of the synthetic observations.
+     */
+    @FunctionalInterface
+    public interface ObservationConsumer {
+        void accept(int featureId, int sensorId, DateTime phenomenonTime, double value);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.n52.series.db.beans.CategoryEntity;
+import org.n52.series.db.beans.CodespaceEntity;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.FeatureEntity;
+import org.n52.series.db.beans.FormatEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.PlatformEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
+import org.n52.series.db.beans.UnitEntity;
+import org.n52.series.db.beans.dataset.DatasetType;
+import org.n52.series.db.beans.dataset.ObservationType;
+import org.n52.series.db.beans.dataset.ValueType;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.om.features.SfConstants;
+import org.n52.shetland.ogc.sensorML.SensorMLConstants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Loads the {@link BenchmarkDataSet} into the H2 in-memory database of {@link H2Configuration} and provides the
+ * observations of the first offering, as they would be queried by a GetObservation or GetResult request.
+ *
+ * @since 6.1.2
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param("10")
+    private int featureCount;
+
+    @Param("5")
+    private int sensorCount;
+
+    @Param("100")
+    private int observationCount;
+
+    private BenchmarkDataSet dataSet;
+
+    private Session session;
+
+    private List<DataEntity<?>> observations = Collections.emptyList();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSet = new BenchmarkDataSet(featureCount, sensorCount, observationCount);
+        H2Configuration.assertInitialized();
+        H2Configuration.truncate();
+        insert();
+        session = H2Configuration.getSession();
+        observations = loadObservations(dataSet.getOffering(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        H2Configuration.returnSession(session);
+        H2Configuration.truncate();
+    }
+
+    public BenchmarkDataSet getDataSet() {
+        return dataSet;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public List<DataEntity<?>> getObservations() {
+        return Collections.unmodifiableList(observations);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DataEntity<?>> loadObservations(String offering) {
+        List<DataEntity<?>> list = session.createCriteria(DataEntity.class)
+                .createAlias(DataEntity.PROPERTY_DATASET, "ds")
+                .createAlias("ds." + DatasetEntity.PROPERTY_OFFERING, "off")
+                .add(Restrictions.eq("off." + OfferingEntity.IDENTIFIER, offering))
+                .addOrder(Order.asc(DataEntity.PROPERTY_SAMPLING_TIME_START))
+                .list();
+        // initialize the lazy associations, the benchmarks should not measure the loading
+        for (DataEntity<?> observation : list) {
+            observation.getDataset().getProcedure().getIdentifier();
+            observation.getDataset().getFeature().getIdentifier();
+            observation.getDataset().getObservableProperty().getIdentifier();
+            if (observation.getDataset().getUnit() != null) {
+                observation.getDataset().getUnit().getUnit();
+            }
+        }
+        return list;
+    }
+
+    private void insert() {
+        Session s = H2Configuration.getSession();
+        Transaction transaction = null;
+        try {
+            transaction = s.beginTransaction();
+            CodespaceEntity codespace = new CodespaceEntity();
+            codespace.setName(SosConstants.SOS);
+            s.save(codespace);
+            FormatEntity featureType = format(s, SfConstants.SAMPLING_FEAT_TYPE_SF_SAMPLING_POINT);
+            FormatEntity observationType = format(s, OmConstants.OBS_TYPE_MEASUREMENT);
+            FormatEntity procedureFormat = format(s, SensorMLConstants.SENSORML_OUTPUT_FORMAT_URL);
+            UnitEntity unit = new UnitEntity();
+            unit.setUnit(dataSet.getUnit());
+            s.save(unit);
+            PhenomenonEntity phenomenon = new PhenomenonEntity();
+            phenomenon.setIdentifier(dataSet.getObservableProperty());
+            phenomenon.setName(dataSet.getObservableProperty());
+            s.save(phenomenon);
+            CategoryEntity category = new CategoryEntity();
+            category.setIdentifier(dataSet.getObservableProperty());
+            category.setName(dataSet.getObservableProperty());
+            s.save(category);
+            PlatformEntity platform = new PlatformEntity();
+            platform.setIdentifier("test_platform");
+            platform.setName("test_platform");
+            s.save(platform);
+
+            GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+            double[][] coordinates = dataSet.getCoordinates();
+            FeatureEntity[] features = new FeatureEntity[dataSet.getFeatureCount()];
+            for (int featureId = 0; featureId < features.length; featureId++) {
+                FeatureEntity feature = new FeatureEntity();
+                feature.setIdentifier(dataSet.getFeature(featureId));
+                feature.setName(dataSet.getFeature(featureId));
+                feature.setIdentifierCodespace(codespace);
+                feature.setFeatureType(featureType);
+                feature.setGeometry(geometryFactory
+                        .createPoint(new Coordinate(coordinates[featureId][0], coordinates[featureId][1])));
+                s.save(feature);
+                features[featureId] = feature;
+            }
+            DatasetEntity[][] datasets = new DatasetEntity[dataSet.getSensorCount()][features.length];
+            for (int sensorId = 0; sensorId < dataSet.getSensorCount(); sensorId++) {
+                ProcedureEntity procedure = new ProcedureEntity();
+                procedure.setIdentifier(dataSet.getProcedure(sensorId));
+                procedure.setFormat(procedureFormat);
+                procedure.setDeleted(false);
+                s.save(procedure);
+                OfferingEntity offering = new OfferingEntity();
+                offering.setIdentifier(dataSet.getOffering(sensorId));
+                offering.setName(dataSet.getOffering(sensorId));
+                offering.setFeatureTypes(Collections.singleton(featureType));
+                offering.setObservationTypes(Collections.singleton(observationType));
+                s.save(offering);
+                for (int featureId = 0; featureId < features.length; featureId++) {
+                    DatasetEntity dataset = new DatasetEntity();
+                    dataset.setDatasetType(DatasetType.timeseries);
+                    dataset.setObservationType(ObservationType.simple);
+                    dataset.setValueType(ValueType.quantity);
+                    dataset.setProcedure(procedure);
+                    dataset.setOffering(offering);
+                    dataset.setFeature(features[featureId]);
+                    dataset.setObservableProperty(phenomenon);
+                    dataset.setCategory(category);
+                    dataset.setPlatform(platform);
+                    dataset.setUnit(unit);
+                    dataset.setDeleted(false);
+                    dataset.setPublished(true);
+                    s.save(dataset);
+                    datasets[sensorId][featureId] = dataset;
+                }
+            }
+            s.flush();
+            int[] inserted = new int[1];
+            dataSet.forEachObservation((featureId, sensorId, phenomenonTime, value) -> {
+                QuantityDataEntity observation = new QuantityDataEntity();
+                observation.setDataset(datasets[sensorId][featureId]);
+                observation.setSamplingTimeStart(phenomenonTime.toDate());
+                observation.setSamplingTimeEnd(phenomenonTime.toDate());
+                observation.setResultTime(phenomenonTime.toDate());
+                observation.setValue(BigDecimal.valueOf(value));
+                observation.setDeleted(false);
+                s.save(observation);
+                if (++inserted[0] % BATCH_SIZE == 0) {
+                    s.flush();
+                    s.clear();
+                }
+            });
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            H2Configuration.returnSession(s);
+        }
+    }
+
+    private FormatEntity format(Session s, String format) {
+        FormatEntity entity = new FormatEntity();
+        entity.setFormat(format);
+        s.save(entity);
+        return entity;
+    }
+}
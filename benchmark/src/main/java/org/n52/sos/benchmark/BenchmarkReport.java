@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the JSON results of a benchmark run ({@code java -jar benchmarks.jar -rf json -rff current.json}) with
+ * the results of a baseline run and reports the benchmarks whose score changed by more than the threshold and more
+ * than the combined score error.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar org.n52.sos.benchmark.BenchmarkReport baseline.json current.json
+ * [threshold in percent]}. The exit status is {@code 1} if a regression was detected.
+ *
+ * @since 6.1.2
+ */
+public final class BenchmarkReport {
+
+    static final double DEFAULT_THRESHOLD = 10.0;
+
+    private static final String THROUGHPUT = "thrpt";
+
+    private static final String ROW = "%-100s %14s %14s %10s  %s%n";
+
+    private static final int PERCENT = 100;
+
+    private final Map<String, Result> baseline;
+
+    private final Map<String, Result> current;
+
+    private final double threshold;
+
+    BenchmarkReport(Map<String, Result> baseline, Map<String, Result> current, double threshold) {
+        this.baseline = baseline;
+        this.current = current;
+        this.threshold = threshold;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BenchmarkReport <baseline.json> <current.json> [threshold in percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Result> baseline;
+        Map<String, Result> current;
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            baseline = read(in);
+        }
+        try (InputStream in = Files.newInputStream(Paths.get(args[1]))) {
+            current = read(in);
+        }
+        BenchmarkReport report = new BenchmarkReport(baseline, current, threshold);
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8.name());
+        report.print(out);
+        if (report.hasRegressions()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read the results of a JMH run in JSON format.
+     *
+     * @param in
+     *            the JSON results
+     * @return the results by benchmark name and parameters
+     * @throws IOException
+     *             if the results can not be read
+     */
+    static Map<String, Result> read(InputStream in) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(in)) {
+            JsonNode metric = node.path("primaryMetric");
+            Result result = new Result(node.path("mode").asText(), metric.path("score").asDouble(),
+                    metric.path("scoreError").asDouble(0.0), metric.path("scoreUnit").asText());
+            results.put(getKey(node), result);
+        }
+        return results;
+    }
+
+    private static String getKey(JsonNode node) {
+        StringBuilder key = new StringBuilder(node.path("benchmark").asText());
+        JsonNode params = node.path("params");
+        if (params.size() > 0) {
+            Map<String, String> sorted = new TreeMap<>();
+            Iterator<Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Entry<String, JsonNode> field = fields.next();
+                sorted.put(field.getKey(), field.getValue().asText());
+            }
+            key.append(sorted);
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the comparison of each benchmark of the baseline or the current run
+     */
+    List<Comparison> compare() {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Entry<String, Result> entry : current.entrySet()) {
+            comparisons.add(new Comparison(entry.getKey(), baseline.get(entry.getKey()), entry.getValue()));
+        }
+        for (Entry<String, Result> entry : baseline.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                comparisons.add(new Comparison(entry.getKey(), entry.getValue(), null));
+            }
+        }
+        return comparisons;
+    }
+
+    boolean hasRegressions() {
+        return compare().stream().anyMatch(c -> c.getStatus(threshold) == Status.REGRESSION);
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, ROW, "Benchmark", "Baseline", "Current", "Change", "Status");
+        for (Comparison comparison : compare()) {
+            out.printf(Locale.ROOT, ROW, comparison.getName(), format(comparison.getBaseline()),
+                    format(comparison.getCurrent()),
+                    comparison.isComparable() ? String.format(Locale.ROOT, "%+.2f%%", comparison.getChange()) : "",
+                    comparison.getStatus(threshold));
+        }
+    }
+
+    private static String format(Result result) {
+        return result == null ? "-" : String.format(Locale.ROOT, "%.3f", result.getScore());
+    }
+
+    enum Status {
+        IMPROVEMENT, UNCHANGED, REGRESSION, NEW, MISSING
+    }
+
+    static final class Result {
+
+        private final String mode;
+
+        private final double score;
+
+        private final double error;
+
+        private final String unit;
+
+        Result(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = Double.isNaN(error) ? 0.0 : error;
+            this.unit = unit;
+        }
+
+        String getMode() {
+            return mode;
+        }
+
+        double getScore() {
+            return score;
+        }
+
+        double getError() {
+            return error;
+        }
+
+        String getUnit() {
+            return unit;
+        }
+    }
+
+    static final class Comparison {
+
+        private final String name;
+
+        private final Result baseline;
+
+        private final Result current;
+
+        Comparison(String name, Result baseline, Result current) {
+            this.name = name;
+            this.baseline = baseline;
+            this.current = current;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Result getBaseline() {
+            return baseline;
+        }
+
+        Result getCurrent() {
+            return current;
+        }
+
+        boolean isComparable() {
+            return baseline != null && current != null && baseline.getScore() != 0.0
+                    && baseline.getMode().equals(current.getMode()) && baseline.getUnit().equals(current.getUnit());
+        }
+
+        /**
+         * @return the change of the score relative to the baseline in percent
+         */
+        double getChange() {
+            return (current.getScore() - baseline.getScore()) / baseline.getScore() * PERCENT;
+        }
+
+        Status getStatus(double threshold) {
+            if (baseline == null) {
+                return Status.NEW;
+            }
+            if (current == null) {
+                return Status.MISSING;
+            }
+            if (!isComparable()) {
+                return Status.UNCHANGED;
+            }
+            double change = getChange();
+            boolean significant = Math.abs(current.getScore() - baseline.getScore()) > baseline.getError()
+                    + current.getError();
+            if (!significant || Math.abs(change) <= threshold) {
+                return Status.UNCHANGED;
+            }
+            // a higher score is better for throughput, a lower score for the time based modes
+            boolean better = THROUGHPUT.equals(current.getMode()) ? change > 0 : change < 0;
+            return better ? Status.IMPROVEMENT : Status.REGRESSION;
+        }
+    }
+}
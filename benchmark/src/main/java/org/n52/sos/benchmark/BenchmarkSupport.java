@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.n52.iceland.binding.BindingRepository;
+import org.n52.shetland.ogc.swe.SweConstants;
+import org.n52.sos.ds.observation.ObservationHelper;
+import org.n52.sos.util.GeometryHandler;
+import org.n52.sos.util.SosHelper;
+import org.n52.svalbard.decode.DecoderRepository;
+import org.n52.svalbard.util.SweHelper;
+
+/**
+ * Creates the helpers used by the benchmarked components, configured like in the hibernate DAO tests.
+ *
+ * @since 6.1.2
+ */
+public final class BenchmarkSupport {
+
+    private static final int EPSG_WGS84 = 4326;
+
+    private BenchmarkSupport() {
+    }
+
+    public static SweHelper createSweHelper() {
+        SweHelper helper = new SweHelper();
+        helper.setDecimalSeparator(".");
+        helper.setTokenSeparator(",");
+        helper.setTupleSeparator("#");
+        helper.setNorthingNames(SweConstants.SweCoordinateNames.LATITUDE);
+        helper.setEastingNames(SweConstants.SweCoordinateNames.LONGITUDE);
+        return helper;
+    }
+
+    public static GeometryHandler createGeometryHandler() {
+        GeometryHandler geometryHandler = new GeometryHandler();
+        geometryHandler.setAuthority("EPSG");
+        geometryHandler.setStorageEpsg(EPSG_WGS84);
+        geometryHandler.setSpatialDatasource(true);
+        geometryHandler.init();
+        return geometryHandler;
+    }
+
+    public static ObservationHelper createObservationHelper() {
+        DecoderRepository decoderRepository = new DecoderRepository();
+        decoderRepository.setDecoders(Collections.emptyList());
+        decoderRepository.init();
+        BindingRepository bindingRepository = new BindingRepository();
+        bindingRepository.setComponentFactories(Optional.empty());
+        bindingRepository.setComponents(Optional.empty());
+        bindingRepository.init();
+        SosHelper sosHelper = new SosHelper();
+        sosHelper.setServiceURL(URI.create("http://localhost/52n-sos-webapp/service"));
+        ObservationHelper observationHelper = new ObservationHelper();
+        observationHelper.setDecoderRepository(decoderRepository);
+        observationHelper.setBindingRepository(bindingRepository);
+        observationHelper.setGeometryHandler(createGeometryHandler());
+        observationHelper.setSosHelper(sosHelper);
+        observationHelper.setSweHelper(createSweHelper());
+        observationHelper.init();
+        return observationHelper;
+    }
+}
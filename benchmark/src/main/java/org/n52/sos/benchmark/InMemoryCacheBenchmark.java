@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.n52.sos.cache.InMemoryCacheImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link InMemoryCacheImpl} getters used by the capabilities and the request parameter checks.
+ *
+ * @since 6.1.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InMemoryCacheBenchmark {
+
+    private int cursor;
+
+    /**
+     * Shared cache filled with the identifiers of the synthetic data set.
+     */
+    @State(Scope.Benchmark)
+    public static class CacheState {
+
+        @Param("1000")
+        private int featureCount;
+
+        @Param("100")
+        private int sensorCount;
+
+        private final InMemoryCacheImpl cache = new InMemoryCacheImpl();
+
+        private BenchmarkDataSet dataSet;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            dataSet = new BenchmarkDataSet(featureCount, sensorCount, 1);
+            DateTime start = dataSet.getPhenomenonTime(0);
+            DateTime end = dataSet.getPhenomenonTime(1);
+            for (int sensorId = 0; sensorId < sensorCount; sensorId++) {
+                String offering = dataSet.getOffering(sensorId);
+                String procedure = dataSet.getProcedure(sensorId);
+                cache.addOffering(offering);
+                cache.addPublishedOffering(offering);
+                cache.addProcedure(procedure);
+                cache.addProcedureForOffering(offering, procedure);
+                cache.addOfferingForProcedure(procedure, offering);
+                cache.addObservablePropertyForOffering(offering, dataSet.getObservableProperty());
+                cache.setMinPhenomenonTimeForOffering(offering, start);
+                cache.setMaxPhenomenonTimeForOffering(offering, end);
+                for (int featureId = 0; featureId < featureCount; featureId++) {
+                    cache.addFeatureOfInterestForOffering(offering, dataSet.getFeature(featureId));
+                }
+            }
+        }
+    }
+
+    private int next(CacheState state) {
+        cursor = (cursor + 1) % state.sensorCount;
+        return cursor;
+    }
+
+    @Benchmark
+    public Set<String> getOfferingsForProcedure(CacheState state) {
+        return state.cache.getOfferingsForProcedure(state.dataSet.getProcedure(next(state)));
+    }
+
+    @Benchmark
+    public Set<String> getProceduresForOffering(CacheState state) {
+        return state.cache.getProceduresForOffering(state.dataSet.getOffering(next(state)));
+    }
+
+    @Benchmark
+    public Set<String> getObservablePropertiesForOffering(CacheState state) {
+        return state.cache.getObservablePropertiesForOffering(state.dataSet.getOffering(next(state)));
+    }
+
+    @Benchmark
+    public Set<String> getFeaturesOfInterestForOffering(CacheState state) {
+        return state.cache.getFeaturesOfInterestForOffering(state.dataSet.getOffering(next(state)));
+    }
+
+    @Benchmark
+    public DateTime getMaxPhenomenonTimeForOffering(CacheState state) {
+        return state.cache.getMaxPhenomenonTimeForOffering(state.dataSet.getOffering(next(state)));
+    }
+
+    @Benchmark
+    public Set<String> getPublishedOfferings(CacheState state) {
+        return state.cache.getPublishedOfferings();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Set<String> getOfferingsForProcedureConcurrent(CacheState state) {
+        return state.cache.getOfferingsForProcedure(state.dataSet.getProcedure(next(state)));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.om.MultiObservationValues;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.shetland.ogc.om.values.SweDataArrayValue;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.SosProcedureDescriptionUnknownType;
+import org.n52.shetland.ogc.swe.SweDataArray;
+import org.n52.shetland.ogc.swe.SweDataRecord;
+import org.n52.shetland.ogc.swe.SweField;
+import org.n52.shetland.ogc.swe.encoding.SweTextEncoding;
+import org.n52.shetland.ogc.swe.simpleType.SweQuantity;
+import org.n52.shetland.ogc.swe.simpleType.SweTime;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.sos.ds.hibernate.util.observation.ObservationUnfolder;
+import org.n52.sos.util.GeometryHandler;
+import org.n52.svalbard.util.SweHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the unfolding of a SWE array observation, as inserted by InsertResult or InsertObservation with the
+ * SplitDataArrayIntoObservations extension, into single observations by the {@link ObservationUnfolder}.
+ *
+ * @since 6.1.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObservationUnfolderBenchmark {
+
+    private static final int TRAJECTORY_DETECTION_TIME_GAP = 0;
+
+    @Param("1000")
+    private int observationCount;
+
+    private OmObservation observation;
+
+    private SweHelper sweHelper;
+
+    private GeometryHandler geometryHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataSet dataSet = new BenchmarkDataSet(1, 1, observationCount);
+        sweHelper = BenchmarkSupport.createSweHelper();
+        geometryHandler = BenchmarkSupport.createGeometryHandler();
+
+        SweTime phenomenonTime = new SweTime();
+        phenomenonTime.setDefinition(OmConstants.PHENOMENON_TIME);
+        phenomenonTime.setUom(OmConstants.PHEN_UOM_ISO8601);
+        SweQuantity quantity = new SweQuantity();
+        quantity.setDefinition(dataSet.getObservableProperty());
+        quantity.setUom(dataSet.getUnit());
+        SweDataRecord elementType = new SweDataRecord();
+        elementType.addField(new SweField("phenomenonTime", phenomenonTime));
+        elementType.addField(new SweField("value", quantity));
+
+        SweDataArray dataArray = new SweDataArray();
+        dataArray.setElementType(elementType);
+        dataArray.setEncoding(new SweTextEncoding());
+        dataSet.forEachObservation((featureId, sensorId, time, value) -> dataArray
+                .add(Arrays.asList(DateTimeHelper.formatDateTime2IsoString(time), Double.toString(value))));
+
+        SweDataArrayValue arrayValue = new SweDataArrayValue();
+        arrayValue.setUnit(dataSet.getUnit());
+        arrayValue.setValue(dataArray);
+        MultiObservationValues<SweDataArray> values = new MultiObservationValues<>();
+        values.setValue(arrayValue);
+
+        OmObservationConstellation constellation = new OmObservationConstellation();
+        constellation.setProcedure(new SosProcedureDescriptionUnknownType(dataSet.getProcedure(0)));
+        constellation.setObservableProperty(new OmObservableProperty(dataSet.getObservableProperty()));
+        constellation.setFeatureOfInterest(new SamplingFeature(new CodeWithAuthority(dataSet.getFeature(0))));
+        constellation.setObservationType(OmConstants.OBS_TYPE_SWE_ARRAY_OBSERVATION);
+        constellation.addOffering(dataSet.getOffering(0));
+
+        observation = new OmObservation();
+        observation.setObservationConstellation(constellation);
+        observation.setValue(values);
+    }
+
+    @Benchmark
+    public List<OmObservation> unfold() throws OwsExceptionReport {
+        return new ObservationUnfolder(observation, sweHelper, geometryHandler, TRAJECTORY_DETECTION_TIME_GAP)
+                .unfold();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.SosResultEncoding;
+import org.n52.shetland.ogc.sos.SosResultStructure;
+import org.n52.shetland.ogc.swe.encoding.SweTextEncoding;
+import org.n52.sos.ds.utils.ResultHandlingHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the creation of GetResult values by the {@link ResultHandlingHelper} from the observations of an
+ * offering in the H2 in-memory database.
+ *
+ * @since 6.1.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultHandlingHelperBenchmark {
+
+    private static final String NO_DATA_PLACEHOLDER = "noData";
+
+    private ResultHandlingHelper helper;
+
+    private SosResultEncoding encoding;
+
+    private SosResultStructure structure;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) throws OwsExceptionReport {
+        helper = new ResultHandlingHelper(BenchmarkSupport.createObservationHelper());
+        SweTextEncoding textEncoding = new SweTextEncoding();
+        textEncoding.setTokenSeparator(",");
+        textEncoding.setBlockSeparator("#");
+        textEncoding.setDecimalSeparator(".");
+        encoding = new SosResultEncoding(textEncoding);
+        structure = new SosResultStructure(
+                helper.createDataRecordForResultTemplate(database.getObservations().get(0), true, true));
+    }
+
+    @Benchmark
+    public String createResultValues(BenchmarkDatabase database) throws OwsExceptionReport {
+        return helper.createResultValuesFromObservations(database.getObservations(), encoding, structure,
+                NO_DATA_PLACEHOLDER, database.getSession());
+    }
+}
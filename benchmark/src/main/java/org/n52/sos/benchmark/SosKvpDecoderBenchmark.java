@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.sos.decode.kvp.AbstractSosKvpDecoder;
+import org.n52.sos.decode.kvp.v2.GetObservationKvpDecoderv20;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the decoding of GetObservation KVP requests by the {@link AbstractSosKvpDecoder} implementation.
+ *
+ * @since 6.1.2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SosKvpDecoderBenchmark {
+
+    private static final String TEMPORAL_FILTER = "om:phenomenonTime,1970-01-01T00:00:00Z/1970-01-02T00:00:00Z";
+
+    private static final String SPATIAL_FILTER =
+            "om:featureOfInterest/*/sams:shape,-90.0,-180.0,90.0,180.0,http://www.opengis.net/def/crs/EPSG/0/4326";
+
+    @Param("100")
+    private int featureCount;
+
+    private final GetObservationKvpDecoderv20 decoder = new GetObservationKvpDecoderv20();
+
+    private Map<String, String> simpleRequest;
+
+    private Map<String, String> filterRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataSet dataSet = new BenchmarkDataSet(featureCount, 1, 1);
+        simpleRequest = createDefaultMap();
+        simpleRequest.put(SosConstants.GetObservationParams.offering.name(), dataSet.getOffering(0));
+        simpleRequest.put(SosConstants.GetObservationParams.procedure.name(), dataSet.getProcedure(0));
+        simpleRequest.put(SosConstants.GetObservationParams.observedProperty.name(),
+                dataSet.getObservableProperty());
+
+        filterRequest = new HashMap<>(simpleRequest);
+        StringJoiner features = new StringJoiner(",");
+        for (int featureId = 0; featureId < featureCount; featureId++) {
+            features.add(dataSet.getFeature(featureId));
+        }
+        filterRequest.put(SosConstants.GetObservationParams.featureOfInterest.name(), features.toString());
+        filterRequest.put(Sos2Constants.GetObservationParams.temporalFilter.name(), TEMPORAL_FILTER);
+        filterRequest.put(Sos2Constants.GetObservationParams.spatialFilter.name(), SPATIAL_FILTER);
+    }
+
+    private Map<String, String> createDefaultMap() {
+        Map<String, String> map = new HashMap<>();
+        map.put("service", SosConstants.SOS);
+        map.put("version", Sos2Constants.SERVICEVERSION);
+        map.put("request", SosConstants.Operations.GetObservation.name());
+        return map;
+    }
+
+    @Benchmark
+    public GetObservationRequest decodeGetObservation() throws DecodingException {
+        return decoder.decode(simpleRequest);
+    }
+
+    @Benchmark
+    public GetObservationRequest decodeGetObservationWithFilters() throws DecodingException {
+        return decoder.decode(filterRequest);
+    }
+}
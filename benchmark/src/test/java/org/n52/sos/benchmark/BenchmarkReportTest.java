@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+import org.n52.sos.benchmark.BenchmarkReport.Comparison;
+import org.n52.sos.benchmark.BenchmarkReport.Result;
+import org.n52.sos.benchmark.BenchmarkReport.Status;
+
+public class BenchmarkReportTest {
+
+    private static final String BENCHMARK = "org.n52.sos.benchmark.InMemoryCacheBenchmark.getOfferingsForProcedure";
+
+    private static Map<String, Result> read(String json) throws IOException {
+        return BenchmarkReport.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String result(String benchmark, String mode, double score, double error) {
+        return String.format(Locale.ROOT,
+                "{\"benchmark\":\"%s\",\"mode\":\"%s\",\"params\":{\"sensorCount\":\"100\",\"featureCount\":\"10\"},"
+                        + "\"primaryMetric\":{\"score\":%f,\"scoreError\":%f,\"scoreUnit\":\"ns/op\"}}",
+                benchmark, mode, score, error);
+    }
+
+    private static Status status(String baseline, String current) throws IOException {
+        BenchmarkReport report =
+                new BenchmarkReport(read(baseline), read(current), BenchmarkReport.DEFAULT_THRESHOLD);
+        return report.compare().get(0).getStatus(BenchmarkReport.DEFAULT_THRESHOLD);
+    }
+
+    @Test
+    public void shouldDetectRegressionOfAverageTime() throws IOException {
+        assertThat(status("[" + result(BENCHMARK, "avgt", 100, 1) + "]", "[" + result(BENCHMARK, "avgt", 120, 1) + "]"),
+                is(Status.REGRESSION));
+        assertThat(status("[" + result(BENCHMARK, "avgt", 100, 1) + "]", "[" + result(BENCHMARK, "avgt", 80, 1) + "]"),
+                is(Status.IMPROVEMENT));
+    }
+
+    @Test
+    public void shouldDetectRegressionOfThroughput() throws IOException {
+        assertThat(status("[" + result(BENCHMARK, "thrpt", 100, 1) + "]",
+                "[" + result(BENCHMARK, "thrpt", 80, 1) + "]"), is(Status.REGRESSION));
+    }
+
+    @Test
+    public void shouldIgnoreChangesWithinThresholdOrError() throws IOException {
+        assertThat(status("[" + result(BENCHMARK, "avgt", 100, 1) + "]", "[" + result(BENCHMARK, "avgt", 105, 1) + "]"),
+                is(Status.UNCHANGED));
+        assertThat(status("[" + result(BENCHMARK, "avgt", 100, 15) + "]",
+                "[" + result(BENCHMARK, "avgt", 120, 15) + "]"), is(Status.UNCHANGED));
+    }
+
+    @Test
+    public void shouldMatchBenchmarksByNameAndParameters() throws IOException {
+        BenchmarkReport report = new BenchmarkReport(read("[" + result(BENCHMARK, "avgt", 100, 1) + "]"),
+                read("[" + result(BENCHMARK, "avgt", 300, 1) + "," + result(BENCHMARK + "2", "avgt", 1, 0) + "]"),
+                BenchmarkReport.DEFAULT_THRESHOLD);
+        assertThat(report.compare().size(), is(2));
+        Comparison comparison = report.compare().get(0);
+        assertThat(comparison.getChange(), is(200.0));
+        assertThat(report.compare().get(1).getStatus(BenchmarkReport.DEFAULT_THRESHOLD), is(Status.NEW));
+        assertThat(report.hasRegressions(), is(true));
+    }
+}
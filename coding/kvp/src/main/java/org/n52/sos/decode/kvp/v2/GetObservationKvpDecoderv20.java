@@ -42,6 +42,8 @@ import org.n52.shetland.ogc.sos.request.GetObservationRequest;
 import org.n52.shetland.ogc.swe.SweAbstractDataComponent;
 import org.n52.shetland.ogc.swe.simpleType.SweText;
 import org.n52.shetland.ogc.swes.SwesExtension;
+import org.n52.sos.request.ObservationAggregation;
+import org.n52.sos.request.ObservationDownsampling;
 import org.n52.svalbard.decode.Decoder;
 import org.n52.svalbard.decode.DecoderKey;
 import org.n52.svalbard.decode.DecoderRepository;
@@ -140,6 +142,9 @@ public class GetObservationKvpDecoderv20 extends AbstractObservationKvpDecoder<G
                 decodeNamespaces(GetObservationRequest::setNamespaces));
         builder.add(SosConstants.GetObservationParams.responseFormat, GetObservationRequest::setResponseFormat);
         builder.add(Sos2Constants.Extensions.MergeObservationsIntoDataArray, this::parseMergeObservationIntoDataArray);
+        builder.add(ObservationAggregation.AGGREGATION, GetObservationRequest::addSweTextExtension);
+        builder.add(ObservationAggregation.AGGREGATION_INTERVAL, GetObservationRequest::addSweTextExtension);
+        builder.add(ObservationDownsampling.DOWNSAMPLING, GetObservationRequest::addSweTextExtension);
         builder.add("extension", decodeList(this::parseExtensionParameter));
         builder.add("$filter", this::parseODataFes);
 
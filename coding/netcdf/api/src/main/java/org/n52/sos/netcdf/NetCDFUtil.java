@@ -36,12 +36,15 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.Point;
 import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
 import org.n52.shetland.ogc.gml.time.TimePeriod;
 import org.n52.shetland.ogc.om.AbstractPhenomenon;
 import org.n52.shetland.ogc.om.NamedValue;
@@ -59,6 +62,7 @@ import org.n52.shetland.ogc.om.values.GeometryValue;
 import org.n52.shetland.ogc.om.values.QuantityValue;
 import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.netcdf.data.SensorDataValues;
 import org.n52.sos.netcdf.data.dataset.IdentifierDatasetSensor;
 import org.n52.sos.netcdf.data.dataset.TimeSeriesProfileSensorDataset;
 import org.n52.sos.netcdf.data.dataset.TimeSeriesSensorDataset;
@@ -104,9 +108,9 @@ public interface NetCDFUtil {
      */
     default List<NetCDFObservation> createNetCDFSosObservations(ObservationStream omObservations)
             throws EncodingException, OwsExceptionReport {
-        // the main map of observation value strings by asset, time, phenomenon,
-        // and subsensor (height, profile bin, etc)
-        Map<String, Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>>> obsValuesMap = new HashMap<>();
+        // the main map of observation values by asset, each holding the values
+        // in columns by phenomenon and subsensor (height, profile bin, etc)
+        Map<String, SensorDataValues> obsValuesMap = new HashMap<>();
 
         SetMultimap<String, OmObservableProperty> sensorPhens = HashMultimap.create();
         Map<String, AbstractFeature> sensorProcedure = Maps.newHashMap();
@@ -172,12 +176,11 @@ public interface NetCDFUtil {
         Envelope trajectoryEnvelope = new Envelope();
         Envelope trajectoryProfileEnvelope = new Envelope();
 
-        for (Map.Entry<String, Map<Time, Map<OmObservableProperty,
-                Map<SubSensor, Value<?>>>>> obsValuesEntry : obsValuesMap
-                .entrySet()) {
+        for (Map.Entry<String, SensorDataValues> obsValuesEntry : obsValuesMap.entrySet()) {
             IdentifierDatasetSensor datasetSensor = new IdentifierDatasetSensor(obsValuesEntry.getKey());
             String sensor = datasetSensor.getSensorIdentifier();
-            Set<Time> sensorTimes = obsValuesEntry.getValue().keySet();
+            SensorDataValues sensorDataValues = obsValuesEntry.getValue().compact();
+            Set<Time> sensorTimes = getSamplingTimeExtent(sensorDataValues);
 
             int lngCount = sensorLngs.get(sensor).size();
             int latCount = sensorLats.get(sensor).size();
@@ -233,7 +236,7 @@ public interface NetCDFUtil {
                 // time series
                 timeSeriesSamplingTimePeriod.extendToContain(sensorTimes);
                 timeSeriesSensorDatasets.put(sensor, new TimeSeriesSensorDataset(datasetSensor, staticLng, staticLat,
-                        staticHeight, obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
+                        staticHeight, sensorDataValues, sensorProcedure.get(sensor)));
                 timeSeriesPhenomena.addAll(sensorPhens.get(sensor));
                 if (staticLng != null && staticLat != null) {
                     timeSeriesEnvelope.expandToInclude(staticLng, staticLat);
@@ -242,7 +245,7 @@ public interface NetCDFUtil {
                 // time series profile
                 timeSeriesProfileSamplingTimePeriod.extendToContain(sensorTimes);
                 timeSeriesProfileSensorDatasets.put(sensor, new TimeSeriesProfileSensorDataset(datasetSensor,
-                        staticLng, staticLat, obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
+                        staticLng, staticLat, sensorDataValues, sensorProcedure.get(sensor)));
                 timeSeriesProfilePhenomena.addAll(sensorPhens.get(sensor));
                 if (staticLng != null && staticLat != null) {
                     timeSeriesProfileEnvelope.expandToInclude(staticLng, staticLat);
@@ -251,14 +254,14 @@ public interface NetCDFUtil {
                 // trajectory
                 trajectorySamplingTimePeriod.extendToContain(sensorTimes);
                 trajectorySensorDatasets.put(sensor, new TrajectorySensorDataset(datasetSensor, staticHeight,
-                        obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
+                        sensorDataValues, sensorProcedure.get(sensor)));
                 trajectoryPhenomena.addAll(sensorPhens.get(sensor));
                 expandEnvelopeToInclude(trajectoryEnvelope, sensorLngs.get(sensor), sensorLats.get(sensor));
             } else if (locationVaries && heightVaries) {
                 // trajectory profile
                 trajectoryProfileSamplingTimePeriod.extendToContain(sensorTimes);
                 trajectoryProfileSensorDatasets.put(sensor, new TrajectoryProfileSensorDataset(datasetSensor,
-                        obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
+                        sensorDataValues, sensorProcedure.get(sensor)));
                 trajectoryProfilePhenomena.addAll(sensorPhens.get(sensor));
                 expandEnvelopeToInclude(trajectoryProfileEnvelope, sensorLngs.get(sensor), sensorLats.get(sensor));
             }
@@ -300,8 +303,7 @@ public interface NetCDFUtil {
     default void processObservation(OmObservation sosObs, SetMultimap<String, OmObservableProperty> sensorPhens,
             Map<String, AbstractFeature> sensorProcedure, SetMultimap<String, Double> sensorLngs,
             SetMultimap<String, Double> sensorLats, SetMultimap<String, Double> sensorHeights,
-            Map<String, Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>>> obsValuesMap)
-            throws EncodingException {
+            Map<String, SensorDataValues> obsValuesMap) throws EncodingException {
 
         OmObservationConstellation obsConst = sosObs.getObservationConstellation();
 
@@ -361,6 +363,9 @@ public interface NetCDFUtil {
         }
         SingleObservationValue<?> singleObsValue = (SingleObservationValue<?>) iObsValue;
         Time obsTime = singleObsValue.getPhenomenonTime();
+        if (!(obsTime instanceof TimeInstant) || !((TimeInstant) obsTime).isSetValue()) {
+            throw new EncodingException("Only TimeInstants are supported.");
+        }
 
         // TODO Quality
 
@@ -369,6 +374,9 @@ public interface NetCDFUtil {
             throw new EncodingException("Only QuantityValues are supported.");
         }
         QuantityValue quantityValue = (QuantityValue) obsValue;
+        if (!quantityValue.isSetValue()) {
+            throw new EncodingException("Only QuantityValues with a value are supported.");
+        }
 
         // axes shouldn't be composite phenomena
         if (phenomena.size() == 1) {
@@ -414,33 +422,30 @@ public interface NetCDFUtil {
             }
         }
 
-        // get the sensor's data map
-        Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> sensorObsMap = obsValuesMap.get(sensor);
-        if (sensorObsMap == null) {
-            sensorObsMap = new HashMap<>();
-            obsValuesMap.put(sensor, sensorObsMap);
-        }
-
-        // get the map of the asset's phenomena by time
-        Map<OmObservableProperty, Map<SubSensor, Value<?>>> obsPropMap = sensorObsMap.get(obsTime);
-        if (obsPropMap == null) {
-            obsPropMap = new HashMap<>();
-            sensorObsMap.put(obsTime, obsPropMap);
-        }
+        // get the sensor's data values
+        SensorDataValues sensorDataValues = obsValuesMap.computeIfAbsent(sensor, s -> new SensorDataValues());
 
+        // add obs value to the phenomenon and subsensor column (null
+        // subsensors are ok)
         OmObservableProperty phen = phenomenaMap.get(phenId);
-        Map<SubSensor, Value<?>> subSensorMap = obsPropMap.get(phen);
-        if (subSensorMap == null) {
-            subSensorMap = new HashMap<>();
-            obsPropMap.put(phen, subSensorMap);
-        }
-
-        // add obs value to subsensor map (null subsensors are ok)
+        SubSensor subSensor;
         if (sosObs.isSetParameter() && hasSamplingGeometry(sosObs)) {
-            subSensorMap.put(createSubSensor(sensor, getSamplingGeometryGeometry(sosObs)), obsValue);
+            subSensor = createSubSensor(sensor, getSamplingGeometryGeometry(sosObs));
         } else {
-            subSensorMap.put(createSubSensor(sensor, foi), obsValue);
+            subSensor = createSubSensor(sensor, foi);
+        }
+        sensorDataValues.add(((TimeInstant) obsTime).getValue().getMillis(), phen, subSensor,
+                quantityValue.getValue().doubleValue());
+    }
+
+    default Set<Time> getSamplingTimeExtent(SensorDataValues sensorDataValues) {
+        Set<Time> times = new HashSet<>();
+        if (!sensorDataValues.isEmpty()) {
+            long[] sensorTimes = sensorDataValues.getTimes();
+            times.add(new TimeInstant(new DateTime(sensorTimes[0], DateTimeZone.UTC)));
+            times.add(new TimeInstant(new DateTime(sensorTimes[sensorTimes.length - 1], DateTimeZone.UTC)));
         }
+        return times;
     }
 
     default void expandEnvelopeToInclude(Envelope env, Set<Double> lngs, Set<Double> lats) {
@@ -29,12 +29,16 @@ package org.n52.sos.netcdf;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.naming.ConfigurationException;
 
 import org.n52.faroe.ConfigurationError;
 import org.n52.faroe.annotation.Configurable;
 import org.n52.faroe.annotation.Setting;
+import org.n52.janmayen.GroupedAndNamedThreadFactory;
+import org.n52.janmayen.lifecycle.Destroyable;
 import org.n52.shetland.iso.CodeList.CiRoleCodes;
 
 import com.axiomalaska.cf4j.CFStandardName;
@@ -54,7 +58,7 @@ import ucar.nc2.NetcdfFileWriter.Version;
  */
 @Configurable
 @SuppressFBWarnings({"EI_EXPOSE_REP"})
-public class NetcdfHelper {
+public class NetcdfHelper implements Destroyable {
 
     private Version version;
 
@@ -78,6 +82,8 @@ public class NetcdfHelper {
 
     private Set<String> z = Collections.emptySet();
 
+    private ExecutorService encodingExecutor;
+
     /**
      * @param version
      *
@@ -283,4 +289,36 @@ public class NetcdfHelper {
         }
     }
 
+    /**
+     * @param threads
+     *            the number of threads to encode netCDF-3 files concurrently, {@code 1} encodes the files one after
+     *            the other
+     */
+    @Setting(NetcdfSettingsProvider.NETCDF_ENCODING_THREADS)
+    public synchronized void setEncodingThreads(int threads) {
+        ExecutorService previous = this.encodingExecutor;
+        this.encodingExecutor = threads > 1
+                ? Executors.newFixedThreadPool(threads, new GroupedAndNamedThreadFactory("netcdf-encoding"))
+                : null;
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * @return the executor to encode netCDF-3 files concurrently or <code>null</code> if the files are encoded one
+     *         after the other
+     */
+    public synchronized ExecutorService getEncodingExecutor() {
+        return encodingExecutor;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (this.encodingExecutor != null) {
+            this.encodingExecutor.shutdown();
+            this.encodingExecutor = null;
+        }
+    }
+
 }
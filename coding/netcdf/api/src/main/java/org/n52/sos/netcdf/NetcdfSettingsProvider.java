@@ -58,4 +58,6 @@ public interface NetcdfSettingsProvider {
 
     String NETCDF_PHEN_Z = "netcdf.phenomenon.z";
 
+    String NETCDF_ENCODING_THREADS = "netcdf.encoding.threads";
+
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.netcdf.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.sos.netcdf.data.subsensor.SubSensor;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Columnar, primitive backed container for the values of a sensor dataset.
+ *
+ * Values are collected as (time, phenomenon, subsensor, value) tuples in primitive arrays. When the collection is
+ * {@link #compact() compacted}, the distinct times are sorted into a <code>long[]</code> time axis and the values are
+ * stored per phenomenon and subsensor in a <code>double[]</code> aligned to the time axis, together with a mask of
+ * the times a value exists for. Later values for the same time, phenomenon and subsensor replace earlier ones.
+ *
+ * @since 6.1.2
+ *
+ */
+@SuppressFBWarnings({"EI_EXPOSE_REP"})
+public class SensorDataValues {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<OmObservableProperty, Map<SubSensor, Integer>> columnIndex = new HashMap<>();
+
+    private final List<Column> columns = new ArrayList<>();
+
+    private long[] times = new long[INITIAL_CAPACITY];
+
+    private int[] valueColumns = new int[INITIAL_CAPACITY];
+
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    private int size;
+
+    private long[] timeAxis;
+
+    private List<OmObservableProperty> phenomena;
+
+    private List<SubSensor> subSensors;
+
+    /**
+     * Add a value
+     *
+     * @param time
+     *            the time in milliseconds since epoch
+     * @param phenomenon
+     *            the phenomenon
+     * @param subSensor
+     *            the subsensor, may be <code>null</code>
+     * @param value
+     *            the value
+     * @throws IllegalStateException
+     *             if the values are already compacted
+     */
+    public void add(long time, OmObservableProperty phenomenon, SubSensor subSensor, double value) {
+        if (isCompacted()) {
+            throw new IllegalStateException("Values are already compacted!");
+        }
+        if (size == times.length) {
+            int capacity = size + (size >> 1);
+            times = Arrays.copyOf(times, capacity);
+            valueColumns = Arrays.copyOf(valueColumns, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        times[size] = time;
+        valueColumns[size] = getColumnIndex(phenomenon, subSensor);
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Build the time axis and the value columns from the added values. Further calls have no effect.
+     *
+     * @return this
+     */
+    public SensorDataValues compact() {
+        if (isCompacted()) {
+            return this;
+        }
+        long[] sorted = Arrays.copyOf(times, size);
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        long[] axis = Arrays.copyOf(sorted, count);
+        for (Column column : columns) {
+            column.values = new double[count];
+            column.mask = new BitSet(count);
+        }
+        for (int i = 0; i < size; i++) {
+            int index = Arrays.binarySearch(axis, times[i]);
+            Column column = columns.get(valueColumns[i]);
+            column.values[index] = values[i];
+            column.mask.set(index);
+        }
+        Set<OmObservableProperty> phenomenonSet = new TreeSet<>();
+        Set<SubSensor> subSensorSet = new TreeSet<>();
+        for (Column column : columns) {
+            phenomenonSet.add(column.getPhenomenon());
+            if (column.getSubSensor() != null) {
+                subSensorSet.add(column.getSubSensor());
+            }
+        }
+        this.phenomena = Collections.unmodifiableList(new ArrayList<>(phenomenonSet));
+        this.subSensors = Collections.unmodifiableList(new ArrayList<>(subSensorSet));
+        this.timeAxis = axis;
+        // release the collected values
+        this.times = null;
+        this.valueColumns = null;
+        this.values = null;
+        return this;
+    }
+
+    public boolean isCompacted() {
+        return timeAxis != null;
+    }
+
+    public boolean isEmpty() {
+        return isCompacted() ? timeAxis.length == 0 : size == 0;
+    }
+
+    /**
+     * @return the sorted, distinct times in milliseconds since epoch. The array must not be modified.
+     */
+    public long[] getTimes() {
+        checkCompacted();
+        return timeAxis;
+    }
+
+    public int getTimeCount() {
+        return getTimes().length;
+    }
+
+    public long getTime(int index) {
+        return getTimes()[index];
+    }
+
+    /**
+     * @return the sorted phenomena
+     */
+    public List<OmObservableProperty> getPhenomena() {
+        checkCompacted();
+        return phenomena;
+    }
+
+    /**
+     * @return the sorted subsensors, without <code>null</code>
+     */
+    public List<SubSensor> getSubSensors() {
+        checkCompacted();
+        return subSensors;
+    }
+
+    /**
+     * @return the value columns per phenomenon and subsensor
+     */
+    public List<Column> getColumns() {
+        checkCompacted();
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Get the column of the phenomenon and subsensor
+     *
+     * @param phenomenon
+     *            the phenomenon
+     * @param subSensor
+     *            the subsensor, may be <code>null</code>
+     * @return the column or <code>null</code> if no value exists
+     */
+    public Column getColumn(OmObservableProperty phenomenon, SubSensor subSensor) {
+        checkCompacted();
+        Map<SubSensor, Integer> subSensorColumns = columnIndex.get(phenomenon);
+        if (subSensorColumns != null && subSensorColumns.containsKey(subSensor)) {
+            return columns.get(subSensorColumns.get(subSensor));
+        }
+        return null;
+    }
+
+    private int getColumnIndex(OmObservableProperty phenomenon, SubSensor subSensor) {
+        Map<SubSensor, Integer> subSensorColumns = columnIndex.computeIfAbsent(phenomenon, p -> new HashMap<>());
+        Integer index = subSensorColumns.get(subSensor);
+        if (index == null) {
+            index = columns.size();
+            columns.add(new Column(phenomenon, subSensor));
+            subSensorColumns.put(subSensor, index);
+        }
+        return index;
+    }
+
+    private void checkCompacted() {
+        if (!isCompacted()) {
+            throw new IllegalStateException("Values are not compacted!");
+        }
+    }
+
+    /**
+     * The values of a phenomenon and subsensor aligned to the time axis.
+     */
+    @SuppressFBWarnings({"EI_EXPOSE_REP"})
+    public static class Column {
+
+        private final OmObservableProperty phenomenon;
+
+        private final SubSensor subSensor;
+
+        private double[] values;
+
+        private BitSet mask;
+
+        Column(OmObservableProperty phenomenon, SubSensor subSensor) {
+            this.phenomenon = phenomenon;
+            this.subSensor = subSensor;
+        }
+
+        public OmObservableProperty getPhenomenon() {
+            return phenomenon;
+        }
+
+        public SubSensor getSubSensor() {
+            return subSensor;
+        }
+
+        /**
+         * @return the values aligned to the time axis, only valid where {@link #hasValue(int)}. The array must not
+         *         be modified.
+         */
+        public double[] getValues() {
+            return values;
+        }
+
+        /**
+         * @return the mask of the time indices with a value. The mask must not be modified.
+         */
+        public BitSet getMask() {
+            return mask;
+        }
+
+        public boolean hasValue(int timeIndex) {
+            return mask.get(timeIndex);
+        }
+
+        public double getValue(int timeIndex) {
+            return values[timeIndex];
+        }
+    }
+}
@@ -27,23 +27,18 @@
  */
 package org.n52.sos.netcdf.data.dataset;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.n52.shetland.ogc.gml.AbstractFeature;
-import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.om.OmObservableProperty;
-import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.util.CollectionHelper;
+import org.n52.sos.netcdf.data.SensorDataValues;
 import org.n52.sos.netcdf.data.subsensor.SubSensor;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import ucar.nc2.constants.CF;
 
@@ -64,55 +59,16 @@ public abstract class AbstractSensorDataset implements Comparable<AbstractSensor
 
     private AbstractFeature procedure;
 
-    private List<OmObservableProperty> obsProps;
-
-    private List<Time> times;
-
-    private List<SubSensor> subSensors;
+    private SensorDataValues dataValues;
 
-    private Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> dataValues;
-
-    public AbstractSensorDataset(CF.FeatureType featureType, DatasetSensor sensor,
-            Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> dataValues, AbstractFeature procedure) {
+    public AbstractSensorDataset(CF.FeatureType featureType, DatasetSensor sensor, SensorDataValues dataValues,
+            AbstractFeature procedure) {
         this.featureType = featureType;
         this.sensor = sensor;
         this.procedure = procedure;
-        // make the sensorDataValues unmodifiable, since some data summaries
+        // compact the sensorDataValues, since some data summaries
         // will be made below and we don't want the data changing
-        this.dataValues = Collections.unmodifiableMap(dataValues);
-
-        // set times, phenomena, and subsensors
-        Set<Time> timeSet = Sets.newHashSet();
-        Set<OmObservableProperty> obsPropSet = Sets.newHashSet();
-        Set<SubSensor> subSensorSet = Sets.newHashSet();
-        for (Entry<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> dataValuesEntry : dataValues
-                .entrySet()) {
-            Time time = dataValuesEntry.getKey();
-            timeSet.add(time);
-            for (Map.Entry<OmObservableProperty, Map<SubSensor, Value<?>>> phenObsEntry : dataValuesEntry.getValue()
-                    .entrySet()) {
-                OmObservableProperty phen = phenObsEntry.getKey();
-                Set<SubSensor> phenSubSensors = phenObsEntry.getValue().keySet();
-                obsPropSet.add(phen);
-                for (SubSensor subSensor : phenSubSensors) {
-                    if (subSensor != null) {
-                        subSensorSet.add(subSensor);
-                    }
-                }
-            }
-        }
-
-        List<Time> timeList = Lists.newArrayList(timeSet);
-        Collections.sort(timeList);
-        times = Collections.unmodifiableList(timeList);
-
-        List<OmObservableProperty> obsPropList = Lists.newArrayList(obsPropSet);
-        Collections.sort(obsPropList);
-        obsProps = Collections.unmodifiableList(obsPropList);
-
-        List<SubSensor> subSensorList = Lists.newArrayList(subSensorSet);
-        Collections.sort(subSensorList);
-        subSensors = Collections.unmodifiableList(subSensorList);
+        this.dataValues = dataValues.compact();
     }
 
     public DatasetSensor getSensor() {
@@ -128,23 +84,31 @@ public abstract class AbstractSensorDataset implements Comparable<AbstractSensor
     }
 
     public List<OmObservableProperty> getPhenomena() {
-        return Collections.unmodifiableList(obsProps);
+        return dataValues.getPhenomena();
     }
 
     public List<SubSensor> getSubSensors() {
-        return Collections.unmodifiableList(subSensors);
+        return dataValues.getSubSensors();
     }
 
     public AbstractFeature getProcedureDescription() {
         return procedure;
     }
 
-    public List<Time> getTimes() {
-        return Collections.unmodifiableList(times);
+    public int getTimeCount() {
+        return dataValues.getTimeCount();
+    }
+
+    public DateTime getFirstTime() {
+        return new DateTime(dataValues.getTime(0), DateTimeZone.UTC);
+    }
+
+    public DateTime getLastTime() {
+        return new DateTime(dataValues.getTime(dataValues.getTimeCount() - 1), DateTimeZone.UTC);
     }
 
-    public Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> getDataValues() {
-        return Collections.unmodifiableMap(dataValues);
+    public SensorDataValues getDataValues() {
+        return dataValues;
     }
 
     public static Set<AbstractSensorDataset> getAbstractAssetDatasets(
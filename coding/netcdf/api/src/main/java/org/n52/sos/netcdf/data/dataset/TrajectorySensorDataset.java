@@ -27,13 +27,8 @@
  */
 package org.n52.sos.netcdf.data.dataset;
 
-import java.util.Map;
-
 import org.n52.shetland.ogc.gml.AbstractFeature;
-import org.n52.shetland.ogc.gml.time.Time;
-import org.n52.shetland.ogc.om.OmObservableProperty;
-import org.n52.shetland.ogc.om.values.Value;
-import org.n52.sos.netcdf.data.subsensor.SubSensor;
+import org.n52.sos.netcdf.data.SensorDataValues;
 
 import ucar.nc2.constants.CF;
 
@@ -50,7 +45,7 @@ public class TrajectorySensorDataset extends AbstractSensorDataset implements St
     private Double alt;
 
     public TrajectorySensorDataset(DatasetSensor sensor, Double alt,
-            Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> dataValues, AbstractFeature procedure) {
+            SensorDataValues dataValues, AbstractFeature procedure) {
         super(CF.FeatureType.trajectory, sensor, dataValues, procedure);
         this.alt = alt;
     }
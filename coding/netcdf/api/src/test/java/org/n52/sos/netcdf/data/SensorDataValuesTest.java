@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.netcdf.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.Test;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.sos.netcdf.data.subsensor.PointProfileSubSensor;
+import org.n52.sos.netcdf.data.subsensor.SubSensor;
+
+public class SensorDataValuesTest {
+
+    private final OmObservableProperty temperature = new OmObservableProperty("temperature");
+
+    private final OmObservableProperty salinity = new OmObservableProperty("salinity");
+
+    @Test
+    public void shouldSortAndMergeTimes() {
+        SensorDataValues values = new SensorDataValues();
+        values.add(3000L, temperature, null, 3.0);
+        values.add(1000L, temperature, null, 1.0);
+        values.add(1000L, salinity, null, 10.0);
+        values.add(2000L, salinity, null, 20.0);
+        values.compact();
+        assertThat(values.getTimeCount(), is(3));
+        assertThat(values.getTime(0), is(1000L));
+        assertThat(values.getTime(1), is(2000L));
+        assertThat(values.getTime(2), is(3000L));
+        assertThat(values.getPhenomena(), containsInAnyOrder(salinity, temperature));
+    }
+
+    @Test
+    public void shouldMaskMissingValues() {
+        SensorDataValues values = new SensorDataValues();
+        values.add(1000L, temperature, null, 1.0);
+        values.add(2000L, salinity, null, 20.0);
+        values.add(3000L, temperature, null, 3.0);
+        values.compact();
+        SensorDataValues.Column column = values.getColumn(temperature, null);
+        assertThat(column, is(notNullValue()));
+        assertThat(column.hasValue(0), is(true));
+        assertThat(column.getValue(0), is(1.0));
+        assertThat(column.hasValue(1), is(false));
+        assertThat(column.hasValue(2), is(true));
+        assertThat(column.getValue(2), is(3.0));
+    }
+
+    @Test
+    public void shouldKeepLastValueOfDuplicates() {
+        SensorDataValues values = new SensorDataValues();
+        values.add(1000L, temperature, null, 1.0);
+        values.add(1000L, temperature, null, 2.0);
+        values.compact();
+        assertThat(values.getTimeCount(), is(1));
+        assertThat(values.getColumn(temperature, null).getValue(0), is(2.0));
+    }
+
+    @Test
+    public void shouldSeparateSubSensors() {
+        SubSensor top = new PointProfileSubSensor(0.0);
+        SubSensor bottom = new PointProfileSubSensor(-10.0);
+        SensorDataValues values = new SensorDataValues();
+        values.add(1000L, temperature, bottom, 1.0);
+        values.add(1000L, temperature, top, 2.0);
+        values.compact();
+        assertThat(values.getSubSensors(), contains(top, bottom));
+        assertThat(values.getColumns().size(), is(2));
+        assertThat(values.getColumn(temperature, bottom).getValue(0), is(1.0));
+        assertThat(values.getColumn(temperature, top).getValue(0), is(2.0));
+        assertThat(values.getColumn(temperature, null), is(nullValue()));
+    }
+
+    @Test
+    public void shouldGrowBeyondInitialCapacity() {
+        SensorDataValues values = new SensorDataValues();
+        for (int i = 5000; i > 0; i--) {
+            values.add(i, temperature, null, i);
+        }
+        values.compact();
+        assertThat(values.getTimeCount(), is(5000));
+        assertThat(values.getTime(0), is(1L));
+        assertThat(values.getColumn(temperature, null).getValue(4999), is(5000.0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAddAfterCompaction() {
+        SensorDataValues values = new SensorDataValues();
+        values.add(1000L, temperature, null, 1.0);
+        values.compact();
+        values.add(2000L, temperature, null, 2.0);
+    }
+
+}
@@ -30,6 +30,8 @@ package org.n52.sos.encode;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -40,6 +42,9 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
@@ -58,7 +63,6 @@ import org.n52.shetland.ogc.gml.time.TimeInstant;
 import org.n52.shetland.ogc.om.ObservationStream;
 import org.n52.shetland.ogc.om.OmConstants;
 import org.n52.shetland.ogc.om.OmObservableProperty;
-import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.ogc.ows.OwsAddress;
 import org.n52.shetland.ogc.ows.OwsContact;
 import org.n52.shetland.ogc.ows.OwsOnlineResource;
@@ -91,6 +95,7 @@ import org.n52.sos.netcdf.Nc4ForceTimeChunkingStategy;
 import org.n52.sos.netcdf.NetCDFUtil;
 import org.n52.sos.netcdf.NetcdfConstants;
 import org.n52.sos.netcdf.NetcdfHelper;
+import org.n52.sos.netcdf.data.SensorDataValues;
 import org.n52.sos.netcdf.data.dataset.AbstractSensorDataset;
 import org.n52.sos.netcdf.data.dataset.StaticLocationDataset;
 import org.n52.sos.netcdf.data.subsensor.BinProfileSubSensor;
@@ -331,6 +336,59 @@ public abstract class AbstractNetcdfEncoder
                 getNetcdfHelper().getChunkSizeTime()));
     }
 
+    /**
+     * Encode each sensor dataset into its own netCDF file in the directory.
+     * netCDF-3 files are encoded concurrently by the encoding executor of the
+     * {@link NetcdfHelper}. netCDF-4 files are encoded one after the other
+     * because the native netCDF-4 library is not thread safe.
+     *
+     * @param directory
+     *            the directory to write the files to
+     * @param sensorDatasets
+     *            the sensor datasets to encode
+     * @param version
+     *            the netCDF version
+     * @throws EncodingException
+     *             if an error occurs during encoding
+     * @throws IOException
+     *             if an error occurs while writing a file
+     */
+    protected void encodeSensorDataToNetcdf(File directory, Collection<AbstractSensorDataset> sensorDatasets,
+            Version version) throws EncodingException, IOException {
+        ExecutorService executor = getNetcdfHelper().getEncodingExecutor();
+        if (executor != null && sensorDatasets.size() > 1 && !version.isNetdf4format()) {
+            List<Future<Void>> futures = new ArrayList<>(sensorDatasets.size());
+            try {
+                for (AbstractSensorDataset sensorDataset : sensorDatasets) {
+                    futures.add(executor.submit(() -> {
+                        encodeSensorDataToNetcdf(new File(directory, getFilename(sensorDataset)), sensorDataset,
+                                version);
+                        return null;
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EncodingException("Interrupted while encoding netCDF files", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof EncodingException) {
+                    throw (EncodingException) e.getCause();
+                } else if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new EncodingException("Couldn't encode netCDF files", e.getCause());
+            } finally {
+                futures.forEach(future -> future.cancel(true));
+            }
+        } else {
+            for (AbstractSensorDataset sensorDataset : sensorDatasets) {
+                encodeSensorDataToNetcdf(new File(directory, getFilename(sensorDataset)), sensorDataset, version);
+            }
+        }
+    }
+
     protected void encodeSensorDataToNetcdf(File netcdfFile, AbstractSensorDataset sensorDataset, Version version)
             throws EncodingException, IOException {
         String sensor = sensorDataset.getSensorIdentifier();
@@ -342,7 +400,7 @@ public abstract class AbstractNetcdfEncoder
         writer.setFill(true);
 
         Map<Variable, Array> variableArrayMap = Maps.newHashMap();
-        int numTimes = sensorDataset.getTimes().size();
+        int numTimes = sensorDataset.getTimeCount();
         // FIXME shouldn't assume that all subsensors are heights (or rename
         // subsensors if they are)
         int numHeightDepth = sensorDataset.getSubSensors().size() > 0 ? sensorDataset.getSubSensors().size() : 1;
@@ -478,55 +536,48 @@ public abstract class AbstractNetcdfEncoder
 
         }
 
-        // iterate through sensorDataset, set values
-        int timeCounter = 0;
-        for (Time time : sensorDataset.getTimes()) {
-            // set time value
+        // set time values
+        long[] times = sensorDataset.getDataValues().getTimes();
+        for (int timeCounter = 0; timeCounter < times.length; timeCounter++) {
             Index timeIndex = timeArray.getIndex();
             int timeIndexCounter = 0;
             // if (hasDimension(timeDims, dFeatureTypeInstance)) {
             // timeIndex.setDim(timeIndexCounter++, 0);
             // }
             if (hasDimension(timeDims, dTime)) {
-                timeIndex.setDim(timeIndexCounter++, timeCounter++);
+                timeIndex.setDim(timeIndexCounter++, timeCounter);
             }
-            timeArray.set(timeIndex, getTimeValue(time));
-
-            // data values
-            Map<OmObservableProperty, Map<SubSensor, Value<?>>> obsPropMap = sensorDataset.getDataValues().get(time);
-            for (Entry<OmObservableProperty, Map<SubSensor, Value<?>>> entry : obsPropMap.entrySet()) {
-                OmObservableProperty obsProp = entry.getKey();
-                Variable variable = obsPropVarMap.get(obsProp);
-                Array array = varDataArrayMap.get(variable);
-                for (Entry<SubSensor, Value<?>> subSensorEntry : obsPropMap.get(obsProp).entrySet()) {
-                    SubSensor subSensor = subSensorEntry.getKey();
-                    Value<?> value = subSensorEntry.getValue();
-                    Object valObj = value.getValue();
-                    if (!(valObj instanceof Number)) {
-                        throw new EncodingException("Value class %s not supported",
-                                valObj.getClass().getCanonicalName());
-                    }
-                    Index index = array.getIndex();
-                    int obsPropDimCounter = 0;
-                    for (Dimension dim : obsPropDims) {
-                        // if (dim.equals(dFeatureTypeInstance)){
-                        // feature type instance index
-                        // index.setDim(obsPropDimCounter++, 0);
-                        // } else if (dim.equals(dTime)){
-                        if (dim.equals(dTime)) {
-                            // time index dim
-                            index.setDim(obsPropDimCounter++, timeCounter - 1);
-                        } else if (dim.equals(dZ) && dim.getLength() > 1) {
-                            // height/depth index dim
-                            index.setDim(obsPropDimCounter++, sensorDataset.getSubSensors().indexOf(subSensor));
-                        }
-                    }
-                    if (array instanceof ArrayFloat) {
-                        ((ArrayFloat) array).set(index, ((Number) valObj).floatValue());
-                    } else {
-                        ((ArrayDouble) array).set(index, ((Number) valObj).doubleValue());
+            timeArray.set(timeIndex, getTimeValue(times[timeCounter]));
+        }
+
+        // iterate through the value columns of the sensorDataset, set values
+        for (SensorDataValues.Column column : sensorDataset.getDataValues().getColumns()) {
+            Variable variable = obsPropVarMap.get(column.getPhenomenon());
+            Array array = varDataArrayMap.get(variable);
+            int subSensorIndex = sensorDataset.getSubSensors().indexOf(column.getSubSensor());
+            Index index = array.getIndex();
+            BitSet mask = column.getMask();
+            for (int timeCounter = mask.nextSetBit(0); timeCounter >= 0; timeCounter =
+                    mask.nextSetBit(timeCounter + 1)) {
+                int obsPropDimCounter = 0;
+                for (Dimension dim : obsPropDims) {
+                    // if (dim.equals(dFeatureTypeInstance)){
+                    // feature type instance index
+                    // index.setDim(obsPropDimCounter++, 0);
+                    // } else if (dim.equals(dTime)){
+                    if (dim.equals(dTime)) {
+                        // time index dim
+                        index.setDim(obsPropDimCounter++, timeCounter);
+                    } else if (dim.equals(dZ) && dim.getLength() > 1) {
+                        // height/depth index dim
+                        index.setDim(obsPropDimCounter++, subSensorIndex);
                     }
                 }
+                if (array instanceof ArrayFloat) {
+                    ((ArrayFloat) array).set(index, (float) column.getValue(timeCounter));
+                } else {
+                    ((ArrayDouble) array).set(index, column.getValue(timeCounter));
+                }
             }
         }
 
@@ -694,10 +745,8 @@ public abstract class AbstractNetcdfEncoder
 
     protected void addTimeCoverageAttributes(NetcdfFileWriter writer, AbstractSensorDataset sensorDataset)
             throws EncodingException {
-        List<Time> times = Lists.newArrayList(sensorDataset.getTimes());
-        Collections.sort(times);
-        DateTime firstTime = getDateTime(times.get(0));
-        DateTime lastTime = getDateTime(times.get(times.size() - 1));
+        DateTime firstTime = sensorDataset.getFirstTime();
+        DateTime lastTime = sensorDataset.getLastTime();
 
         // temporal extent
         writer.addGroupAttribute(null, new Attribute(ACDDConstants.TIME_COVERAGE_START, firstTime.toString()));
@@ -1031,8 +1080,8 @@ public abstract class AbstractNetcdfEncoder
         return timeInstant.getValue();
     }
 
-    protected double getTimeValue(Time time) throws EncodingException {
-        return DateTimeHelper.getSecondsSinceEpoch(getDateTime(time));
+    protected double getTimeValue(long time) throws EncodingException {
+        return DateTimeHelper.getSecondsSinceEpoch(new DateTime(time, DateTimeZone.UTC));
     }
 
     private int[] getDimShapes(List<Dimension> dims) {
@@ -1359,15 +1408,31 @@ public abstract class AbstractNetcdfEncoder
         return identifier;
     }
 
+    /**
+     * Delete the temporary directory and the files in it
+     *
+     * @param tempDir
+     *            the temporary directory
+     * @return <code>true</code>, if all files were deleted
+     */
+    protected boolean deleteTempDir(File tempDir) {
+        boolean deleted = true;
+        File[] files = tempDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                deleted &= file.delete();
+            }
+        }
+        return tempDir.delete() && deleted;
+    }
+
     protected String makeDateSafe(DateTime dt) {
         return dt.toString().replace(":", "");
     }
 
     protected String getFilename(AbstractSensorDataset sensorDataset) throws EncodingException {
-        List<Time> times = Lists.newArrayList(sensorDataset.getTimes());
-        Collections.sort(times);
-        DateTime firstTime = getDateTime(times.get(0));
-        DateTime lastTime = getDateTime(times.get(times.size() - 1));
+        DateTime firstTime = sensorDataset.getFirstTime();
+        DateTime lastTime = sensorDataset.getLastTime();
 
         StringBuilder pathBuffer = new StringBuilder();
         pathBuffer.append(sensorDataset.getSensorIdentifier().replaceAll("http://", "").replaceAll("/", "_"));
@@ -45,6 +45,7 @@ import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
 import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
 import org.n52.shetland.util.CollectionHelper;
+import org.n52.sos.coding.encode.FileBinaryAttachmentResponse;
 import org.n52.sos.netcdf.NetcdfConstants;
 import org.n52.sos.netcdf.data.dataset.AbstractSensorDataset;
 import org.n52.sos.netcdf.om.NetCDFObservation;
@@ -141,12 +142,15 @@ public class NetcdfEncoder extends AbstractBasicNetcdfEncoder {
         File netcdfFile = new File(tempDir, filename);
         try {
             encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
-            return new BinaryAttachmentResponse(Files.toByteArray(netcdfFile), getContentType(),
-                    String.format(filename, makeDateSafe(new DateTime(DateTimeZone.UTC))));
+            // the file is streamed to the client and deleted afterwards
+            return new FileBinaryAttachmentResponse(netcdfFile, getContentType(),
+                    String.format(filename, makeDateSafe(new DateTime(DateTimeZone.UTC))), tempDir);
         } catch (IOException e) {
+            LOGGER.debug("Temporary file deleted: {}", deleteTempDir(tempDir));
             throw new EncodingException("Couldn't create netCDF file", e);
-        } finally {
-            LOGGER.debug("Temporary file deleted: {}", tempDir.delete());
+        } catch (EncodingException | RuntimeException e) {
+            LOGGER.debug("Temporary file deleted: {}", deleteTempDir(tempDir));
+            throw e;
         }
     }
 
@@ -27,15 +27,13 @@
  */
 package org.n52.sos.encode;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -47,6 +45,7 @@ import org.n52.shetland.ogc.sos.Sos1Constants;
 import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
 import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
+import org.n52.sos.coding.encode.ZipBinaryAttachmentResponse;
 import org.n52.sos.netcdf.NetcdfConstants;
 import org.n52.sos.netcdf.data.dataset.AbstractSensorDataset;
 import org.n52.sos.netcdf.om.NetCDFObservation;
@@ -129,45 +128,22 @@ public class NetcdfZipEncoder extends AbstractBasicNetcdfEncoder {
     protected BinaryAttachmentResponse encodeNetCDFObsToNetcdf(List<NetCDFObservation> netCDFObsList, Version version)
             throws EncodingException {
         File tempDir = Files.createTempDir();
-
-        for (NetCDFObservation netCDFObs : netCDFObsList) {
-            for (AbstractSensorDataset sensorDataset : netCDFObs.getSensorDatasets()) {
-                try {
-                    File netcdfFile = new File(tempDir, getFilename(sensorDataset));
-                    encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
-                } catch (IOException ex) {
-                    throw new EncodingException(ex);
-                }
+        try {
+            List<AbstractSensorDataset> sensorDatasets = new LinkedList<>();
+            for (NetCDFObservation netCDFObs : netCDFObsList) {
+                sensorDatasets.addAll(netCDFObs.getSensorDatasets());
             }
-        }
-
-        BinaryAttachmentResponse response = null;
-        try (ByteArrayOutputStream zipBoas = createZip(tempDir)) {
-            response = new BinaryAttachmentResponse(zipBoas.toByteArray(), getContentType(),
-                    String.format(DOWNLOAD_FILENAME_FORMAT, makeDateSafe(new DateTime(DateTimeZone.UTC))));
+            encodeSensorDataToNetcdf(tempDir, sensorDatasets, version);
         } catch (IOException e) {
+            LOGGER.debug("Temporary file deleted: {}", deleteTempDir(tempDir));
             throw new EncodingException("Couldn't create netCDF zip file", e);
-        } finally {
-            LOGGER.debug("Temporary file deleted: {}", tempDir.delete());
-        }
-
-        return response;
-    }
-
-    private static ByteArrayOutputStream createZip(File dirToZip) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        if (dirToZip != null) {
-            try (ZipOutputStream zipfile = new ZipOutputStream(bos)) {
-                File[] listFiles = dirToZip.listFiles();
-                if (listFiles != null) {
-                    for (File file : listFiles) {
-                        ZipEntry zipentry = new ZipEntry(file.getName());
-                        zipfile.putNextEntry(zipentry);
-                        zipfile.write(Files.toByteArray(file));
-                    }
-                }
-            }
+        } catch (EncodingException | RuntimeException e) {
+            LOGGER.debug("Temporary file deleted: {}", deleteTempDir(tempDir));
+            throw e;
         }
-        return bos;
+        // the files are zipped on the fly into the response and deleted
+        // afterwards
+        return new ZipBinaryAttachmentResponse(tempDir, getContentType(),
+                String.format(DOWNLOAD_FILENAME_FORMAT, makeDateSafe(new DateTime(DateTimeZone.UTC))));
     }
 }
@@ -28,7 +28,6 @@
 package org.n52.sos.encode;
 
 import java.net.URI;
-import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -42,7 +41,6 @@ import org.slf4j.LoggerFactory;
 
 import org.n52.svalbard.encode.exception.EncodingException;
 import org.n52.shetland.iso.CodeList.CiRoleCodes;
-import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.om.OmObservableProperty;
 import org.n52.shetland.ogc.ows.OwsAddress;
 import org.n52.shetland.ogc.ows.OwsContact;
@@ -59,7 +57,6 @@ import com.axiomalaska.cf4j.constants.ACDDConstants;
 import com.axiomalaska.cf4j.constants.CFConstants;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import ucar.ma2.DataType;
@@ -149,8 +146,8 @@ public abstract class AbstractOceanSITESEncoder extends AbstractNetcdfEncoder {
     }
 
     @Override
-    protected double getTimeValue(Time time) throws EncodingException {
-        return DateTimeHelper.getDaysSinceWithPrecision(DT_1950, getDateTime(time));
+    protected double getTimeValue(long time) throws EncodingException {
+        return DateTimeHelper.getDaysSinceWithPrecision(DT_1950, new DateTime(time, DateTimeZone.UTC));
     }
 
     @Override
@@ -489,10 +486,8 @@ public abstract class AbstractOceanSITESEncoder extends AbstractNetcdfEncoder {
 
     @Override
     protected String getFilename(AbstractSensorDataset sensorDataset) throws EncodingException {
-        List<Time> times = Lists.newArrayList(sensorDataset.getTimes());
-        Collections.sort(times);
-        DateTime firstTime = getDateTime(times.get(0));
-        DateTime lastTime = getDateTime(times.get(times.size() - 1));
+        DateTime firstTime = sensorDataset.getFirstTime();
+        DateTime lastTime = sensorDataset.getLastTime();
         // prefix
         StringBuilder pathBuffer = new StringBuilder("OS_");
         // platform code
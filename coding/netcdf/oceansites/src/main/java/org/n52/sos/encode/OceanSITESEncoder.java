@@ -45,6 +45,7 @@ import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
 import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
 import org.n52.shetland.util.CollectionHelper;
+import org.n52.sos.coding.encode.FileBinaryAttachmentResponse;
 import org.n52.sos.netcdf.data.dataset.AbstractSensorDataset;
 import org.n52.sos.netcdf.oceansites.OceanSITESConstants;
 import org.n52.sos.netcdf.om.NetCDFObservation;
@@ -143,17 +144,15 @@ public class OceanSITESEncoder extends AbstractOceanSITESEncoder {
         File tempDir = Files.createTempDir();
         String filename = getFilename(sensorDataset);
         File netcdfFile = new File(tempDir, filename);
-        encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
-
-        BinaryAttachmentResponse response = null;
         try {
-            response = new BinaryAttachmentResponse(Files.toByteArray(netcdfFile), getContentType(),
-                    String.format(filename, makeDateSafe(new DateTime(DateTimeZone.UTC))));
-        } finally {
-            LOGGER.debug("Temporary file deleted: {}", tempDir.delete());
+            encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
+        } catch (EncodingException | IOException | RuntimeException e) {
+            LOGGER.debug("Temporary file deleted: {}", deleteTempDir(tempDir));
+            throw e;
         }
-
-        return response;
+        // the file is streamed to the client and deleted afterwards
+        return new FileBinaryAttachmentResponse(netcdfFile, getContentType(),
+                String.format(filename, makeDateSafe(new DateTime(DateTimeZone.UTC))), tempDir);
     }
 
     private void throwTooManyFeatureTypesOrSensorsException(List<NetCDFObservation> netCDFObsList,
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.converter;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.n52.shetland.ogc.om.ObservationMergeIndicator;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+
+/**
+ * {@link ObservationStream} that merges adjacent observations of the wrapped stream while they can be merged
+ * according to the {@link ObservationMergeIndicator}. In contrast to {@link ObservationStream#merge(
+ * ObservationMergeIndicator)} only the currently merged observation and a single look ahead observation are held
+ * in memory, so the source has to deliver mergeable observations consecutively, e.g. ordered by dataset. To keep a
+ * single long series bounded as well, at most {@code maxMergedObservations} source observations are merged into one
+ * observation; the remaining values of the series are emitted as further observations of the same constellation.
+ *
+ * @since 6.1.2
+ */
+public class MergingObservationStream implements ObservationStream {
+
+    /**
+     * Default number of source observations merged into one observation, matches the default chunk size of the
+     * streaming datasource.
+     */
+    public static final int DEFAULT_MAX_MERGED_OBSERVATIONS = 10000;
+
+    private final ObservationStream source;
+
+    private final ObservationMergeIndicator indicator;
+
+    private final int maxMergedObservations;
+
+    private OmObservation lookAhead;
+
+    private int observationIdCounter = 1;
+
+    public MergingObservationStream(ObservationStream source, ObservationMergeIndicator indicator) {
+        this(source, indicator, DEFAULT_MAX_MERGED_OBSERVATIONS);
+    }
+
+    public MergingObservationStream(ObservationStream source, ObservationMergeIndicator indicator,
+            int maxMergedObservations) {
+        if (maxMergedObservations < 1) {
+            throw new IllegalArgumentException("maxMergedObservations has to be positive");
+        }
+        this.source = Objects.requireNonNull(source, "source");
+        this.indicator = Objects.requireNonNull(indicator, "indicator");
+        this.maxMergedObservations = maxMergedObservations;
+    }
+
+    @Override
+    public boolean hasNext() throws OwsExceptionReport {
+        return lookAhead != null || source.hasNext();
+    }
+
+    @Override
+    public OmObservation next() throws OwsExceptionReport {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        OmObservation merged = lookAhead != null ? lookAhead : source.next();
+        lookAhead = null;
+        int mergedObservations = 1;
+        while (mergedObservations < maxMergedObservations && source.hasNext()) {
+            OmObservation observation = source.next();
+            if (merged.checkForMerge(observation, indicator)) {
+                merged.mergeWithObservation(observation);
+                mergedObservations++;
+            } else {
+                lookAhead = observation;
+                break;
+            }
+        }
+        if (!merged.isSetGmlID()) {
+            merged.setObservationID(Integer.toString(observationIdCounter++));
+        }
+        return merged;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+
+}
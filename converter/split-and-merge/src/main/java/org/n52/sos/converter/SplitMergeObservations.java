@@ -31,7 +31,6 @@ import static java.util.stream.Collectors.toSet;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -353,23 +352,25 @@ public class SplitMergeObservations
                 ObservationMergeIndicator.sameObservationConstellation().setResultTime(includeResultTimeForMerging);
         if (checkForMergeObservationsInResponse || checkEncoderForMergeObservations) {
             ObservationStream observationStream = response.getObservationCollection().merge(indicator);
-            List<OmObservation> processed = new LinkedList<>();
-            while (observationStream.hasNext()) {
-                OmObservation observation = observationStream.next();
+            response.setObservationCollection(observationStream.flatMap(observation -> {
                 if (observation.getValue() instanceof AbstractStreaming) {
-                    ObservationStream valueStream = ((AbstractStreaming) observation.getValue()).merge(indicator);
-                    while (valueStream.hasNext()) {
-                        processed.add(valueStream.next());
-                    }
-                } else {
-                    processed.add(observation);
+                    return mergeStreamingValues((AbstractStreaming) observation.getValue(), indicator);
                 }
-            }
-            response.setObservationCollection(ObservationStream.of(processed));
+                return ObservationStream.of(observation);
+            }));
         }
         return response;
     }
 
+    private ObservationStream mergeStreamingValues(AbstractStreaming values, ObservationMergeIndicator indicator)
+            throws OwsExceptionReport {
+        if (indicator.isSetResultTime()) {
+            // result times are not ordered within a dataset, so merging adjacent values is not sufficient
+            return values.merge(indicator);
+        }
+        return new MergingObservationStream(values, indicator);
+    }
+
     private boolean checkEncoderForMergeObservations(AbstractObservationResponse response)
             throws OwsExceptionReport {
         if (response.isSetResponseFormat()) {
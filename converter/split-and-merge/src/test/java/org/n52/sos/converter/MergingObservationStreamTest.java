@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.converter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.om.ObservationMergeIndicator;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.om.SingleObservationValue;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.SosProcedureDescriptionUnknownType;
+
+public class MergingObservationStreamTest {
+
+    private static final ObservationMergeIndicator INDICATOR =
+            ObservationMergeIndicator.sameObservationConstellation();
+
+    @Test
+    public void shouldMergeAdjacentObservationsOfSameConstellation() throws OwsExceptionReport {
+        OmObservationConstellation first = constellation("property-1");
+        OmObservationConstellation second = constellation("property-2");
+        ObservationStream stream = new MergingObservationStream(
+                ObservationStream.of(Arrays.asList(observation(first, 1), observation(first, 2),
+                        observation(second, 3), observation(second, 4), observation(second, 5))),
+                INDICATOR);
+
+        assertThat(stream.hasNext(), is(true));
+        OmObservation merged = stream.next();
+        assertThat(merged.getObservationConstellation(), is(first));
+        assertThat(merged.getObservationID(), is("1"));
+        assertThat(stream.hasNext(), is(true));
+        merged = stream.next();
+        assertThat(merged.getObservationConstellation(), is(second));
+        assertThat(merged.getObservationID(), is("2"));
+        assertThat(stream.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldNotMergeNonAdjacentObservations() throws OwsExceptionReport {
+        OmObservationConstellation first = constellation("property-1");
+        OmObservationConstellation second = constellation("property-2");
+        ObservationStream stream = new MergingObservationStream(ObservationStream.of(
+                Arrays.asList(observation(first, 1), observation(second, 2), observation(first, 3))), INDICATOR);
+
+        assertThat(stream.next().getObservationConstellation(), is(first));
+        assertThat(stream.next().getObservationConstellation(), is(second));
+        assertThat(stream.next().getObservationConstellation(), is(first));
+        assertThat(stream.hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldConsumeSourceLazily() throws OwsExceptionReport {
+        OmObservationConstellation first = constellation("property-1");
+        OmObservationConstellation second = constellation("property-2");
+        List<OmObservation> observations = Arrays.asList(observation(first, 1), observation(second, 2),
+                observation(second, 3));
+        CountingIterator source = new CountingIterator(observations.iterator());
+        ObservationStream stream = new MergingObservationStream(ObservationStream.of(source), INDICATOR);
+
+        assertThat(source.consumed, is(0));
+        stream.next();
+        // the first observation plus the look ahead that did not match
+        assertThat(source.consumed, is(2));
+        stream.next();
+        assertThat(source.consumed, is(3));
+    }
+
+    @Test
+    public void shouldSplitLongSeriesIntoChunks() throws OwsExceptionReport {
+        OmObservationConstellation first = constellation("property-1");
+        OmObservationConstellation second = constellation("property-2");
+        List<OmObservation> observations = Arrays.asList(observation(first, 1), observation(first, 2),
+                observation(first, 3), observation(first, 4), observation(first, 5), observation(second, 6));
+        CountingIterator source = new CountingIterator(observations.iterator());
+        ObservationStream stream = new MergingObservationStream(ObservationStream.of(source), INDICATOR, 2);
+
+        OmObservation merged = stream.next();
+        assertThat(merged.getObservationConstellation(), is(first));
+        // the chunk is complete, so no look ahead is consumed
+        assertThat(source.consumed, is(2));
+        assertThat(stream.next().getObservationConstellation(), is(first));
+        assertThat(source.consumed, is(4));
+        assertThat(stream.next().getObservationConstellation(), is(first));
+        merged = stream.next();
+        assertThat(merged.getObservationConstellation(), is(second));
+        assertThat(merged.getObservationID(), is("4"));
+        assertThat(stream.hasNext(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveChunkSize() {
+        new MergingObservationStream(ObservationStream.empty(), INDICATOR, 0);
+    }
+
+    private static OmObservationConstellation constellation(String observableProperty) {
+        OmObservationConstellation constellation = new OmObservationConstellation();
+        constellation.setProcedure(new SosProcedureDescriptionUnknownType("procedure"));
+        constellation.setObservableProperty(new OmObservableProperty(observableProperty));
+        constellation.setFeatureOfInterest(new SamplingFeature(new CodeWithAuthority("feature")));
+        constellation.setObservationType(OmConstants.OBS_TYPE_MEASUREMENT);
+        return constellation;
+    }
+
+    private static OmObservation observation(OmObservationConstellation constellation, int minute) {
+        OmObservation observation = new OmObservation();
+        observation.setObservationConstellation(constellation);
+        TimeInstant time = new TimeInstant(new DateTime(2020, 1, 1, 0, minute, DateTimeZone.UTC));
+        observation.setResultTime(time);
+        observation.setValue(new SingleObservationValue<>(time, new QuantityValue((double) minute, "m")));
+        return observation;
+    }
+
+    private static final class CountingIterator implements Iterator<OmObservation> {
+        private final Iterator<OmObservation> delegate;
+        private int consumed;
+
+        CountingIterator(Iterator<OmObservation> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public OmObservation next() {
+            consumed++;
+            return delegate.next();
+        }
+    }
+
+}
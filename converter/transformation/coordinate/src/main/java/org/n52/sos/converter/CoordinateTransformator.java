@@ -32,6 +32,7 @@ import static java.util.stream.Collectors.toList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -941,8 +942,10 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
 
     private void checkMultiPointCoverageForGeometry(MultiPointCoverage value, int targetCRS)
             throws OwsExceptionReport {
+        Iterator<Geometry> points = getGeomtryHandler().transform(
+                value.getValue().stream().map(PointValuePair::getPoint).collect(toList()), targetCRS).iterator();
         for (PointValuePair pvp : value.getValue()) {
-            pvp.setPoint((Point) getGeomtryHandler().transform(pvp.getPoint(), targetCRS));
+            pvp.setPoint((Point) points.next());
         }
     }
 
@@ -952,8 +955,11 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
     }
 
     private void checkTLVTValueForGeometry(TLVTValue value, int targetCRS) throws OwsExceptionReport {
+        Iterator<Geometry> locations = getGeomtryHandler().transform(
+                value.getValue().stream().map(TimeLocationValueTriple::getLocation).collect(toList()), targetCRS)
+                .iterator();
         for (TimeLocationValueTriple tlvt : value.getValue()) {
-            tlvt.setLocation(getGeomtryHandler().transform(tlvt.getLocation(), targetCRS));
+            tlvt.setLocation(locations.next());
         }
     }
 
@@ -739,6 +739,13 @@ public interface SosContentCache
 
     boolean hasInstancesForProcedure(String identifier);
 
+    /**
+     * Get the procedure description formats of the specified procedure.
+     *
+     * @param procedure the procedure
+     *
+     * @return the formats or an empty set if none are known
+     */
     Set<String> getProcedureDescriptionFormatsForProcedure(String procedure);
 
     Set<String> getPublishedFeatureOfInterest();
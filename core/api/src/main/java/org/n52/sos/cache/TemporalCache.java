@@ -68,11 +68,11 @@ public interface TemporalCache {
     }
 
     /**
-     * Returns the maximal phenomenon time period for the specified procedure.
+     * Returns the maximal phenomenon time period for the specified procedure and its child procedures.
      *
      * @param procedure the procedure identifier
      *
-     * @return the maximal phenomenon time for the specified procedure or null if it is not set
+     * @return the latest maximal phenomenon time of the procedure hierarchy or null if it is not set
      */
     DateTime getMaxPhenomenonTimeForProcedure(String procedure);
 
@@ -118,11 +118,11 @@ public interface TemporalCache {
     }
 
     /**
-     * Returns the minimal phenomenon time period for the specified procedure.
+     * Returns the minimal phenomenon time period for the specified procedure and its child procedures.
      *
      * @param procedure the procedure identifier
      *
-     * @return the minimal phenomenon time for the specified procedure or null if it is not set
+     * @return the earliest minimal phenomenon time of the procedure hierarchy or null if it is not set
      */
     DateTime getMinPhenomenonTimeForProcedure(String procedure);
 
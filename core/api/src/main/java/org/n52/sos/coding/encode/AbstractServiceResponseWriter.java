@@ -30,6 +30,7 @@ package org.n52.sos.coding.encode;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 import org.n52.iceland.coding.encode.AbstractResponseWriter;
@@ -38,9 +39,15 @@ import org.n52.iceland.coding.encode.ResponseWriter;
 import org.n52.iceland.coding.encode.ResponseWriterKey;
 import org.n52.iceland.coding.encode.ResponseWriterRepository;
 import org.n52.janmayen.http.MediaType;
+import org.n52.janmayen.http.MediaTypes;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
 import org.n52.shetland.ogc.ows.service.ResponseFormat;
+import org.n52.sos.ds.ObservationResponseCache;
+import org.n52.sos.ds.ObservationResponseCache.Recording;
+import org.n52.sos.ogc.sos.CachedGetCapabilitiesResponse;
+import org.n52.sos.ogc.sos.CachedResponse;
+import org.n52.sos.ogc.sos.StreamingGetResultResponse;
 import org.n52.svalbard.encode.Encoder;
 import org.n52.svalbard.encode.EncoderRepository;
 import org.n52.svalbard.encode.OperationResponseEncoderKey;
@@ -60,10 +67,21 @@ public class AbstractServiceResponseWriter extends AbstractResponseWriter<OwsSer
 
     private final ResponseWriterRepository responseWriterRepository;
 
+    private final GetResultResponseXmlStreamWriter getResultResponseWriter = new GetResultResponseXmlStreamWriter();
+
+    private final Optional<ObservationResponseCache> observationResponseCache;
+
     public AbstractServiceResponseWriter(EncoderRepository encoderRepository,
             ResponseWriterRepository responseWriterRepository) {
+        this(encoderRepository, responseWriterRepository, Optional.empty());
+    }
+
+    public AbstractServiceResponseWriter(EncoderRepository encoderRepository,
+            ResponseWriterRepository responseWriterRepository,
+            Optional<ObservationResponseCache> observationResponseCache) {
         super(encoderRepository);
         this.responseWriterRepository = responseWriterRepository;
+        this.observationResponseCache = observationResponseCache;
     }
 
     public ResponseWriterRepository getResponseWriterRepository() {
@@ -73,22 +91,45 @@ public class AbstractServiceResponseWriter extends AbstractResponseWriter<OwsSer
     @Override
     public void write(OwsServiceResponse asr, OutputStream out, ResponseProxy responseProxy)
             throws IOException, EncodingException {
-        Encoder<Object, OwsServiceResponse> encoder = getEncoder(asr);
-        if (encoder != null) {
-            if (encoder instanceof StreamingEncoder) {
-                ((StreamingEncoder<?, OwsServiceResponse>) encoder).encode(asr, out);
-            } else {
-                // use encoded Object specific writer, e.g. XmlResponseWriter
-                Object encode = encoder.encode(asr);
-                if (encode != null) {
-                    getWriter(encode).write(encode, out, responseProxy);
-                }
-            }
-        }
+        writeResponse(asr, out, responseProxy);
     }
 
     @Override
     public void write(OwsServiceResponse asr, OutputStream out) throws IOException, EncodingException {
+        writeResponse(asr, out, null);
+    }
+
+    /**
+     * Write the response, either from a cached document, while recording it for the
+     * {@link ObservationResponseCache}, streamed or encoded.
+     *
+     * @param asr
+     *            {@link OwsServiceResponse} to write
+     * @param out
+     *            the stream to write to
+     * @param responseProxy
+     *            the response proxy, may be {@code null}
+     */
+    private void writeResponse(OwsServiceResponse asr, OutputStream out, ResponseProxy responseProxy)
+            throws IOException, EncodingException {
+        if (isCachedCapabilities(asr)) {
+            ((CachedGetCapabilitiesResponse) asr).writeDocument(out);
+            return;
+        }
+        if (asr instanceof CachedResponse) {
+            ((CachedResponse) asr).writeDocument(out);
+            return;
+        }
+        Optional<Recording> recording = record(asr, out);
+        if (recording.isPresent()) {
+            writeResponse(asr, recording.get(), responseProxy);
+            recording.get().finish();
+            return;
+        }
+        if (isStreamingGetResult(asr)) {
+            getResultResponseWriter.write((StreamingGetResultResponse) asr, out);
+            return;
+        }
         Encoder<Object, OwsServiceResponse> encoder = getEncoder(asr);
         if (encoder != null) {
             if (encoder instanceof StreamingEncoder) {
@@ -97,12 +138,32 @@ public class AbstractServiceResponseWriter extends AbstractResponseWriter<OwsSer
                 // use encoded Object specific writer, e.g. XmlResponseWriter
                 Object encode = encoder.encode(asr);
                 if (encode != null) {
-                    getWriter(encode).write(encode, out);
+                    if (responseProxy != null) {
+                        getWriter(encode).write(encode, out, responseProxy);
+                    } else {
+                        getWriter(encode).write(encode, out);
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Start to record the written response, if it should be cached by the {@link ObservationResponseCache}.
+     *
+     * @param asr
+     *            {@link OwsServiceResponse} to write
+     * @param out
+     *            the stream the response is written to
+     * @return the recording stream
+     */
+    private Optional<Recording> record(OwsServiceResponse asr, OutputStream out) {
+        if (observationResponseCache.isPresent() && observationResponseCache.get().isEnabled()) {
+            return observationResponseCache.get().record(asr, out);
+        }
+        return Optional.empty();
+    }
+
     private ResponseWriter<Object> getWriter(Object encode) {
         ResponseWriter<Object> writer = this.responseWriterRepository.getWriter(encode.getClass());
         if (writer == null) {
@@ -155,6 +216,36 @@ public class AbstractServiceResponseWriter extends AbstractResponseWriter<OwsSer
         return getEncoder(getEncoderKey(asr)) instanceof StreamingEncoder;
     }
 
+    /**
+     * Check if the {@link OwsServiceResponse} is a {@link StreamingGetResultResponse} without extensions that should
+     * be encoded as XML, so that the result values can be written directly to the output stream.
+     *
+     * @param asr
+     *            {@link OwsServiceResponse} to check
+     * @return <code>true</code>, if the result values of the response can be streamed
+     */
+    private boolean isStreamingGetResult(OwsServiceResponse asr) {
+        return asr instanceof StreamingGetResultResponse && !asr.hasExtensions()
+                && MediaTypes.APPLICATION_XML.isCompatible(getEncodedContentType(asr));
+    }
+
+    /**
+     * Check if the {@link OwsServiceResponse} is a {@link CachedGetCapabilitiesResponse} that should be encoded as
+     * XML, so that the cached document can be written directly to the output stream.
+     *
+     * @param asr
+     *            {@link OwsServiceResponse} to check
+     * @return <code>true</code>, if the cached document can be written
+     */
+    private boolean isCachedCapabilities(OwsServiceResponse asr) {
+        if (asr instanceof CachedGetCapabilitiesResponse) {
+            MediaType contentType = getEncodedContentType(asr);
+            return contentType == null || MediaTypes.APPLICATION_XML.isCompatible(contentType)
+                    || MediaTypes.TEXT_XML.isCompatible(contentType);
+        }
+        return false;
+    }
+
     @Override
     public Set<ResponseWriterKey> getKeys() {
         return Collections.singleton(KEY);
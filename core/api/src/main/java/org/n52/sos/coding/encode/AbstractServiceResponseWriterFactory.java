@@ -27,6 +27,8 @@
  */
 package org.n52.sos.coding.encode;
 
+import java.util.Optional;
+
 import javax.inject.Inject;
 
 import org.n52.iceland.coding.encode.ResponseWriter;
@@ -35,6 +37,7 @@ import org.n52.iceland.coding.encode.ResponseWriterKey;
 import org.n52.iceland.coding.encode.ResponseWriterRepository;
 import org.n52.janmayen.component.SingleTypeComponentFactory;
 import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.sos.ds.ObservationResponseCache;
 import org.n52.svalbard.encode.EncoderRepository;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -58,6 +61,7 @@ public class AbstractServiceResponseWriterFactory
 
     private ResponseWriterRepository responseWriterRepository;
     private EncoderRepository encoderRepository;
+    private Optional<ObservationResponseCache> observationResponseCache = Optional.empty();
 
     @Inject
     public void setEncoderRepository(EncoderRepository encoderRepository) {
@@ -71,6 +75,11 @@ public class AbstractServiceResponseWriterFactory
         this.responseWriterRepository = responseWriterRepository;
     }
 
+    @Inject
+    public void setObservationResponseCache(Optional<ObservationResponseCache> observationResponseCache) {
+        this.observationResponseCache = observationResponseCache;
+    }
+
     @Override
     public ResponseWriterKey getKey() {
         return RESPONSE_WRITER_KEY;
@@ -79,6 +88,7 @@ public class AbstractServiceResponseWriterFactory
     @Override
     public AbstractServiceResponseWriter create() {
         return new AbstractServiceResponseWriter(this.encoderRepository,
-                                                 this.responseWriterRepository);
+                                                 this.responseWriterRepository,
+                                                 this.observationResponseCache);
     }
 }
@@ -69,10 +69,8 @@ public class BinaryAttachmentResponseWriter extends AbstractResponseWriter<Binar
             return;
         }
 
-        byte[] bytes = response.getBytes();
-
         if (!(out instanceof GZIPOutputStream)) {
-            responseProxy.setContentLength(bytes.length);
+            setContentLength(response, responseProxy);
         }
 
         //binary
@@ -88,7 +86,7 @@ public class BinaryAttachmentResponseWriter extends AbstractResponseWriter<Binar
         }
 
         //write output now that headers and content length are in place
-        out.write(bytes);
+        writeContent(response, out);
 
     }
 
@@ -97,9 +95,28 @@ public class BinaryAttachmentResponseWriter extends AbstractResponseWriter<Binar
         if (response == null) {
             return;
         }
-        byte[] bytes = response.getBytes();
-        //write output now that headers and content length are in place
-        out.write(bytes);
+        writeContent(response, out);
+    }
+
+    private void writeContent(BinaryAttachmentResponse response, OutputStream out) throws IOException {
+        if (response instanceof StreamingBinaryAttachmentResponse) {
+            ((StreamingBinaryAttachmentResponse) response).writeTo(out);
+        } else {
+            out.write(response.getBytes());
+        }
+    }
+
+    private void setContentLength(BinaryAttachmentResponse response, ResponseProxy responseProxy) {
+        if (response instanceof StreamingBinaryAttachmentResponse) {
+            long length = ((StreamingBinaryAttachmentResponse) response).getContentLength();
+            if (length >= 0 && length <= Integer.MAX_VALUE) {
+                responseProxy.setContentLength((int) length);
+            } else if (length > Integer.MAX_VALUE) {
+                responseProxy.addHeader(HeaderCode.CONTENT_LENGTH, Long.toString(length));
+            }
+        } else {
+            responseProxy.setContentLength(response.getBytes().length);
+        }
     }
 
     @Override
@@ -108,6 +125,7 @@ public class BinaryAttachmentResponseWriter extends AbstractResponseWriter<Binar
     }
 
     public interface HeaderCode {
+        String CONTENT_LENGTH = "Content-Length";
         String CONTENT_TRANSFER_ENCODING = "Content-Transfer-Encoding";
         String CONTENT_TRANSFER_ENCODING_BINARY = "binary";
         String CONTENT_DISPOSITION = "Content-Disposition";
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.w3c.W3CConstants;
+import org.n52.sos.ogc.sos.StreamingGetResultResponse;
+
+/**
+ * Writes a {@link StreamingGetResultResponse} as SOS 2.0 XML document. The result values are escaped and written
+ * to the output stream while they are queried.
+ *
+ * @since 6.1.2
+ */
+class GetResultResponseXmlStreamWriter {
+
+    private static final String EN_RESULT_VALUES = "resultValues";
+
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    void write(StreamingGetResultResponse response, OutputStream out) throws IOException {
+        try {
+            String encoding = StandardCharsets.UTF_8.name();
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, encoding);
+            writer.writeStartDocument(encoding, "1.0");
+            writer.setPrefix(SosConstants.NS_SOS_PREFIX, Sos2Constants.NS_SOS_20);
+            writer.setPrefix(W3CConstants.NS_XSI_PREFIX, W3CConstants.NS_XSI);
+            writer.writeStartElement(Sos2Constants.NS_SOS_20, Sos2Constants.EN_GET_RESULT_RESPONSE);
+            writer.writeNamespace(SosConstants.NS_SOS_PREFIX, Sos2Constants.NS_SOS_20);
+            writer.writeNamespace(W3CConstants.NS_XSI_PREFIX, W3CConstants.NS_XSI);
+            writer.writeAttribute(W3CConstants.NS_XSI, W3CConstants.AN_SCHEMA_LOCATION,
+                    Sos2Constants.SOS_GET_RESULT_SCHEMA_LOCATION.getSchemaLocationString());
+            writer.writeStartElement(Sos2Constants.NS_SOS_20, EN_RESULT_VALUES);
+            response.writeResultValues(new CharactersWriter(writer));
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * {@link Writer} that writes escaped character data to a {@link XMLStreamWriter}.
+     */
+    private static class CharactersWriter extends Writer {
+        private final XMLStreamWriter writer;
+
+        CharactersWriter(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            try {
+                writer.writeCharacters(cbuf, off, len);
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void write(String str) throws IOException {
+            try {
+                writer.writeCharacters(str);
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                writer.flush();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Cleaner.Cleanable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.n52.janmayen.http.MediaType;
+import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link BinaryAttachmentResponse} whose content is written directly to the
+ * output stream by the {@link BinaryAttachmentResponseWriter} instead of being
+ * held as byte array. The content is only buffered if {@link #getBytes()} is
+ * called. A temporary file or directory of the response is deleted after
+ * writing, or when the response is garbage collected without being written.
+ *
+ * @since 6.1.2
+ *
+ */
+public abstract class StreamingBinaryAttachmentResponse extends BinaryAttachmentResponse {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingBinaryAttachmentResponse.class);
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Cleanable cleanable;
+
+    public StreamingBinaryAttachmentResponse(MediaType contentType, String filename) {
+        this(contentType, filename, null);
+    }
+
+    /**
+     * @param contentType
+     *            the content type
+     * @param filename
+     *            the filename of the attachment
+     * @param temporary
+     *            the file or directory to delete after writing, may be
+     *            <code>null</code>
+     */
+    public StreamingBinaryAttachmentResponse(MediaType contentType, String filename, File temporary) {
+        super(null, contentType, filename);
+        // the cleanup action must not reference the response
+        this.cleanable = temporary != null ? CLEANER.register(this, () -> delete(temporary)) : null;
+    }
+
+    /**
+     * Write the content to the output stream. The output stream is not
+     * closed.
+     *
+     * @param out
+     *            the output stream to write to
+     * @throws IOException
+     *             if an error occurs
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] bytes = super.getBytes();
+        if (bytes != null) {
+            out.write(bytes);
+        } else {
+            write(out);
+        }
+    }
+
+    /**
+     * @return the length of the content in bytes or <code>-1</code> if it is
+     *         not known before writing
+     */
+    public long getContentLength() {
+        byte[] bytes = super.getBytes();
+        return bytes != null ? bytes.length : -1;
+    }
+
+    @Override
+    public byte[] getBytes() {
+        if (super.getBytes() == null) {
+            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                write(out);
+                setBytes(out.toByteArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return super.getBytes();
+    }
+
+    @Override
+    public int getSize() {
+        return getBytes().length;
+    }
+
+    /**
+     * Write the content to the output stream. Called at most once.
+     *
+     * @param out
+     *            the output stream to write to
+     * @throws IOException
+     *             if an error occurs
+     */
+    protected abstract void write(OutputStream out) throws IOException;
+
+    /**
+     * Delete the temporary file or directory. Called after writing.
+     */
+    protected void deleteTemporary() {
+        if (cleanable != null) {
+            cleanable.clean();
+        }
+    }
+
+    protected static void delete(File file) {
+        if (file != null && file.exists()) {
+            try (Stream<Path> paths = Files.walk(file.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            } catch (IOException e) {
+                LOGGER.debug("Error while deleting temporary file {}", file, e);
+            }
+            LOGGER.debug("Temporary file {} deleted: {}", file, !file.exists());
+        }
+    }
+}
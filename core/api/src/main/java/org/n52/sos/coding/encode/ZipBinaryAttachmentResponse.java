@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.n52.janmayen.http.MediaType;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * {@link StreamingBinaryAttachmentResponse} that zips the files of a directory
+ * on the fly into the output stream and deletes the directory afterwards.
+ *
+ * @since 6.1.2
+ *
+ */
+@SuppressFBWarnings({"EI_EXPOSE_REP2"})
+public class ZipBinaryAttachmentResponse extends StreamingBinaryAttachmentResponse {
+
+    private final File directory;
+
+    /**
+     * @param directory
+     *            the temporary directory with the files to zip
+     * @param contentType
+     *            the content type
+     * @param filename
+     *            the filename of the attachment
+     */
+    public ZipBinaryAttachmentResponse(File directory, MediaType contentType, String filename) {
+        super(contentType, filename, directory);
+        this.directory = directory;
+    }
+
+    @Override
+    protected void write(OutputStream out) throws IOException {
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    if (file.isFile()) {
+                        zip.putNextEntry(new ZipEntry(file.getName()));
+                        Files.copy(file.toPath(), zip);
+                        zip.closeEntry();
+                    }
+                }
+            }
+            // finish instead of close to keep the output stream open
+            zip.finish();
+        } finally {
+            deleteTemporary();
+        }
+    }
+}
@@ -28,6 +28,7 @@
 package org.n52.sos.ds;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -56,6 +57,23 @@ public abstract class AbstractDeleteObservationHandler extends AbstractSosOperat
     public abstract DeleteObservationResponse deleteObservation(DeleteObservationRequest deleteObservationRequest)
             throws OwsExceptionReport;
 
+    /**
+     * Delete the observations and collect the offerings whose observations were deleted, so that only these
+     * offerings have to be updated in the cache.
+     *
+     * @param deleteObservationRequest
+     *            the request
+     * @param modifiedOfferings
+     *            the collection to add the identifiers of the modified offerings to
+     * @return the response
+     * @throws OwsExceptionReport
+     *             if the deletion fails
+     */
+    public DeleteObservationResponse deleteObservation(DeleteObservationRequest deleteObservationRequest,
+            Collection<String> modifiedOfferings) throws OwsExceptionReport {
+        return deleteObservation(deleteObservationRequest);
+    }
+
     @Override
     protected Set<OwsDomain> getOperationParameters(String service, String version) throws OwsExceptionReport {
         return new HashSet<>(
@@ -190,6 +190,9 @@ public abstract class AbstractSosGetCapabilitiesHandler extends AbstractGetCapab
     @Inject
     private Optional<StaticCapabilitiesProvider> staticCapabilitiesProvider;
 
+    @Inject
+    private Optional<CapabilitiesResponseCache> capabilitiesResponseCache;
+
     public AbstractSosGetCapabilitiesHandler() {
         this(SosConstants.SOS);
     }
@@ -218,15 +221,26 @@ public abstract class AbstractSosGetCapabilitiesHandler extends AbstractGetCapab
                 getStaticCapabilities(request, response);
             }
             if (!response.isStatic()) {
+                if (isCapabilitiesResponseCacheEnabled()) {
+                    return this.capabilitiesResponseCache.get().get(request, showTransactionalOperations);
+                }
                 createDynamicCapabilities(request, response, showTransactionalOperations);
             }
         }
+        setUpdateSequence(response);
+        return response;
+    }
+
+    private boolean isCapabilitiesResponseCacheEnabled() {
+        return this.capabilitiesResponseCache.isPresent() && this.capabilitiesResponseCache.get().isEnabled();
+    }
+
+    private void setUpdateSequence(GetCapabilitiesResponse response) {
         if (getCache().getLastUpdateTime() != null && response.getCapabilities() != null
                 && !response.getCapabilities().getUpdateSequence().isPresent()) {
             response.getCapabilities()
                     .setUpdateSequence(DateTimeHelper.formatDateTime2IsoString(getCache().getLastUpdateTime()));
         }
-        return response;
     }
 
     private String negotiateVersion(GetCapabilitiesRequest request) throws OwsExceptionReport {
@@ -918,6 +932,25 @@ public abstract class AbstractSosGetCapabilitiesHandler extends AbstractGetCapab
         response.setXmlString(sc.getDocument());
     }
 
+    /**
+     * Create the dynamic capabilities for the request, including the update sequence.
+     *
+     * @param request
+     *            the GetCapabilities request with the negotiated version
+     * @param showTransactionalOperations
+     *            if the transactional operations should be contained
+     * @return the dynamic capabilities
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    GetCapabilitiesResponse createDynamicCapabilities(GetCapabilitiesRequest request,
+            boolean showTransactionalOperations) throws OwsExceptionReport {
+        GetCapabilitiesResponse response = new GetCapabilitiesResponse(request.getService(), request.getVersion());
+        createDynamicCapabilities(request, response, showTransactionalOperations);
+        setUpdateSequence(response);
+        return response;
+    }
+
     protected void createDynamicCapabilities(GetCapabilitiesRequest request, GetCapabilitiesResponse response,
             boolean showTransactionalOperations) throws OwsExceptionReport {
         Set<String> availableExtensionSections = getExtensionSections(response.getService(), response.getVersion());
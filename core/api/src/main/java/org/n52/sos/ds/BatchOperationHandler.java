@@ -27,43 +27,73 @@
  */
 package org.n52.sos.ds;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.exception.ows.concrete.InvalidAcceptVersionsParameterException;
 import org.n52.iceland.exception.ows.concrete.InvalidServiceOrVersionException;
 import org.n52.iceland.exception.ows.concrete.InvalidServiceParameterException;
 import org.n52.iceland.exception.ows.concrete.VersionNotSupportedException;
+import org.n52.iceland.request.operator.RequestOperator;
+import org.n52.iceland.request.operator.RequestOperatorRepository;
 import org.n52.iceland.service.operator.ServiceOperator;
 import org.n52.iceland.service.operator.ServiceOperatorRepository;
 import org.n52.janmayen.Comparables;
+import org.n52.janmayen.GroupedAndNamedThreadFactory;
+import org.n52.janmayen.lifecycle.Destroyable;
 import org.n52.shetland.ogc.ows.exception.CompositeOwsException;
 import org.n52.shetland.ogc.ows.exception.MissingServiceParameterException;
 import org.n52.shetland.ogc.ows.exception.MissingVersionParameterException;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.GetCapabilitiesRequest;
 import org.n52.shetland.ogc.ows.service.OwsServiceKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
 import org.n52.shetland.ogc.sos.BatchConstants;
 import org.n52.shetland.ogc.sos.SosConstants;
 import org.n52.shetland.ogc.sos.request.BatchRequest;
 import org.n52.shetland.ogc.sos.response.BatchResponse;
+import org.n52.sos.request.operator.AbstractTransactionalRequestOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * TODO JavaDoc
  *
  * Renamed, in version 4.x called BatchOperationDAO
  *
+ * The requests are executed sequentially, unless more than one thread is configured. Then consecutive read-only
+ * requests are executed concurrently, while requests of transactional operations are executed alone, after all
+ * previous requests are finished, so that they keep their order relative to all other requests.
+ *
  * @author <a href="mailto:c.autermann@52north.org">Christian Autermann</a>
  *
  * @since 5.0.0
  */
-public class BatchOperationHandler extends AbstractSosOperationHandler {
+@Configurable
+public class BatchOperationHandler extends AbstractSosOperationHandler implements Destroyable {
+
+    public static final String THREAD_COUNT = "service.batch.threadCount";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchOperationHandler.class);
 
     private ServiceOperatorRepository serviceOperatorRepository;
 
+    private RequestOperatorRepository requestOperatorRepository;
+
+    private ExecutorService executor;
+
     public BatchOperationHandler() {
         super(SosConstants.SOS, BatchConstants.OPERATION_NAME);
     }
@@ -73,23 +103,155 @@ public class BatchOperationHandler extends AbstractSosOperationHandler {
         this.serviceOperatorRepository = serviceOperatorRepository;
     }
 
+    @Inject
+    public void setRequestOperatorRepository(RequestOperatorRepository requestOperatorRepository) {
+        this.requestOperatorRepository = requestOperatorRepository;
+    }
+
+    /**
+     * @param threadCount
+     *            the number of threads to execute read-only requests concurrently, {@code 1} executes all requests
+     *            sequentially
+     */
+    @Setting(THREAD_COUNT)
+    public synchronized void setThreadCount(int threadCount) {
+        ExecutorService previous = this.executor;
+        this.executor = threadCount > 1
+                ? Executors.newFixedThreadPool(threadCount, new GroupedAndNamedThreadFactory("batch-request"))
+                : null;
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+    }
+
     public BatchResponse executeRequests(BatchRequest request) throws OwsExceptionReport {
         BatchResponse response = new BatchResponse();
         response.setService(request.getService());
         response.setVersion(request.getVersion());
-        for (OwsServiceRequest r : request) {
-            try {
-                response.add(getServiceOperator(r).receiveRequest(r));
-            } catch (OwsExceptionReport e) {
-                response.add(e.setVersion(r.getVersion() != null ? r.getVersion() : request.getVersion()));
-                if (request.isStopAtFailure()) {
+        ExecutorService executorService = getExecutor();
+        if (executorService == null) {
+            for (OwsServiceRequest r : request) {
+                if (!execute(request, r, response)) {
                     break;
                 }
             }
+        } else {
+            List<OwsServiceRequest> readOnly = new ArrayList<>();
+            for (OwsServiceRequest r : request) {
+                if (isReadOnly(r)) {
+                    readOnly.add(r);
+                } else {
+                    if (!execute(request, readOnly, response, executorService) || !execute(request, r, response)) {
+                        return response;
+                    }
+                    readOnly.clear();
+                }
+            }
+            execute(request, readOnly, response, executorService);
         }
         return response;
     }
 
+    private synchronized ExecutorService getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Execute the request and add the response or exception to the batch response.
+     *
+     * @return {@code false}, if the execution failed and the remaining requests should not be executed
+     */
+    private boolean execute(BatchRequest request, OwsServiceRequest r, BatchResponse response) {
+        try {
+            response.add(getServiceOperator(r).receiveRequest(r));
+        } catch (OwsExceptionReport e) {
+            return addException(request, r, e, response);
+        }
+        return true;
+    }
+
+    /**
+     * Execute the requests concurrently and add the responses or exceptions to the batch response in the order of
+     * the requests.
+     *
+     * @return {@code false}, if an execution failed and the remaining requests should not be executed
+     */
+    private boolean execute(BatchRequest request, List<OwsServiceRequest> requests, BatchResponse response,
+            ExecutorService executorService) throws OwsExceptionReport {
+        if (requests.size() <= 1) {
+            return requests.isEmpty() || execute(request, requests.get(0), response);
+        }
+        List<Future<OwsServiceResponse>> futures = new ArrayList<>(requests.size());
+        for (OwsServiceRequest r : requests) {
+            futures.add(executorService.submit(() -> getServiceOperator(r).receiveRequest(r)));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                response.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof OwsExceptionReport)) {
+                    cancel(futures);
+                    throw rethrow(e.getCause());
+                }
+                if (!addException(request, requests.get(i), (OwsExceptionReport) e.getCause(), response)) {
+                    cancel(futures);
+                    return false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(futures);
+                throw new NoApplicableCodeException().causedBy(e)
+                        .withMessage("Interrupted while executing batch request!");
+            }
+        }
+        return true;
+    }
+
+    private boolean addException(BatchRequest request, OwsServiceRequest r, OwsExceptionReport e,
+            BatchResponse response) {
+        response.add(e.setVersion(r.getVersion() != null ? r.getVersion() : request.getVersion()));
+        return !request.isStopAtFailure();
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        // propagate like the sequential execution does
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        } else if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private void cancel(List<Future<OwsServiceResponse>> futures) {
+        // requests that are already running are read-only and are not interrupted
+        futures.forEach(f -> f.cancel(false));
+    }
+
+    /**
+     * Check if the request is handled by a read-only operation, so that it can be executed concurrently. Unknown
+     * operations and nested batch requests are treated like transactional operations.
+     */
+    private boolean isReadOnly(OwsServiceRequest request) {
+        if (request instanceof GetCapabilitiesRequest) {
+            return true;
+        } else if (request instanceof BatchRequest || this.requestOperatorRepository == null) {
+            return false;
+        }
+        RequestOperator operator = this.requestOperatorRepository.getRequestOperator(
+                new OwsServiceKey(request.getService(), request.getVersion()), request.getOperationName());
+        LOGGER.trace("Request operator for {}: {}", request.getOperationName(), operator);
+        return operator != null && !(operator instanceof AbstractTransactionalRequestOperator);
+    }
+
     protected ServiceOperator getServiceOperator(OwsServiceRequest request) throws OwsExceptionReport {
         String service = request.getService();
         String version = request.getVersion();
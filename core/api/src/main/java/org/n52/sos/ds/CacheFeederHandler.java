@@ -62,4 +62,20 @@ public interface CacheFeederHandler {
      */
     void updateCache(SosWritableContentCache cache)
             throws OwsExceptionReport;
+
+    /**
+     * Updates the cached data of all offerings, procedures and features of
+     * interest whose datasets were modified since the last update.
+     *
+     * @param cache the cache to update
+     *
+     * @return {@code false} if the modifications could not be determined and a
+     *         complete update is required
+     *
+     * @throws OwsExceptionReport if an occurs during the cache update
+     */
+    default boolean updateCacheIncrementally(SosWritableContentCache cache)
+            throws OwsExceptionReport {
+        return false;
+    }
 }
@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.n52.faroe.SettingsChangeEvent;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.iceland.coding.encode.ResponseWriter;
+import org.n52.iceland.coding.encode.ResponseWriterRepository;
+import org.n52.iceland.convert.RequestResponseModifier;
+import org.n52.iceland.convert.RequestResponseModifierFacilitator;
+import org.n52.iceland.convert.RequestResponseModifierRepository;
+import org.n52.iceland.ogc.ows.OwsServiceIdentificationFactorySettings;
+import org.n52.iceland.ogc.ows.OwsServiceProviderFactorySettings;
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.janmayen.http.MediaTypes;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.extension.Extension;
+import org.n52.shetland.ogc.ows.service.GetCapabilitiesRequest;
+import org.n52.shetland.ogc.ows.service.GetCapabilitiesResponse;
+import org.n52.shetland.ogc.swe.simpleType.SweAbstractSimpleType;
+import org.n52.sos.ogc.sos.CachedGetCapabilitiesResponse;
+import org.n52.sos.service.SosSettings;
+import org.n52.svalbard.encode.exception.EncodingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Cache for encoded dynamic capabilities documents. Documents are cached for each combination of version, sections,
+ * language and extensions of the requests. If the content cache was updated since a document was created, the
+ * previous document is returned while the document is rebuilt in the background.
+ *
+ * The {@link RequestResponseModifier}s for the request are applied before a document is encoded, as they can not
+ * modify the cached document afterwards. Changes of the service identification or service provider settings remove
+ * all cached documents.
+ *
+ * @since 6.1.2
+ */
+@Configurable
+@SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+public class CapabilitiesResponseCache implements Destroyable, EventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CapabilitiesResponseCache.class);
+
+    private static final Set<Class<? extends Event>> TYPES = ImmutableSet.of(SettingsChangeEvent.class);
+
+    private static final Set<String> SERVICE_METADATA_SETTINGS = ImmutableSet.of(
+            OwsServiceIdentificationFactorySettings.TITLE,
+            OwsServiceIdentificationFactorySettings.ABSTRACT,
+            OwsServiceIdentificationFactorySettings.KEYWORDS,
+            OwsServiceIdentificationFactorySettings.FEES,
+            OwsServiceIdentificationFactorySettings.ACCESS_CONSTRAINTS,
+            OwsServiceProviderFactorySettings.NAME,
+            OwsServiceProviderFactorySettings.SITE,
+            OwsServiceProviderFactorySettings.INDIVIDUAL_NAME,
+            OwsServiceProviderFactorySettings.POSITION_NAME,
+            OwsServiceProviderFactorySettings.PHONE,
+            OwsServiceProviderFactorySettings.FACSIMILE,
+            OwsServiceProviderFactorySettings.ADDRESS,
+            OwsServiceProviderFactorySettings.CITY,
+            OwsServiceProviderFactorySettings.STATE,
+            OwsServiceProviderFactorySettings.POSTAL_CODE,
+            OwsServiceProviderFactorySettings.COUNTRY,
+            OwsServiceProviderFactorySettings.EMAIL,
+            OwsServiceProviderFactorySettings.ONLINE_RESOURCE,
+            OwsServiceProviderFactorySettings.HOURS_OF_SERVICE,
+            OwsServiceProviderFactorySettings.CONTACT_INSTRUCTIONS,
+            OwsServiceProviderFactorySettings.ROLE_VALUE,
+            OwsServiceProviderFactorySettings.ROLE_CODESPACE);
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "capabilities-cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private boolean enabled;
+
+    private int size = 16;
+
+    @Inject
+    private AbstractSosGetCapabilitiesHandler handler;
+
+    @Inject
+    private ResponseWriterRepository responseWriterRepository;
+
+    @Inject
+    private RequestResponseModifierRepository requestResponseModifierRepository;
+
+    @Setting(SosSettings.CAPABILITIES_CACHE)
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Setting(SosSettings.CAPABILITIES_CACHE_SIZE)
+    public void setSize(int size) {
+        synchronized (entries) {
+            this.size = size;
+            removeEldestEntries();
+        }
+    }
+
+    /**
+     * Get the cached capabilities document for the request. The document is created if it is not cached yet.
+     *
+     * @param request
+     *            the GetCapabilities request with the negotiated version
+     * @param showTransactionalOperations
+     *            if the transactional operations should be contained
+     * @return the cached capabilities document
+     * @throws OwsExceptionReport
+     *             if the document can not be created
+     */
+    public GetCapabilitiesResponse get(GetCapabilitiesRequest request, boolean showTransactionalOperations)
+            throws OwsExceptionReport {
+        Key key = new Key(request, showTransactionalOperations);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.computeIfAbsent(key, k -> new Entry(request, showTransactionalOperations));
+            removeEldestEntries();
+        }
+        byte[] document = entry.get(getLastUpdateTime());
+        return new CachedGetCapabilitiesResponse(request.getService(), request.getVersion(), document);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return TYPES;
+    }
+
+    @Override
+    public void handle(Event event) {
+        if (event instanceof SettingsChangeEvent
+                && SERVICE_METADATA_SETTINGS.contains(((SettingsChangeEvent<?>) event).getSetting().getKey())) {
+            LOGGER.debug("Service metadata changed, removing cached capabilities documents");
+            clear();
+        }
+    }
+
+    DateTime getLastUpdateTime() {
+        return handler.getCache().getLastUpdateTime();
+    }
+
+    private void removeEldestEntries() {
+        while (entries.size() > size) {
+            Key eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+
+    byte[] create(GetCapabilitiesRequest request, boolean showTransactionalOperations)
+            throws OwsExceptionReport {
+        GetCapabilitiesResponse response = handler.createDynamicCapabilities(request, showTransactionalOperations);
+        modify(request, response);
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            ResponseWriter<Object> writer = responseWriterRepository.getWriter(response.getClass());
+            response.setContentType(MediaTypes.APPLICATION_XML);
+            writer.setContentType(MediaTypes.APPLICATION_XML);
+            writer.write(response, out);
+            return out.toByteArray();
+        } catch (IOException | EncodingException e) {
+            throw new NoApplicableCodeException().causedBy(e)
+                    .withMessage("Error while encoding the capabilities document!");
+        }
+    }
+
+    private void modify(GetCapabilitiesRequest request, GetCapabilitiesResponse response)
+            throws OwsExceptionReport {
+        if (requestResponseModifierRepository.hasRequestResponseModifier(request, response)) {
+            // same order as in the request operator: mergers, other modifiers, adders and removers
+            List<RequestResponseModifier> modifiers = requestResponseModifierRepository
+                    .getRequestResponseModifier(request, response).stream()
+                    .sorted(Comparator.comparingInt(CapabilitiesResponseCache::getModifierOrder))
+                    .collect(Collectors.toList());
+            for (RequestResponseModifier modifier : modifiers) {
+                modifier.modifyResponse(request, response);
+            }
+        }
+    }
+
+    private static int getModifierOrder(RequestResponseModifier modifier) {
+        RequestResponseModifierFacilitator facilitator = modifier.getFacilitator();
+        if (facilitator.isMerger()) {
+            return 0;
+        } else if (facilitator.isAdderRemover()) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * The cached document for a request.
+     */
+    private final class Entry {
+
+        private final GetCapabilitiesRequest request;
+
+        private final boolean showTransactionalOperations;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private volatile byte[] document;
+
+        private volatile DateTime updateTime;
+
+        Entry(GetCapabilitiesRequest request, boolean showTransactionalOperations) {
+            this.request = request;
+            this.showTransactionalOperations = showTransactionalOperations;
+        }
+
+        synchronized byte[] get(DateTime currentUpdateTime) throws OwsExceptionReport {
+            if (document == null) {
+                document = create(request, showTransactionalOperations);
+                updateTime = currentUpdateTime;
+            } else if (!Objects.equals(updateTime, currentUpdateTime) && refreshing.compareAndSet(false, true)) {
+                executor.execute(() -> refresh(currentUpdateTime));
+            }
+            return document;
+        }
+
+        private void refresh(DateTime currentUpdateTime) {
+            try {
+                LOGGER.debug("Rebuilding capabilities document for update {}", currentUpdateTime);
+                document = create(request, showTransactionalOperations);
+                updateTime = currentUpdateTime;
+            } catch (OwsExceptionReport | RuntimeException e) {
+                LOGGER.error("Error while rebuilding the cached capabilities document!", e);
+            } finally {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    /**
+     * The request parameters that determine the content of a capabilities document.
+     */
+    static final class Key {
+
+        private final String service;
+
+        private final String version;
+
+        private final SortedSet<String> sections;
+
+        private final SortedSet<String> acceptFormats;
+
+        private final String language;
+
+        private final SortedSet<String> extensions;
+
+        private final boolean showTransactionalOperations;
+
+        Key(GetCapabilitiesRequest request, boolean showTransactionalOperations) {
+            this.service = request.getService();
+            this.version = request.getVersion();
+            this.sections = request.isSetSections() ? new TreeSet<>(request.getSections()) : null;
+            this.acceptFormats = request.isSetAcceptFormats() ? new TreeSet<>(request.getAcceptFormats()) : null;
+            this.language = request.getRequestedLanguage();
+            this.extensions = request.getExtensions().stream().map(Key::toString)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            this.showTransactionalOperations = showTransactionalOperations;
+        }
+
+        private static String toString(Extension<?> extension) {
+            Object value = extension.getValue();
+            if (value instanceof SweAbstractSimpleType) {
+                value = ((SweAbstractSimpleType<?>) value).getValue();
+            }
+            String name = Optional.ofNullable(extension.getDefinition()).orElseGet(extension::getIdentifier);
+            return name + "=" + value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(service, version, sections, acceptFormats, language, extensions,
+                    showTransactionalOperations);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return showTransactionalOperations == other.showTransactionalOperations
+                    && Objects.equals(service, other.service) && Objects.equals(version, other.version)
+                    && Objects.equals(sections, other.sections) && Objects.equals(acceptFormats, other.acceptFormats)
+                    && Objects.equals(language, other.language) && Objects.equals(extensions, other.extensions);
+        }
+    }
+
+}
@@ -0,0 +1,622 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTWriter;
+import org.n52.shetland.ogc.filter.BinaryLogicFilter;
+import org.n52.shetland.ogc.filter.ComparisonFilter;
+import org.n52.shetland.ogc.filter.FesMeasureType;
+import org.n52.shetland.ogc.filter.Filter;
+import org.n52.shetland.ogc.filter.SpatialFilter;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.filter.UnaryLogicFilter;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.AbstractPhenomenon;
+import org.n52.shetland.ogc.om.OmCompositePhenomenon;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.ows.extension.Extension;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequestContext;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.delobs.DeleteObservationRequest;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.request.GetResultRequest;
+import org.n52.shetland.ogc.swe.simpleType.SweAbstractSimpleType;
+import org.n52.shetland.util.EnvelopeOrGeometry;
+import org.n52.shetland.util.ReferencedEnvelope;
+import org.n52.sos.event.events.DeleteObservationEvent;
+import org.n52.sos.event.events.ObservationInsertion;
+import org.n52.sos.event.events.ResultInsertion;
+import org.n52.sos.event.events.SensorDeletion;
+import org.n52.sos.event.events.SensorModification;
+import org.n52.sos.event.events.UpdateCache;
+import org.n52.sos.ogc.sos.CachedGetObservationResponse;
+import org.n52.sos.ogc.sos.CachedGetResultResponse;
+import org.n52.sos.service.SosSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
+
+/**
+ * Cache for encoded GetObservation and GetResult responses. Responses are cached for each combination of the request
+ * parameters, the response format and the requested content type. A response is recorded while it is written by the
+ * {@link org.n52.sos.coding.encode.AbstractServiceResponseWriter}, so only responses of the KVP, POX and JSON
+ * bindings are cached.
+ *
+ * Inserted and deleted observations remove the cached responses whose offerings, procedures, observed properties and
+ * features of interest include the modified observations. Deleted sensors and updated sensor descriptions remove the
+ * cached responses of the procedure. The size of the cache is limited by the total size of the
+ * encoded responses, the least recently requested responses are removed first.
+ *
+ * @since 6.1.2
+ */
+@Configurable
+public class ObservationResponseCache implements EventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObservationResponseCache.class);
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private static final Set<Class<? extends Event>> TYPES = ImmutableSet.of(ObservationInsertion.class,
+            ResultInsertion.class, DeleteObservationEvent.class, SensorDeletion.class, SensorModification.class,
+            UpdateCache.class);
+
+    private static final Set<String> CACHEABLE_CONTENT_TYPES = ImmutableSet.of("application/xml", "application/json");
+
+    private final Map<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<OwsServiceResponse, Pending> pending = new MapMaker().weakKeys().makeMap();
+
+    private final AtomicLong modifications = new AtomicLong();
+
+    private volatile boolean enabled;
+
+    private long maxSize = 64 * MEGABYTE;
+
+    private long size;
+
+    @Setting(SosSettings.OBSERVATION_RESPONSE_CACHE)
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Setting(SosSettings.OBSERVATION_RESPONSE_CACHE_SIZE)
+    public void setMaxSize(int megabytes) {
+        synchronized (entries) {
+            this.maxSize = megabytes * MEGABYTE;
+            removeEldestEntries();
+        }
+    }
+
+    /**
+     * Get the cached response for the request.
+     *
+     * @param request
+     *            the checked request
+     * @return the cached response, or an empty optional if the response is not cached
+     */
+    public Optional<OwsServiceResponse> get(OwsServiceRequest request) {
+        Optional<Key> key = createKey(request);
+        if (!key.isPresent()) {
+            return Optional.empty();
+        }
+        byte[] document;
+        synchronized (entries) {
+            document = entries.get(key.get());
+        }
+        if (document == null) {
+            return Optional.empty();
+        }
+        LOGGER.debug("Returning cached {} response", request.getOperationName());
+        if (request instanceof GetObservationRequest) {
+            return Optional.of(new CachedGetObservationResponse(request.getService(), request.getVersion(),
+                    ((GetObservationRequest) request).getResponseFormat(), document));
+        }
+        return Optional.of(new CachedGetResultResponse(request.getService(), request.getVersion(), document));
+    }
+
+    /**
+     * Get the number of modifications that invalidated cached responses so far. It has to be read before the
+     * response is created and passed to {@link #register(OwsServiceRequest, OwsServiceResponse, long)}, so that
+     * responses are not cached if the observations were modified while the response was created.
+     *
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return modifications.get();
+    }
+
+    /**
+     * Register the response to be cached when it is written.
+     *
+     * @param request
+     *            the checked request
+     * @param response
+     *            the response of the request
+     * @param modificationCount
+     *            the {@link #getModificationCount() modification count} before the response was created
+     */
+    public void register(OwsServiceRequest request, OwsServiceResponse response, long modificationCount) {
+        createKey(request).ifPresent(key -> pending.put(response, new Pending(key, modificationCount)));
+    }
+
+    /**
+     * Start to record the encoded response, if it is registered to be cached.
+     *
+     * @param response
+     *            the response that is written
+     * @param out
+     *            the stream the response is written to
+     * @return the recording stream, that has to be finished after the response is written
+     */
+    public Optional<Recording> record(OwsServiceResponse response, OutputStream out) {
+        Pending p = pending.remove(response);
+        if (p == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Recording(out, p));
+    }
+
+    public void clear() {
+        modifications.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+            size = 0;
+        }
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return Collections.unmodifiableSet(TYPES);
+    }
+
+    @Override
+    public void handle(Event event) {
+        if (event instanceof ObservationInsertion) {
+            ObservationInsertion insertion = (ObservationInsertion) event;
+            invalidate(insertion.getRequest().getObservations(), insertion.getRequest().getOfferings());
+        } else if (event instanceof ResultInsertion) {
+            invalidate(((ResultInsertion) event).getResponse().getObservations(), Collections.emptyList());
+        } else if (event instanceof DeleteObservationEvent) {
+            DeleteObservationEvent deletion = (DeleteObservationEvent) event;
+            if (deletion.isSetDeletedObservation()) {
+                invalidate(Collections.singletonList(deletion.getDeletedObservation()), Collections.emptyList());
+            } else {
+                invalidate(deletion.getRequest());
+            }
+        } else if (event instanceof SensorDeletion) {
+            String procedure = ((SensorDeletion) event).getRequest().getProcedureIdentifier();
+            invalidate(new Scope(null, Collections.singleton(procedure), null, null));
+        } else if (event instanceof SensorModification) {
+            // the procedure description may be embedded in the observations
+            String procedure = ((SensorModification) event).getRequest().getProcedureIdentifier();
+            invalidate(new Scope(null, Collections.singleton(procedure), null, null));
+        } else {
+            clear();
+        }
+    }
+
+    private void invalidate(List<OmObservation> observations, Collection<String> offerings) {
+        if (observations == null) {
+            clear();
+            return;
+        }
+        for (OmObservation observation : observations) {
+            OmObservationConstellation constellation = observation.getObservationConstellation();
+            Set<String> observedProperties = new HashSet<>();
+            observedProperties.add(constellation.getObservablePropertyIdentifier());
+            AbstractPhenomenon phenomenon = constellation.getObservableProperty();
+            if (phenomenon instanceof OmCompositePhenomenon) {
+                ((OmCompositePhenomenon) phenomenon).getPhenomenonComponents()
+                        .forEach(component -> observedProperties.add(component.getIdentifier()));
+            }
+            invalidate(new Scope(constellation.isSetOfferings() ? constellation.getOfferings() : offerings,
+                    Collections.singleton(constellation.getProcedureIdentifier()), observedProperties,
+                    Collections.singleton(constellation.getFeatureOfInterestIdentifier())));
+        }
+    }
+
+    private void invalidate(DeleteObservationRequest request) {
+        if (request.getOfferings().isEmpty() && request.getProcedures().isEmpty()
+                && request.getObservedProperties().isEmpty() && request.getFeatureIdentifiers().isEmpty()) {
+            // deleted by identifiers or temporal filters only
+            clear();
+        } else {
+            invalidate(new Scope(request.getOfferings(), request.getProcedures(), request.getObservedProperties(),
+                    request.getFeatureIdentifiers()));
+        }
+    }
+
+    private void invalidate(Scope scope) {
+        modifications.incrementAndGet();
+        synchronized (entries) {
+            Iterator<Map.Entry<Key, byte[]>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, byte[]> entry = iterator.next();
+                if (entry.getKey().scope.intersects(scope)) {
+                    size -= entry.getValue().length;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void put(Pending p, byte[] document) {
+        synchronized (entries) {
+            // do not cache responses that were created before a modification
+            if (!enabled || p.modifications != modifications.get() || document.length > maxSize) {
+                return;
+            }
+            byte[] previous = entries.put(p.key, document);
+            if (previous != null) {
+                size -= previous.length;
+            }
+            size += document.length;
+            removeEldestEntries();
+        }
+    }
+
+    private void removeEldestEntries() {
+        Iterator<byte[]> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private Optional<Key> createKey(OwsServiceRequest request) {
+        if (!enabled || !isCacheableContentType(request)) {
+            return Optional.empty();
+        }
+        if (request instanceof GetObservationRequest) {
+            return Optional.of(new Key((GetObservationRequest) request));
+        } else if (request instanceof GetResultRequest) {
+            return Optional.of(new Key((GetResultRequest) request));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * SOAP responses are not written by the service response writer, so only requests without content type (KVP) or
+     * with the content type of the POX or JSON binding are cached.
+     */
+    private boolean isCacheableContentType(OwsServiceRequest request) {
+        Optional<String> contentType = getContentType(request);
+        return !contentType.isPresent()
+                || CACHEABLE_CONTENT_TYPES.contains(contentType.get().split(";")[0].trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static Optional<String> getContentType(OwsServiceRequest request) {
+        return Optional.ofNullable(request.getRequestContext()).flatMap(OwsServiceRequestContext::getContentType);
+    }
+
+    /**
+     * Stream that copies the written response.
+     */
+    public final class Recording extends FilterOutputStream {
+
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private final Pending pending;
+
+        private boolean overflow;
+
+        Recording(OutputStream out, Pending pending) {
+            super(out);
+            this.pending = pending;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (!overflow) {
+                copy.write(b);
+                checkOverflow();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (!overflow) {
+                copy.write(b, off, len);
+                checkOverflow();
+            }
+        }
+
+        private void checkOverflow() {
+            if (copy.size() > maxSize) {
+                overflow = true;
+                copy.reset();
+            }
+        }
+
+        /**
+         * Cache the recorded response. Has to be called after the response is completely written.
+         */
+        public void finish() {
+            if (!overflow) {
+                put(pending, copy.toByteArray());
+            }
+        }
+    }
+
+    private static final class Pending {
+
+        private final Key key;
+
+        private final long modifications;
+
+        Pending(Key key, long modifications) {
+            this.key = key;
+            this.modifications = modifications;
+        }
+    }
+
+    /**
+     * The offerings, procedures, observed properties and features of interest of requests or modified observations.
+     * Empty dimensions include everything.
+     */
+    private static final class Scope {
+
+        private final Set<String> offerings;
+
+        private final Set<String> procedures;
+
+        private final Set<String> observedProperties;
+
+        private final Set<String> features;
+
+        Scope(Collection<String> offerings, Collection<String> procedures, Collection<String> observedProperties,
+                Collection<String> features) {
+            this.offerings = toSet(offerings);
+            this.procedures = toSet(procedures);
+            this.observedProperties = toSet(observedProperties);
+            this.features = toSet(features);
+        }
+
+        boolean intersects(Scope other) {
+            return intersects(offerings, other.offerings) && intersects(procedures, other.procedures)
+                    && intersects(observedProperties, other.observedProperties)
+                    && intersects(features, other.features);
+        }
+
+        private static boolean intersects(Set<String> a, Set<String> b) {
+            return a.isEmpty() || b.isEmpty() || !Sets.intersection(a, b).isEmpty();
+        }
+
+        private static SortedSet<String> toSet(Collection<String> values) {
+            if (values == null) {
+                return Collections.emptySortedSet();
+            }
+            return values.stream().filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(offerings, procedures, observedProperties, features);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Scope)) {
+                return false;
+            }
+            Scope other = (Scope) obj;
+            return offerings.equals(other.offerings) && procedures.equals(other.procedures)
+                    && observedProperties.equals(other.observedProperties) && features.equals(other.features);
+        }
+    }
+
+    /**
+     * The request parameters that determine the content of a response.
+     */
+    private static final class Key {
+
+        private final String operation;
+
+        private final Scope scope;
+
+        private final List<String> parameters;
+
+        Key(GetObservationRequest request) {
+            this.operation = request.getOperationName();
+            this.scope = new Scope(request.getOfferings(), request.getProcedures(), request.getObservedProperties(),
+                    request.getFeatureIdentifiers());
+            this.parameters = parameters(request, request.getTemporalFilters(), request.getSpatialFilter(),
+                    request.getResultFilter(), request.getResponseFormat(), request.getResponseMode(),
+                    request.getResultModel(), request.getSrsName());
+        }
+
+        Key(GetResultRequest request) {
+            this.operation = request.getOperationName();
+            // the features of a result request are not resolved to their child features
+            this.scope = new Scope(Collections.singleton(request.getOffering()),
+                    null, Collections.singleton(request.getObservedProperty()), null);
+            this.parameters = parameters(request, request.getTemporalFilter(), request.getSpatialFilter(),
+                    request.getFeatureIdentifiers() == null ? null : new TreeSet<>(request.getFeatureIdentifiers()),
+                    request.getObservationTemplateIdentifier());
+        }
+
+        private static List<String> parameters(OwsServiceRequest request, List<? extends Filter<?>> temporalFilters,
+                SpatialFilter spatialFilter, Object... parameters) {
+            List<String> list = new ArrayList<>();
+            list.add(request.getService());
+            list.add(request.getVersion());
+            list.add(getContentType(request).orElse(null));
+            list.add(Optional.ofNullable(request.getRequestContext()).flatMap(OwsServiceRequestContext::getAcceptType)
+                    .map(Object::toString).orElse(null));
+            list.add(temporalFilters == null ? null
+                    : temporalFilters.stream().map(Key::toString).sorted().collect(Collectors.joining(",")));
+            list.add(spatialFilter == null ? null : toString(spatialFilter));
+            for (Object parameter : parameters) {
+                list.add(parameter instanceof Filter ? toString((Filter<?>) parameter)
+                        : Objects.toString(parameter, null));
+            }
+            list.add(request.getExtensions().stream().map(Key::toString).sorted()
+                    .collect(Collectors.joining(",")));
+            return list;
+        }
+
+        /**
+         * The {@code toString()} methods of the filters omit the value reference and parts of the operands, so the
+         * filters are described explicitly.
+         */
+        private static String toString(Filter<?> filter) {
+            StringBuilder builder = new StringBuilder();
+            builder.append(filter.getClass().getSimpleName()).append('[').append(filter.getValueReference())
+                    .append(';').append(filter.getOperator());
+            if (filter instanceof TemporalFilter) {
+                builder.append(';').append(toString(((TemporalFilter) filter).getTime()));
+            } else if (filter instanceof SpatialFilter) {
+                SpatialFilter spatialFilter = (SpatialFilter) filter;
+                builder.append(';').append(toString(spatialFilter.getGeometry()));
+                FesMeasureType distance = spatialFilter.getDistance();
+                if (distance != null) {
+                    builder.append(';').append(distance.getValue()).append(' ').append(distance.getUnit());
+                }
+            } else if (filter instanceof ComparisonFilter) {
+                ComparisonFilter comparisonFilter = (ComparisonFilter) filter;
+                builder.append(';').append(comparisonFilter.getValue()).append(';')
+                        .append(comparisonFilter.getValueUpper()).append(';')
+                        .append(comparisonFilter.getEscapeString()).append(';')
+                        .append(comparisonFilter.getWildCard()).append(';')
+                        .append(comparisonFilter.getSingleChar()).append(';')
+                        .append(comparisonFilter.isMatchCase());
+            } else if (filter instanceof BinaryLogicFilter) {
+                builder.append(';').append(((BinaryLogicFilter) filter).getFilterPredicates().stream()
+                        .map(Key::toString).sorted().collect(Collectors.joining(",")));
+            } else if (filter instanceof UnaryLogicFilter) {
+                builder.append(';').append(toString(((UnaryLogicFilter) filter).getFilterPredicate()));
+            } else {
+                builder.append(';').append(filter);
+            }
+            return builder.append(']').toString();
+        }
+
+        private static String toString(Time time) {
+            if (time instanceof TimeInstant) {
+                TimeInstant instant = (TimeInstant) time;
+                return String.format("%s/%s", toString(instant.getValue()), instant.getIndeterminateValue());
+            } else if (time instanceof TimePeriod) {
+                TimePeriod period = (TimePeriod) time;
+                return String.format("%s/%s--%s/%s", toString(period.getStart()), period.getStartIndet(),
+                        toString(period.getEnd()), period.getEndIndet());
+            }
+            return Objects.toString(time, null);
+        }
+
+        private static String toString(DateTime dateTime) {
+            return dateTime == null ? null : Long.toString(dateTime.getMillis());
+        }
+
+        private static String toString(EnvelopeOrGeometry geometry) {
+            if (geometry == null) {
+                return null;
+            }
+            if (geometry.isEnvelope()) {
+                ReferencedEnvelope envelope = geometry.getEnvelope().get();
+                return String.format("SRID=%d;%s,%s,%s,%s", envelope.getSrid(), envelope.getMinX(),
+                        envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY());
+            }
+            Geometry g = geometry.toGeometry();
+            return String.format("SRID=%d;%s", g.getSRID(), new WKTWriter(3).write(g));
+        }
+
+        private static String toString(Extension<?> extension) {
+            Object value = extension.getValue();
+            if (value instanceof SweAbstractSimpleType) {
+                value = ((SweAbstractSimpleType<?>) value).getValue();
+            }
+            String name = Optional.ofNullable(extension.getDefinition()).orElseGet(extension::getIdentifier);
+            return name + "=" + value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation, scope, parameters);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(operation, other.operation) && scope.equals(other.scope)
+                    && parameters.equals(other.parameters);
+        }
+    }
+
+}
@@ -27,6 +27,8 @@
  */
 package org.n52.sos.event.events;
 
+import java.util.Set;
+
 import org.n52.shetland.ogc.om.OmObservation;
 import org.n52.shetland.ogc.sos.delobs.DeleteObservationRequest;
 import org.n52.shetland.ogc.sos.delobs.DeleteObservationResponse;
@@ -42,11 +44,19 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public class DeleteObservationEvent extends SosDeletionEvent<DeleteObservationRequest, DeleteObservationResponse> {
     private OmObservation deletedObservation;
 
+    private Set<String> modifiedOfferings;
+
     public DeleteObservationEvent(DeleteObservationRequest request, DeleteObservationResponse response) {
         super(request, response);
         this.deletedObservation = response.getDeletedObservation();
     }
 
+    public DeleteObservationEvent(DeleteObservationRequest request, DeleteObservationResponse response,
+            Set<String> modifiedOfferings) {
+        this(request, response);
+        this.modifiedOfferings = modifiedOfferings;
+    }
+
     public OmObservation getDeletedObservation() {
         return deletedObservation;
     }
@@ -54,4 +64,11 @@ public class DeleteObservationEvent extends SosDeletionEvent<DeleteObservationRe
     public boolean isSetDeletedObservation() {
         return getDeletedObservation() != null;
     }
+
+    /**
+     * @return the identifiers of the offerings whose observations were deleted, or {@code null} if they are unknown
+     */
+    public Set<String> getModifiedOfferings() {
+        return modifiedOfferings;
+    }
 }
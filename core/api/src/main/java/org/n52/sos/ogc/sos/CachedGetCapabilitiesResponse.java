@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ogc.sos;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.n52.shetland.ogc.ows.service.GetCapabilitiesResponse;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * {@link GetCapabilitiesResponse} for an already encoded capabilities document. XML responses are written as is,
+ * other encodings get the document as static capabilities from {@link #getStaticString()}.
+ *
+ * @since 6.1.2
+ */
+@SuppressFBWarnings({"EI_EXPOSE_REP2"})
+public class CachedGetCapabilitiesResponse extends GetCapabilitiesResponse {
+
+    private final byte[] document;
+
+    public CachedGetCapabilitiesResponse(String service, String version, byte[] document) {
+        super(service, version);
+        this.document = document;
+    }
+
+    /**
+     * Write the encoded document to the output stream.
+     *
+     * @param out
+     *            the output stream
+     * @throws IOException
+     *             if the document can not be written
+     */
+    public void writeDocument(OutputStream out) throws IOException {
+        out.write(document);
+    }
+
+    @Override
+    public String getStaticString() {
+        return new String(document, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isStatic() {
+        return document.length > 0;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ogc.sos;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import org.n52.shetland.ogc.sos.response.GetResultResponse;
+
+/**
+ * {@link GetResultResponse} whose result values are written by a {@link ResultValuesWriter} when the response is
+ * encoded, so that they do not have to be held in memory. Encoders that require the result values as a
+ * {@link String} still get them from {@link #getResultValues()}.
+ *
+ * @since 6.1.2
+ */
+public class StreamingGetResultResponse extends GetResultResponse {
+
+    private final ResultValuesWriter resultValuesWriter;
+
+    private String resultValues;
+
+    public StreamingGetResultResponse(String service, String version, ResultValuesWriter resultValuesWriter) {
+        super(service, version);
+        this.resultValuesWriter = resultValuesWriter;
+    }
+
+    /**
+     * Write the result values to the writer.
+     *
+     * @param out
+     *            the writer
+     * @throws IOException
+     *             if the result values can not be queried or written
+     */
+    public void writeResultValues(Writer out) throws IOException {
+        if (resultValues != null) {
+            out.write(resultValues);
+        } else {
+            resultValuesWriter.write(out);
+        }
+    }
+
+    @Override
+    public String getResultValues() {
+        if (resultValues == null) {
+            StringWriter writer = new StringWriter();
+            try {
+                resultValuesWriter.write(writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            resultValues = writer.toString();
+        }
+        return resultValues;
+    }
+
+    @Override
+    public void setResultValues(String resultValues) {
+        this.resultValues = resultValues;
+    }
+
+    @Override
+    public boolean hasResultValues() {
+        return true;
+    }
+
+    /**
+     * Writes the block and token separated result values of a {@link StreamingGetResultResponse}.
+     */
+    @FunctionalInterface
+    public interface ResultValuesWriter {
+        /**
+         * Write the result values, starting with the element count.
+         *
+         * @param out
+         *            the writer
+         * @throws IOException
+         *             if the result values can not be queried or written
+         */
+        void write(Writer out) throws IOException;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.request;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.joda.time.Period;
+import org.n52.shetland.ogc.ows.exception.InvalidParameterValueException;
+import org.n52.shetland.ogc.ows.exception.MissingParameterValueException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.extension.Extension;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.swe.simpleType.SweAbstractSimpleType;
+
+/**
+ * Temporal aggregation of observation values requested by the {@value #AGGREGATION} and
+ * {@value #AGGREGATION_INTERVAL} extensions, e.g. {@code aggregation=mean&aggregationInterval=PT1H}. The values of a
+ * dataset are grouped into buckets of the interval length by their phenomenon time start. The buckets are aligned to
+ * the epoch (UTC), so the interval has to be of fixed length and must not contain months or years.
+ *
+ * @since 6.1.2
+ */
+public class ObservationAggregation {
+
+    public static final String AGGREGATION = "aggregation";
+
+    public static final String AGGREGATION_INTERVAL = "aggregationInterval";
+
+    private final Function function;
+
+    private final long interval;
+
+    public ObservationAggregation(Function function, long interval) {
+        this.function = Objects.requireNonNull(function);
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval has to be positive");
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * @return the aggregation function
+     */
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * @return the length of the buckets in milliseconds
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @param time
+     *            the phenomenon time start of a value
+     * @return the index of the bucket that contains the time
+     */
+    public long getBucket(Date time) {
+        return Math.floorDiv(time.getTime(), interval);
+    }
+
+    /**
+     * @param bucket
+     *            the index of the bucket
+     * @return the inclusive start of the bucket
+     */
+    public Date getBucketStart(long bucket) {
+        return new Date(bucket * interval);
+    }
+
+    /**
+     * @param bucket
+     *            the index of the bucket
+     * @return the exclusive end of the bucket
+     */
+    public Date getBucketEnd(long bucket) {
+        return new Date((bucket + 1) * interval);
+    }
+
+    /**
+     * @return an accumulator for the values of a bucket
+     */
+    public Accumulator createAccumulator() {
+        return new Accumulator(function);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(%s, %d ms)", getClass().getSimpleName(), function, interval);
+    }
+
+    /**
+     * Get the aggregation requested by the extensions of the request.
+     *
+     * @param request
+     *            the request
+     * @return the aggregation, or an empty optional if no aggregation is requested
+     * @throws OwsExceptionReport
+     *             if the aggregation or interval is missing or invalid
+     */
+    public static Optional<ObservationAggregation> fromRequest(OwsServiceRequest request) throws OwsExceptionReport {
+        Optional<String> function = getValue(request, AGGREGATION);
+        Optional<String> interval = getValue(request, AGGREGATION_INTERVAL);
+        if (!function.isPresent() && !interval.isPresent()) {
+            return Optional.empty();
+        } else if (!function.isPresent()) {
+            throw new MissingParameterValueException(AGGREGATION);
+        } else if (!interval.isPresent()) {
+            throw new MissingParameterValueException(AGGREGATION_INTERVAL);
+        }
+        return Optional.of(new ObservationAggregation(parseFunction(function.get()), parseInterval(interval.get())));
+    }
+
+    private static Function parseFunction(String value) throws OwsExceptionReport {
+        try {
+            return Function.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterValueException(AGGREGATION, value).causedBy(e);
+        }
+    }
+
+    private static long parseInterval(String value) throws OwsExceptionReport {
+        try {
+            long millis = Period.parse(value.trim()).toStandardDuration().getMillis();
+            if (millis > 0) {
+                return millis;
+            }
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw new InvalidParameterValueException(AGGREGATION_INTERVAL, value).causedBy(e);
+        }
+        throw new InvalidParameterValueException(AGGREGATION_INTERVAL, value)
+                .withMessage("The aggregation interval has to be positive!");
+    }
+
+    private static Optional<String> getValue(OwsServiceRequest request, String name) {
+        return request.getExtension(name).map(Extension::getValue).map(value -> {
+            if (value instanceof SweAbstractSimpleType) {
+                return ((SweAbstractSimpleType<?>) value).getValue();
+            }
+            return value;
+        }).map(Object::toString).filter(value -> !value.trim().isEmpty());
+    }
+
+    /**
+     * The supported aggregation functions.
+     */
+    public enum Function {
+        MEAN,
+        MIN,
+        MAX,
+        COUNT;
+
+        /**
+         * @return if the function requires numeric values
+         */
+        public boolean isNumeric() {
+            return this != COUNT;
+        }
+    }
+
+    /**
+     * Accumulates the values of a single bucket. {@code null} values are counted but otherwise ignored.
+     */
+    public static class Accumulator {
+
+        private final Function function;
+
+        private long count;
+
+        private long numericCount;
+
+        private BigDecimal value;
+
+        Accumulator(Function function) {
+            this.function = function;
+        }
+
+        public void add(BigDecimal v) {
+            count++;
+            if (v == null || !function.isNumeric()) {
+                return;
+            }
+            numericCount++;
+            if (value == null) {
+                value = v;
+            } else if (function == Function.MEAN) {
+                value = value.add(v);
+            } else if (function == Function.MIN) {
+                value = value.min(v);
+            } else if (function == Function.MAX) {
+                value = value.max(v);
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the aggregated value, or {@code null} if the bucket contains no numeric value
+         */
+        public BigDecimal getValue() {
+            if (function == Function.COUNT) {
+                return BigDecimal.valueOf(count);
+            } else if (function == Function.MEAN && value != null) {
+                return value.divide(BigDecimal.valueOf(numericCount), MathContext.DECIMAL64);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.request;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.n52.shetland.ogc.ows.exception.InvalidParameterValueException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.extension.Extension;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.swe.simpleType.SweAbstractSimpleType;
+
+/**
+ * Visual downsampling of observation values requested by the {@value #DOWNSAMPLING} extension, e.g.
+ * {@code downsampling=2000}. The values of a dataset are reduced to at most the requested number of points with the
+ * Largest-Triangle-Three-Buckets algorithm. The buckets divide the time range of the dataset equally, so the values
+ * can be reduced while they are streamed and only the values of two buckets have to be kept in memory.
+ *
+ * @since 6.1.2
+ */
+public class ObservationDownsampling {
+
+    public static final String DOWNSAMPLING = "downsampling";
+
+    /**
+     * The first and the last value and at least one bucket.
+     */
+    public static final int MIN_THRESHOLD = 3;
+
+    private final int threshold;
+
+    public ObservationDownsampling(int threshold) {
+        if (threshold < MIN_THRESHOLD) {
+            throw new IllegalArgumentException("threshold has to be at least " + MIN_THRESHOLD);
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return the maximum number of values per dataset
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Create a reducer for the values of a dataset.
+     *
+     * @param <T>
+     *            the type of the values
+     * @param start
+     *            the time of the first value
+     * @param end
+     *            the time of the last value
+     * @return the reducer
+     */
+    public <T> Reducer<T> createReducer(long start, long end) {
+        return new Reducer<>(threshold - 2, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(%d)", getClass().getSimpleName(), threshold);
+    }
+
+    /**
+     * Get the downsampling requested by the extensions of the request.
+     *
+     * @param request
+     *            the request
+     * @return the downsampling, or an empty optional if no downsampling is requested
+     * @throws OwsExceptionReport
+     *             if the threshold is invalid
+     */
+    public static Optional<ObservationDownsampling> fromRequest(OwsServiceRequest request)
+            throws OwsExceptionReport {
+        Optional<String> value = request.getExtension(DOWNSAMPLING).map(Extension::getValue).map(v -> {
+            if (v instanceof SweAbstractSimpleType) {
+                return ((SweAbstractSimpleType<?>) v).getValue();
+            }
+            return v;
+        }).map(Object::toString).map(String::trim).filter(v -> !v.isEmpty());
+        if (!value.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            int threshold = Integer.parseInt(value.get());
+            if (threshold >= MIN_THRESHOLD) {
+                return Optional.of(new ObservationDownsampling(threshold));
+            }
+        } catch (NumberFormatException e) {
+            throw new InvalidParameterValueException(DOWNSAMPLING, value.get()).causedBy(e);
+        }
+        throw new InvalidParameterValueException(DOWNSAMPLING, value.get())
+                .withMessage("The downsampling threshold has to be at least %d!", MIN_THRESHOLD);
+    }
+
+    /**
+     * Streaming Largest-Triangle-Three-Buckets reducer. The first and the last value are always kept. Of the other
+     * values, the one of each bucket that forms the largest triangle with the previously selected value and the
+     * average of the next bucket is selected. A bucket is reduced as soon as the next bucket is complete. The values
+     * have to be added in temporal order to be reduced correctly. A value that belongs to an already reduced bucket
+     * is added to the earliest bucket that is not reduced yet, so at most one value per bucket is selected even if
+     * the order is violated. Values without a numeric value are only selected if their bucket contains no numeric
+     * value.
+     *
+     * @param <T>
+     *            the type of the values
+     */
+    public static class Reducer<T> {
+
+        private final int buckets;
+
+        private final long start;
+
+        private final double width;
+
+        private Point<T> held;
+
+        private boolean started;
+
+        private double anchorX;
+
+        private double anchorY;
+
+        private Bucket pending;
+
+        private Bucket current;
+
+        Reducer(int buckets, long start, long end) {
+            this.buckets = buckets;
+            this.start = start;
+            this.width = Math.max(end - start + 1, 1) / (double) buckets;
+        }
+
+        /**
+         * Add the next value.
+         *
+         * @param time
+         *            the time of the value
+         * @param value
+         *            the numeric value, may be {@code null}
+         * @param item
+         *            the value
+         * @return the values that are selected by adding the value, in temporal order
+         */
+        public List<T> add(long time, BigDecimal value, T item) {
+            Point<T> point = new Point<>(time - start, value, item);
+            if (!started) {
+                started = true;
+                anchorX = point.x;
+                anchorY = point.hasY() ? point.y : 0;
+                return Collections.singletonList(item);
+            }
+            List<T> selected = new ArrayList<>(1);
+            if (held != null) {
+                int index = (int) Math.min(Math.max(Math.floor(held.x / width), 0), buckets - 1);
+                if (pending != null && index <= pending.index) {
+                    // values of already reduced buckets are added to the earliest bucket that is not reduced
+                    pending.add(held);
+                } else if (current != null && index <= current.index) {
+                    current.add(held);
+                } else {
+                    if (current != null) {
+                        if (pending != null) {
+                            selected.add(pending.select(current.getAverageX(), current.getAverageY()));
+                        }
+                        pending = current;
+                    }
+                    current = new Bucket(index);
+                    current.add(held);
+                }
+            }
+            held = point;
+            return selected;
+        }
+
+        /**
+         * @return the remaining selected values, in temporal order
+         */
+        public List<T> finish() {
+            List<T> selected = new ArrayList<>(3);
+            if (held != null) {
+                if (pending != null) {
+                    selected.add(pending.select(current.getAverageX(), current.getAverageY()));
+                }
+                if (current != null) {
+                    selected.add(current.select(held.x, held.hasY() ? held.y : anchorY));
+                }
+                selected.add(held.item);
+            }
+            this.held = null;
+            this.pending = null;
+            this.current = null;
+            return selected;
+        }
+
+        private final class Bucket {
+
+            private final int index;
+
+            private final List<Point<T>> points = new ArrayList<>();
+
+            private double sumX;
+
+            private double sumY;
+
+            private int countY;
+
+            Bucket(int index) {
+                this.index = index;
+            }
+
+            void add(Point<T> point) {
+                points.add(point);
+                sumX += point.x;
+                if (point.hasY()) {
+                    sumY += point.y;
+                    countY++;
+                }
+            }
+
+            double getAverageX() {
+                return sumX / points.size();
+            }
+
+            double getAverageY() {
+                return countY > 0 ? sumY / countY : anchorY;
+            }
+
+            T select(double nextX, double nextY) {
+                Point<T> selected = null;
+                double maxArea = -1;
+                for (Point<T> point : points) {
+                    double area = point.hasY() ? Math.abs((anchorX - nextX) * (point.y - anchorY)
+                            - (anchorX - point.x) * (nextY - anchorY)) : 0;
+                    if (area > maxArea) {
+                        maxArea = area;
+                        selected = point;
+                    }
+                }
+                anchorX = selected.x;
+                if (selected.hasY()) {
+                    anchorY = selected.y;
+                }
+                return selected.item;
+            }
+        }
+    }
+
+    private static final class Point<T> {
+
+        private final double x;
+
+        private final double y;
+
+        private final T item;
+
+        Point(long x, BigDecimal y, T item) {
+            this.x = x;
+            this.y = y != null ? y.doubleValue() : Double.NaN;
+            this.item = item;
+        }
+
+        boolean hasY() {
+            return !Double.isNaN(y);
+        }
+    }
+}
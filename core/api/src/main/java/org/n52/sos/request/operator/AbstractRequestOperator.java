@@ -94,6 +94,7 @@ import org.n52.shetland.util.CollectionHelper;
 import org.n52.sos.cache.SosContentCache;
 import org.n52.sos.coding.encode.ProcedureDescriptionFormatRepository;
 import org.n52.sos.coding.encode.ResponseFormatRepository;
+import org.n52.sos.ds.ObservationResponseCache;
 import org.n52.sos.exception.ows.concrete.InvalidResponseFormatParameterException;
 import org.n52.sos.exception.ows.concrete.InvalidValueReferenceException;
 import org.n52.sos.exception.ows.concrete.MissingProcedureParameterException;
@@ -191,6 +192,8 @@ public abstract class AbstractRequestOperator<D extends OperationHandler,
 
     private EncoderRepository encoderRepository;
 
+    private Optional<ObservationResponseCache> observationResponseCache = Optional.empty();
+
     private boolean allowQueryingForInstancesOnly;
 
     private boolean showOnlyAggregatedProcedures;
@@ -298,6 +301,11 @@ public abstract class AbstractRequestOperator<D extends OperationHandler,
         return encoderRepository;
     }
 
+    @Inject
+    public void setObservationResponseCache(Optional<ObservationResponseCache> observationResponseCache) {
+        this.observationResponseCache = observationResponseCache;
+    }
+
     /**
      * @return the allowQueryingForInstancesOnly
      */
@@ -379,15 +387,40 @@ public abstract class AbstractRequestOperator<D extends OperationHandler,
             preProcessRequest(request);
             checkForModifierAndProcess(request);
             checkParameters(request);
+            Optional<OwsServiceResponse> cached = getCachedResponse(request);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+            // read before the response is created to detect modifications while it is created
+            long modificationCount = getModificationCount();
             A response = receive(request);
             this.serviceEventBus.submit(new ResponseEvent(response));
             postProcessResponse(response);
-            return checkForModifierAndProcess(request, response);
+            OwsServiceResponse modified = checkForModifierAndProcess(request, response);
+            if (isObservationResponseCacheEnabled()) {
+                this.observationResponseCache.get().register(request, modified, modificationCount);
+            }
+            return modified;
         } else {
             throw new OperationNotSupportedException(abstractRequest.getOperationName());
         }
     }
 
+    private Optional<OwsServiceResponse> getCachedResponse(Q request) {
+        if (isObservationResponseCacheEnabled()) {
+            return this.observationResponseCache.get().get(request);
+        }
+        return Optional.empty();
+    }
+
+    private long getModificationCount() {
+        return this.observationResponseCache.map(ObservationResponseCache::getModificationCount).orElse(0L);
+    }
+
+    private boolean isObservationResponseCacheEnabled() {
+        return this.observationResponseCache.isPresent() && this.observationResponseCache.get().isEnabled();
+    }
+
     protected void preProcessRequest(Q request) {
         // nothing to do
     }
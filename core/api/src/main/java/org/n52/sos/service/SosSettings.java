@@ -37,6 +37,22 @@ public interface SosSettings {
     String LIST_ONLY_PARENT_OFFERINGS = "service.capabilities.listOnlyParentOfferings";
     String UPDATE_FEATURE_GEOMETRY = "service.updateFeatureGeometry";
     String CACHE_FILE_FOLDER = "service.cacheFileFolder";
+    String SNAPSHOT_CACHE = "service.cache.snapshot";
+
+    String DICTIONARY_CACHE = "service.cache.dictionary";
+
+    String INCREMENTAL_CACHE_UPDATES = "service.cache.incrementalUpdates";
+
+    String CACHE_REFRESH_AFTER_LOAD = "service.cache.refreshAfterLoad";
+
+    String CAPABILITIES_CACHE = "service.capabilities.cache";
+
+    String CAPABILITIES_CACHE_SIZE = "service.capabilities.cache.size";
+
+    String OBSERVATION_RESPONSE_CACHE = "service.observation.cache";
+
+    String OBSERVATION_RESPONSE_CACHE_SIZE = "service.observation.cache.size";
+
     String CREATE_FOI_GEOM_FROM_SAMPLING_GEOMS = "service.createFeatureGeometryFromSamplingGeometries";
     String ALLOW_TEMPLATE_WITHOUT_PROCEDURE_FEATURE = "service.allowTemplateWithoutProcedureAndFeature";
     String INCLUDE_RESULT_TIME_FOR_MERGING = "service.includeResultTimeForMerging";
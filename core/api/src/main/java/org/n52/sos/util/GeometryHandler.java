@@ -27,6 +27,7 @@
  */
 package org.n52.sos.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -42,8 +43,10 @@ import org.geotools.referencing.ReferencingFactoryFinder;
 import org.geotools.referencing.factory.AbstractAuthorityFactory;
 import org.geotools.referencing.factory.DeferredAuthorityFactory;
 import org.geotools.util.factory.Hints;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
 import org.n52.faroe.ConfigurationError;
 import org.n52.faroe.Validation;
 import org.n52.faroe.annotation.Configurable;
@@ -122,6 +125,12 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
 
     private final Map<Integer, CoordinateReferenceSystem> crsCache = Maps.newConcurrentMap();
 
+    /*
+     * Transforms keyed by source and target EPSG code. The axis order of the CRS is fixed by the authority hints
+     * in init() and the axis switching is done on the geometries, so the EPSG codes identify the transform.
+     */
+    private final Map<Long, MathTransform> transformCache = Maps.newConcurrentMap();
+
     private String srsNamePrefixUrl;
 
     @Setting(CodingSettings.SRS_NAME_PREFIX_URL)
@@ -701,7 +710,7 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
         }
         Geometry switchedCoordiantes = switchCoordinateAxisIfNeeded(geometry, targetSRID);
         try {
-            MathTransform transform = CRS.findMathTransform(sourceCRS, targetCRS);
+            MathTransform transform = getTransform(geometry.getSRID(), sourceCRS, targetSRID, targetCRS);
             Geometry transformed = JTS.transform(switchedCoordiantes, transform);
             transformed.setSRID(targetSRID);
             return transformed;
@@ -711,6 +720,110 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
         }
     }
 
+    /**
+     * Transform geometries to this EPSG code. The points of each source EPSG code are transformed with a single
+     * call of the cached transform, other geometries are transformed one by one.
+     *
+     * @param geometries
+     *            Geometries to transform
+     * @param targetSRID
+     *            Target EPSG code
+     *
+     * @return Transformed geometries in the order of the passed geometries
+     *
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    public List<Geometry> transform(List<? extends Geometry> geometries, int targetSRID) throws OwsExceptionReport {
+        List<Geometry> transformed = new ArrayList<>(geometries);
+        Map<Integer, List<Integer>> pointsBySRID = Maps.newHashMap();
+        for (int i = 0; i < transformed.size(); i++) {
+            Geometry geometry = transformed.get(i);
+            if (geometry instanceof Point && !geometry.isEmpty() && geometry.getSRID() != targetSRID) {
+                pointsBySRID.computeIfAbsent(geometry.getSRID(), srid -> new ArrayList<>()).add(i);
+            } else {
+                transformed.set(i, transform(geometry, targetSRID));
+            }
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : pointsBySRID.entrySet()) {
+            transformPoints(transformed, entry.getValue(), entry.getKey(), targetSRID);
+        }
+        return transformed;
+    }
+
+    private void transformPoints(List<Geometry> geometries, List<Integer> indices, int sourceSRID, int targetSRID)
+            throws OwsExceptionReport {
+        CoordinateReferenceSystem sourceCRS = getCRS(sourceSRID);
+        CoordinateReferenceSystem targetCRS = getCRS(targetSRID);
+        MathTransform transform;
+        try {
+            transform = getTransform(sourceSRID, sourceCRS, targetSRID, targetCRS);
+        } catch (FactoryException fe) {
+            throw new NoApplicableCodeException().causedBy(fe).withMessage(EPSG_NOT_SUPPORTED_TMEPLATE, sourceSRID);
+        }
+        if (sourceCRS.equals(targetCRS) || transform.getSourceDimensions() != 2
+                || transform.getTargetDimensions() != 2) {
+            for (int index : indices) {
+                geometries.set(index, transform(geometries.get(index), targetSRID, sourceCRS, targetCRS));
+            }
+            return;
+        }
+        boolean switchAxis = isNorthingFirstEpsgCode(sourceSRID) != isNorthingFirstEpsgCode(targetSRID);
+        double[] coordinates = new double[indices.size() * 2];
+        for (int i = 0; i < indices.size(); i++) {
+            Coordinate coordinate = geometries.get(indices.get(i)).getCoordinate();
+            coordinates[i * 2] = switchAxis ? coordinate.y : coordinate.x;
+            coordinates[i * 2 + 1] = switchAxis ? coordinate.x : coordinate.y;
+        }
+        try {
+            transform.transform(coordinates, 0, coordinates, 0, indices.size());
+        } catch (TransformException te) {
+            throw new NoApplicableCodeException().causedBy(te)
+                    .withMessage("Transformation from EPSG code '%s' to '%s' fails!", sourceSRID, targetSRID);
+        }
+        for (int i = 0; i < indices.size(); i++) {
+            Geometry point = geometries.get(indices.get(i));
+            Point transformed = point.getFactory()
+                    .createPoint(new Coordinate(coordinates[i * 2], coordinates[i * 2 + 1], point.getCoordinate().z));
+            transformed.setSRID(targetSRID);
+            geometries.set(indices.get(i), transformed);
+        }
+    }
+
+    /**
+     * Get the cached transform between the CRS or create it.
+     *
+     * @param sourceSRID
+     *            Source EPSG code
+     * @param sourceCRS
+     *            Source CRS
+     * @param targetSRID
+     *            Target EPSG code
+     * @param targetCRS
+     *            Target CRS
+     *
+     * @return the transform
+     *
+     * @throws FactoryException
+     *             If the transform can not be created
+     */
+    private MathTransform getTransform(int sourceSRID, CoordinateReferenceSystem sourceCRS, int targetSRID,
+            CoordinateReferenceSystem targetCRS) throws FactoryException {
+        long key = ((long) sourceSRID << Integer.SIZE) | (targetSRID & 0xffffffffL);
+        try {
+            return this.transformCache.computeIfAbsent(key, k -> {
+                try {
+                    return CRS.findMathTransform(sourceCRS, targetCRS);
+                } catch (FactoryException ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            Throwables.throwIfInstanceOf(ex.getCause(), FactoryException.class);
+            throw ex;
+        }
+    }
+
     /**
      * Get CRS from EPSG code.
      *
@@ -791,7 +904,7 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
             CoordinateReferenceSystem targetCRS = getCRS(targetSRID);
             try {
                 if (sourceCRS.getCoordinateSystem().getDimension() == targetCRS.getCoordinateSystem().getDimension()) {
-                    MathTransform transform = CRS.findMathTransform(sourceCRS, targetCRS);
+                    MathTransform transform = getTransform(sourceSRID, sourceCRS, targetSRID, targetCRS);
                     Envelope transformed = JTS.transform(envelope, transform);
                     return transformed;
                 }
@@ -813,6 +926,7 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
     @VisibleForTesting
     protected void clearSupportedCRSMap() {
         crsCache.clear();
+        transformCache.clear();
     }
 
     public Set<String> addAuthorityCrsPrefix(Collection<String> crses) {
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.n52.janmayen.http.MediaTypes;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.sos.ogc.sos.CachedGetCapabilitiesResponse;
+
+public class CachedGetCapabilitiesResponseWriterTest {
+    private static final String DOCUMENT = "<sos:Capabilities xmlns:sos=\"http://www.opengis.net/sos/2.0\"/>";
+
+    @Test
+    public void should_write_cached_document() throws Exception {
+        CachedGetCapabilitiesResponse response = new CachedGetCapabilitiesResponse(SosConstants.SOS,
+                Sos2Constants.SERVICEVERSION, DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        AbstractServiceResponseWriter writer = new AbstractServiceResponseWriter(null, null);
+        writer.setContentType(MediaTypes.APPLICATION_XML);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(response, out);
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is(DOCUMENT));
+    }
+
+    @Test
+    public void should_provide_cached_document_as_static_capabilities() {
+        CachedGetCapabilitiesResponse response = new CachedGetCapabilitiesResponse(SosConstants.SOS,
+                Sos2Constants.SERVICEVERSION, DOCUMENT.getBytes(StandardCharsets.UTF_8));
+        assertThat(response.isStatic(), is(true));
+        assertThat(response.getXmlString(), is(DOCUMENT));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.xmlbeans.XmlOptions;
+import org.junit.Test;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.w3c.W3CConstants;
+import org.n52.sos.ogc.sos.StreamingGetResultResponse;
+import org.n52.svalbard.encode.EncoderRepository;
+import org.n52.svalbard.encode.GetResultResponseEncoder;
+import org.n52.svalbard.encode.SchemaRepository;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+public class GetResultResponseXmlStreamWriterTest {
+    private static final String RESULT_VALUES = "2@2013-07-18T03:00:00.000Z,<1&2>@2013-07-18T04:00:00.000Z,3";
+
+    @Test
+    public void should_write_escaped_result_values() throws Exception {
+        StreamingGetResultResponse response = new StreamingGetResultResponse(SosConstants.SOS,
+                Sos2Constants.SERVICEVERSION, out -> {
+                    for (String block : RESULT_VALUES.split("(?=@)")) {
+                        out.write(block);
+                    }
+                });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GetResultResponseXmlStreamWriter().write(response, out);
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray()));
+        Element root = document.getDocumentElement();
+        assertThat(root.getNamespaceURI(), is(Sos2Constants.NS_SOS_20));
+        assertThat(root.getLocalName(), is(Sos2Constants.EN_GET_RESULT_RESPONSE));
+        assertThat(root.getElementsByTagNameNS(Sos2Constants.NS_SOS_20, "resultValues").item(0).getTextContent(),
+                is(RESULT_VALUES));
+    }
+
+    @Test
+    public void should_write_the_same_document_as_the_encoder() throws Exception {
+        StreamingGetResultResponse response = new StreamingGetResultResponse(SosConstants.SOS,
+                Sos2Constants.SERVICEVERSION, out -> out.write(RESULT_VALUES));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GetResultResponseXmlStreamWriter().write(response, out);
+        Element streamed = parse(out.toByteArray()).getDocumentElement();
+
+        GetResultResponseEncoder encoder = new GetResultResponseEncoder();
+        encoder.setXmlOptions(XmlOptions::new);
+        EncoderRepository encoderRepository = new EncoderRepository();
+        encoderRepository.setEncoders(Collections.singleton(encoder));
+        encoderRepository.init();
+        SchemaRepository schemaRepository = new SchemaRepository();
+        schemaRepository.setEncoderRepository(encoderRepository);
+        schemaRepository.init();
+        encoder.setSchemaRepository(schemaRepository);
+        String xml = encoder.encode(response).xmlText();
+        Element encoded = parse(xml.getBytes(StandardCharsets.UTF_8)).getDocumentElement();
+
+        assertThat(streamed.getNamespaceURI(), is(encoded.getNamespaceURI()));
+        assertThat(streamed.getLocalName(), is(encoded.getLocalName()));
+        assertThat(streamed.getAttributeNS(W3CConstants.NS_XSI, W3CConstants.AN_SCHEMA_LOCATION),
+                is(encoded.getAttributeNS(W3CConstants.NS_XSI, W3CConstants.AN_SCHEMA_LOCATION)));
+        assertThat(childElements(streamed), is(childElements(encoded)));
+    }
+
+    private static Document parse(byte[] bytes) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+    }
+
+    private static String childElements(Element element) {
+        StringBuilder builder = new StringBuilder();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                builder.append('{').append(child.getNamespaceURI()).append('}').append(child.getLocalName())
+                        .append('=').append(child.getTextContent()).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void should_materialize_result_values() {
+        StreamingGetResultResponse response = new StreamingGetResultResponse(SosConstants.SOS,
+                Sos2Constants.SERVICEVERSION, out -> out.write(RESULT_VALUES));
+        assertThat(response.getResultValues(), is(RESULT_VALUES));
+    }
+}
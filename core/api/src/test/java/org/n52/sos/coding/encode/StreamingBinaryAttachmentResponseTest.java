@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.n52.janmayen.http.MediaTypes;
+import org.n52.svalbard.encode.exception.EncodingException;
+
+public class StreamingBinaryAttachmentResponseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void should_write_file_and_delete_temporary_directory() throws IOException, EncodingException {
+        File directory = folder.newFolder();
+        File file = createFile(directory, "a.nc", "content");
+        FileBinaryAttachmentResponse response =
+                new FileBinaryAttachmentResponse(file, MediaTypes.APPLICATION_ZIP, "a.nc", directory);
+        assertThat(response.getContentLength(), is(7L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryAttachmentResponseWriter(null).write(response, out);
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is("content"));
+        assertThat(directory.exists(), is(false));
+    }
+
+    @Test
+    public void should_zip_directory_and_delete_it() throws IOException, EncodingException {
+        File directory = folder.newFolder();
+        createFile(directory, "a.nc", "first");
+        createFile(directory, "b.nc", "second");
+        ZipBinaryAttachmentResponse response =
+                new ZipBinaryAttachmentResponse(directory, MediaTypes.APPLICATION_ZIP, "a.zip");
+        assertThat(response.getContentLength(), is(-1L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryAttachmentResponseWriter(null).write(response, out);
+        assertThat(directory.exists(), is(false));
+
+        Map<String, String> entries = new TreeMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = zip.read(buffer)) > 0) {
+                    content.write(buffer, 0, read);
+                }
+                entries.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get("a.nc"), is("first"));
+        assertThat(entries.get("b.nc"), is("second"));
+    }
+
+    @Test
+    public void should_buffer_content_once_if_bytes_are_requested() throws IOException {
+        File directory = folder.newFolder();
+        File file = createFile(directory, "a.nc", "content");
+        FileBinaryAttachmentResponse response =
+                new FileBinaryAttachmentResponse(file, MediaTypes.APPLICATION_ZIP, "a.nc", directory);
+        assertThat(response.getSize(), is(7));
+        assertThat(directory.exists(), is(false));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.writeTo(out);
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is("content"));
+    }
+
+    @Test
+    public void should_delete_temporary_directory_of_unwritten_response() throws Exception {
+        File directory = folder.newFolder();
+        createFile(directory, "a.nc", "content");
+        new ZipBinaryAttachmentResponse(directory, MediaTypes.APPLICATION_ZIP, "a.zip");
+        for (int i = 0; i < 50 && directory.exists(); i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertThat(directory.exists(), is(false));
+    }
+
+    private File createFile(File directory, String name, String content) throws IOException {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
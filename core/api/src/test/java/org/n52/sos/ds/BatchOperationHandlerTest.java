@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.iceland.request.handler.OperationHandler;
+import org.n52.iceland.request.operator.RequestOperator;
+import org.n52.iceland.request.operator.RequestOperatorRepository;
+import org.n52.iceland.service.operator.ServiceOperator;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.GetCapabilitiesResponse;
+import org.n52.shetland.ogc.ows.service.OwsServiceKey;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.BatchRequest;
+import org.n52.shetland.ogc.sos.request.DeleteSensorRequest;
+import org.n52.shetland.ogc.sos.request.GetFeatureOfInterestRequest;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.response.BatchResponse;
+import org.n52.sos.request.operator.AbstractRequestOperator;
+import org.n52.sos.request.operator.AbstractTransactionalRequestOperator;
+
+public class BatchOperationHandlerTest {
+
+    private static final String VERSION = "2.0.0";
+
+    private static final String FAILURE = "failure";
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    private final AtomicInteger running = new AtomicInteger(0);
+
+    private final AtomicBoolean exclusive = new AtomicBoolean(false);
+
+    private final AtomicInteger maxRunning = new AtomicInteger(0);
+
+    /**
+     * The identifiers of the requests, responses and exceptions.
+     */
+    private final Map<Object, String> ids = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private BatchOperationHandler handler;
+
+    @Before
+    public void setUp() {
+        ServiceOperator operator = new TestServiceOperator();
+        handler = new BatchOperationHandler() {
+            @Override
+            protected ServiceOperator getServiceOperator(OwsServiceRequest request) {
+                return operator;
+            }
+        };
+        handler.setRequestOperatorRepository(new TestRequestOperatorRepository());
+        handler.setThreadCount(4);
+    }
+
+    @After
+    public void tearDown() {
+        handler.destroy();
+    }
+
+    @Test
+    public void shouldExecuteReadOnlyRequestsConcurrentlyAndKeepOrder() throws OwsExceptionReport {
+        // the first request blocks until the second one was executed
+        BatchResponse response = handler.executeRequests(batch(false, read("await"), read("release"),
+                write("write"), read("a"), read("b")));
+        assertThat(ids(response), contains("await", "release", "write", "a", "b"));
+        assertThat(maxRunning.get() > 1, is(true));
+    }
+
+    @Test
+    public void shouldExecuteTransactionalRequestsSequentially() throws OwsExceptionReport {
+        latch.countDown();
+        BatchResponse response = handler.executeRequests(batch(false, read("a"), read("b"), write("write1"),
+                write("write2"), read("c"), read("d"), write("write3")));
+        assertThat(ids(response), contains("a", "b", "write1", "write2", "c", "d", "write3"));
+    }
+
+    @Test
+    public void shouldExecuteUnknownOperationsSequentially() throws OwsExceptionReport {
+        latch.countDown();
+        BatchResponse response = handler.executeRequests(batch(false, read("a"), unknown("unknown1"),
+                unknown("unknown2"), read("b")));
+        assertThat(ids(response), contains("a", "unknown1", "unknown2", "b"));
+        assertThat(maxRunning.get(), is(1));
+    }
+
+    @Test
+    public void shouldExecuteSequentiallyWithSingleThread() throws OwsExceptionReport {
+        handler.setThreadCount(1);
+        latch.countDown();
+        BatchResponse response = handler.executeRequests(batch(false, read("a"), read("b"), write("write"),
+                read("c")));
+        assertThat(ids(response), contains("a", "b", "write", "c"));
+        assertThat(maxRunning.get(), is(1));
+    }
+
+    @Test
+    public void shouldStopAtFailure() throws OwsExceptionReport {
+        latch.countDown();
+        BatchResponse response = handler.executeRequests(batch(true, read("a"), read(FAILURE), read("b"),
+                write("write")));
+        assertThat(ids(response), contains("a", FAILURE));
+    }
+
+    @Test
+    public void shouldContinueAfterFailure() throws OwsExceptionReport {
+        latch.countDown();
+        BatchResponse response = handler.executeRequests(batch(false, write(FAILURE), read("a"), read(FAILURE),
+                write("write")));
+        assertThat(ids(response), contains(FAILURE, "a", FAILURE, "write"));
+    }
+
+    private BatchRequest batch(boolean stopAtFailure, OwsServiceRequest... requests) {
+        BatchRequest request = new BatchRequest(Arrays.asList(requests));
+        request.setService(SosConstants.SOS);
+        request.setVersion(VERSION);
+        request.setStopAtFailure(stopAtFailure);
+        return request;
+    }
+
+    private OwsServiceRequest read(String id) {
+        return register(new GetObservationRequest(SosConstants.SOS, VERSION), id);
+    }
+
+    private OwsServiceRequest write(String id) {
+        DeleteSensorRequest request = new DeleteSensorRequest(SosConstants.SOS, VERSION);
+        request.setProcedureIdentifier(id);
+        return register(request, id);
+    }
+
+    private OwsServiceRequest unknown(String id) {
+        return register(new GetFeatureOfInterestRequest(SosConstants.SOS, VERSION), id);
+    }
+
+    private OwsServiceRequest register(OwsServiceRequest request, String id) {
+        ids.put(request, id);
+        return request;
+    }
+
+    private List<String> ids(BatchResponse response) {
+        return response.getResponses().stream()
+                .map(r -> ids.get(r.isException() ? r.getException() : r.getResponse()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Checks that read-only requests are never executed together with other requests.
+     */
+    private class TestServiceOperator implements ServiceOperator {
+
+        @Override
+        public Set<OwsServiceKey> getKeys() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public OwsServiceResponse receiveRequest(OwsServiceRequest request) throws OwsExceptionReport {
+            String id = ids.get(request);
+            boolean readOnly = request instanceof GetObservationRequest;
+            if (readOnly) {
+                assertThat("read-only request executed with " + id, exclusive.get(), is(false));
+            } else {
+                assertThat("request executed concurrently: " + id, running.get(), is(0));
+                exclusive.set(true);
+            }
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if ("await".equals(id)) {
+                    assertThat("read-only requests executed sequentially", await(), is(true));
+                } else if ("release".equals(id)) {
+                    latch.countDown();
+                }
+                if (FAILURE.equals(id)) {
+                    OwsExceptionReport exception = new NoApplicableCodeException().withMessage(FAILURE);
+                    ids.put(exception, id);
+                    throw exception;
+                }
+                OwsServiceResponse response = new GetCapabilitiesResponse(request.getService(), request.getVersion());
+                ids.put(response, id);
+                return response;
+            } finally {
+                running.decrementAndGet();
+                if (!readOnly) {
+                    exclusive.set(false);
+                }
+            }
+        }
+
+        private boolean await() {
+            try {
+                return latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Repository with a read-only GetObservation and a transactional DeleteSensor operator. Other operations are
+     * unknown.
+     */
+    private static class TestRequestOperatorRepository extends RequestOperatorRepository {
+
+        private final Map<String, RequestOperator> operators = new HashMap<>();
+
+        TestRequestOperatorRepository() {
+            operators.put(SosConstants.Operations.GetObservation.name(),
+                    new AbstractRequestOperator<OperationHandler, GetObservationRequest, OwsServiceResponse>(
+                            SosConstants.SOS, VERSION, SosConstants.Operations.GetObservation.name(),
+                            GetObservationRequest.class) {
+                        @Override
+                        protected OwsServiceResponse receive(GetObservationRequest request) {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        protected void checkParameters(GetObservationRequest request) {
+                        }
+                    });
+            operators.put(Sos2Constants.Operations.DeleteSensor.name(),
+                    new AbstractTransactionalRequestOperator<OperationHandler, DeleteSensorRequest,
+                            OwsServiceResponse>(SosConstants.SOS, VERSION, Sos2Constants.Operations.DeleteSensor,
+                                    DeleteSensorRequest.class) {
+                        @Override
+                        protected OwsServiceResponse receive(DeleteSensorRequest request) {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        protected void checkParameters(DeleteSensorRequest request) {
+                        }
+                    });
+        }
+
+        @Override
+        public RequestOperator getRequestOperator(OwsServiceKey key, String operationName) {
+            return operators.get(operationName);
+        }
+    }
+}
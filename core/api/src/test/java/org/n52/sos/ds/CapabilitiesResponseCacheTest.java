@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.faroe.SettingsChangeEvent;
+import org.n52.faroe.settings.StringSettingDefinition;
+import org.n52.iceland.ogc.ows.OwsServiceIdentificationFactorySettings;
+import org.n52.iceland.ogc.ows.OwsServiceProviderFactorySettings;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.GetCapabilitiesRequest;
+import org.n52.sos.ds.CapabilitiesResponseCache.Key;
+
+public class CapabilitiesResponseCacheTest {
+
+    private static final DateTime FIRST_UPDATE = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    private TestCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new TestCache();
+        cache.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    public void keysShouldIgnoreTheOrderOfSections() {
+        Key key = new Key(request("2.0.0", "Contents", "OperationsMetadata"), false);
+        Key other = new Key(request("2.0.0", "OperationsMetadata", "Contents"), false);
+        assertThat(key, is(other));
+        assertThat(key.hashCode(), is(other.hashCode()));
+    }
+
+    @Test
+    public void keysShouldDifferInRequestParameters() {
+        Key key = new Key(request("2.0.0", "Contents"), false);
+        assertThat(key, is(not(new Key(request("1.0.0", "Contents"), false))));
+        assertThat(key, is(not(new Key(request("2.0.0", "Contents", "Filter_Capabilities"), false))));
+        assertThat(key, is(not(new Key(request("2.0.0"), false))));
+        assertThat(key, is(not(new Key(request("2.0.0", "Contents"), true))));
+        GetCapabilitiesRequest request = request("2.0.0", "Contents");
+        request.setAcceptFormats(Collections.singletonList("text/xml"));
+        assertThat(key, is(not(new Key(request, false))));
+    }
+
+    @Test
+    public void shouldReturnTheCachedDocument() throws OwsExceptionReport {
+        assertThat(get(request("2.0.0", "Contents")), is("Contents-1"));
+        assertThat(get(request("2.0.0", "Contents")), is("Contents-1"));
+        assertThat(cache.created.size(), is(1));
+    }
+
+    @Test
+    public void shouldRefreshStaleDocumentsInTheBackground() throws Exception {
+        assertThat(get(request("2.0.0", "Contents")), is("Contents-1"));
+        cache.updateTime = FIRST_UPDATE.plusHours(1);
+        assertThat(get(request("2.0.0", "Contents")), is("Contents-1"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String document = get(request("2.0.0", "Contents"));
+        while (document.equals("Contents-1") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            document = get(request("2.0.0", "Contents"));
+        }
+        assertThat(document, is("Contents-2"));
+        assertThat(get(request("2.0.0", "Contents")), is("Contents-2"));
+        assertThat(cache.created.size(), is(2));
+    }
+
+    @Test
+    public void shouldRemoveLeastRecentlyUsedDocuments() throws OwsExceptionReport {
+        cache.setSize(2);
+        get(request("2.0.0", "Contents"));
+        get(request("2.0.0", "OperationsMetadata"));
+        get(request("2.0.0", "Contents"));
+        get(request("2.0.0", "ServiceProvider"));
+        assertThat(get(request("2.0.0", "Contents")), is("Contents-1"));
+        assertThat(get(request("2.0.0", "ServiceProvider")), is("ServiceProvider-1"));
+        assertThat(get(request("2.0.0", "OperationsMetadata")), is("OperationsMetadata-2"));
+    }
+
+    @Test
+    public void shouldRemoveDocumentsWhenServiceMetadataChanges() throws OwsExceptionReport {
+        get(request("2.0.0", "ServiceIdentification"));
+        get(request("2.0.0", "ServiceProvider"));
+        cache.handle(settingsChange("service.capabilities.cache.size"));
+        assertThat(get(request("2.0.0", "ServiceIdentification")), is("ServiceIdentification-1"));
+        cache.handle(settingsChange(OwsServiceIdentificationFactorySettings.TITLE));
+        assertThat(get(request("2.0.0", "ServiceIdentification")), is("ServiceIdentification-2"));
+        cache.handle(settingsChange(OwsServiceProviderFactorySettings.EMAIL));
+        assertThat(get(request("2.0.0", "ServiceProvider")), is("ServiceProvider-2"));
+    }
+
+    private String get(GetCapabilitiesRequest request) throws OwsExceptionReport {
+        return cache.get(request, false).getStaticString();
+    }
+
+    private static GetCapabilitiesRequest request(String version, String... sections) {
+        GetCapabilitiesRequest request = new GetCapabilitiesRequest("SOS");
+        request.setVersion(version);
+        if (sections.length > 0) {
+            request.setSections(Arrays.asList(sections));
+        }
+        return request;
+    }
+
+    private static SettingsChangeEvent<String> settingsChange(String key) {
+        StringSettingDefinition definition = new StringSettingDefinition();
+        definition.setKey(key);
+        return new SettingsChangeEvent<>(definition, null, null);
+    }
+
+    /**
+     * Creates documents from the requested sections and counts how often a document was created for them.
+     */
+    private static class TestCache extends CapabilitiesResponseCache {
+
+        private final List<String> created = new CopyOnWriteArrayList<>();
+
+        private volatile DateTime updateTime = FIRST_UPDATE;
+
+        @Override
+        DateTime getLastUpdateTime() {
+            return updateTime;
+        }
+
+        @Override
+        byte[] create(GetCapabilitiesRequest request, boolean showTransactionalOperations) {
+            String sections = String.join(",", request.getSections());
+            created.add(sections);
+            long count = created.stream().filter(sections::equals).count();
+            return (sections + "-" + count).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.n52.shetland.ogc.filter.FesMeasureType;
+import org.n52.shetland.ogc.filter.FilterConstants.SpatialOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.SpatialFilter;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.om.SingleObservationValue;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequestContext;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.SosProcedureDescriptionUnknownType;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.shetland.ogc.sos.request.UpdateSensorRequest;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.n52.shetland.ogc.sos.response.InsertObservationResponse;
+import org.n52.shetland.ogc.sos.response.UpdateSensorResponse;
+import org.n52.sos.ds.ObservationResponseCache.Recording;
+import org.n52.sos.event.events.ObservationInsertion;
+import org.n52.sos.event.events.SensorModification;
+import org.n52.sos.ogc.sos.CachedGetObservationResponse;
+import org.n52.sos.ogc.sos.CachedResponse;
+
+public class ObservationResponseCacheTest {
+
+    private static final String DOCUMENT = "<om:ObservationCollection/>";
+
+    private ObservationResponseCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new ObservationResponseCache();
+        cache.setEnabled(true);
+    }
+
+    @Test
+    public void shouldReturnRecordedResponse() throws IOException {
+        assertThat(cache.get(request("offering")).isPresent(), is(false));
+        cache(request("offering"));
+        Optional<OwsServiceResponse> cached = cache.get(request("offering"));
+        assertThat(cached.isPresent(), is(true));
+        assertThat(cached.get(), is(instanceOf(CachedGetObservationResponse.class)));
+        assertThat(write(cached.get()), is(DOCUMENT));
+    }
+
+    @Test
+    public void shouldOnlyRemoveAffectedResponses() throws IOException {
+        cache(request("offering"));
+        cache(request("other"));
+        cache.handle(insertion("other"));
+        assertThat(cache.get(request("offering")).isPresent(), is(true));
+        assertThat(cache.get(request("other")).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldNotCacheResponsesCreatedBeforeModification() throws IOException {
+        GetObservationResponse response = new GetObservationResponse();
+        cache.register(request("offering"), response, cache.getModificationCount());
+        cache.handle(insertion("other"));
+        record(response);
+        assertThat(cache.get(request("offering")).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldNotCacheResponsesModifiedWhileCreated() throws IOException {
+        // the modification count is read before the observations are queried
+        long modificationCount = cache.getModificationCount();
+        cache.handle(insertion("offering"));
+        GetObservationResponse response = new GetObservationResponse();
+        cache.register(request("offering"), response, modificationCount);
+        record(response);
+        assertThat(cache.get(request("offering")).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldNotCacheSoapRequests() throws IOException {
+        GetObservationRequest request = request("offering");
+        OwsServiceRequestContext context = new OwsServiceRequestContext();
+        context.setContentType("application/soap+xml");
+        request.setRequestContext(context);
+        cache(request);
+        assertThat(cache.get(request).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldRemoveLeastRecentlyUsedResponses() throws IOException {
+        cache.setMaxSize(1);
+        GetObservationResponse response = new GetObservationResponse();
+        cache.register(request("offering"), response, cache.getModificationCount());
+        try (Recording recording = cache.record(response, new ByteArrayOutputStream()).get()) {
+            recording.write(new byte[1024 * 1024 + 1]);
+            recording.finish();
+        }
+        assertThat(cache.get(request("offering")).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldDistinguishTemporalFilterValueReferences() throws IOException {
+        TimePeriod period = new TimePeriod(new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC),
+                new DateTime(2020, 1, 2, 0, 0, DateTimeZone.UTC));
+        GetObservationRequest phenomenonTime = request("offering");
+        phenomenonTime.addTemporalFilter(new TemporalFilter(TimeOperator.TM_During, period, "phenomenonTime"));
+        GetObservationRequest resultTime = request("offering");
+        resultTime.addTemporalFilter(new TemporalFilter(TimeOperator.TM_During, period, "resultTime"));
+        cache(phenomenonTime);
+        assertThat(cache.get(phenomenonTime).isPresent(), is(true));
+        assertThat(cache.get(resultTime).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldDistinguishSpatialFilterSridAndDistance() throws IOException {
+        GeometryFactory factory = new GeometryFactory();
+        Point point = factory.createPoint(new Coordinate(7.0, 52.0));
+        point.setSRID(4326);
+        Point otherSrid = factory.createPoint(new Coordinate(7.0, 52.0));
+        otherSrid.setSRID(4258);
+        GetObservationRequest request = request("offering");
+        request.setSpatialFilter(new SpatialFilter(SpatialOperator.DWithin, point, "om:featureOfInterest",
+                new FesMeasureType(10.0, "m")));
+        GetObservationRequest otherDistance = request("offering");
+        otherDistance.setSpatialFilter(new SpatialFilter(SpatialOperator.DWithin, point, "om:featureOfInterest",
+                new FesMeasureType(100.0, "m")));
+        GetObservationRequest otherValueReference = request("offering");
+        otherValueReference.setSpatialFilter(new SpatialFilter(SpatialOperator.DWithin, point,
+                "sams:shape", new FesMeasureType(10.0, "m")));
+        GetObservationRequest otherReferenceSystem = request("offering");
+        otherReferenceSystem.setSpatialFilter(new SpatialFilter(SpatialOperator.DWithin, otherSrid,
+                "om:featureOfInterest", new FesMeasureType(10.0, "m")));
+        cache(request);
+        assertThat(cache.get(request).isPresent(), is(true));
+        assertThat(cache.get(otherDistance).isPresent(), is(false));
+        assertThat(cache.get(otherValueReference).isPresent(), is(false));
+        assertThat(cache.get(otherReferenceSystem).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldRemoveResponsesOfUpdatedSensor() throws IOException {
+        GetObservationRequest request = request("offering");
+        request.setProcedures(Collections.singletonList("procedure"));
+        GetObservationRequest other = request("offering");
+        other.setProcedures(Collections.singletonList("other"));
+        cache(request);
+        cache(other);
+        UpdateSensorRequest update = new UpdateSensorRequest();
+        update.setProcedureIdentifier("procedure");
+        cache.handle(new SensorModification(update, new UpdateSensorResponse()));
+        assertThat(cache.get(request).isPresent(), is(false));
+        assertThat(cache.get(other).isPresent(), is(true));
+    }
+
+    private void cache(GetObservationRequest request) throws IOException {
+        GetObservationResponse response = new GetObservationResponse();
+        cache.register(request, response, cache.getModificationCount());
+        record(response);
+    }
+
+    private void record(OwsServiceResponse response) throws IOException {
+        Optional<Recording> recording = cache.record(response, new ByteArrayOutputStream());
+        if (recording.isPresent()) {
+            recording.get().write(DOCUMENT.getBytes(StandardCharsets.UTF_8));
+            recording.get().finish();
+        }
+    }
+
+    private String write(OwsServiceResponse response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((CachedResponse) response).writeDocument(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private GetObservationRequest request(String offering) {
+        GetObservationRequest request = new GetObservationRequest("SOS", "2.0.0");
+        request.setOfferings(Collections.singletonList(offering));
+        request.setResponseFormat("http://www.opengis.net/om/2.0");
+        return request;
+    }
+
+    private ObservationInsertion insertion(String offering) {
+        OmObservation observation = new OmObservation();
+        observation.setObservationConstellation(new OmObservationConstellation(
+                new SosProcedureDescriptionUnknownType("procedure"), new OmObservableProperty("property"),
+                new SamplingFeature(new CodeWithAuthority("feature")), Collections.singleton(offering)));
+        observation.setValue(new SingleObservationValue<>(new TimeInstant(new DateTime()), new QuantityValue(1.0)));
+        InsertObservationRequest request = new InsertObservationRequest();
+        request.setObservation(Collections.singletonList(observation));
+        return new ObservationInsertion(request, new InsertObservationResponse());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.request;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.n52.shetland.ogc.ows.exception.InvalidParameterValueException;
+import org.n52.shetland.ogc.ows.exception.MissingParameterValueException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.sos.request.ObservationAggregation.Accumulator;
+import org.n52.sos.request.ObservationAggregation.Function;
+
+public class ObservationAggregationTest {
+
+    private static final long HOUR = 3600000L;
+
+    @Test
+    public void shouldReturnEmptyWithoutExtensions() throws OwsExceptionReport {
+        assertThat(ObservationAggregation.fromRequest(new GetObservationRequest()).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldParseExtensions() throws OwsExceptionReport {
+        Optional<ObservationAggregation> aggregation = ObservationAggregation.fromRequest(request("Mean", "PT1H"));
+        assertThat(aggregation.isPresent(), is(true));
+        assertThat(aggregation.get().getFunction(), is(Function.MEAN));
+        assertThat(aggregation.get().getInterval(), is(HOUR));
+    }
+
+    @Test(expected = MissingParameterValueException.class)
+    public void shouldRequireInterval() throws OwsExceptionReport {
+        ObservationAggregation.fromRequest(request("max", null));
+    }
+
+    @Test(expected = InvalidParameterValueException.class)
+    public void shouldRejectUnknownFunction() throws OwsExceptionReport {
+        ObservationAggregation.fromRequest(request("median", "PT1H"));
+    }
+
+    @Test(expected = InvalidParameterValueException.class)
+    public void shouldRejectIntervalWithMonths() throws OwsExceptionReport {
+        ObservationAggregation.fromRequest(request("max", "P1M"));
+    }
+
+    @Test
+    public void shouldAlignBucketsToEpoch() {
+        ObservationAggregation aggregation = new ObservationAggregation(Function.MIN, HOUR);
+        long bucket = aggregation.getBucket(new Date(5 * HOUR + 1234));
+        assertThat(bucket, is(5L));
+        assertThat(aggregation.getBucketStart(bucket), is(new Date(5 * HOUR)));
+        assertThat(aggregation.getBucketEnd(bucket), is(new Date(6 * HOUR)));
+        assertThat(aggregation.getBucket(new Date(-1)), is(-1L));
+    }
+
+    @Test
+    public void shouldAccumulateValues() {
+        assertThat(accumulate(Function.MEAN).getValue(), comparesEqualTo(new BigDecimal("2")));
+        assertThat(accumulate(Function.MIN).getValue(), comparesEqualTo(new BigDecimal("1")));
+        assertThat(accumulate(Function.MAX).getValue(), comparesEqualTo(new BigDecimal("3")));
+        assertThat(accumulate(Function.COUNT).getValue(), comparesEqualTo(new BigDecimal("3")));
+    }
+
+    @Test
+    public void shouldIgnoreNullValues() {
+        Accumulator accumulator = new ObservationAggregation(Function.MEAN, HOUR).createAccumulator();
+        accumulator.add(null);
+        assertThat(accumulator.getValue(), is(nullValue()));
+        assertThat(accumulator.getCount(), is(1L));
+    }
+
+    private Accumulator accumulate(Function function) {
+        Accumulator accumulator = new ObservationAggregation(function, HOUR).createAccumulator();
+        accumulator.add(new BigDecimal("1"));
+        accumulator.add(null);
+        accumulator.add(new BigDecimal("3"));
+        return accumulator;
+    }
+
+    private GetObservationRequest request(String function, String interval) {
+        GetObservationRequest request = new GetObservationRequest();
+        if (function != null) {
+            request.addSweTextExtension(ObservationAggregation.AGGREGATION, function);
+        }
+        if (interval != null) {
+            request.addSweTextExtension(ObservationAggregation.AGGREGATION_INTERVAL, interval);
+        }
+        return request;
+    }
+}
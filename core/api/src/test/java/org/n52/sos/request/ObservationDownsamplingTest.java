@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.request;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.n52.shetland.ogc.ows.exception.InvalidParameterValueException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.sos.request.ObservationDownsampling.Reducer;
+
+public class ObservationDownsamplingTest {
+
+    @Test
+    public void shouldReturnEmptyWithoutExtension() throws OwsExceptionReport {
+        assertThat(ObservationDownsampling.fromRequest(new GetObservationRequest()).isPresent(), is(false));
+    }
+
+    @Test
+    public void shouldParseExtension() throws OwsExceptionReport {
+        assertThat(ObservationDownsampling.fromRequest(request(" 2000")).get().getThreshold(), is(2000));
+    }
+
+    @Test(expected = InvalidParameterValueException.class)
+    public void shouldRejectTooSmallThreshold() throws OwsExceptionReport {
+        ObservationDownsampling.fromRequest(request("2"));
+    }
+
+    @Test(expected = InvalidParameterValueException.class)
+    public void shouldRejectInvalidThreshold() throws OwsExceptionReport {
+        ObservationDownsampling.fromRequest(request("many"));
+    }
+
+    @Test
+    public void shouldKeepFewValues() {
+        Reducer<Long> reducer = new ObservationDownsampling(10).createReducer(0, 1);
+        List<Long> selected = new ArrayList<>();
+        selected.addAll(reducer.add(0, BigDecimal.ONE, 0L));
+        selected.addAll(reducer.add(1, BigDecimal.TEN, 1L));
+        selected.addAll(reducer.finish());
+        assertThat(selected, contains(0L, 1L));
+    }
+
+    @Test
+    public void shouldReduceToThreshold() {
+        Reducer<Long> reducer = new ObservationDownsampling(12).createReducer(0, 9999);
+        List<Long> selected = new ArrayList<>();
+        for (long i = 0; i < 10000; i++) {
+            selected.addAll(reducer.add(i, BigDecimal.valueOf(Math.sin(i / 100d)), i));
+        }
+        selected.addAll(reducer.finish());
+        assertThat(selected.size(), is(12));
+        assertThat(selected.get(0), is(0L));
+        assertThat(selected.get(11), is(9999L));
+        for (int i = 1; i < selected.size(); i++) {
+            assertThat(selected.get(i - 1), lessThanOrEqualTo(selected.get(i)));
+        }
+    }
+
+    @Test
+    public void shouldKeepPeaks() {
+        Reducer<Long> reducer = new ObservationDownsampling(5).createReducer(0, 999);
+        List<Long> selected = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            BigDecimal value = i == 123 ? BigDecimal.TEN : i == 789 ? BigDecimal.TEN.negate() : BigDecimal.ZERO;
+            selected.addAll(reducer.add(i, i == 500 ? null : value, i));
+        }
+        selected.addAll(reducer.finish());
+        assertThat(selected.size(), is(5));
+        assertThat(selected, hasItem(123L));
+        assertThat(selected, hasItem(789L));
+    }
+
+    @Test
+    public void shouldNotExceedThresholdForUnorderedValues() {
+        Reducer<Long> reducer = new ObservationDownsampling(12).createReducer(0, 9999);
+        List<Long> selected = new ArrayList<>();
+        // the values arrive in descending order, e.g. ordered by a descending result time
+        for (long i = 9999; i >= 0; i--) {
+            selected.addAll(reducer.add(i, BigDecimal.valueOf(Math.sin(i / 100d)), i));
+        }
+        selected.addAll(reducer.finish());
+        assertThat(selected.size(), lessThanOrEqualTo(12));
+        assertThat(new HashSet<>(selected).size(), is(selected.size()));
+        assertThat(selected.get(0), is(9999L));
+        assertThat(selected.get(selected.size() - 1), is(0L));
+    }
+
+    @Test
+    public void shouldNotExceedThresholdForPartiallyUnorderedValues() {
+        Reducer<Long> reducer = new ObservationDownsampling(12).createReducer(0, 9999);
+        List<Long> selected = new ArrayList<>();
+        // two interleaved ordered sequences, e.g. concatenated chunks of different queries
+        for (long i = 0; i < 5000; i++) {
+            selected.addAll(reducer.add(i * 2, BigDecimal.valueOf(Math.sin(i / 50d)), i * 2));
+            selected.addAll(reducer.add(9999 - i * 2, BigDecimal.valueOf(Math.cos(i / 50d)), 9999 - i * 2));
+        }
+        selected.addAll(reducer.finish());
+        assertThat(selected.size(), lessThanOrEqualTo(12));
+        assertThat(new HashSet<>(selected).size(), is(selected.size()));
+    }
+
+    private GetObservationRequest request(String threshold) {
+        GetObservationRequest request = new GetObservationRequest();
+        request.addSweTextExtension(ObservationDownsampling.DOWNSAMPLING, threshold);
+        return request;
+    }
+}
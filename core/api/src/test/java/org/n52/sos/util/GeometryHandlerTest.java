@@ -27,6 +27,9 @@
  */
 package org.n52.sos.util;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.Is;
 import org.junit.Assert;
@@ -218,6 +221,23 @@ public class GeometryHandlerTest {
                 Is.is(true));
     }
 
+    @Test
+    public void shouldTransformPointsLikeSingleGeometries() throws OwsExceptionReport {
+        geometryHandler.clearSupportedCRSMap();
+        List<Geometry> transformed = geometryHandler
+                .transform(Arrays.asList(get31467Point(), get31467LineString(), null, get31467Point()), EPSG_4326);
+        Assert.assertEquals(4, transformed.size());
+        Assert.assertNull(transformed.get(2));
+        for (int i : new int[] { 0, 3 }) {
+            Assert.assertEquals(EPSG_4326, transformed.get(i).getSRID());
+            MatcherAssert.assertThat(
+                    transformed.get(i).distance(geometryHandler.transform(get31467Point(), EPSG_4326)) < DISTANCE,
+                    Is.is(true));
+        }
+        MatcherAssert.assertThat(transformed.get(1)
+                .distance(geometryHandler.transform(get31467LineString(), EPSG_4326)) < DISTANCE, Is.is(true));
+    }
+
     @Test
     public void shouldSwitchGeometryForDatasourceNorthingFalseEpsg4326() throws OwsExceptionReport {
         geometryHandler.clearSupportedCRSMap();
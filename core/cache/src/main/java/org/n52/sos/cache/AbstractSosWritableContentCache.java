@@ -0,0 +1,2278 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.joda.time.DateTime;
+import org.locationtech.jts.geom.Envelope;
+import org.n52.janmayen.i18n.LocalizedString;
+import org.n52.janmayen.i18n.MultilingualString;
+import org.n52.shetland.util.CollectionHelper;
+import org.n52.shetland.util.ReferencedEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Strings;
+
+/**
+ * Base class of {@link SosWritableContentCache} implementations. It contains the logic of the getters and setters
+ * (validation, logging and the maintenance of inverse relations) and delegates the storage of the cache content to a
+ * small set of primitives that the implementations provide for the different kinds of content: relations between
+ * identifiers, registries of identifiers, timestamps, envelopes, human readable names and localized offering names.
+ * <p>
+ * Modifications that consist of several primitive modifications are grouped by {@link #modify(Runnable)}, so that
+ * implementations can apply them atomically.
+ *
+ * @since 6.1.2
+ */
+public abstract class AbstractSosWritableContentCache extends AbstractStaticSosContentCache
+        implements SosWritableContentCache, CacheConstants {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractSosWritableContentCache.class);
+
+    private static final long serialVersionUID = -2183476093717545946L;
+
+    /**
+     * Executes the modification as a single modification of the cache.
+     *
+     * @param modification
+     *            the modification
+     */
+    abstract void modify(Runnable modification);
+
+    /**
+     * @return the values of the relation for the key, never {@code null}. The returned set must not be modified.
+     */
+    abstract Set<String> values(Relation relation, String key);
+
+    abstract boolean containsValue(Relation relation, String key, String value);
+
+    abstract boolean containsKey(Relation relation, String key);
+
+    abstract Set<String> keys(Relation relation);
+
+    /**
+     * @return the union of all values of the relation
+     */
+    abstract Set<String> union(Relation relation);
+
+    abstract Set<String> hierarchy(Relation relation, String key, boolean fullHierarchy, boolean includeSelf);
+
+    abstract Set<String> hierarchy(Relation relation, Set<String> keys, boolean fullHierarchy,
+            boolean includeSelves);
+
+    abstract void addValue(Relation relation, String key, String value);
+
+    abstract void addValues(Relation relation, String key, Collection<String> values);
+
+    abstract void setValues(Relation relation, String key, Collection<String> values);
+
+    abstract void removeValue(Relation relation, String key, String value);
+
+    abstract void removeValueFromAll(Relation relation, String value);
+
+    /**
+     * @return the removed values or {@code null}
+     */
+    abstract Set<String> removeKey(Relation relation, String key);
+
+    abstract void retainKeys(Relation relation, Set<String> keys);
+
+    abstract void clear(Relation... relations);
+
+    abstract Set<String> identifiers(Registry registry);
+
+    abstract boolean hasIdentifier(Registry registry, String identifier);
+
+    abstract void addIdentifier(Registry registry, String identifier);
+
+    abstract void removeIdentifier(Registry registry, String identifier);
+
+    abstract void clear(Registry registry);
+
+    abstract DateTime time(Timestamp timestamp, String key);
+
+    abstract boolean hasTime(Timestamp timestamp, String key);
+
+    /**
+     * Sets the time for the key, a {@code null} time removes it.
+     */
+    abstract void setTime(Timestamp timestamp, String key, DateTime time);
+
+    abstract void clear(Timestamp timestamp);
+
+    /**
+     * @return a copy of the envelope or {@code null}
+     */
+    abstract ReferencedEnvelope envelope(Envelopes envelopes, String offering);
+
+    abstract void setEnvelope(Envelopes envelopes, String offering, ReferencedEnvelope envelope);
+
+    /**
+     * Expands the envelope of the offering to include the envelope, or creates it if it does not exist.
+     */
+    abstract void updateEnvelope(Envelopes envelopes, String offering, Envelope envelope);
+
+    abstract void removeEnvelope(Envelopes envelopes, String offering);
+
+    abstract void clear(Envelopes envelopes);
+
+    abstract String humanReadableName(HumanReadableName type, String identifier);
+
+    abstract String identifierForHumanReadableName(HumanReadableName type, String humanReadableName);
+
+    /**
+     * @return {@code false} if the human readable name is already used for another identifier
+     */
+    abstract boolean putHumanReadableName(HumanReadableName type, String identifier, String humanReadableName);
+
+    abstract void removeHumanReadableNameForIdentifier(HumanReadableName type, String identifier);
+
+    abstract void removeIdentifierForHumanReadableName(HumanReadableName type, String humanReadableName);
+
+    abstract void clear(HumanReadableName type);
+
+    abstract String offeringName(String offering);
+
+    /**
+     * Sets the name of the offering, a {@code null} name removes it.
+     */
+    abstract void setOfferingName(String offering, String name);
+
+    abstract void clearOfferingNames();
+
+    abstract MultilingualString localized(Localized type, String offering);
+
+    abstract void setLocalized(Localized type, String offering, MultilingualString value);
+
+    abstract void clear(Localized type);
+
+    private void addHumanReadableName(HumanReadableName type, String identifier, String humanReadableName) {
+        if (!Strings.isNullOrEmpty(identifier) && !Strings.isNullOrEmpty(humanReadableName)
+                && !putHumanReadableName(type, identifier, humanReadableName)) {
+            LOG.warn("Duplicate entry for {} with identifier '{}' and humanReadableName '{}'!", type.getName(),
+                    identifier, humanReadableName);
+        }
+    }
+
+    @Override
+    public void setPhenomenonTime(DateTime min, DateTime max) {
+        modify(() -> {
+            setMinPhenomenonTime(min);
+            setMaxPhenomenonTime(max);
+        });
+    }
+
+    @Override
+    public void setResultTime(DateTime min, DateTime max) {
+        modify(() -> {
+            setMinResultTime(min);
+            setMaxResultTime(max);
+        });
+    }
+
+    /**
+     * @return the updateTime
+     */
+    public DateTime getUpdateTime() {
+        return getLastUpdateTime();
+    }
+
+    /**
+     * @param updateTime
+     *            the updateTime to set
+     */
+    public void setUpdateTime(DateTime updateTime) {
+        setLastUpdateTime(updateTime);
+    }
+
+    @Override
+    public void recalculateGlobalEnvelope() {
+        LOG.trace("Recalculating global spatial envelope based on offerings");
+        modify(() -> {
+            ReferencedEnvelope envelope = new ReferencedEnvelope(new Envelope(), getDefaultEPSGCode());
+            getOfferings().stream().map(this::getEnvelopeForOffering).filter(Objects::nonNull)
+                    .map(ReferencedEnvelope::getEnvelope).filter(e -> e != null && !e.isNull())
+                    .forEach(envelope::expandToInclude);
+            setGlobalEnvelope(envelope);
+        });
+    }
+
+    @Override
+    public void recalculatePhenomenonTime() {
+        LOG.trace("Recalculating global phenomenon time based on offerings");
+        modify(() -> {
+            DateTime min = null;
+            DateTime max = null;
+            Set<String> offerings = getOfferings();
+            for (String offering : offerings) {
+                min = min(min, getMinPhenomenonTimeForOffering(offering));
+                max = max(max, getMaxPhenomenonTimeForOffering(offering));
+            }
+            if (!offerings.isEmpty() && (min == null || max == null)) {
+                LOG.info("Reset of global temporal bounding box has missing values. Max: '{}'; Min: '{}'", max,
+                        min);
+            }
+            setPhenomenonTime(min, max);
+        });
+    }
+
+    @Override
+    public void recalculateResultTime() {
+        LOG.trace("Recalculating global result time based on offerings");
+        modify(() -> {
+            DateTime min = null;
+            DateTime max = null;
+            for (String offering : getOfferings()) {
+                min = min(min, getMinResultTimeForOffering(offering));
+                max = max(max, getMaxResultTimeForOffering(offering));
+            }
+            setResultTime(min, max);
+        });
+    }
+
+    private static DateTime min(DateTime a, DateTime b) {
+        return a == null || b != null && b.isBefore(a) ? b : a;
+    }
+
+    private static DateTime max(DateTime a, DateTime b) {
+        return a == null || b != null && b.isAfter(a) ? b : a;
+    }
+
+    @Override
+    public Set<String> getFeaturesOfInterest() {
+        return identifiers(Registry.FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public void setFeaturesOfInterest(Collection<String> featuresOfInterest) {
+        LOG.trace("Setting FeaturesOfInterest");
+        modify(() -> {
+            clearFeaturesOfInterest();
+            addFeaturesOfInterest(featuresOfInterest);
+        });
+    }
+
+    @Override
+    public boolean hasFeatureOfInterest(String featureOfInterest) {
+        return hasIdentifier(Registry.FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public void addFeatureOfInterest(String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Adding FeatureOfInterest {}", featureOfInterest);
+        addIdentifier(Registry.FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public void removeFeatureOfInterest(String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Removing FeatureOfInterest {}", featureOfInterest);
+        removeIdentifier(Registry.FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public void removeFeaturesOfInterest(Collection<String> featuresOfInterest) {
+        CacheValidation.noNullValues(FEATURES_OF_INTEREST, featuresOfInterest);
+        modify(() -> featuresOfInterest.forEach(this::removeFeatureOfInterest));
+    }
+
+    @Override
+    public void clearFeaturesOfInterest() {
+        LOG.trace("Clearing features of interest");
+        clear(Registry.FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public Set<String> getProcedures() {
+        return identifiers(Registry.PROCEDURES);
+    }
+
+    @Override
+    public void setProcedures(Collection<String> procedures) {
+        LOG.trace("Setting Procedures");
+        modify(() -> {
+            clear(Registry.PROCEDURES);
+            addProcedures(procedures);
+        });
+    }
+
+    @Override
+    public boolean hasProcedure(String procedure) {
+        return hasIdentifier(Registry.PROCEDURES, procedure);
+    }
+
+    @Override
+    public void addProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Adding procedure {}", procedure);
+        addIdentifier(Registry.PROCEDURES, procedure);
+    }
+
+    @Override
+    public void removeProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Removing Procedure {}", procedure);
+        removeIdentifier(Registry.PROCEDURES, procedure);
+    }
+
+    @Override
+    public Set<String> getResultTemplates() {
+        return identifiers(Registry.RESULT_TEMPLATES);
+    }
+
+    @Override
+    public boolean hasResultTemplate(String resultTemplate) {
+        return hasIdentifier(Registry.RESULT_TEMPLATES, resultTemplate);
+    }
+
+    @Override
+    public void addResultTemplate(String resultTemplate) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        LOG.trace("Adding SosResultTemplate {}", resultTemplate);
+        addIdentifier(Registry.RESULT_TEMPLATES, resultTemplate);
+    }
+
+    @Override
+    public void addResultTemplates(Collection<String> resultTemplates) {
+        CacheValidation.noNullValues(RESULT_TEMPLATES, resultTemplates);
+        modify(() -> resultTemplates.forEach(this::addResultTemplate));
+    }
+
+    @Override
+    public void removeResultTemplate(String resultTemplate) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        LOG.trace("Removing SosResultTemplate {}", resultTemplate);
+        removeIdentifier(Registry.RESULT_TEMPLATES, resultTemplate);
+    }
+
+    @Override
+    public Set<String> getOfferings() {
+        return identifiers(Registry.OFFERINGS);
+    }
+
+    @Override
+    public boolean hasOffering(String offering) {
+        return hasIdentifier(Registry.OFFERINGS, offering);
+    }
+
+    @Override
+    public void addOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Adding offering {}", offering);
+        addIdentifier(Registry.OFFERINGS, offering);
+    }
+
+    @Override
+    public void removeOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing Offering {}", offering);
+        removeIdentifier(Registry.OFFERINGS, offering);
+    }
+
+    @Override
+    public void clearOfferings() {
+        LOG.trace("Clearing offerings");
+        clear(Registry.OFFERINGS);
+    }
+
+    @Override
+    public Set<String> getOfferingsForObservableProperty(String observableProperty) {
+        return values(Relation.OFFERINGS_FOR_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    @Override
+    public Set<String> getOfferingsForProcedure(String procedure) {
+        return values(Relation.OFFERINGS_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public Set<String> getProceduresForFeatureOfInterest(String featureOfInterest) {
+        return values(Relation.PROCEDURES_FOR_FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public Set<String> getProceduresForObservableProperty(String observableProperty) {
+        return values(Relation.PROCEDURES_FOR_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    @Override
+    public Set<String> getProceduresForOffering(String offering) {
+        return values(Relation.PROCEDURES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getHiddenChildProceduresForOffering(String offering) {
+        return values(Relation.HIDDEN_CHILD_PROCEDURES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getRelatedFeaturesForOffering(String offering) {
+        return values(Relation.RELATED_FEATURES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getResultTemplatesForOffering(String offering) {
+        return values(Relation.RESULT_TEMPLATES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getRolesForRelatedFeature(String relatedFeature) {
+        return values(Relation.ROLES_FOR_RELATED_FEATURES, relatedFeature);
+    }
+
+    @Override
+    public Set<String> getAllowedObservationTypesForOffering(String offering) {
+        return values(Relation.ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getAllObservationTypesForOffering(String offering) {
+        Set<String> observationTypes = new HashSet<>(getAllowedObservationTypesForOffering(offering));
+        observationTypes.addAll(getObservationTypesForOffering(offering));
+        return observationTypes;
+    }
+
+    @Override
+    public Set<String> getFeaturesOfInterestForOffering(String offering) {
+        return values(Relation.FEATURES_OF_INTEREST_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getOfferingsForFeatureOfInterest(String featureOfInterest) {
+        return values(Relation.OFFERINGS_FOR_FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public Set<String> getFeaturesOfInterestForResultTemplate(String resultTemplate) {
+        return values(Relation.FEATURES_OF_INTEREST_FOR_RESULT_TEMPLATES, resultTemplate);
+    }
+
+    @Override
+    public Set<String> getObservablePropertiesForOffering(String offering) {
+        return values(Relation.OBSERVABLE_PROPERTIES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getObservablePropertiesForProcedure(String procedure) {
+        return values(Relation.OBSERVABLE_PROPERTIES_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public boolean hasObservablePropertyForProcedure(String procedure, String observableProperty) {
+        return containsValue(Relation.OBSERVABLE_PROPERTIES_FOR_PROCEDURES, procedure, observableProperty);
+    }
+
+    @Override
+    public Set<String> getObservationTypesForOffering(String offering) {
+        return values(Relation.OBSERVATION_TYPES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getObservablePropertiesForResultTemplate(String resultTemplate) {
+        return values(Relation.OBSERVABLE_PROPERTIES_FOR_RESULT_TEMPLATES, resultTemplate);
+    }
+
+    @Override
+    public Set<String> getFeatureOfInterestTypesForOffering(String offering) {
+        return values(Relation.FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getAllowedFeatureOfInterestTypesForOffering(String offering) {
+        return values(Relation.ALLOWED_FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getParentProcedures(String procedureIdentifier, boolean fullHierarchy, boolean includeSelf) {
+        return hierarchy(Relation.PARENT_PROCEDURES_FOR_PROCEDURES, procedureIdentifier, fullHierarchy,
+                includeSelf);
+    }
+
+    @Override
+    public Set<String> getParentProcedures(Set<String> procedureIdentifiers, boolean fullHierarchy,
+            boolean includeSelves) {
+        return hierarchy(Relation.PARENT_PROCEDURES_FOR_PROCEDURES, procedureIdentifiers, fullHierarchy,
+                includeSelves);
+    }
+
+    @Override
+    public Set<String> getParentFeatures(String featureIdentifier, boolean fullHierarchy, boolean includeSelf) {
+        return hierarchy(Relation.PARENT_FEATURES_FOR_FEATURES_OF_INTEREST, featureIdentifier, fullHierarchy,
+                includeSelf);
+    }
+
+    @Override
+    public Set<String> getParentFeatures(Set<String> featureIdentifiers, boolean fullHierarchy,
+            boolean includeSelves) {
+        return hierarchy(Relation.PARENT_FEATURES_FOR_FEATURES_OF_INTEREST, featureIdentifiers, fullHierarchy,
+                includeSelves);
+    }
+
+    @Override
+    public Set<String> getChildProcedures(String procedureIdentifier, boolean fullHierarchy, boolean includeSelf) {
+        return hierarchy(Relation.CHILD_PROCEDURES_FOR_PROCEDURES, procedureIdentifier, fullHierarchy,
+                includeSelf);
+    }
+
+    @Override
+    public Set<String> getChildProcedures(Set<String> procedureIdentifiers, boolean fullHierarchy,
+            boolean includeSelves) {
+        return hierarchy(Relation.CHILD_PROCEDURES_FOR_PROCEDURES, procedureIdentifiers, fullHierarchy,
+                includeSelves);
+    }
+
+    @Override
+    public Set<String> getParentOfferings(String offeringIdentifier, boolean fullHierarchy, boolean includeSelf) {
+        return hierarchy(Relation.PARENT_OFFERINGS_FOR_OFFERINGS, offeringIdentifier, fullHierarchy, includeSelf);
+    }
+
+    @Override
+    public Set<String> getParentOfferings(Set<String> offeringIdentifiers, boolean fullHierarchy,
+            boolean includeSelves) {
+        return hierarchy(Relation.PARENT_OFFERINGS_FOR_OFFERINGS, offeringIdentifiers, fullHierarchy,
+                includeSelves);
+    }
+
+    @Override
+    public Set<String> getChildOfferings(String offeringIdentifier, boolean fullHierarchy, boolean includeSelf) {
+        return hierarchy(Relation.CHILD_OFFERINGS_FOR_OFFERINGS, offeringIdentifier, fullHierarchy, includeSelf);
+    }
+
+    @Override
+    public Set<String> getChildOfferings(Set<String> offeringIdentifiers, boolean fullHierarchy,
+            boolean includeSelves) {
+        return hierarchy(Relation.CHILD_OFFERINGS_FOR_OFFERINGS, offeringIdentifiers, fullHierarchy,
+                includeSelves);
+    }
+
+    @Override
+    public boolean hasParentOfferings(String offering) {
+        return containsKey(Relation.PARENT_OFFERINGS_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public Set<String> getChildFeatures(String featureIdentifier, boolean fullHierarchy, boolean includeSelf) {
+        return hierarchy(Relation.CHILD_FEATURES_FOR_FEATURES_OF_INTEREST, featureIdentifier, fullHierarchy,
+                includeSelf);
+    }
+
+    @Override
+    public Set<String> getFeaturesOfInterestWithResultTemplate() {
+        return union(Relation.FEATURES_OF_INTEREST_FOR_RESULT_TEMPLATES);
+    }
+
+    @Override
+    public Set<String> getObservableProperties() {
+        return union(Relation.OBSERVABLE_PROPERTIES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public Set<String> getObservablePropertiesWithResultTemplate() {
+        return union(Relation.OBSERVABLE_PROPERTIES_FOR_RESULT_TEMPLATES);
+    }
+
+    @Override
+    public Set<String> getOfferingsWithResultTemplate() {
+        return keys(Relation.RESULT_TEMPLATES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public Set<String> getRelatedFeatures() {
+        return union(Relation.RELATED_FEATURES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public Set<String> getFeaturesOfInterestWithOffering() {
+        return union(Relation.FEATURES_OF_INTEREST_FOR_OFFERINGS);
+    }
+
+    @Override
+    public Set<String> getOfferingWithFeaturesOfInterest() {
+        return union(Relation.OFFERINGS_FOR_FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public ReferencedEnvelope getEnvelopeForOffering(String offering) {
+        return envelope(Envelopes.OFFERINGS, offering);
+    }
+
+    @Override
+    public void setEnvelopeForOffering(String offering, ReferencedEnvelope envelope) {
+        LOG.trace("Setting Envelope for Offering {} to {}", offering, envelope);
+        setEnvelope(Envelopes.OFFERINGS, offering, envelope);
+    }
+
+    @Override
+    public void updateEnvelopeForOffering(String offering, Envelope envelope) {
+        Objects.requireNonNull(envelope, ENVELOPE);
+        updateEnvelope(Envelopes.OFFERINGS, offering, envelope);
+    }
+
+    @Override
+    public void removeEnvelopeForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing Envelope for Offering {}", offering);
+        removeEnvelope(Envelopes.OFFERINGS, offering);
+    }
+
+    @Override
+    public void clearEnvelopeForOfferings() {
+        LOG.trace("Clearing envelope for offerings");
+        clear(Envelopes.OFFERINGS);
+    }
+
+    @Override
+    public ReferencedEnvelope getSpatialFilteringProfileEnvelopeForOffering(String offering) {
+        return envelope(Envelopes.SPATIAL_FILTERING_PROFILE_OFFERINGS, offering);
+    }
+
+    @Override
+    public void setSpatialFilteringProfileEnvelopeForOffering(String offering, ReferencedEnvelope envelope) {
+        LOG.trace("Setting Spatial Filtering Profile Envelope for Offering {} to {}", offering, envelope);
+        setEnvelope(Envelopes.SPATIAL_FILTERING_PROFILE_OFFERINGS, offering, envelope);
+    }
+
+    @Override
+    public void updateSpatialFilteringProfileEnvelopeForOffering(String offering, Envelope envelope) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        Objects.requireNonNull(envelope, ENVELOPE);
+        updateEnvelope(Envelopes.SPATIAL_FILTERING_PROFILE_OFFERINGS, offering, envelope);
+    }
+
+    @Override
+    public void removeSpatialFilteringProfileEnvelopeForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing Spatial Filtering Profile envelope for offering {}", offering);
+        removeEnvelope(Envelopes.SPATIAL_FILTERING_PROFILE_OFFERINGS, offering);
+    }
+
+    @Override
+    public void clearSpatialFilteringProfileEnvelopeForOfferings() {
+        LOG.trace("Clearing Spatial Filtering Profile envelope for offerings");
+        clear(Envelopes.SPATIAL_FILTERING_PROFILE_OFFERINGS);
+    }
+
+    @Override
+    public String getNameForOffering(String offering) {
+        return offeringName(offering);
+    }
+
+    @Override
+    public void setNameForOffering(String offering, String name) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(NAME, name);
+        LOG.trace("Setting Name of Offering {} to {}", offering, name);
+        setOfferingName(offering, name);
+    }
+
+    @Override
+    public void removeNameForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing name for offering {}", offering);
+        setOfferingName(offering, null);
+    }
+
+    @Override
+    public void clearNameForOfferings() {
+        LOG.trace("Clearing names for offerings");
+        clearOfferingNames();
+    }
+
+    @Override
+    public LocalizedString getI18nNameForOffering(String offering, Locale i18n) {
+        return Optional.ofNullable(getI18nNamesForOffering(offering)).flatMap(m -> m.getLocalization(i18n))
+                .orElse(null);
+    }
+
+    @Override
+    public MultilingualString getI18nNamesForOffering(String offering) {
+        return localized(Localized.NAMES, offering);
+    }
+
+    @Override
+    public boolean hasI18NNamesForOffering(String offering, Locale i18n) {
+        MultilingualString names = getI18nNamesForOffering(offering);
+        return names != null && names.hasLocale(i18n);
+    }
+
+    @Override
+    public void setI18nNameForOffering(String offering, MultilingualString name) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        Objects.requireNonNull(name, NAME);
+        LOG.trace("Setting I18N Name of Offering {} to {}", offering, name);
+        setLocalized(Localized.NAMES, offering, name);
+    }
+
+    @Override
+    public void clearI18nNamesForOfferings() {
+        LOG.trace("Clearing i18n names for offerings");
+        clear(Localized.NAMES);
+    }
+
+    @Override
+    public LocalizedString getI18nDescriptionForOffering(String offering, Locale i18n) {
+        return Optional.ofNullable(getI18nDescriptionsForOffering(offering)).flatMap(m -> m.getLocalization(i18n))
+                .orElse(null);
+    }
+
+    @Override
+    public MultilingualString getI18nDescriptionsForOffering(String offering) {
+        return localized(Localized.DESCRIPTIONS, offering);
+    }
+
+    @Override
+    public boolean hasI18NDescriptionForOffering(String offering, Locale i18n) {
+        MultilingualString descriptions = getI18nDescriptionsForOffering(offering);
+        return descriptions != null && descriptions.hasLocale(i18n);
+    }
+
+    @Override
+    public void setI18nDescriptionForOffering(String offering, MultilingualString description) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        Objects.requireNonNull(description, DESCRIPTION);
+        LOG.trace("Setting I18N Description of Offering {} to {}", offering, description);
+        setLocalized(Localized.DESCRIPTIONS, offering, description);
+    }
+
+    @Override
+    public void clearI18nDescriptionsNameForOfferings() {
+        LOG.trace("Clearing i18n descriptions for offerings");
+        clear(Localized.DESCRIPTIONS);
+    }
+
+    @Override
+    public DateTime getMaxPhenomenonTimeForOffering(String offering) {
+        return time(Timestamp.MAX_PHENOMENON_TIME_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public DateTime getMinPhenomenonTimeForOffering(String offering) {
+        return time(Timestamp.MIN_PHENOMENON_TIME_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public DateTime getMaxResultTimeForOffering(String offering) {
+        return time(Timestamp.MAX_RESULT_TIME_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public DateTime getMinResultTimeForOffering(String offering) {
+        return time(Timestamp.MIN_RESULT_TIME_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public DateTime getMaxPhenomenonTimeForProcedure(String procedure) {
+        return procedureHierarchy(procedure).map(p -> time(Timestamp.MAX_PHENOMENON_TIME_FOR_PROCEDURES, p))
+                .filter(Objects::nonNull).reduce(AbstractSosWritableContentCache::max).orElse(null);
+    }
+
+    @Override
+    public DateTime getMinPhenomenonTimeForProcedure(String procedure) {
+        return procedureHierarchy(procedure).map(p -> time(Timestamp.MIN_PHENOMENON_TIME_FOR_PROCEDURES, p))
+                .filter(Objects::nonNull).reduce(AbstractSosWritableContentCache::min).orElse(null);
+    }
+
+    @Override
+    public boolean hasMaxPhenomenonTimeForProcedure(String procedure) {
+        return procedureHierarchy(procedure).anyMatch(p -> hasTime(Timestamp.MAX_PHENOMENON_TIME_FOR_PROCEDURES, p));
+    }
+
+    @Override
+    public boolean hasMinPhenomenonTimeForProcedure(String procedure) {
+        return procedureHierarchy(procedure).anyMatch(p -> hasTime(Timestamp.MIN_PHENOMENON_TIME_FOR_PROCEDURES, p));
+    }
+
+    private Stream<String> procedureHierarchy(String procedure) {
+        return hierarchy(Relation.CHILD_PROCEDURES_FOR_PROCEDURES, procedure, true, true).stream();
+    }
+
+    @Override
+    public void setMaxPhenomenonTimeForOffering(String offering, DateTime maxTime) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Setting maximal EventTime for Offering {} to {}", offering, maxTime);
+        setTime(Timestamp.MAX_PHENOMENON_TIME_FOR_OFFERINGS, offering, maxTime);
+    }
+
+    @Override
+    public void setMinPhenomenonTimeForOffering(String offering, DateTime minTime) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Setting minimal EventTime for Offering {} to {}", offering, minTime);
+        setTime(Timestamp.MIN_PHENOMENON_TIME_FOR_OFFERINGS, offering, minTime);
+    }
+
+    @Override
+    public void setMaxPhenomenonTimeForProcedure(String procedure, DateTime maxTime) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Setting maximal phenomenon time for procedure {} to {}", procedure, maxTime);
+        setTime(Timestamp.MAX_PHENOMENON_TIME_FOR_PROCEDURES, procedure, maxTime);
+    }
+
+    @Override
+    public void setMinPhenomenonTimeForProcedure(String procedure, DateTime minTime) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Setting minimal phenomenon time for procedure {} to {}", procedure, minTime);
+        setTime(Timestamp.MIN_PHENOMENON_TIME_FOR_PROCEDURES, procedure, minTime);
+    }
+
+    @Override
+    public void setMaxResultTimeForOffering(String offering, DateTime maxTime) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Setting maximal ResultTime for Offering {} to {}", offering, maxTime);
+        setTime(Timestamp.MAX_RESULT_TIME_FOR_OFFERINGS, offering, maxTime);
+    }
+
+    @Override
+    public void setMinResultTimeForOffering(String offering, DateTime minTime) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Setting minimal ResultTime for Offering {} to {}", offering, minTime);
+        setTime(Timestamp.MIN_RESULT_TIME_FOR_OFFERINGS, offering, minTime);
+    }
+
+    @Override
+    public void removeMaxPhenomenonTimeForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        setTime(Timestamp.MAX_PHENOMENON_TIME_FOR_OFFERINGS, offering, null);
+    }
+
+    @Override
+    public void removeMinPhenomenonTimeForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        setTime(Timestamp.MIN_PHENOMENON_TIME_FOR_OFFERINGS, offering, null);
+    }
+
+    @Override
+    public void removeMaxPhenomenonTimeForProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        setTime(Timestamp.MAX_PHENOMENON_TIME_FOR_PROCEDURES, procedure, null);
+    }
+
+    @Override
+    public void removeMinPhenomenonTimeForProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        setTime(Timestamp.MIN_PHENOMENON_TIME_FOR_PROCEDURES, procedure, null);
+    }
+
+    @Override
+    public void removeMaxResultTimeForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        setTime(Timestamp.MAX_RESULT_TIME_FOR_OFFERINGS, offering, null);
+    }
+
+    @Override
+    public void removeMinResultTimeForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        setTime(Timestamp.MIN_RESULT_TIME_FOR_OFFERINGS, offering, null);
+    }
+
+    @Override
+    public void clearMinPhenomenonTimeForOfferings() {
+        clear(Timestamp.MIN_PHENOMENON_TIME_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearMaxPhenomenonTimeForOfferings() {
+        clear(Timestamp.MAX_PHENOMENON_TIME_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearMinPhenomenonTimeForProcedures() {
+        clear(Timestamp.MIN_PHENOMENON_TIME_FOR_PROCEDURES);
+    }
+
+    @Override
+    public void clearMaxPhenomenonTimeForProcedures() {
+        clear(Timestamp.MAX_PHENOMENON_TIME_FOR_PROCEDURES);
+    }
+
+    @Override
+    public void clearMinResultTimeForOfferings() {
+        clear(Timestamp.MIN_RESULT_TIME_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearMaxResultTimeForOfferings() {
+        clear(Timestamp.MAX_RESULT_TIME_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void setObservablePropertiesForOffering(String offering, Collection<String> observableProperties) {
+        LOG.trace("Setting ObservableProperties for Offering {} to {}", offering, observableProperties);
+        setValues(Relation.OBSERVABLE_PROPERTIES_FOR_OFFERINGS, offering, observableProperties);
+    }
+
+    @Override
+    public void setObservablePropertiesForProcedure(String procedure, Collection<String> observableProperties) {
+        LOG.trace("Setting ObservableProperties for Procedure {} to {}", procedure, observableProperties);
+        setValues(Relation.OBSERVABLE_PROPERTIES_FOR_PROCEDURES, procedure, observableProperties);
+    }
+
+    @Override
+    public void setObservationTypesForOffering(String offering, Collection<String> observationTypes) {
+        LOG.trace("Setting ObservationTypes for Offering {} to {}", offering, observationTypes);
+        setValues(Relation.OBSERVATION_TYPES_FOR_OFFERINGS, offering, observationTypes);
+    }
+
+    @Override
+    public void setOfferingsForObservableProperty(String observableProperty, Collection<String> offerings) {
+        LOG.trace("Setting Offerings for ObservableProperty {} to {}", observableProperty, offerings);
+        setValues(Relation.OFFERINGS_FOR_OBSERVABLE_PROPERTIES, observableProperty, offerings);
+    }
+
+    @Override
+    public void setOfferingsForProcedure(String procedure, Collection<String> offerings) {
+        LOG.trace("Setting Offerings for Procedure {} to {}", procedure, offerings);
+        setValues(Relation.OFFERINGS_FOR_PROCEDURES, procedure, offerings);
+    }
+
+    @Override
+    public void setProceduresForFeatureOfInterest(String featureOfInterest, Collection<String> procedures) {
+        LOG.trace("Setting Procedures for FeatureOfInterest {} to {}", featureOfInterest, procedures);
+        setValues(Relation.PROCEDURES_FOR_FEATURES_OF_INTEREST, featureOfInterest, procedures);
+    }
+
+    @Override
+    public void setProceduresForObservableProperty(String observableProperty, Collection<String> procedures) {
+        LOG.trace("Setting Procedures for ObservableProperty {} to {}", observableProperty, procedures);
+        setValues(Relation.PROCEDURES_FOR_OBSERVABLE_PROPERTIES, observableProperty, procedures);
+    }
+
+    @Override
+    public void setProceduresForOffering(String offering, Collection<String> procedures) {
+        LOG.trace("Setting Procedures for Offering {} to {}", offering, procedures);
+        setValues(Relation.PROCEDURES_FOR_OFFERINGS, offering, procedures);
+    }
+
+    @Override
+    public void setRelatedFeaturesForOffering(String offering, Collection<String> relatedFeatures) {
+        LOG.trace("Setting Related Features for Offering {} to {}", offering, relatedFeatures);
+        setValues(Relation.RELATED_FEATURES_FOR_OFFERINGS, offering, relatedFeatures);
+    }
+
+    @Override
+    public void setResultTemplatesForOffering(String offering, Collection<String> resultTemplates) {
+        LOG.trace("Setting ResultTemplates for Offering {} to {}", offering, resultTemplates);
+        setValues(Relation.RESULT_TEMPLATES_FOR_OFFERINGS, offering, resultTemplates);
+    }
+
+    @Override
+    public void setRolesForRelatedFeature(String relatedFeature, Collection<String> roles) {
+        LOG.trace("Setting Roles for RelatedFeature {} to {}", relatedFeature, roles);
+        setValues(Relation.ROLES_FOR_RELATED_FEATURES, relatedFeature, roles);
+    }
+
+    @Override
+    public void setAllowedObservationTypeForOffering(String offering, Collection<String> observationTypes) {
+        LOG.trace("Setting allowed ObservationTypes for Offering {} to {}", offering, observationTypes);
+        setValues(Relation.ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS, offering, observationTypes);
+    }
+
+    @Override
+    public void setAllowedFeatureOfInterestTypeForOffering(String offering, Collection<String> featureTypes) {
+        LOG.trace("Setting allowed FeatureOfInterest types for Offering {} to {}", offering, featureTypes);
+        setValues(Relation.ALLOWED_FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering, featureTypes);
+    }
+
+    @Override
+    public void setFeaturesOfInterestForOffering(String offering, Collection<String> featureOfInterest) {
+        LOG.trace("Setting FeaturesOfInterest for Offering {} to {}", offering, featureOfInterest);
+        setValues(Relation.FEATURES_OF_INTEREST_FOR_OFFERINGS, offering, featureOfInterest);
+    }
+
+    @Override
+    public void setObservablePropertiesForResultTemplate(String resultTemplate,
+            Collection<String> observableProperties) {
+        LOG.trace("Setting ObservableProperties for SosResultTemplate {} to {}", resultTemplate,
+                observableProperties);
+        setValues(Relation.OBSERVABLE_PROPERTIES_FOR_RESULT_TEMPLATES, resultTemplate, observableProperties);
+    }
+
+    @Override
+    public void setHiddenChildProceduresForOffering(String offering, Collection<String> procedures) {
+        LOG.trace("Setting hidden child Procedures for Offering {} to {}", offering, procedures);
+        setValues(Relation.HIDDEN_CHILD_PROCEDURES_FOR_OFFERINGS, offering, procedures);
+    }
+
+    @Override
+    public void setFeatureOfInterestTypesForOffering(String offering, Collection<String> featureOfInterestTypes) {
+        LOG.trace("Setting FeatureOfInterestTypes for Offering {} to {}", offering, featureOfInterestTypes);
+        setValues(Relation.FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering, featureOfInterestTypes);
+    }
+
+    @Override
+    public void addAllowedObservationTypeForOffering(String offering, String allowedObservationType) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(ALLOWED_OBSERVATION_TYPE, allowedObservationType);
+        LOG.trace("Adding AllowedObservationType {} to Offering {}", allowedObservationType, offering);
+        addValue(Relation.ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS, offering, allowedObservationType);
+    }
+
+    @Override
+    public void addAllowedObservationTypesForOffering(String offering, Collection<String> allowedObservationTypes) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.noNullValues(ALLOWED_OBSERVATION_TYPES, allowedObservationTypes);
+        LOG.trace("Adding AllowedObservationTypes {} to Offering {}", allowedObservationTypes, offering);
+        addValues(Relation.ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS, offering, allowedObservationTypes);
+    }
+
+    @Override
+    public void addAllowedFeatureOfInterestTypeForOffering(String offering, String allowedFeatureOfInterestType) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(ALLOWED_FEATURE_OF_INTEREST_TYPE, allowedFeatureOfInterestType);
+        LOG.trace("Adding AllowedFeatureOfInterestType {} to Offering {}", allowedFeatureOfInterestType, offering);
+        addValue(Relation.ALLOWED_FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering, allowedFeatureOfInterestType);
+    }
+
+    @Override
+    public void addAllowedFeatureOfInterestTypesForOffering(String offering,
+            Collection<String> allowedFeatureOfInterestTypes) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.noNullValues(ALLOWED_FEATURE_OF_INTEREST_TYPES, allowedFeatureOfInterestTypes);
+        LOG.trace("Adding AllowedFeatureOfInterestTypes {} to Offering {}", allowedFeatureOfInterestTypes,
+                offering);
+        addValues(Relation.ALLOWED_FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering,
+                allowedFeatureOfInterestTypes);
+    }
+
+    @Override
+    public void addFeatureOfInterestForOffering(String offering, String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Adding featureOfInterest {} to Offering {}", featureOfInterest, offering);
+        modify(() -> {
+            addValue(Relation.FEATURES_OF_INTEREST_FOR_OFFERINGS, offering, featureOfInterest);
+            addValue(Relation.OFFERINGS_FOR_FEATURES_OF_INTEREST, featureOfInterest, offering);
+        });
+    }
+
+    @Override
+    public void addOfferingForFeaturesOfInterest(String offering, Collection<String> featuresOfInterest) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.noNullValues(FEATURES_OF_INTEREST, featuresOfInterest);
+        LOG.trace("Adding offering {} to featuresOfInterest {}", offering, featuresOfInterest);
+        modify(() -> featuresOfInterest.forEach(featureOfInterest -> addValue(
+                Relation.OFFERINGS_FOR_FEATURES_OF_INTEREST, featureOfInterest, offering)));
+    }
+
+    @Override
+    public void addFeatureOfInterestForResultTemplate(String resultTemplate, String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Adding FeatureOfInterest {} to SosResultTemplate {}", featureOfInterest, resultTemplate);
+        addValue(Relation.FEATURES_OF_INTEREST_FOR_RESULT_TEMPLATES, resultTemplate, featureOfInterest);
+    }
+
+    @Override
+    public void addFeaturesOfInterestForResultTemplate(String resultTemplate, Collection<String> featuresOfInterest) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        CacheValidation.noNullValues(FEATURES_OF_INTEREST, featuresOfInterest);
+        LOG.trace("Adding FeatureOfInterests {} to SosResultTemplate {}", featuresOfInterest, resultTemplate);
+        addValues(Relation.FEATURES_OF_INTEREST_FOR_RESULT_TEMPLATES, resultTemplate, featuresOfInterest);
+    }
+
+    @Override
+    public void addObservablePropertyForOffering(String offering, String observableProperty) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Adding observableProperty {} to offering {}", observableProperty, offering);
+        addValue(Relation.OBSERVABLE_PROPERTIES_FOR_OFFERINGS, offering, observableProperty);
+    }
+
+    @Override
+    public void addObservablePropertyForProcedure(String procedure, String observableProperty) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Adding observableProperty {} to procedure {}", observableProperty, procedure);
+        addValue(Relation.OBSERVABLE_PROPERTIES_FOR_PROCEDURES, procedure, observableProperty);
+    }
+
+    @Override
+    public void addObservablePropertyForResultTemplate(String resultTemplate, String observableProperty) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Adding observableProperty {} to resultTemplate {}", observableProperty, resultTemplate);
+        addValue(Relation.OBSERVABLE_PROPERTIES_FOR_RESULT_TEMPLATES, resultTemplate, observableProperty);
+    }
+
+    @Override
+    public void addObservationTypesForOffering(String offering, String observationType) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(OBSERVATION_TYPE, observationType);
+        LOG.trace("Adding observationType {} to offering {}", observationType, offering);
+        addValue(Relation.OBSERVATION_TYPES_FOR_OFFERINGS, offering, observationType);
+    }
+
+    @Override
+    public void addOfferingForObservableProperty(String observableProperty, String offering) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Adding offering {} to observableProperty {}", offering, observableProperty);
+        addValue(Relation.OFFERINGS_FOR_OBSERVABLE_PROPERTIES, observableProperty, offering);
+    }
+
+    @Override
+    public void addOfferingForProcedure(String procedure, String offering) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Adding offering {} to procedure {}", offering, procedure);
+        addValue(Relation.OFFERINGS_FOR_PROCEDURES, procedure, offering);
+    }
+
+    @Override
+    public void addProcedureForFeatureOfInterest(String featureOfInterest, String procedure) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Adding procedure {} to featureOfInterest {}", procedure, featureOfInterest);
+        addValue(Relation.PROCEDURES_FOR_FEATURES_OF_INTEREST, featureOfInterest, procedure);
+    }
+
+    @Override
+    public void addProcedureForObservableProperty(String observableProperty, String procedure) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Adding procedure {} to observableProperty {}", procedure, observableProperty);
+        addValue(Relation.PROCEDURES_FOR_OBSERVABLE_PROPERTIES, observableProperty, procedure);
+    }
+
+    @Override
+    public void addProcedureForOffering(String offering, String procedure) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Adding procedure {} to offering {}", procedure, offering);
+        addValue(Relation.PROCEDURES_FOR_OFFERINGS, offering, procedure);
+    }
+
+    @Override
+    public void addHiddenChildProcedureForOffering(String offering, String procedure) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Adding hidden child procedure {} to offering {}", procedure, offering);
+        addValue(Relation.HIDDEN_CHILD_PROCEDURES_FOR_OFFERINGS, offering, procedure);
+    }
+
+    @Override
+    public void addRelatedFeatureForOffering(String offering, String relatedFeature) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(RELATED_FEATURE, relatedFeature);
+        LOG.trace("Adding relatedFeature {} to offering {}", relatedFeature, offering);
+        addValue(Relation.RELATED_FEATURES_FOR_OFFERINGS, offering, relatedFeature);
+    }
+
+    @Override
+    public void addRelatedFeaturesForOffering(String offering, Collection<String> relatedFeature) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.noNullValues(RELATED_FEATURES, relatedFeature);
+        LOG.trace("Adding relatedFeatures {} to offering {}", relatedFeature, offering);
+        addValues(Relation.RELATED_FEATURES_FOR_OFFERINGS, offering, relatedFeature);
+    }
+
+    @Override
+    public void addResultTemplateForOffering(String offering, String resultTemplate) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        LOG.trace("Adding resultTemplate {} to offering {}", resultTemplate, offering);
+        addValue(Relation.RESULT_TEMPLATES_FOR_OFFERINGS, offering, resultTemplate);
+    }
+
+    @Override
+    public void addRoleForRelatedFeature(String relatedFeature, String role) {
+        CacheValidation.notNullOrEmpty(RELATED_FEATURE, relatedFeature);
+        CacheValidation.notNullOrEmpty(ROLE, role);
+        LOG.trace("Adding role {} to relatedFeature {}", role, relatedFeature);
+        addValue(Relation.ROLES_FOR_RELATED_FEATURES, relatedFeature, role);
+    }
+
+    @Override
+    public void addFeatureOfInterestTypesForOffering(String offering, String featureOfInterestType) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST_TYPE, featureOfInterestType);
+        LOG.trace("Adding observationType {} to offering {}", featureOfInterestType, offering);
+        addValue(Relation.FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering, featureOfInterestType);
+    }
+
+    @Override
+    public void addParentFeature(String featureOfInterest, String parentFeature) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        CacheValidation.notNullOrEmpty(PARENT_FEATURE, parentFeature);
+        LOG.trace("Adding parentFeature {} to featureOfInterest {}", parentFeature, featureOfInterest);
+        addParents(Relation.PARENT_FEATURES_FOR_FEATURES_OF_INTEREST, Relation.CHILD_FEATURES_FOR_FEATURES_OF_INTEREST,
+                featureOfInterest, Collections.singleton(parentFeature));
+    }
+
+    @Override
+    public void addParentFeatures(String featureOfInterest, Collection<String> parentFeatures) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        CacheValidation.noNullOrEmptyValues(PARENT_FEATURES, parentFeatures);
+        LOG.trace("Adding parentFeature {} to featureOfInterest {}", parentFeatures, featureOfInterest);
+        addParents(Relation.PARENT_FEATURES_FOR_FEATURES_OF_INTEREST, Relation.CHILD_FEATURES_FOR_FEATURES_OF_INTEREST,
+                featureOfInterest, parentFeatures);
+    }
+
+    @Override
+    public void addParentProcedure(String procedure, String parentProcedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.notNullOrEmpty(PARENT_PROCEDURE, parentProcedure);
+        LOG.trace("Adding parentProcedure {} to procedure {}", parentProcedure, procedure);
+        addParents(Relation.PARENT_PROCEDURES_FOR_PROCEDURES, Relation.CHILD_PROCEDURES_FOR_PROCEDURES, procedure,
+                Collections.singleton(parentProcedure));
+    }
+
+    @Override
+    public void addParentProcedures(String procedure, Collection<String> parentProcedures) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.noNullOrEmptyValues(PARENT_PROCEDURES, parentProcedures);
+        LOG.trace("Adding parentProcedure {} to procedure {}", parentProcedures, procedure);
+        addParents(Relation.PARENT_PROCEDURES_FOR_PROCEDURES, Relation.CHILD_PROCEDURES_FOR_PROCEDURES, procedure,
+                parentProcedures);
+    }
+
+    @Override
+    public void addParentOffering(String offering, String parentOffering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(PARENT_OFFERING, parentOffering);
+        LOG.trace("Adding parentOffering {} to offering {}", parentOffering, offering);
+        addParents(Relation.PARENT_OFFERINGS_FOR_OFFERINGS, Relation.CHILD_OFFERINGS_FOR_OFFERINGS, offering,
+                Collections.singleton(parentOffering));
+    }
+
+    @Override
+    public void addParentOfferings(String offering, Collection<String> parentOfferings) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.noNullOrEmptyValues(PARENT_OFFERINGS, parentOfferings);
+        LOG.trace("Adding parentOfferings {} to offering {}", parentOfferings, offering);
+        addParents(Relation.PARENT_OFFERINGS_FOR_OFFERINGS, Relation.CHILD_OFFERINGS_FOR_OFFERINGS, offering,
+                parentOfferings);
+    }
+
+    private void addParents(Relation parents, Relation children, String child, Collection<String> parentValues) {
+        modify(() -> {
+            addValues(parents, child, parentValues);
+            parentValues.forEach(parent -> addValue(children, parent, child));
+        });
+    }
+
+    @Override
+    public void removeAllowedObservationTypeForOffering(String offering, String allowedObservationType) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(ALLOWED_OBSERVATION_TYPE, allowedObservationType);
+        LOG.trace("Removing allowedObservationType {} from offering {}", allowedObservationType, offering);
+        removeValue(Relation.ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS, offering, allowedObservationType);
+    }
+
+    @Override
+    public void removeAllowedObservationTypesForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing allowedObservationTypes for offering {}", offering);
+        removeKey(Relation.ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void removeFeatureOfInterestForOffering(String offering, String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Removing featureOfInterest {} from offering {}", featureOfInterest, offering);
+        modify(() -> {
+            removeValue(Relation.FEATURES_OF_INTEREST_FOR_OFFERINGS, offering, featureOfInterest);
+            removeValue(Relation.OFFERINGS_FOR_FEATURES_OF_INTEREST, featureOfInterest, offering);
+        });
+    }
+
+    @Override
+    public void removeFeatureOfInterestForResultTemplate(String resultTemplate, String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Removing featureOfInterest {} from resultTemplate {}", featureOfInterest, resultTemplate);
+        removeValue(Relation.FEATURES_OF_INTEREST_FOR_RESULT_TEMPLATES, resultTemplate, featureOfInterest);
+    }
+
+    @Override
+    public void removeFeaturesOfInterestForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing featuresOfInterest for offering {}", offering);
+        modify(() -> {
+            Set<String> featuresOfInterest = removeKey(Relation.FEATURES_OF_INTEREST_FOR_OFFERINGS, offering);
+            if (featuresOfInterest != null) {
+                featuresOfInterest.forEach(foi -> removeKey(Relation.OFFERINGS_FOR_FEATURES_OF_INTEREST, foi));
+            }
+        });
+    }
+
+    @Override
+    public void removeFeaturesOfInterestForResultTemplate(String resultTemplate) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        LOG.trace("Removing featuresOfInterest for resultTemplate {}", resultTemplate);
+        removeKey(Relation.FEATURES_OF_INTEREST_FOR_RESULT_TEMPLATES, resultTemplate);
+    }
+
+    @Override
+    public void removeObservablePropertiesForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing observableProperties for offering {}", offering);
+        removeKey(Relation.OBSERVABLE_PROPERTIES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void removeObservablePropertiesForProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Removing observableProperties for procedure {}", procedure);
+        removeKey(Relation.OBSERVABLE_PROPERTIES_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public void removeObservablePropertiesForResultTemplate(String resultTemplate) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        LOG.trace("Removing observableProperties for resultTemplate {}", resultTemplate);
+        removeKey(Relation.OBSERVABLE_PROPERTIES_FOR_RESULT_TEMPLATES, resultTemplate);
+    }
+
+    @Override
+    public void removeObservablePropertyForOffering(String offering, String observableProperty) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Removing observableProperty {} from offering {}", observableProperty, offering);
+        removeValue(Relation.OBSERVABLE_PROPERTIES_FOR_OFFERINGS, offering, observableProperty);
+    }
+
+    @Override
+    public void removeObservablePropertyForProcedure(String procedure, String observableProperty) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Removing observableProperty {} from procedure {}", observableProperty, procedure);
+        removeValue(Relation.OBSERVABLE_PROPERTIES_FOR_PROCEDURES, procedure, observableProperty);
+    }
+
+    @Override
+    public void removeObservablePropertyForResultTemplate(String resultTemplate, String observableProperty) {
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Removing observableProperty {} from resultTemplate {}", observableProperty, resultTemplate);
+        removeValue(Relation.OBSERVABLE_PROPERTIES_FOR_RESULT_TEMPLATES, resultTemplate, observableProperty);
+    }
+
+    @Override
+    public void removeObservationTypeForOffering(String offering, String observationType) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(OBSERVATION_TYPE, observationType);
+        LOG.trace("Removing observationType {} from offering {}", observationType, offering);
+        removeValue(Relation.OBSERVATION_TYPES_FOR_OFFERINGS, offering, observationType);
+    }
+
+    @Override
+    public void removeObservationTypesForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing observationTypes from offering {}", offering);
+        removeKey(Relation.OBSERVATION_TYPES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void removeOfferingForObservableProperty(String observableProperty, String offering) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing offering {} from observableProperty {}", offering, observableProperty);
+        removeValue(Relation.OFFERINGS_FOR_OBSERVABLE_PROPERTIES, observableProperty, offering);
+    }
+
+    @Override
+    public void removeOfferingForProcedure(String procedure, String offering) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing offering {} from procedure {}", offering, procedure);
+        removeValue(Relation.OFFERINGS_FOR_PROCEDURES, procedure, offering);
+    }
+
+    @Override
+    public void removeOfferingsForObservableProperty(String observableProperty) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Removing offerings for observableProperty {}", observableProperty);
+        removeKey(Relation.OFFERINGS_FOR_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    @Override
+    public void removeOfferingsForProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Removing offering for procedure {}", procedure);
+        removeKey(Relation.OFFERINGS_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public void removeProcedureForFeatureOfInterest(String featureOfInterest, String procedure) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Removing procedure {} from featureOfInterest {}", procedure, featureOfInterest);
+        removeValue(Relation.PROCEDURES_FOR_FEATURES_OF_INTEREST, featureOfInterest, procedure);
+    }
+
+    @Override
+    public void removeProcedureForObservableProperty(String observableProperty, String procedure) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Removing procedure {} from observableProperty {}", procedure, observableProperty);
+        removeValue(Relation.PROCEDURES_FOR_OBSERVABLE_PROPERTIES, observableProperty, procedure);
+    }
+
+    @Override
+    public void removeProcedureForOffering(String offering, String procedure) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Removing procedure {} from offering {}", procedure, offering);
+        removeValue(Relation.PROCEDURES_FOR_OFFERINGS, offering, procedure);
+    }
+
+    @Override
+    public void removeHiddenChildProcedureForOffering(String offering, String procedure) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        LOG.trace("Removing hidden chile procedure {} from offering {}", procedure, offering);
+        removeValue(Relation.HIDDEN_CHILD_PROCEDURES_FOR_OFFERINGS, offering, procedure);
+    }
+
+    @Override
+    public void removeProceduresForFeatureOfInterest(String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Removing procedures for featureOfInterest {}", featureOfInterest);
+        removeKey(Relation.PROCEDURES_FOR_FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public void removeProceduresForObservableProperty(String observableProperty) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Removing procedures for observableProperty {}", observableProperty);
+        removeKey(Relation.PROCEDURES_FOR_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    @Override
+    public void removeProceduresForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing procedures for offering {}", offering);
+        removeKey(Relation.PROCEDURES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void removeRelatedFeatureForOffering(String offering, String relatedFeature) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(RELATED_FEATURE, relatedFeature);
+        LOG.trace("Removing relatedFeature {} from offering {}", relatedFeature, offering);
+        removeValue(Relation.RELATED_FEATURES_FOR_OFFERINGS, offering, relatedFeature);
+    }
+
+    @Override
+    public void removeRelatedFeaturesForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing RelatedFeatures for offering {}", offering);
+        removeKey(Relation.RELATED_FEATURES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void removeResultTemplateForOffering(String offering, String resultTemplate) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(RESULT_TEMPLATE, resultTemplate);
+        LOG.trace("Removing resultTemplate {} from offering {}", resultTemplate, offering);
+        removeValue(Relation.RESULT_TEMPLATES_FOR_OFFERINGS, offering, resultTemplate);
+    }
+
+    @Override
+    public void removeResultTemplatesForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing ResultTemplates for offering {}", offering);
+        removeKey(Relation.RESULT_TEMPLATES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void removeRoleForRelatedFeature(String relatedFeature, String role) {
+        CacheValidation.notNullOrEmpty(RELATED_FEATURE, relatedFeature);
+        CacheValidation.notNullOrEmpty(ROLE, role);
+        LOG.trace("Removing role {} from relatedFeature {}", role, relatedFeature);
+        removeValue(Relation.ROLES_FOR_RELATED_FEATURES, relatedFeature, role);
+    }
+
+    @Override
+    public void removeRolesForRelatedFeature(String relatedFeature) {
+        CacheValidation.notNullOrEmpty(RELATED_FEATURE, relatedFeature);
+        LOG.trace("Removing roles for relatedFeature {}", relatedFeature);
+        removeKey(Relation.ROLES_FOR_RELATED_FEATURES, relatedFeature);
+    }
+
+    @Override
+    public void removeRolesForRelatedFeatureNotIn(Collection<String> relatedFeatures) {
+        Objects.requireNonNull(relatedFeatures, RELATED_FEATURES);
+        Set<String> retain = new HashSet<>(relatedFeatures);
+        retainKeys(Relation.ROLES_FOR_RELATED_FEATURES, retain);
+    }
+
+    @Override
+    public void removeFeatureOfInterestTypeForOffering(String offering, String featureOfInterestType) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST_TYPE, featureOfInterestType);
+        LOG.trace("Removing featureOfInterestType {} from offering {}", featureOfInterestType, offering);
+        removeValue(Relation.FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering, featureOfInterestType);
+    }
+
+    @Override
+    public void removeFeatureOfInterestTypesForOffering(String offering) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        LOG.trace("Removing featureOfInterestTypes from offering {}", offering);
+        removeKey(Relation.FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void clearProceduresForFeatureOfInterest() {
+        LOG.trace("Clearing procedures for featureOfInterest");
+        clear(Relation.PROCEDURES_FOR_FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public void clearFeatureHierarchy() {
+        LOG.trace("Clearing feature hierarchy");
+        clear(Relation.CHILD_FEATURES_FOR_FEATURES_OF_INTEREST, Relation.PARENT_FEATURES_FOR_FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public void clearProceduresForOfferings() {
+        LOG.trace("Clearing procedures for offerings");
+        clear(Relation.PROCEDURES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearHiddenChildProceduresForOfferings() {
+        LOG.trace("Clearing hidden child procedures for offerings");
+        clear(Relation.HIDDEN_CHILD_PROCEDURES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearObservablePropertiesForOfferings() {
+        LOG.trace("Clearing observable properties for offerings");
+        clear(Relation.OBSERVABLE_PROPERTIES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearRelatedFeaturesForOfferings() {
+        LOG.trace("Clearing related features for offerings");
+        clear(Relation.RELATED_FEATURES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearObservationTypesForOfferings() {
+        LOG.trace("Clearing observation types for offerings");
+        clear(Relation.OBSERVATION_TYPES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearAllowedObservationTypeForOfferings() {
+        LOG.trace("Clearing allowed observation types for offerings");
+        clear(Relation.ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearFeaturesOfInterestForOfferings() {
+        LOG.trace("Clearing features of interest for offerings");
+        clear(Relation.FEATURES_OF_INTEREST_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void clearOfferingsForFeaturesOfInterest() {
+        LOG.trace("Clearing offerings for features of interest");
+        clear(Relation.OFFERINGS_FOR_FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public String getFeatureOfInterestIdentifierForHumanReadableName(String humanReadableName) {
+        return identifierForHumanReadableName(HumanReadableName.FEATURE_OF_INTEREST, humanReadableName);
+    }
+
+    @Override
+    public String getFeatureOfInterestHumanReadableNameForIdentifier(String identifier) {
+        return humanReadableName(HumanReadableName.FEATURE_OF_INTEREST, identifier);
+    }
+
+    @Override
+    public String getObservablePropertyIdentifierForHumanReadableName(String humanReadableName) {
+        return identifierForHumanReadableName(HumanReadableName.OBSERVABLE_PROPERTY, humanReadableName);
+    }
+
+    @Override
+    public String getObservablePropertyHumanReadableNameForIdentifier(String identifier) {
+        return humanReadableName(HumanReadableName.OBSERVABLE_PROPERTY, identifier);
+    }
+
+    @Override
+    public String getProcedureIdentifierForHumanReadableName(String humanReadableName) {
+        return identifierForHumanReadableName(HumanReadableName.PROCEDURE, humanReadableName);
+    }
+
+    @Override
+    public String getProcedureHumanReadableNameForIdentifier(String identifier) {
+        return humanReadableName(HumanReadableName.PROCEDURE, identifier);
+    }
+
+    @Override
+    public String getOfferingIdentifierForHumanReadableName(String humanReadableName) {
+        return identifierForHumanReadableName(HumanReadableName.OFFERING, humanReadableName);
+    }
+
+    @Override
+    public String getOfferingHumanReadableNameForIdentifier(String identifier) {
+        return humanReadableName(HumanReadableName.OFFERING, identifier);
+    }
+
+    @Override
+    public void addFeatureOfInterestIdentifierHumanReadableName(String identifier, String humanReadableName) {
+        addHumanReadableName(HumanReadableName.FEATURE_OF_INTEREST, identifier, humanReadableName);
+    }
+
+    @Override
+    public void addObservablePropertyIdentifierHumanReadableName(String identifier, String humanReadableName) {
+        addHumanReadableName(HumanReadableName.OBSERVABLE_PROPERTY, identifier, humanReadableName);
+    }
+
+    @Override
+    public void addProcedureIdentifierHumanReadableName(String identifier, String humanReadableName) {
+        addHumanReadableName(HumanReadableName.PROCEDURE, identifier, humanReadableName);
+    }
+
+    @Override
+    public void addOfferingIdentifierHumanReadableName(String identifier, String humanReadableName) {
+        addHumanReadableName(HumanReadableName.OFFERING, identifier, humanReadableName);
+    }
+
+    @Override
+    public void removeFeatureOfInterestIdentifierForHumanReadableName(String humanReadableName) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST_NAME, humanReadableName);
+        removeIdentifierForHumanReadableName(HumanReadableName.FEATURE_OF_INTEREST, humanReadableName);
+    }
+
+    @Override
+    public void removeFeatureOfInterestHumanReadableNameForIdentifier(String identifier) {
+        CacheValidation.notNullOrEmpty(FEATURE_OF_INTEREST, identifier);
+        removeHumanReadableNameForIdentifier(HumanReadableName.FEATURE_OF_INTEREST, identifier);
+    }
+
+    @Override
+    public void removeObservablePropertyIdentifierForHumanReadableName(String humanReadableName) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY_NAME, humanReadableName);
+        removeIdentifierForHumanReadableName(HumanReadableName.OBSERVABLE_PROPERTY, humanReadableName);
+    }
+
+    @Override
+    public void removeObservablePropertyHumanReadableNameForIdentifier(String identifier) {
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, identifier);
+        removeHumanReadableNameForIdentifier(HumanReadableName.OBSERVABLE_PROPERTY, identifier);
+    }
+
+    @Override
+    public void removeProcedureIdentifierForHumanReadableName(String humanReadableName) {
+        CacheValidation.notNullOrEmpty(PROCEDURE_NAME, humanReadableName);
+        removeIdentifierForHumanReadableName(HumanReadableName.PROCEDURE, humanReadableName);
+    }
+
+    @Override
+    public void removeProcedureHumanReadableNameForIdentifier(String identifier) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, identifier);
+        removeHumanReadableNameForIdentifier(HumanReadableName.PROCEDURE, identifier);
+    }
+
+    @Override
+    public void removeOfferingIdentifierForHumanReadableName(String humanReadableName) {
+        CacheValidation.notNullOrEmpty(OFFERING_NAME, humanReadableName);
+        removeIdentifierForHumanReadableName(HumanReadableName.OFFERING, humanReadableName);
+    }
+
+    @Override
+    public void removeOfferingHumanReadableNameForIdentifier(String identifier) {
+        CacheValidation.notNullOrEmpty(OFFERING, identifier);
+        removeHumanReadableNameForIdentifier(HumanReadableName.OFFERING, identifier);
+    }
+
+    @Override
+    public void clearFeatureOfInterestIdentifierHumanReadableNameMaps() {
+        clear(HumanReadableName.FEATURE_OF_INTEREST);
+    }
+
+    @Override
+    public void clearObservablePropertyIdentifierHumanReadableNameMaps() {
+        clear(HumanReadableName.OBSERVABLE_PROPERTY);
+    }
+
+    @Override
+    public void clearProcedureIdentifierHumanReadableNameMaps() {
+        clear(HumanReadableName.PROCEDURE);
+    }
+
+    @Override
+    public void clearOfferingIdentifierHumanReadableNameMaps() {
+        clear(HumanReadableName.OFFERING);
+    }
+
+    @Override
+    public Set<String> getCompositePhenomenons() {
+        return identifiers(Registry.COMPOSITE_PHENOMENONS);
+    }
+
+    @Override
+    public boolean isCompositePhenomenon(String observableProperty) {
+        return hasIdentifier(Registry.COMPOSITE_PHENOMENONS, observableProperty);
+    }
+
+    @Override
+    public Set<String> getCompositePhenomenonsForProcedure(String procedure) {
+        return values(Relation.COMPOSITE_PHENOMENONS_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public boolean isCompositePhenomenonForProcedure(String procedure, String observableProperty) {
+        return containsValue(Relation.COMPOSITE_PHENOMENONS_FOR_PROCEDURES, procedure, observableProperty);
+    }
+
+    @Override
+    public Set<String> getCompositePhenomenonsForOffering(String offering) {
+        return values(Relation.COMPOSITE_PHENOMENONS_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public boolean isCompositePhenomenonForOffering(String offering, String observableProperty) {
+        return containsValue(Relation.COMPOSITE_PHENOMENONS_FOR_OFFERINGS, offering, observableProperty);
+    }
+
+    @Override
+    public Set<String> getObservablePropertiesForCompositePhenomenon(String compositePhenomenon) {
+        return values(Relation.OBSERVABLE_PROPERTIES_FOR_COMPOSITE_PHENOMENONS, compositePhenomenon);
+    }
+
+    @Override
+    public boolean isObservablePropertyOfCompositePhenomenon(String compositePhenomenon, String observableProperty) {
+        return containsValue(Relation.OBSERVABLE_PROPERTIES_FOR_COMPOSITE_PHENOMENONS, compositePhenomenon,
+                observableProperty);
+    }
+
+    @Override
+    public Set<String> getCompositePhenomenonForObservableProperty(String observableProperty) {
+        return values(Relation.COMPOSITE_PHENOMENONS_FOR_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    @Override
+    public boolean isCompositePhenomenonComponent(String observableProperty) {
+        return !values(Relation.COMPOSITE_PHENOMENONS_FOR_OBSERVABLE_PROPERTIES, observableProperty).isEmpty();
+    }
+
+    @Override
+    public void addCompositePhenomenon(String compositePhenomenon) {
+        CacheValidation.notNullOrEmpty(COMPOSITE_PHENOMENON, compositePhenomenon);
+        LOG.trace("Adding composite phenomenon {}", compositePhenomenon);
+        addIdentifier(Registry.COMPOSITE_PHENOMENONS, compositePhenomenon);
+    }
+
+    @Override
+    public void addCompositePhenomenon(Collection<String> compositePhenomenon) {
+        CacheValidation.noNullOrEmptyValues(COMPOSITE_PHENOMENON, compositePhenomenon);
+        LOG.trace("Adding composite phenomenon {}", compositePhenomenon);
+        modify(() -> compositePhenomenon.forEach(this::addCompositePhenomenon));
+    }
+
+    @Override
+    public void clearCompositePhenomenon() {
+        LOG.trace("Clearing composite phenomenon");
+        clear(Registry.COMPOSITE_PHENOMENONS);
+    }
+
+    @Override
+    public void addCompositePhenomenonForProcedure(String procedure, String compositePhenomenon) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.notNullOrEmpty(COMPOSITE_PHENOMENON, compositePhenomenon);
+        LOG.trace("Adding composite phenomenon {} to procedure {}", compositePhenomenon, procedure);
+        modify(() -> {
+            addValue(Relation.COMPOSITE_PHENOMENONS_FOR_PROCEDURES, procedure, compositePhenomenon);
+            addCompositePhenomenon(compositePhenomenon);
+        });
+    }
+
+    @Override
+    public void addCompositePhenomenonForProcedure(String procedure, Collection<String> compositePhenomenon) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        CacheValidation.noNullOrEmptyValues(COMPOSITE_PHENOMENON, compositePhenomenon);
+        LOG.trace("Adding composite phenomenon {} to procedure {}", compositePhenomenon, procedure);
+        modify(() -> {
+            addValues(Relation.COMPOSITE_PHENOMENONS_FOR_PROCEDURES, procedure, compositePhenomenon);
+            addCompositePhenomenon(compositePhenomenon);
+        });
+    }
+
+    @Override
+    public void clearCompositePhenomenonForProcedure(String procedure) {
+        LOG.trace("Clearing composite phenomenon for procedure {}", procedure);
+        removeKey(Relation.COMPOSITE_PHENOMENONS_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public void clearCompositePhenomenonForProcedures() {
+        LOG.trace("Clearing composite phenomenon for procedures");
+        clear(Relation.COMPOSITE_PHENOMENONS_FOR_PROCEDURES);
+    }
+
+    @Override
+    public void addCompositePhenomenonForOffering(String offering, String compositePhenomenon) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.notNullOrEmpty(COMPOSITE_PHENOMENON, compositePhenomenon);
+        LOG.trace("Adding composite phenomenon {} to offering {}", compositePhenomenon, offering);
+        modify(() -> {
+            addValue(Relation.COMPOSITE_PHENOMENONS_FOR_OFFERINGS, offering, compositePhenomenon);
+            addCompositePhenomenon(compositePhenomenon);
+        });
+    }
+
+    @Override
+    public void addCompositePhenomenonForOffering(String offering, Collection<String> compositePhenomenon) {
+        CacheValidation.notNullOrEmpty(OFFERING, offering);
+        CacheValidation.noNullOrEmptyValues(COMPOSITE_PHENOMENON, compositePhenomenon);
+        LOG.trace("Adding composite phenomenon {} to offering {}", compositePhenomenon, offering);
+        modify(() -> {
+            addValues(Relation.COMPOSITE_PHENOMENONS_FOR_OFFERINGS, offering, compositePhenomenon);
+            addCompositePhenomenon(compositePhenomenon);
+        });
+    }
+
+    @Override
+    public void clearCompositePhenomenonForOffering(String offering) {
+        LOG.trace("Clearing composite phenomenon for offering {}", offering);
+        removeKey(Relation.COMPOSITE_PHENOMENONS_FOR_OFFERINGS, offering);
+    }
+
+    @Override
+    public void clearCompositePhenomenonForOfferings() {
+        LOG.trace("Clearing composite phenomenon for offerings");
+        clear(Relation.COMPOSITE_PHENOMENONS_FOR_OFFERINGS);
+    }
+
+    @Override
+    public void addCompositePhenomenonForObservableProperty(String observableProperty, String compositePhenomenon) {
+        CacheValidation.notNullOrEmpty(COMPOSITE_PHENOMENON, compositePhenomenon);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Adding composite phenomenon {} to observable property {}", compositePhenomenon,
+                observableProperty);
+        modify(() -> {
+            addValue(Relation.COMPOSITE_PHENOMENONS_FOR_OBSERVABLE_PROPERTIES, observableProperty,
+                    compositePhenomenon);
+            addCompositePhenomenon(compositePhenomenon);
+        });
+    }
+
+    @Override
+    public void addObservablePropertyForCompositePhenomenon(String compositePhenomenon, String observableProperty) {
+        CacheValidation.notNullOrEmpty(COMPOSITE_PHENOMENON, compositePhenomenon);
+        CacheValidation.notNullOrEmpty(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Adding observable property {} to composite phenomenon {}", observableProperty,
+                compositePhenomenon);
+        modify(() -> {
+            addValue(Relation.OBSERVABLE_PROPERTIES_FOR_COMPOSITE_PHENOMENONS, compositePhenomenon,
+                    observableProperty);
+            addCompositePhenomenon(compositePhenomenon);
+        });
+    }
+
+    @Override
+    public void addObservablePropertiesForCompositePhenomenon(String compositePhenomenon,
+            Collection<String> observableProperty) {
+        CacheValidation.notNullOrEmpty(COMPOSITE_PHENOMENON, compositePhenomenon);
+        CacheValidation.noNullOrEmptyValues(OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Adding observable properties {} to composite phenomenon {}", observableProperty,
+                compositePhenomenon);
+        modify(() -> {
+            addValues(Relation.OBSERVABLE_PROPERTIES_FOR_COMPOSITE_PHENOMENONS, compositePhenomenon,
+                    observableProperty);
+            addCompositePhenomenon(compositePhenomenon);
+        });
+    }
+
+    @Override
+    public void clearObservablePropertiesForCompositePhenomenon(String compositePhenomenon) {
+        LOG.trace("Clearing observable properties for composite phenomenon {}", compositePhenomenon);
+        removeKey(Relation.OBSERVABLE_PROPERTIES_FOR_COMPOSITE_PHENOMENONS, compositePhenomenon);
+    }
+
+    @Override
+    public void clearObservablePropertiesForCompositePhenomenon() {
+        LOG.trace("Clearing observable properties for composite phenomenons");
+        clear(Relation.OBSERVABLE_PROPERTIES_FOR_COMPOSITE_PHENOMENONS);
+    }
+
+    @Override
+    public void clearCompositePhenomenonsForObservableProperty() {
+        LOG.trace("Clearing composite phenomenon for observable properties");
+        clear(Relation.COMPOSITE_PHENOMENONS_FOR_OBSERVABLE_PROPERTIES);
+    }
+
+    @Override
+    public void clearCompositePhenomenonsForObservableProperty(String observableProperty) {
+        LOG.trace("Clearing composite phenomenon for observable property {}", observableProperty);
+        removeKey(Relation.COMPOSITE_PHENOMENONS_FOR_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    @Override
+    public Set<String> getRequestableProcedureDescriptionFormat() {
+        return identifiers(Registry.REQUESTABLE_PROCEDURE_DESCRIPTION_FORMATS);
+    }
+
+    @Override
+    public void setRequestableProcedureDescriptionFormat(Collection<String> formats) {
+        modify(() -> formats.forEach(format -> addIdentifier(Registry.REQUESTABLE_PROCEDURE_DESCRIPTION_FORMATS,
+                format)));
+    }
+
+    @Override
+    public Set<String> getTransactionalObservationProcedures() {
+        Set<String> procedures = new HashSet<>(union(Relation.HIDDEN_CHILD_PROCEDURES_FOR_OFFERINGS));
+        procedures.addAll(union(Relation.PROCEDURES_FOR_OFFERINGS));
+        return procedures;
+    }
+
+    @Override
+    public Set<String> getQueryableProcedures(boolean instances, boolean aggregates) {
+        Set<String> procs = getPublishedProcedures();
+        // allowQueryingForInstancesOnly
+        if (instances) {
+            procs = CollectionHelper.conjunctCollectionsToSet(getProcedures(),
+                    getTypeInstanceProcedure(TypeInstance.INSTANCE));
+        }
+        // showOnlyAggregatedProcedures
+        if (aggregates) {
+            procs = CollectionHelper.conjunctCollectionsToSet(getProcedures(),
+                    getComponentAggregationProcedure(ComponentAggregation.AGGREGATION));
+        }
+        return procs;
+    }
+
+    @Override
+    public Set<String> getTypeInstanceProcedure(TypeInstance typeInstance) {
+        return values(Relation.PROCEDURES_FOR_TYPE_INSTANCES, typeInstance.name());
+    }
+
+    @Override
+    public Set<String> getComponentAggregationProcedure(ComponentAggregation componentAggregation) {
+        return values(Relation.PROCEDURES_FOR_COMPONENT_AGGREGATIONS, componentAggregation.name());
+    }
+
+    @Override
+    public Set<String> getInstancesForProcedure(String identifier) {
+        return values(Relation.INSTANCES_FOR_PROCEDURE_TYPES, identifier);
+    }
+
+    @Override
+    public boolean hasInstancesForProcedure(String identifier) {
+        return containsKey(Relation.INSTANCES_FOR_PROCEDURE_TYPES, identifier);
+    }
+
+    @Override
+    public void addTypeInstanceProcedure(TypeInstance typeInstance, String identifier) {
+        CacheValidation.notNullOrEmpty(TYPE_PROCEDURE, identifier);
+        LOG.trace("Adding '{}' to '{}'", identifier, TYPE_PROCEDURE);
+        addValue(Relation.PROCEDURES_FOR_TYPE_INSTANCES, typeInstance.name(), identifier);
+    }
+
+    @Override
+    public void removeTypeInstanceProcedure(String identifier) {
+        CacheValidation.notNullOrEmpty(TYPE_PROCEDURE, identifier);
+        LOG.trace("Removing '{}' from '{}'", identifier, TYPE_PROCEDURE);
+        removeValueFromAll(Relation.PROCEDURES_FOR_TYPE_INSTANCES, identifier);
+    }
+
+    @Override
+    public void clearTypeInstanceProcedure() {
+        LOG.trace("Clearing '{}'", TYPE_PROCEDURE);
+        clear(Relation.PROCEDURES_FOR_TYPE_INSTANCES);
+    }
+
+    @Override
+    public void addComponentAggregationProcedure(ComponentAggregation componentAggregation, String identifier) {
+        CacheValidation.notNullOrEmpty(AGGREGATED_PROCEDURE, identifier);
+        LOG.trace("Adding '{}' to '{}'", identifier, AGGREGATED_PROCEDURE);
+        addValue(Relation.PROCEDURES_FOR_COMPONENT_AGGREGATIONS, componentAggregation.name(), identifier);
+    }
+
+    @Override
+    public void removeComponentAggregationProcedure(String identifier) {
+        CacheValidation.notNullOrEmpty(AGGREGATED_PROCEDURE, identifier);
+        LOG.trace("Removing '{}' from '{}'", identifier, AGGREGATED_PROCEDURE);
+        removeValueFromAll(Relation.PROCEDURES_FOR_COMPONENT_AGGREGATIONS, identifier);
+    }
+
+    @Override
+    public void clearComponentAggregationProcedure() {
+        LOG.trace("Clearing '{}'", AGGREGATED_PROCEDURE);
+        clear(Relation.PROCEDURES_FOR_COMPONENT_AGGREGATIONS);
+    }
+
+    @Override
+    public void addTypeOfProcedure(String type, String instance) {
+        CacheValidation.notNullOrEmpty(TYPE_PROCEDURE, type);
+        CacheValidation.notNullOrEmpty(PROCEDURE_INSTANCE, instance);
+        LOG.trace("Adding instance '{}' to type '{}'", instance, type);
+        addValue(Relation.INSTANCES_FOR_PROCEDURE_TYPES, type, instance);
+    }
+
+    @Override
+    public void addTypeOfProcedure(String type, Set<String> instances) {
+        CacheValidation.notNullOrEmpty(TYPE_PROCEDURE, type);
+        CacheValidation.noNullValues(PROCEDURE_INSTANCES, instances);
+        LOG.trace("Adding instances {} to type '{}'", instances, type);
+        addValues(Relation.INSTANCES_FOR_PROCEDURE_TYPES, type, instances);
+    }
+
+    @Override
+    public void removeTypeOfProcedure(String type) {
+        CacheValidation.notNullOrEmpty(TYPE_PROCEDURE, type);
+        LOG.trace("Removing type '{}'", type);
+        modify(() -> {
+            removeKey(Relation.INSTANCES_FOR_PROCEDURE_TYPES, type);
+            // check for values
+            removeValueFromAll(Relation.INSTANCES_FOR_PROCEDURE_TYPES, type);
+        });
+    }
+
+    @Override
+    public void removeTypeOfProcedure(String type, String instance) {
+        CacheValidation.notNullOrEmpty(TYPE_PROCEDURE, type);
+        CacheValidation.notNullOrEmpty(PROCEDURE_INSTANCE, instance);
+        LOG.trace("Removing instance '{}' from type '{}'", instance, type);
+        removeValue(Relation.INSTANCES_FOR_PROCEDURE_TYPES, type, instance);
+    }
+
+    @Override
+    public void clearTypeOfProcedure() {
+        LOG.trace("Clearing type instance procedure map");
+        clear(Relation.INSTANCES_FOR_PROCEDURE_TYPES);
+    }
+
+    @Override
+    public void addProcedureDescriptionFormatsForProcedure(String procedure, Set<String> formats) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        addValues(Relation.PROCEDURE_DESCRIPTION_FORMATS_FOR_PROCEDURES, procedure, formats);
+    }
+
+    @Override
+    public void removeProcedureDescriptionFormatsForProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PROCEDURE, procedure);
+        removeKey(Relation.PROCEDURE_DESCRIPTION_FORMATS_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public Set<String> getProcedureDescriptionFormatsForProcedure(String procedure) {
+        return values(Relation.PROCEDURE_DESCRIPTION_FORMATS_FOR_PROCEDURES, procedure);
+    }
+
+    @Override
+    public Set<String> getPublishedFeatureOfInterest() {
+        return identifiers(Registry.PUBLISHED_FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public Set<String> getPublishedProcedures() {
+        return identifiers(Registry.PUBLISHED_PROCEDURES);
+    }
+
+    @Override
+    public Set<String> getPublishedOfferings() {
+        return identifiers(Registry.PUBLISHED_OFFERINGS);
+    }
+
+    @Override
+    public Set<String> getPublishedObservableProperties() {
+        return identifiers(Registry.PUBLISHED_OBSERVABLE_PROPERTIES);
+    }
+
+    @Override
+    public void addPublishedFeatureOfInterest(String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Adding published FeatureOfInterest {}", featureOfInterest);
+        addIdentifier(Registry.PUBLISHED_FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public void clearPublishedFeaturesOfInterest() {
+        LOG.trace("Clearing published features of interest");
+        clear(Registry.PUBLISHED_FEATURES_OF_INTEREST);
+    }
+
+    @Override
+    public void removePublishedFeatureOfInterest(String featureOfInterest) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_FEATURE_OF_INTEREST, featureOfInterest);
+        LOG.trace("Removing published FeatureOfInterest {}", featureOfInterest);
+        removeIdentifier(Registry.PUBLISHED_FEATURES_OF_INTEREST, featureOfInterest);
+    }
+
+    @Override
+    public void addPublishedProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_PROCEDURE, procedure);
+        LOG.trace("Adding published procedure {}", procedure);
+        addIdentifier(Registry.PUBLISHED_PROCEDURES, procedure);
+    }
+
+    @Override
+    public void clearPublishedProcedure() {
+        LOG.trace("Clearing published procedure");
+        clear(Registry.PUBLISHED_PROCEDURES);
+    }
+
+    @Override
+    public void removePublishedProcedure(String procedure) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_PROCEDURE, procedure);
+        LOG.trace("Removing published procedure {}", procedure);
+        removeIdentifier(Registry.PUBLISHED_PROCEDURES, procedure);
+    }
+
+    @Override
+    public void addPublishedOffering(String offering) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_OFFERING, offering);
+        LOG.trace("Adding published offering {}", offering);
+        addIdentifier(Registry.PUBLISHED_OFFERINGS, offering);
+    }
+
+    @Override
+    public void clearPublishedOffering() {
+        LOG.trace("Clearing published offering");
+        clear(Registry.PUBLISHED_OFFERINGS);
+    }
+
+    @Override
+    public void removePublishedOffering(String offering) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_OFFERING, offering);
+        LOG.trace("Removing published offering {}", offering);
+        removeIdentifier(Registry.PUBLISHED_OFFERINGS, offering);
+    }
+
+    @Override
+    public void addPublishedObservableProperty(String observableProperty) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Adding published observableProperty {}", observableProperty);
+        addIdentifier(Registry.PUBLISHED_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    @Override
+    public void clearPublishedObservableProperty() {
+        LOG.trace("Clearing published observableProperties");
+        clear(Registry.PUBLISHED_OBSERVABLE_PROPERTIES);
+    }
+
+    @Override
+    public void removePublishedObservableProperty(String observableProperty) {
+        CacheValidation.notNullOrEmpty(PUBLISHED_OBSERVABLE_PROPERTY, observableProperty);
+        LOG.trace("Removing published observableProperty {}", observableProperty);
+        removeIdentifier(Registry.PUBLISHED_OBSERVABLE_PROPERTIES, observableProperty);
+    }
+
+    enum Relation {
+        ALLOWED_OBSERVATION_TYPES_FOR_OFFERINGS,
+        ALLOWED_FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS,
+        CHILD_FEATURES_FOR_FEATURES_OF_INTEREST,
+        CHILD_PROCEDURES_FOR_PROCEDURES,
+        CHILD_OFFERINGS_FOR_OFFERINGS,
+        COMPOSITE_PHENOMENONS_FOR_PROCEDURES,
+        COMPOSITE_PHENOMENONS_FOR_OFFERINGS,
+        COMPOSITE_PHENOMENONS_FOR_OBSERVABLE_PROPERTIES,
+        FEATURES_OF_INTEREST_FOR_OFFERINGS,
+        OFFERINGS_FOR_FEATURES_OF_INTEREST,
+        FEATURES_OF_INTEREST_FOR_RESULT_TEMPLATES,
+        OBSERVABLE_PROPERTIES_FOR_COMPOSITE_PHENOMENONS,
+        OBSERVABLE_PROPERTIES_FOR_OFFERINGS,
+        OBSERVABLE_PROPERTIES_FOR_PROCEDURES,
+        OBSERVATION_TYPES_FOR_OFFERINGS,
+        FEATURE_OF_INTEREST_TYPES_FOR_OFFERINGS,
+        OBSERVABLE_PROPERTIES_FOR_RESULT_TEMPLATES,
+        OFFERINGS_FOR_OBSERVABLE_PROPERTIES,
+        OFFERINGS_FOR_PROCEDURES,
+        PARENT_FEATURES_FOR_FEATURES_OF_INTEREST,
+        PARENT_PROCEDURES_FOR_PROCEDURES,
+        PARENT_OFFERINGS_FOR_OFFERINGS,
+        PROCEDURES_FOR_FEATURES_OF_INTEREST,
+        PROCEDURES_FOR_OBSERVABLE_PROPERTIES,
+        PROCEDURES_FOR_OFFERINGS,
+        HIDDEN_CHILD_PROCEDURES_FOR_OFFERINGS,
+        RELATED_FEATURES_FOR_OFFERINGS,
+        RESULT_TEMPLATES_FOR_OFFERINGS,
+        ROLES_FOR_RELATED_FEATURES,
+        PROCEDURES_FOR_TYPE_INSTANCES,
+        PROCEDURES_FOR_COMPONENT_AGGREGATIONS,
+        INSTANCES_FOR_PROCEDURE_TYPES,
+        PROCEDURE_DESCRIPTION_FORMATS_FOR_PROCEDURES;
+    }
+
+    enum Registry {
+        FEATURES_OF_INTEREST,
+        PROCEDURES,
+        RESULT_TEMPLATES,
+        OFFERINGS,
+        COMPOSITE_PHENOMENONS,
+        REQUESTABLE_PROCEDURE_DESCRIPTION_FORMATS,
+        PUBLISHED_FEATURES_OF_INTEREST,
+        PUBLISHED_PROCEDURES,
+        PUBLISHED_OFFERINGS,
+        PUBLISHED_OBSERVABLE_PROPERTIES;
+    }
+
+    enum Timestamp {
+        MAX_PHENOMENON_TIME_FOR_OFFERINGS,
+        MIN_PHENOMENON_TIME_FOR_OFFERINGS,
+        MAX_RESULT_TIME_FOR_OFFERINGS,
+        MIN_RESULT_TIME_FOR_OFFERINGS,
+        MAX_PHENOMENON_TIME_FOR_PROCEDURES,
+        MIN_PHENOMENON_TIME_FOR_PROCEDURES;
+    }
+
+    enum Envelopes {
+        OFFERINGS,
+        SPATIAL_FILTERING_PROFILE_OFFERINGS;
+    }
+
+    enum HumanReadableName {
+        FEATURE_OF_INTEREST("feature"),
+        OBSERVABLE_PROPERTY("observableProperty"),
+        PROCEDURE("procedure"),
+        OFFERING("offering");
+
+        private final String name;
+
+        HumanReadableName(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+
+    enum Localized {
+        NAMES,
+        DESCRIPTIONS;
+    }
+}
@@ -30,19 +30,27 @@ package org.n52.sos.cache;
 
 import javax.inject.Inject;
 
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.cache.WritableContentCache;
 import org.n52.iceland.cache.ctrl.ContentCacheFactory;
 import org.n52.iceland.coding.SupportedTypeRepository;
+import org.n52.sos.service.SosSettings;
 
 /**
  * TODO JavaDoc
  *
  * @author Christian Autermann
  */
+@Configurable
 public class ContentCacheFactoryImpl implements ContentCacheFactory {
 
     private SupportedTypeRepository supportedTypeRepository;
 
+    private boolean snapshotCache;
+
+    private boolean dictionaryCache;
+
     @Inject
     public void setSupportedTypeRepository(SupportedTypeRepository supportedTypeRepository) {
         this.supportedTypeRepository = supportedTypeRepository;
@@ -52,8 +60,42 @@ public class ContentCacheFactoryImpl implements ContentCacheFactory {
         return supportedTypeRepository;
     }
 
+    /**
+     * @param snapshotCache
+     *            if the lock-free {@link SnapshotCacheImpl} should be created instead of the {@link InMemoryCacheImpl}
+     */
+    @Setting(SosSettings.SNAPSHOT_CACHE)
+    public void setSnapshotCache(boolean snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    public boolean isSnapshotCache() {
+        return snapshotCache;
+    }
+
+    /**
+     * @param dictionaryCache
+     *            if the snapshot cache should intern identifiers (see {@link DictionaryCacheImpl})
+     */
+    @Setting(SosSettings.DICTIONARY_CACHE)
+    public void setDictionaryCache(boolean dictionaryCache) {
+        this.dictionaryCache = dictionaryCache;
+    }
+
+    public boolean isDictionaryCache() {
+        return dictionaryCache;
+    }
+
     @Override
     public WritableContentCache get() {
+        if (isSnapshotCache() && isDictionaryCache()) {
+            return (DictionaryCacheImpl) new DictionaryCacheImpl()
+                    .setSupportedTypeRepository(getSupportedTypeRepository());
+        }
+        if (isSnapshotCache()) {
+            return (SnapshotCacheImpl) new SnapshotCacheImpl()
+                    .setSupportedTypeRepository(getSupportedTypeRepository());
+        }
         return (InMemoryCacheImpl) new InMemoryCacheImpl().setSupportedTypeRepository(getSupportedTypeRepository());
     }
 
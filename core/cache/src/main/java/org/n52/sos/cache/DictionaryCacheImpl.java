@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * {@link SnapshotCacheImpl} that stores every identifier only once. Identifiers are interned into an
+ * {@link IdentifierDictionary} and the values of the relations between them are stored as sets of {@code int} ids
+ * (see {@link IdentifierSet}), which are converted back to identifiers when they are read.
+ * <p>
+ * The dictionary only grows, identifiers that are removed from the cache are dropped with the next complete cache
+ * update, which creates a new cache.
+ *
+ * @since 6.1.2
+ */
+public class DictionaryCacheImpl extends SnapshotCacheImpl {
+    private static final long serialVersionUID = 5238425064372871404L;
+
+    private final IdentifierDictionary dictionary = new IdentifierDictionary();
+
+    @Override
+    protected Set<String> newValues(Collection<String> values) {
+        return new IdentifierSet(this.dictionary, values);
+    }
+
+    @Override
+    protected String identifier(String identifier) {
+        return this.dictionary.canonical(identifier);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Append-only dictionary that maps identifiers to a dense range of {@code int} ids. Every identifier is stored
+ * exactly once, ids are never reassigned. Lookups may be done concurrently to {@link #intern(String)}.
+ *
+ * @since 6.1.2
+ */
+final class IdentifierDictionary implements Serializable {
+    private static final long serialVersionUID = -3113577498315218763L;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private transient ConcurrentMap<String, Integer> ids;
+
+    private transient volatile String[] identifiers;
+
+    private transient int size;
+
+    IdentifierDictionary() {
+        init(INITIAL_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        this.ids = new ConcurrentHashMap<>(capacity);
+        this.identifiers = new String[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param identifier
+     *            the identifier
+     * @return the id of the identifier or {@code -1} if it is unknown
+     */
+    int lookup(String identifier) {
+        Integer id = this.ids.get(identifier);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param identifier
+     *            the identifier
+     * @return the id of the identifier, a new id is assigned if it is unknown
+     */
+    synchronized int intern(String identifier) {
+        Integer id = this.ids.get(identifier);
+        if (id != null) {
+            return id;
+        }
+        if (this.size == this.identifiers.length) {
+            this.identifiers = Arrays.copyOf(this.identifiers, this.size * 2);
+        }
+        // store the identifier before it can be found by concurrent lookups
+        this.identifiers[this.size] = identifier;
+        this.ids.put(identifier, this.size);
+        return this.size++;
+    }
+
+    /**
+     * @param identifier
+     *            the identifier
+     * @return the instance of the identifier that is stored in this dictionary
+     */
+    String canonical(String identifier) {
+        return identifier == null ? null : get(intern(identifier));
+    }
+
+    /**
+     * @param id
+     *            the id
+     * @return the identifier with the id
+     */
+    String get(int id) {
+        return this.identifiers[id];
+    }
+
+    synchronized int size() {
+        return this.size;
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(this.size);
+        for (int i = 0; i < this.size; ++i) {
+            out.writeUTF(this.identifiers[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        init(Math.max(count, INITIAL_CAPACITY));
+        for (int i = 0; i < count; ++i) {
+            intern(in.readUTF());
+        }
+    }
+}
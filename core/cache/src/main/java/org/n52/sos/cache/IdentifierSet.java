@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of identifiers that stores the ids of an {@link IdentifierDictionary} instead of the identifiers.
+ * <p>
+ * Small sets are stored as a sorted {@code int} array, sets with more than {@value #MAX_ARRAY_SIZE} elements as a
+ * bitmap. Operations with other sets of the same dictionary work on the ids only.
+ *
+ * @since 6.1.2
+ */
+final class IdentifierSet extends AbstractSet<String> implements Serializable {
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    private static final long serialVersionUID = 2405395264066109006L;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final IdentifierDictionary dictionary;
+
+    private int[] array = EMPTY;
+
+    private BitSet bitmap;
+
+    private int size;
+
+    IdentifierSet(IdentifierDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    IdentifierSet(IdentifierDictionary dictionary, Collection<String> values) {
+        this(dictionary);
+        if (values != null) {
+            if (isCompatible(values)) {
+                IdentifierSet other = (IdentifierSet) values;
+                this.size = other.size;
+                if (other.bitmap != null) {
+                    this.bitmap = (BitSet) other.bitmap.clone();
+                } else {
+                    this.array = Arrays.copyOf(other.array, other.size);
+                }
+            } else {
+                addAll(values);
+            }
+        }
+    }
+
+    private boolean isCompatible(Collection<?> values) {
+        return values instanceof IdentifierSet && ((IdentifierSet) values).dictionary == this.dictionary;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        int id = this.dictionary.lookup((String) o);
+        return id >= 0 && containsId(id);
+    }
+
+    @Override
+    public boolean add(String identifier) {
+        return addId(this.dictionary.intern(identifier));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        int id = this.dictionary.lookup((String) o);
+        return id >= 0 && removeId(id);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> values) {
+        if (isCompatible(values)) {
+            IdentifierSet other = (IdentifierSet) values;
+            boolean changed = false;
+            for (int id = other.nextId(0); id >= 0; id = other.nextId(id + 1)) {
+                changed |= addId(id);
+            }
+            return changed;
+        }
+        return super.addAll(values);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> values) {
+        if (!isCompatible(values)) {
+            return super.retainAll(values);
+        }
+        IdentifierSet other = (IdentifierSet) values;
+        int oldSize = this.size;
+        if (this.bitmap != null && other.bitmap != null) {
+            this.bitmap.and(other.bitmap);
+            this.size = this.bitmap.cardinality();
+            compact();
+        } else if (this.bitmap != null) {
+            // the result is not larger than the array of the other set
+            int[] retained = new int[other.size];
+            int count = 0;
+            for (int i = 0; i < other.size; ++i) {
+                if (this.bitmap.get(other.array[i])) {
+                    retained[count++] = other.array[i];
+                }
+            }
+            this.bitmap = null;
+            this.array = retained;
+            this.size = count;
+        } else {
+            int count = 0;
+            for (int i = 0; i < this.size; ++i) {
+                if (other.containsId(this.array[i])) {
+                    this.array[count++] = this.array[i];
+                }
+            }
+            this.size = count;
+        }
+        return this.size != oldSize;
+    }
+
+    @Override
+    public void clear() {
+        this.array = EMPTY;
+        this.bitmap = null;
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = nextId(0);
+
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return this.next >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (this.next < 0) {
+                    throw new NoSuchElementException();
+                }
+                this.last = this.next;
+                // iterate by id, so removing the current element does not affect the iteration
+                this.next = nextId(this.last + 1);
+                return dictionary.get(this.last);
+            }
+
+            @Override
+            public void remove() {
+                if (this.last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeId(this.last);
+                this.last = -1;
+            }
+        };
+    }
+
+    private boolean containsId(int id) {
+        if (this.bitmap != null) {
+            return this.bitmap.get(id);
+        }
+        return Arrays.binarySearch(this.array, 0, this.size, id) >= 0;
+    }
+
+    private int nextId(int from) {
+        if (this.bitmap != null) {
+            return this.bitmap.nextSetBit(from);
+        }
+        int index = Arrays.binarySearch(this.array, 0, this.size, from);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < this.size ? this.array[index] : -1;
+    }
+
+    private boolean addId(int id) {
+        if (this.bitmap != null) {
+            if (this.bitmap.get(id)) {
+                return false;
+            }
+            this.bitmap.set(id);
+            ++this.size;
+            return true;
+        }
+        int index = Arrays.binarySearch(this.array, 0, this.size, id);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (this.size == MAX_ARRAY_SIZE) {
+            this.bitmap = new BitSet();
+            for (int i = 0; i < this.size; ++i) {
+                this.bitmap.set(this.array[i]);
+            }
+            this.bitmap.set(id);
+            this.array = EMPTY;
+            ++this.size;
+            return true;
+        }
+        if (this.size == this.array.length) {
+            this.array = Arrays.copyOf(this.array, Math.max(4, Math.min(this.size * 2, MAX_ARRAY_SIZE)));
+        }
+        System.arraycopy(this.array, index, this.array, index + 1, this.size - index);
+        this.array[index] = id;
+        ++this.size;
+        return true;
+    }
+
+    private boolean removeId(int id) {
+        if (this.bitmap != null) {
+            if (!this.bitmap.get(id)) {
+                return false;
+            }
+            this.bitmap.clear(id);
+            --this.size;
+            compact();
+            return true;
+        }
+        int index = Arrays.binarySearch(this.array, 0, this.size, id);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(this.array, index + 1, this.array, index, this.size - index - 1);
+        --this.size;
+        return true;
+    }
+
+    private void compact() {
+        // switch back to the array if it takes considerably less space than the bitmap
+        if (this.bitmap != null && this.size <= MAX_ARRAY_SIZE / 2) {
+            int[] ids = new int[this.size];
+            int count = 0;
+            for (int id = this.bitmap.nextSetBit(0); id >= 0; id = this.bitmap.nextSetBit(id + 1)) {
+                ids[count++] = id;
+            }
+            this.array = ids;
+            this.bitmap = null;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.locationtech.jts.geom.Envelope;
+import org.n52.janmayen.i18n.LocalizedString;
+import org.n52.janmayen.i18n.MultilingualString;
+import org.n52.shetland.util.ReferencedEnvelope;
+import org.n52.sos.cache.SnapshotCacheImpl.Snapshot;
+
+import com.google.common.base.Enums;
+import com.google.common.base.Optional;
+
+/**
+ * Binary format of the published snapshot of a {@link SnapshotCacheImpl}.
+ * <p>
+ * The file starts with a magic number, the format version and flags, followed by a table of all strings of the
+ * snapshot. The content refers to strings by their index in this table, so every identifier is stored once. The
+ * file ends with the CRC32 checksum of all preceding bytes. Files are read by mapping them into memory; files with
+ * another version or an invalid checksum are rejected.
+ *
+ * @since 6.1.2
+ */
+final class SnapshotCacheFormat {
+    static final int MAGIC = 0x534f5343;
+
+    static final int VERSION = 1;
+
+    private static final byte FLAG_DICTIONARY = 1;
+
+    private static final byte ABSENT = 0;
+
+    private static final byte EMPTY = 1;
+
+    private static final byte PRESENT = 2;
+
+    private static final int CHECKSUM_LENGTH = Long.BYTES;
+
+    private SnapshotCacheFormat() {
+    }
+
+    /**
+     * Writes the published snapshot of the cache. The file is replaced atomically if supported by the file
+     * system.
+     *
+     * @param cache
+     *            the cache
+     * @param file
+     *            the file
+     * @throws IOException
+     *             if the file can not be written
+     */
+    static void write(SnapshotCacheImpl cache, Path file) throws IOException {
+        Encoder content = new Encoder();
+        content.encode(cache.getPublishedSnapshot());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)), checksum))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeByte(cache instanceof DictionaryCacheImpl ? FLAG_DICTIONARY : 0);
+            content.writeTo(out);
+            out.writeLong(checksum.getValue());
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a cache from the file.
+     *
+     * @param file
+     *            the file
+     * @return the published cache
+     * @throws IOException
+     *             if the file can not be read, has another version or is corrupt
+     */
+    static SnapshotCacheImpl read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 3 * Integer.BYTES + CHECKSUM_LENGTH || size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Invalid size of cache snapshot %s: %d", file, size));
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int contentLength = (int) size - CHECKSUM_LENGTH;
+            ByteBuffer content = buffer.duplicate();
+            content.limit(contentLength);
+            CRC32 checksum = new CRC32();
+            checksum.update(content);
+            if (checksum.getValue() != buffer.getLong(contentLength)) {
+                throw new IOException(String.format("Invalid checksum of cache snapshot %s", file));
+            }
+            buffer.limit(contentLength);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a cache snapshot", file));
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(String.format("Unsupported version of cache snapshot %s: %d", file, version));
+            }
+            SnapshotCacheImpl cache = (buffer.get() & FLAG_DICTIONARY) != 0
+                    ? new DictionaryCacheImpl()
+                    : new SnapshotCacheImpl();
+            cache.restore(new Decoder(buffer, cache).decode());
+            return cache;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter<V> {
+        void write(V value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ValueReader<V> {
+        V read();
+    }
+
+    /**
+     * Encodes the content of a snapshot and collects the strings.
+     */
+    private static final class Encoder {
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        private final List<String> strings = new ArrayList<>();
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        void encode(Snapshot snapshot) throws IOException {
+            sections(snapshot.relations, this::strings);
+            sections(snapshot.registries, value -> {
+            });
+            sections(snapshot.timestamps, this::time);
+            sections(snapshot.envelopes, this::envelope);
+            sections(snapshot.humanReadableNames, this::string);
+            entries(snapshot.nameForOfferings, this::string);
+            entries(snapshot.i18nNameForOfferings, this::multilingualString);
+            entries(snapshot.i18nDescriptionForOfferings, this::multilingualString);
+            out.writeInt(snapshot.supportedLanguages.size());
+            for (Locale language : snapshot.supportedLanguages) {
+                string(language.toLanguageTag());
+            }
+            time(snapshot.minPhenomenonTime);
+            time(snapshot.maxPhenomenonTime);
+            time(snapshot.minResultTime);
+            time(snapshot.maxResultTime);
+            out.writeInt(snapshot.defaultEpsgCode);
+            envelope(snapshot.globalEnvelope);
+            time(snapshot.updateTime);
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            target.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+                target.writeInt(encoded.length);
+                target.write(encoded);
+            }
+            bytes.writeTo(target);
+        }
+
+        private <E extends Enum<E>, V> void sections(EnumMap<E, SnapshotMap<V>> sections, ValueWriter<V> writer)
+                throws IOException {
+            out.writeInt(sections.size());
+            for (Map.Entry<E, SnapshotMap<V>> section : sections.entrySet()) {
+                string(section.getKey().name());
+                entries(section.getValue(), writer);
+            }
+        }
+
+        private <V> void entries(Map<String, V> entries, ValueWriter<V> writer) throws IOException {
+            out.writeInt(entries.size());
+            for (Map.Entry<String, V> entry : entries.entrySet()) {
+                string(entry.getKey());
+                writer.write(entry.getValue());
+            }
+        }
+
+        private void string(String string) throws IOException {
+            if (string == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(ids.computeIfAbsent(string, s -> {
+                    strings.add(s);
+                    return strings.size() - 1;
+                }));
+            }
+        }
+
+        private void strings(Set<String> values) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                string(value);
+            }
+        }
+
+        private void time(DateTime time) throws IOException {
+            if (time == null) {
+                out.writeByte(ABSENT);
+            } else {
+                out.writeByte(PRESENT);
+                out.writeLong(time.getMillis());
+            }
+        }
+
+        private void multilingualString(MultilingualString value) throws IOException {
+            out.writeInt(value.size());
+            for (LocalizedString localization : value) {
+                string(localization.getLang().toLanguageTag());
+                string(localization.getText());
+            }
+        }
+
+        private void envelope(ReferencedEnvelope value) throws IOException {
+            if (value == null) {
+                out.writeByte(ABSENT);
+                return;
+            }
+            out.writeByte(PRESENT);
+            out.writeInt(value.getSrid());
+            Envelope envelope = value.getEnvelope();
+            if (envelope == null) {
+                out.writeByte(ABSENT);
+            } else if (envelope.isNull()) {
+                out.writeByte(EMPTY);
+            } else {
+                out.writeByte(PRESENT);
+                out.writeDouble(envelope.getMinX());
+                out.writeDouble(envelope.getMaxX());
+                out.writeDouble(envelope.getMinY());
+                out.writeDouble(envelope.getMaxY());
+            }
+            coordinate(value.getMinZ());
+            coordinate(value.getMaxZ());
+        }
+
+        private void coordinate(Double value) throws IOException {
+            if (value == null) {
+                out.writeByte(ABSENT);
+            } else {
+                out.writeByte(PRESENT);
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Decodes the content of a snapshot. Identifiers and relation values are created by the cache, so that a
+     * {@link DictionaryCacheImpl} interns them.
+     */
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+
+        private final SnapshotCacheImpl cache;
+
+        private final String[] strings;
+
+        Decoder(ByteBuffer buffer, SnapshotCacheImpl cache) {
+            this.buffer = buffer;
+            this.cache = cache;
+            this.strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; ++i) {
+                byte[] encoded = new byte[buffer.getInt()];
+                buffer.get(encoded);
+                strings[i] = new String(encoded, StandardCharsets.UTF_8);
+            }
+        }
+
+        Snapshot decode() {
+            Snapshot snapshot = new Snapshot();
+            sections(SnapshotCacheImpl.Relation.class, snapshot.relations, this::values);
+            sections(SnapshotCacheImpl.Registry.class, snapshot.registries, () -> Boolean.TRUE);
+            sections(SnapshotCacheImpl.Timestamp.class, snapshot.timestamps, this::time);
+            sections(SnapshotCacheImpl.Envelopes.class, snapshot.envelopes, this::envelope);
+            sections(SnapshotCacheImpl.HumanReadableName.class, snapshot.humanReadableNames, this::string);
+            snapshot.humanReadableNames.forEach((type, names) -> names
+                    .forEach((identifier, name) -> snapshot.identifiers.get(type).put(name, identifier)));
+            entries(snapshot.nameForOfferings, this::string);
+            entries(snapshot.i18nNameForOfferings, this::multilingualString);
+            entries(snapshot.i18nDescriptionForOfferings, this::multilingualString);
+            int languages = buffer.getInt();
+            snapshot.supportedLanguages = new HashSet<>(languages);
+            for (int i = 0; i < languages; ++i) {
+                snapshot.supportedLanguages.add(Locale.forLanguageTag(string()));
+            }
+            snapshot.minPhenomenonTime = time();
+            snapshot.maxPhenomenonTime = time();
+            snapshot.minResultTime = time();
+            snapshot.maxResultTime = time();
+            snapshot.defaultEpsgCode = buffer.getInt();
+            snapshot.globalEnvelope = envelope();
+            snapshot.updateTime = time();
+            return snapshot;
+        }
+
+        private <E extends Enum<E>, V> void sections(Class<E> type, EnumMap<E, SnapshotMap<V>> sections,
+                ValueReader<V> reader) {
+            int count = buffer.getInt();
+            for (int i = 0; i < count; ++i) {
+                Optional<E> section = Enums.getIfPresent(type, string());
+                // entries of unknown sections are read but dropped
+                entries(section.isPresent() ? sections.get(section.get()) : new HashMap<>(), reader);
+            }
+        }
+
+        private <V> void entries(Map<String, V> entries, ValueReader<V> reader) {
+            int count = buffer.getInt();
+            for (int i = 0; i < count; ++i) {
+                String key = cache.identifier(string());
+                entries.put(key, reader.read());
+            }
+        }
+
+        private String string() {
+            int id = buffer.getInt();
+            return id < 0 ? null : strings[id];
+        }
+
+        private Set<String> values() {
+            String[] values = new String[buffer.getInt()];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = string();
+            }
+            return cache.newValues(Arrays.asList(values));
+        }
+
+        private DateTime time() {
+            return buffer.get() == ABSENT ? null : new DateTime(buffer.getLong(), DateTimeZone.UTC);
+        }
+
+        private MultilingualString multilingualString() {
+            MultilingualString value = new MultilingualString();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; ++i) {
+                Locale language = Locale.forLanguageTag(string());
+                value.addLocalization(language, string());
+            }
+            return value;
+        }
+
+        private ReferencedEnvelope envelope() {
+            if (buffer.get() == ABSENT) {
+                return null;
+            }
+            int srid = buffer.getInt();
+            Envelope envelope;
+            switch (buffer.get()) {
+                case PRESENT:
+                    double minX = buffer.getDouble();
+                    double maxX = buffer.getDouble();
+                    double minY = buffer.getDouble();
+                    double maxY = buffer.getDouble();
+                    envelope = new Envelope(minX, maxX, minY, maxY);
+                    break;
+                case EMPTY:
+                    envelope = new Envelope();
+                    break;
+                default:
+                    envelope = null;
+            }
+            ReferencedEnvelope value = new ReferencedEnvelope(envelope, srid);
+            value.setMinZ(coordinate());
+            value.setMaxZ(coordinate());
+            return value;
+        }
+
+        private Double coordinate() {
+            return buffer.get() == ABSENT ? null : buffer.getDouble();
+        }
+    }
+}
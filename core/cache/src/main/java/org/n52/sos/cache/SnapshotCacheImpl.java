@@ -0,0 +1,844 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.locationtech.jts.geom.Envelope;
+import org.n52.janmayen.i18n.MultilingualString;
+import org.n52.shetland.util.CollectionHelper;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.shetland.util.ReferencedEnvelope;
+import org.n52.sos.util.SosHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * {@link SosWritableContentCache} that keeps its content in immutable snapshots.
+ * <p>
+ * Readers always work on the latest published snapshot. They never acquire a lock and get read-only views of the
+ * snapshot instead of defensive copies. Writers are serialized by a lock and modify a pending snapshot that is
+ * derived from the published one by copy-on-write: relation maps are sharded (see {@link SnapshotMap}) and only
+ * the shards and value sets that are actually modified are copied, everything else is shared between the
+ * snapshots.
+ * <p>
+ * The pending snapshot is published atomically
+ * <ul>
+ * <li>by {@link #publish()} after the initial filling of the cache (until then, the cache is considered to be under
+ * construction and all access is serialized by the lock),</li>
+ * <li>by {@link #endUpdate()} for all modifications between {@link #beginUpdate()} and {@link #endUpdate()}, or</li>
+ * <li>after each single modification that is not enclosed in {@link #beginUpdate()} and {@link #endUpdate()}.</li>
+ * </ul>
+ * A thread that is currently modifying the cache reads its own pending modifications.
+ *
+ * @since 6.1.2
+ */
+@SuppressFBWarnings({"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
+public class SnapshotCacheImpl extends AbstractSosWritableContentCache {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotCacheImpl.class);
+
+    private static final long serialVersionUID = -4914125372361262384L;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = new Snapshot();
+
+    private transient volatile boolean building = true;
+
+    private transient Snapshot pending;
+
+    private transient Set<Object> owned;
+
+    /**
+     * Starts a modification of the cache. All modifications until the matching call of {@link #endUpdate()} are
+     * published at once. Calls may be nested.
+     */
+    public void beginUpdate() {
+        this.writeLock.lock();
+    }
+
+    /**
+     * Ends a modification of the cache started by {@link #beginUpdate()} and publishes the pending modifications
+     * if this is the outermost modification.
+     */
+    public void endUpdate() {
+        try {
+            if (this.writeLock.getHoldCount() == 1) {
+                publishPending();
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes all pending modifications and marks the cache as completely constructed. From now on readers will
+     * not acquire any lock.
+     */
+    public void publish() {
+        this.writeLock.lock();
+        try {
+            publishPending();
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return if the cache was published at least once
+     */
+    public boolean isPublished() {
+        return !this.building;
+    }
+
+    /**
+     * @return the published snapshot
+     */
+    Snapshot getPublishedSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Replaces the content of the cache by the snapshot and publishes it.
+     *
+     * @param restored
+     *            the snapshot
+     */
+    void restore(Snapshot restored) {
+        this.writeLock.lock();
+        try {
+            this.snapshot = restored;
+            this.pending = null;
+            this.owned = null;
+            this.building = false;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    private void publishPending() {
+        if (this.pending != null) {
+            this.snapshot = this.pending;
+            this.pending = null;
+            this.owned = null;
+        }
+        this.building = false;
+    }
+
+    private boolean isLockFree() {
+        return !this.building && !this.writeLock.isHeldByCurrentThread();
+    }
+
+    private Snapshot working() {
+        return this.pending != null ? this.pending : this.snapshot;
+    }
+
+    private <T> T read(Function<Snapshot, T> reader) {
+        if (isLockFree()) {
+            return reader.apply(this.snapshot);
+        }
+        this.writeLock.lock();
+        try {
+            return reader.apply(working());
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    private <T> Set<T> readSet(Function<Snapshot, Set<T>> reader) {
+        if (isLockFree()) {
+            Set<T> set = reader.apply(this.snapshot);
+            return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+        }
+        this.writeLock.lock();
+        try {
+            return copyOf(reader.apply(working()));
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    private void write(Consumer<Snapshot> writer) {
+        this.writeLock.lock();
+        try {
+            if (this.pending == null) {
+                this.pending = new Snapshot(this.snapshot);
+                this.owned = Collections.newSetFromMap(new IdentityHashMap<>());
+            }
+            writer.accept(this.pending);
+            if (!this.building && this.writeLock.getHoldCount() == 1) {
+                publishPending();
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    @Override
+    void modify(Runnable modification) {
+        write(s -> modification.run());
+    }
+
+    @Override
+    Set<String> values(Relation relation, String key) {
+        return readSet(s -> s.relations.get(relation).get(key));
+    }
+
+    @Override
+    boolean containsValue(Relation relation, String key, String value) {
+        return read(s -> {
+            Set<String> values = s.relations.get(relation).get(key);
+            return values != null && values.contains(value);
+        });
+    }
+
+    @Override
+    boolean containsKey(Relation relation, String key) {
+        return read(s -> s.relations.get(relation).containsKey(key));
+    }
+
+    @Override
+    Set<String> keys(Relation relation) {
+        return readSet(s -> s.relations.get(relation).keySet());
+    }
+
+    @Override
+    Set<String> hierarchy(Relation relation, String key, boolean fullHierarchy, boolean includeSelf) {
+        return read(s -> SosHelper.getHierarchy(s.relations.get(relation), key, fullHierarchy, includeSelf));
+    }
+
+    @Override
+    Set<String> hierarchy(Relation relation, Set<String> keys, boolean fullHierarchy, boolean includeSelves) {
+        return read(s -> SosHelper.getHierarchy(s.relations.get(relation), keys, fullHierarchy, includeSelves));
+    }
+
+    @Override
+    Set<String> union(Relation relation) {
+        if (isLockFree()) {
+            return Collections.unmodifiableSet(this.snapshot.union(relation));
+        }
+        return read(s -> CollectionHelper.unionOfListOfLists(s.relations.get(relation).values()));
+    }
+
+    private Set<String> writableValues(Snapshot s, Relation relation, String key) {
+        SnapshotMap<Set<String>> map = s.relations.get(relation);
+        Set<String> values = map.get(key);
+        if (values == null || !this.owned.contains(values)) {
+            values = newValues(values);
+            this.owned.add(values);
+            map.put(identifier(key), values);
+        }
+        return values;
+    }
+
+    /**
+     * Creates a modifiable set of relation values.
+     *
+     * @param values
+     *            the initial values (may be {@code null})
+     * @return the new set
+     */
+    protected Set<String> newValues(Collection<String> values) {
+        return values == null ? new HashSet<>() : new HashSet<>(values);
+    }
+
+    /**
+     * Returns the instance of the identifier that is stored as key in the cache.
+     *
+     * @param identifier
+     *            the identifier
+     * @return the identifier to store
+     */
+    protected String identifier(String identifier) {
+        return identifier;
+    }
+
+    @Override
+    void addValue(Relation relation, String key, String value) {
+        write(s -> writableValues(s, relation, key).add(value));
+    }
+
+    @Override
+    void addValues(Relation relation, String key, Collection<String> values) {
+        write(s -> writableValues(s, relation, key).addAll(values));
+    }
+
+    @Override
+    void setValues(Relation relation, String key, Collection<String> values) {
+        write(s -> {
+            Set<String> newValue = newValues(values);
+            this.owned.add(newValue);
+            s.relations.get(relation).put(identifier(key), newValue);
+        });
+    }
+
+    @Override
+    void removeValue(Relation relation, String key, String value) {
+        write(s -> {
+            Set<String> values = s.relations.get(relation).get(key);
+            if (values != null && values.contains(value)) {
+                writableValues(s, relation, key).remove(value);
+            }
+        });
+    }
+
+    @Override
+    void removeValueFromAll(Relation relation, String value) {
+        write(s -> {
+            SnapshotMap<Set<String>> map = s.relations.get(relation);
+            map.entrySet().stream().filter(e -> e.getValue().contains(value)).map(Map.Entry::getKey)
+                    .collect(Collectors.toList()).forEach(key -> {
+                        Set<String> values = writableValues(s, relation, key);
+                        if (values.remove(value) && values.isEmpty()) {
+                            map.remove(key);
+                        }
+                    });
+        });
+    }
+
+    @Override
+    Set<String> removeKey(Relation relation, String key) {
+        AtomicReference<Set<String>> removed = new AtomicReference<>();
+        write(s -> removed.set(s.relations.get(relation).remove(key)));
+        return removed.get();
+    }
+
+    @Override
+    void retainKeys(Relation relation, Set<String> keys) {
+        write(s -> s.relations.get(relation).retainKeys(keys));
+    }
+
+    @Override
+    void clear(Relation... relations) {
+        write(s -> {
+            for (Relation relation : relations) {
+                s.relations.get(relation).clear();
+            }
+        });
+    }
+
+    @Override
+    Set<String> identifiers(Registry registry) {
+        return readSet(s -> s.registries.get(registry).keySet());
+    }
+
+    @Override
+    boolean hasIdentifier(Registry registry, String identifier) {
+        return read(s -> s.registries.get(registry).containsKey(identifier));
+    }
+
+    @Override
+    void addIdentifier(Registry registry, String identifier) {
+        write(s -> s.registries.get(registry).put(identifier(identifier), Boolean.TRUE));
+    }
+
+    @Override
+    void removeIdentifier(Registry registry, String identifier) {
+        write(s -> s.registries.get(registry).remove(identifier));
+    }
+
+    @Override
+    void clear(Registry registry) {
+        write(s -> s.registries.get(registry).clear());
+    }
+
+    @Override
+    DateTime time(Timestamp timestamp, String key) {
+        return read(s -> s.timestamps.get(timestamp).get(key));
+    }
+
+    @Override
+    boolean hasTime(Timestamp timestamp, String key) {
+        return read(s -> s.timestamps.get(timestamp).containsKey(key));
+    }
+
+    @Override
+    void setTime(Timestamp timestamp, String key, DateTime time) {
+        write(s -> {
+            if (time == null) {
+                s.timestamps.get(timestamp).remove(key);
+            } else {
+                s.timestamps.get(timestamp).put(identifier(key), DateTimeHelper.toUTC(time));
+            }
+        });
+    }
+
+    @Override
+    void clear(Timestamp timestamp) {
+        write(s -> s.timestamps.get(timestamp).clear());
+    }
+
+    @Override
+    ReferencedEnvelope envelope(Envelopes envelopes, String offering) {
+        ReferencedEnvelope envelope = read(s -> s.envelopes.get(envelopes).get(offering));
+        return copyOf(envelope);
+    }
+
+    @Override
+    void setEnvelope(Envelopes envelopes, String offering, ReferencedEnvelope envelope) {
+        ReferencedEnvelope copy = copyOf(envelope);
+        write(s -> s.envelopes.get(envelopes).put(identifier(offering), copy));
+    }
+
+    @Override
+    void updateEnvelope(Envelopes envelopes, String offering, Envelope envelope) {
+        write(s -> {
+            ReferencedEnvelope current = s.envelopes.get(envelopes).get(offering);
+            if (current != null && current.isSetEnvelope()) {
+                // never modify an envelope that may be part of a published snapshot
+                ReferencedEnvelope expanded = copyOf(current);
+                expanded.expandToInclude(envelope);
+                s.envelopes.get(envelopes).put(offering, expanded);
+            } else {
+                s.envelopes.get(envelopes).put(identifier(offering),
+                        copyOf(new ReferencedEnvelope(envelope, s.defaultEpsgCode)));
+            }
+        });
+    }
+
+    @Override
+    void removeEnvelope(Envelopes envelopes, String offering) {
+        write(s -> s.envelopes.get(envelopes).remove(offering));
+    }
+
+    @Override
+    void clear(Envelopes envelopes) {
+        write(s -> s.envelopes.get(envelopes).clear());
+    }
+
+    @Override
+    String humanReadableName(HumanReadableName type, String identifier) {
+        return read(s -> s.humanReadableNames.get(type).getOrDefault(identifier, identifier));
+    }
+
+    @Override
+    String identifierForHumanReadableName(HumanReadableName type, String humanReadableName) {
+        return read(s -> s.identifiers.get(type).getOrDefault(humanReadableName, humanReadableName));
+    }
+
+    @Override
+    boolean putHumanReadableName(HumanReadableName type, String identifier, String humanReadableName) {
+        AtomicBoolean added = new AtomicBoolean();
+        write(s -> {
+            SnapshotMap<String> names = s.humanReadableNames.get(type);
+            SnapshotMap<String> identifiers = s.identifiers.get(type);
+            String current = identifiers.get(humanReadableName);
+            if (current == null || current.equals(identifier)) {
+                String old = names.put(identifier, humanReadableName);
+                if (old != null) {
+                    identifiers.remove(old);
+                }
+                identifiers.put(humanReadableName, identifier);
+                added.set(true);
+            }
+        });
+        return added.get();
+    }
+
+    @Override
+    void removeHumanReadableNameForIdentifier(HumanReadableName type, String identifier) {
+        write(s -> {
+            String name = s.humanReadableNames.get(type).remove(identifier);
+            if (name != null) {
+                s.identifiers.get(type).remove(name);
+            }
+        });
+    }
+
+    @Override
+    void removeIdentifierForHumanReadableName(HumanReadableName type, String humanReadableName) {
+        write(s -> {
+            String identifier = s.identifiers.get(type).remove(humanReadableName);
+            if (identifier != null) {
+                s.humanReadableNames.get(type).remove(identifier);
+            }
+        });
+    }
+
+    @Override
+    void clear(HumanReadableName type) {
+        write(s -> {
+            s.humanReadableNames.get(type).clear();
+            s.identifiers.get(type).clear();
+        });
+    }
+
+    @Override
+    String offeringName(String offering) {
+        return read(s -> s.nameForOfferings.get(offering));
+    }
+
+    @Override
+    void setOfferingName(String offering, String name) {
+        write(s -> {
+            if (name == null) {
+                s.nameForOfferings.remove(offering);
+            } else {
+                s.nameForOfferings.put(offering, name);
+            }
+        });
+    }
+
+    @Override
+    void clearOfferingNames() {
+        write(s -> s.nameForOfferings.clear());
+    }
+
+    @Override
+    MultilingualString localized(Localized type, String offering) {
+        return read(s -> localized(s, type).get(offering));
+    }
+
+    @Override
+    void setLocalized(Localized type, String offering, MultilingualString value) {
+        write(s -> localized(s, type).put(offering, value));
+    }
+
+    @Override
+    void clear(Localized type) {
+        write(s -> localized(s, type).clear());
+    }
+
+    private static SnapshotMap<MultilingualString> localized(Snapshot s, Localized type) {
+        return type == Localized.NAMES ? s.i18nNameForOfferings : s.i18nDescriptionForOfferings;
+    }
+
+    @Override
+    public DateTime getLastUpdateTime() {
+        return read(s -> s.updateTime);
+    }
+
+    @Override
+    public void setLastUpdateTime(DateTime time) {
+        write(s -> s.updateTime = time);
+    }
+
+    @Override
+    public DateTime getMaxPhenomenonTime() {
+        return read(s -> s.maxPhenomenonTime);
+    }
+
+    @Override
+    public void setMaxPhenomenonTime(DateTime maxEventTime) {
+        LOG.trace("Setting Maximal EventTime to {}", maxEventTime);
+        write(s -> s.maxPhenomenonTime = DateTimeHelper.toUTC(maxEventTime));
+    }
+
+    @Override
+    public DateTime getMinPhenomenonTime() {
+        return read(s -> s.minPhenomenonTime);
+    }
+
+    @Override
+    public void setMinPhenomenonTime(DateTime minEventTime) {
+        LOG.trace("Setting Minimal EventTime to {}", minEventTime);
+        write(s -> s.minPhenomenonTime = DateTimeHelper.toUTC(minEventTime));
+    }
+
+    @Override
+    public DateTime getMaxResultTime() {
+        return read(s -> s.maxResultTime);
+    }
+
+    @Override
+    public void setMaxResultTime(DateTime maxResultTime) {
+        LOG.trace("Setting Maximal ResultTime to {}", maxResultTime);
+        write(s -> s.maxResultTime = DateTimeHelper.toUTC(maxResultTime));
+    }
+
+    @Override
+    public DateTime getMinResultTime() {
+        return read(s -> s.minResultTime);
+    }
+
+    @Override
+    public void setMinResultTime(DateTime minResultTime) {
+        LOG.trace("Setting Minimal ResultTime to {}", minResultTime);
+        write(s -> s.minResultTime = DateTimeHelper.toUTC(minResultTime));
+    }
+
+    @Override
+    public void setDefaultEPSGCode(int defaultEpsgCode) {
+        write(s -> s.defaultEpsgCode = defaultEpsgCode);
+    }
+
+    @Override
+    public int getDefaultEPSGCode() {
+        return read(s -> s.defaultEpsgCode);
+    }
+
+    @Override
+    public ReferencedEnvelope getGlobalEnvelope() {
+        ReferencedEnvelope envelope = read(s -> s.globalEnvelope);
+        return copyOf(envelope);
+    }
+
+    @Override
+    public void setGlobalEnvelope(ReferencedEnvelope globalEnvelope) {
+        LOG.trace("Setting global envelope to '{}'", globalEnvelope);
+        write(s -> s.globalEnvelope = globalEnvelope == null
+                ? new ReferencedEnvelope(new Envelope(), s.defaultEpsgCode)
+                : copyOf(globalEnvelope));
+    }
+
+    @Override
+    public void updateGlobalEnvelope(Envelope envelope) {
+        Objects.requireNonNull(envelope, ENVELOPE);
+        write(s -> {
+            if (s.globalEnvelope != null && s.globalEnvelope.isSetEnvelope()) {
+                ReferencedEnvelope expanded = copyOf(s.globalEnvelope);
+                expanded.expandToInclude(envelope);
+                s.globalEnvelope = expanded;
+            } else {
+                s.globalEnvelope = new ReferencedEnvelope(new Envelope(envelope), s.defaultEpsgCode);
+            }
+        });
+    }
+
+    @Override
+    public Set<Locale> getSupportedLanguages() {
+        return readSet(s -> s.supportedLanguages);
+    }
+
+    @Override
+    public boolean hasSupportedLanguage() {
+        return read(s -> !s.supportedLanguages.isEmpty());
+    }
+
+    @Override
+    public boolean isLanguageSupported(Locale language) {
+        return read(s -> s.supportedLanguages.contains(language));
+    }
+
+    @Override
+    public void addSupportedLanguage(Locale language) {
+        Objects.requireNonNull(language, SUPPORTED_LANGUAGE);
+        LOG.trace("Adding Language {}", language);
+        write(s -> {
+            if (!s.supportedLanguages.contains(language)) {
+                Set<Locale> languages = new HashSet<>(s.supportedLanguages);
+                languages.add(language);
+                s.supportedLanguages = languages;
+            }
+        });
+    }
+
+    @Override
+    public void clearSupportedLanguage() {
+        LOG.trace("Clearing supported languages");
+        write(s -> s.supportedLanguages = new HashSet<>());
+    }
+
+    @Override
+    public void removeSupportedLanguage(Locale language) {
+        LOG.trace("Removing Language {}", language);
+        write(s -> {
+            if (s.supportedLanguages.contains(language)) {
+                Set<Locale> languages = new HashSet<>(s.supportedLanguages);
+                languages.remove(language);
+                s.supportedLanguages = languages;
+            }
+        });
+    }
+
+    @Override
+    public int hashCode() {
+        return read(Snapshot::hashCode);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        Snapshot other = ((SnapshotCacheImpl) obj).read(Function.identity());
+        return read(s -> s.equals(other));
+    }
+
+    /**
+     * The content of the cache at a certain point in time. A published snapshot is never modified, a pending
+     * snapshot is derived from the published one by {@link #Snapshot(Snapshot)} and shares all content until it is
+     * modified.
+     */
+    static final class Snapshot implements Serializable {
+        private static final long serialVersionUID = 6371582530591741389L;
+
+        final EnumMap<Relation, SnapshotMap<Set<String>>> relations = new EnumMap<>(Relation.class);
+
+        final EnumMap<Registry, SnapshotMap<Boolean>> registries = new EnumMap<>(Registry.class);
+
+        final EnumMap<Timestamp, SnapshotMap<DateTime>> timestamps = new EnumMap<>(Timestamp.class);
+
+        final EnumMap<Envelopes, SnapshotMap<ReferencedEnvelope>> envelopes =
+                new EnumMap<>(Envelopes.class);
+
+        final EnumMap<HumanReadableName, SnapshotMap<String>> humanReadableNames =
+                new EnumMap<>(HumanReadableName.class);
+
+        final EnumMap<HumanReadableName, SnapshotMap<String>> identifiers =
+                new EnumMap<>(HumanReadableName.class);
+
+        final SnapshotMap<String> nameForOfferings;
+
+        final SnapshotMap<MultilingualString> i18nNameForOfferings;
+
+        final SnapshotMap<MultilingualString> i18nDescriptionForOfferings;
+
+        Set<Locale> supportedLanguages;
+
+        DateTime minPhenomenonTime;
+
+        DateTime maxPhenomenonTime;
+
+        DateTime minResultTime;
+
+        DateTime maxResultTime;
+
+        int defaultEpsgCode;
+
+        ReferencedEnvelope globalEnvelope;
+
+        DateTime updateTime;
+
+        /**
+         * Unions of the values of relations, only computed for published snapshots.
+         */
+        private transient volatile ConcurrentMap<Relation, Set<String>> unions;
+
+        Snapshot() {
+            for (Relation relation : Relation.values()) {
+                this.relations.put(relation, new SnapshotMap<>());
+            }
+            for (Registry registry : Registry.values()) {
+                this.registries.put(registry, new SnapshotMap<>());
+            }
+            for (Timestamp timestamp : Timestamp.values()) {
+                this.timestamps.put(timestamp, new SnapshotMap<>());
+            }
+            for (Envelopes envelope : Envelopes.values()) {
+                this.envelopes.put(envelope, new SnapshotMap<>());
+            }
+            for (HumanReadableName type : HumanReadableName.values()) {
+                this.humanReadableNames.put(type, new SnapshotMap<>());
+                this.identifiers.put(type, new SnapshotMap<>());
+            }
+            this.nameForOfferings = new SnapshotMap<>();
+            this.i18nNameForOfferings = new SnapshotMap<>();
+            this.i18nDescriptionForOfferings = new SnapshotMap<>();
+            this.supportedLanguages = new HashSet<>();
+            this.defaultEpsgCode = 4326;
+            this.globalEnvelope = new ReferencedEnvelope(null, this.defaultEpsgCode);
+        }
+
+        Snapshot(Snapshot origin) {
+            origin.relations.forEach((k, v) -> this.relations.put(k, new SnapshotMap<>(v)));
+            origin.registries.forEach((k, v) -> this.registries.put(k, new SnapshotMap<>(v)));
+            origin.timestamps.forEach((k, v) -> this.timestamps.put(k, new SnapshotMap<>(v)));
+            origin.envelopes.forEach((k, v) -> this.envelopes.put(k, new SnapshotMap<>(v)));
+            origin.humanReadableNames.forEach((k, v) -> this.humanReadableNames.put(k, new SnapshotMap<>(v)));
+            origin.identifiers.forEach((k, v) -> this.identifiers.put(k, new SnapshotMap<>(v)));
+            this.nameForOfferings = new SnapshotMap<>(origin.nameForOfferings);
+            this.i18nNameForOfferings = new SnapshotMap<>(origin.i18nNameForOfferings);
+            this.i18nDescriptionForOfferings = new SnapshotMap<>(origin.i18nDescriptionForOfferings);
+            this.supportedLanguages = origin.supportedLanguages;
+            this.minPhenomenonTime = origin.minPhenomenonTime;
+            this.maxPhenomenonTime = origin.maxPhenomenonTime;
+            this.minResultTime = origin.minResultTime;
+            this.maxResultTime = origin.maxResultTime;
+            this.defaultEpsgCode = origin.defaultEpsgCode;
+            this.globalEnvelope = origin.globalEnvelope;
+            this.updateTime = origin.updateTime;
+        }
+
+        Set<String> union(Relation relation) {
+            ConcurrentMap<Relation, Set<String>> cached = this.unions;
+            if (cached == null) {
+                cached = new ConcurrentHashMap<>();
+                this.unions = cached;
+            }
+            return cached.computeIfAbsent(relation,
+                    r -> CollectionHelper.unionOfListOfLists(this.relations.get(r).values()));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(relations, registries, timestamps, envelopes, humanReadableNames, nameForOfferings,
+                    i18nNameForOfferings, i18nDescriptionForOfferings, supportedLanguages, minPhenomenonTime,
+                    maxPhenomenonTime, minResultTime, maxResultTime, defaultEpsgCode, globalEnvelope);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Snapshot)) {
+                return false;
+            }
+            Snapshot other = (Snapshot) obj;
+            return Objects.equals(this.relations, other.relations)
+                    && Objects.equals(this.registries, other.registries)
+                    && Objects.equals(this.timestamps, other.timestamps)
+                    && Objects.equals(this.envelopes, other.envelopes)
+                    && Objects.equals(this.humanReadableNames, other.humanReadableNames)
+                    && Objects.equals(this.nameForOfferings, other.nameForOfferings)
+                    && Objects.equals(this.i18nNameForOfferings, other.i18nNameForOfferings)
+                    && Objects.equals(this.i18nDescriptionForOfferings, other.i18nDescriptionForOfferings)
+                    && Objects.equals(this.supportedLanguages, other.supportedLanguages)
+                    && Objects.equals(this.minPhenomenonTime, other.minPhenomenonTime)
+                    && Objects.equals(this.maxPhenomenonTime, other.maxPhenomenonTime)
+                    && Objects.equals(this.minResultTime, other.minResultTime)
+                    && Objects.equals(this.maxResultTime, other.maxResultTime)
+                    && this.defaultEpsgCode == other.defaultEpsgCode
+                    && Objects.equals(this.globalEnvelope, other.globalEnvelope);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.n52.iceland.cache.ContentCache;
+import org.n52.iceland.cache.WritableContentCache;
+import org.n52.iceland.cache.ctrl.persistence.AsyncCachePersistenceStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistence strategy that writes {@link SnapshotCacheImpl snapshot caches} in the binary
+ * {@link SnapshotCacheFormat}. Other caches are serialized as before. If the binary file is missing, has another
+ * version or is corrupt, the serialized cache is loaded instead.
+ *
+ * @since 6.1.2
+ */
+public class SnapshotCachePersistenceStrategy extends AsyncCachePersistenceStrategy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotCachePersistenceStrategy.class);
+
+    private static final String SNAPSHOT_FILE = "cache.snapshot";
+
+    protected Path getSnapshotFile() {
+        return getCacheFile().resolveSibling(SNAPSHOT_FILE);
+    }
+
+    @Override
+    public Optional<WritableContentCache> load() {
+        Path file = getSnapshotFile();
+        if (Files.isRegularFile(file)) {
+            try {
+                SnapshotCacheImpl cache = SnapshotCacheFormat.read(file);
+                LOGGER.debug("Loaded cache snapshot from {}", file);
+                return Optional.of(cache);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Error reading cache snapshot {}, falling back to serialized cache", file, e);
+            }
+        }
+        return super.load();
+    }
+
+    @Override
+    protected void persistCache(ContentCache cache) {
+        if (cache instanceof SnapshotCacheImpl) {
+            Path file = getSnapshotFile();
+            try {
+                SnapshotCacheFormat.write((SnapshotCacheImpl) cache, file);
+                // a serialized cache of an earlier run would be outdated
+                Files.deleteIfExists(getCacheFile());
+                LOGGER.debug("Persisted cache snapshot to {}", file);
+            } catch (IOException e) {
+                LOGGER.error("Error writing cache snapshot {}", file, e);
+            }
+        } else {
+            super.persistCache(cache);
+            try {
+                // a snapshot of an earlier run would be outdated and preferred on load
+                Files.deleteIfExists(getSnapshotFile());
+            } catch (IOException e) {
+                LOGGER.error("Error deleting cache snapshot {}", getSnapshotFile(), e);
+            }
+        }
+    }
+
+    @Override
+    public void remove() {
+        super.remove();
+        try {
+            Files.deleteIfExists(getSnapshotFile());
+        } catch (IOException e) {
+            LOGGER.error("Error deleting cache snapshot {}", getSnapshotFile(), e);
+        }
+    }
+}
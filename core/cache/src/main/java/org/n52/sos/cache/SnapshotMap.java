@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Iterators;
+
+/**
+ * String keyed map that is split into a fixed number of shards, so that a copy shares all shards with its origin
+ * and only copies a shard on the first modification of that shard. This allows a {@link SnapshotCacheImpl} to
+ * derive a new snapshot from a published one without copying all entries, while the published snapshot stays
+ * unchanged for concurrent readers.
+ * <p>
+ * Instances are not thread safe: a map may only be modified as long as it is not visible to other threads.
+ *
+ * @param <V> the value type
+ *
+ * @since 6.1.2
+ */
+final class SnapshotMap<V> extends AbstractMap<String, V> implements Serializable {
+    private static final long serialVersionUID = -2371924447452806374L;
+
+    private static final int SHARDS = 64;
+
+    private final HashMap<String, V>[] shards;
+
+    private final boolean[] owned;
+
+    /**
+     * Creates a new empty map.
+     */
+    @SuppressWarnings("unchecked")
+    SnapshotMap() {
+        this.shards = new HashMap[SHARDS];
+        this.owned = new boolean[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            this.shards[i] = new HashMap<>(0);
+            this.owned[i] = true;
+        }
+    }
+
+    /**
+     * Creates a new map sharing all shards with {@code origin}. Shards are copied before they are modified, so
+     * {@code origin} is never changed by modifications of this map.
+     *
+     * @param origin the map to share the shards with
+     */
+    SnapshotMap(SnapshotMap<V> origin) {
+        this.shards = origin.shards.clone();
+        this.owned = new boolean[SHARDS];
+    }
+
+    private static int shard(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return (h ^ (h >>> 16)) & (SHARDS - 1);
+    }
+
+    private HashMap<String, V> writable(int shard) {
+        if (!this.owned[shard]) {
+            this.shards[shard] = new HashMap<>(this.shards[shard]);
+            this.owned[shard] = true;
+        }
+        return this.shards[shard];
+    }
+
+    @Override
+    public V get(Object key) {
+        return this.shards[shard(key)].get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.shards[shard(key)].containsKey(key);
+    }
+
+    @Override
+    public V put(String key, V value) {
+        return writable(shard(key)).put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        int shard = shard(key);
+        return this.shards[shard].containsKey(key) ? writable(shard).remove(key) : null;
+    }
+
+    /**
+     * Removes all entries whose key is not contained in {@code keys}. Shards without such entries are not copied.
+     *
+     * @param keys the keys to retain
+     */
+    void retainKeys(Set<?> keys) {
+        for (int i = 0; i < SHARDS; i++) {
+            if (!keys.containsAll(this.shards[i].keySet())) {
+                writable(i).keySet().retainAll(keys);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < SHARDS; i++) {
+            if (!this.shards[i].isEmpty()) {
+                this.shards[i] = new HashMap<>(0);
+                this.owned[i] = true;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (HashMap<String, V> shard : this.shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return Arrays.stream(this.shards).allMatch(Map::isEmpty);
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return Iterators.unmodifiableIterator(Iterators.concat(Arrays.stream(shards)
+                        .map(shard -> Collections.unmodifiableMap(shard).entrySet().iterator()).iterator()));
+            }
+
+            @Override
+            public int size() {
+                return SnapshotMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return Iterators.transform(entrySet().iterator(), Entry::getKey);
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return SnapshotMap.this.size();
+            }
+        };
+    }
+}
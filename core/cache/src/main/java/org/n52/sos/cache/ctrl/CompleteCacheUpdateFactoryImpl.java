@@ -31,6 +31,7 @@ import javax.inject.Inject;
 
 import org.n52.iceland.cache.ContentCacheUpdate;
 import org.n52.iceland.cache.ctrl.CompleteCacheUpdateFactory;
+import org.n52.iceland.cache.ctrl.ContentCacheFactory;
 import org.n52.iceland.coding.SupportedTypeRepository;
 import org.n52.sos.cache.ctrl.action.CompleteCacheUpdate;
 import org.n52.sos.ds.CacheFeederHandler;
@@ -40,6 +41,7 @@ public class CompleteCacheUpdateFactoryImpl
 
     private CacheFeederHandler cacheFeederHandler;
     private SupportedTypeRepository supportedTypeRepository;
+    private ContentCacheFactory cacheFactory;
 
     @Inject
     public void setCacheFeederHandler(CacheFeederHandler cacheFeederHandler) {
@@ -51,8 +53,16 @@ public class CompleteCacheUpdateFactoryImpl
         this.supportedTypeRepository = supportedTypeRepository;
     }
 
+    @Inject
+    public void setCacheFactory(ContentCacheFactory cacheFactory) {
+        this.cacheFactory = cacheFactory;
+    }
+
     @Override
     public ContentCacheUpdate get() {
+        if (this.cacheFactory != null) {
+            return new CompleteCacheUpdate(this.cacheFeederHandler, this.cacheFactory);
+        }
         return new CompleteCacheUpdate(this.cacheFeederHandler, this.supportedTypeRepository);
     }
 
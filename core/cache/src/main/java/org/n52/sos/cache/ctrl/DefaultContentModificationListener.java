@@ -34,6 +34,7 @@ import javax.inject.Inject;
 
 import org.n52.iceland.cache.ContentCacheController;
 import org.n52.iceland.cache.ContentCacheUpdate;
+import org.n52.iceland.cache.ctrl.ContentCacheFactory;
 import org.n52.iceland.coding.SupportedTypeRepository;
 import org.n52.iceland.convert.ConverterRepository;
 import org.n52.janmayen.event.Event;
@@ -91,6 +92,7 @@ public class DefaultContentModificationListener
     private final ContentCacheController controller;
     private SupportedTypeRepository supportedTypeRepository;
     private ConverterRepository converterRepository;
+    private ContentCacheFactory cacheFactory;
 
     @Inject
     public DefaultContentModificationListener(CacheFeederHandler handler, ContentCacheController controller) {
@@ -163,7 +165,10 @@ public class DefaultContentModificationListener
     }
 
     private ContentCacheUpdate createUpdate(DeleteObservationEvent e) {
-        return new DeleteObservationUpdate(handler,  e.getDeletedObservation());
+        if (e.isSetDeletedObservation() || e.getModifiedOfferings() == null) {
+            return new DeleteObservationUpdate(handler, e.getDeletedObservation());
+        }
+        return new DeleteObservationUpdate(handler, e.getModifiedOfferings());
     }
 
     private ContentCacheUpdate createUpdate(SensorInsertion e) {
@@ -171,9 +176,17 @@ public class DefaultContentModificationListener
     }
 
     private ContentCacheUpdate createUpdate(UpdateCache e) {
+        if (this.cacheFactory != null) {
+            return new CompleteCacheUpdate(this.handler, this.cacheFactory);
+        }
         return new CompleteCacheUpdate(this.handler, this.supportedTypeRepository);
     }
 
+    @Inject
+    public void setCacheFactory(ContentCacheFactory cacheFactory) {
+        this.cacheFactory = cacheFactory;
+    }
+
     @Inject
     public void setConverterRepository(ConverterRepository converterRepository) {
         this.converterRepository = converterRepository;
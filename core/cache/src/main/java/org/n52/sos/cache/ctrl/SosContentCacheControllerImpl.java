@@ -45,6 +45,8 @@ package org.n52.sos.cache.ctrl;
 
 import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -53,6 +55,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import javax.inject.Inject;
 
 import org.joda.time.DateTime;
+import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.cache.ContentCacheController;
 import org.n52.iceland.cache.ContentCachePersistenceStrategy;
 import org.n52.iceland.cache.ContentCacheUpdate;
@@ -60,11 +63,16 @@ import org.n52.iceland.cache.WritableContentCache;
 import org.n52.iceland.cache.ctrl.AbstractSchedulingContentCacheController;
 import org.n52.iceland.cache.ctrl.CompleteCacheUpdateFactory;
 import org.n52.iceland.cache.ctrl.ContentCacheFactory;
+import org.n52.janmayen.GroupedAndNamedThreadFactory;
 import org.n52.janmayen.lifecycle.Constructable;
 import org.n52.janmayen.lifecycle.Destroyable;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.sos.cache.AbstractStaticSosContentCache;
 import org.n52.sos.cache.ContentCacheFactoryImpl;
+import org.n52.sos.cache.SnapshotCacheImpl;
+import org.n52.sos.cache.ctrl.action.DatasetModificationUpdate;
+import org.n52.sos.ds.CacheFeederHandler;
+import org.n52.sos.service.SosSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -90,6 +98,12 @@ public class SosContentCacheControllerImpl extends AbstractSchedulingContentCach
     private ContentCachePersistenceStrategy persistenceStrategy;
     private ContentCacheFactory cacheFactory;
     private CompleteCacheUpdateFactory completeCacheUpdateFactory;
+    private CacheFeederHandler cacheFeederHandler;
+    private int incrementalCacheUpdates;
+    private boolean refreshAfterLoad;
+    private final AtomicInteger incrementalUpdateCount = new AtomicInteger(0);
+    private final ExecutorService updateExecutor =
+            Executors.newSingleThreadExecutor(new GroupedAndNamedThreadFactory("cache-update"));
 
     @Inject
     public void setCacheFactory(ContentCacheFactory cacheFactory) {
@@ -106,6 +120,30 @@ public class SosContentCacheControllerImpl extends AbstractSchedulingContentCach
         this.completeCacheUpdateFactory = factory;
     }
 
+    @Inject
+    public void setCacheFeederHandler(CacheFeederHandler cacheFeederHandler) {
+        this.cacheFeederHandler = cacheFeederHandler;
+    }
+
+    /**
+     * @param incrementalCacheUpdates
+     *            the number of incremental updates between two complete updates, {@code 0} disables incremental
+     *            updates
+     */
+    @Setting(SosSettings.INCREMENTAL_CACHE_UPDATES)
+    public void setIncrementalCacheUpdates(int incrementalCacheUpdates) {
+        this.incrementalCacheUpdates = incrementalCacheUpdates;
+    }
+
+    /**
+     * @param refreshAfterLoad
+     *            if the cache should be updated in the background after the persisted cache was loaded
+     */
+    @Setting(SosSettings.CACHE_REFRESH_AFTER_LOAD)
+    public void setRefreshAfterLoad(boolean refreshAfterLoad) {
+        this.refreshAfterLoad = refreshAfterLoad;
+    }
+
     @Override
     public void init() {
         loadOrCreateCache();
@@ -120,11 +158,19 @@ public class SosContentCacheControllerImpl extends AbstractSchedulingContentCach
                 ((AbstractStaticSosContentCache) getCache()).setSupportedTypeRepository(
                         ((ContentCacheFactoryImpl) this.cacheFactory).getSupportedTypeRepository());
             }
+            if (this.refreshAfterLoad) {
+                refreshInBackground();
+            }
         } else {
             // cache file doesn't exist, try to load cache from datasource
-            setCache(this.cacheFactory.get());
+            WritableContentCache emptyCache = this.cacheFactory.get();
+            if (emptyCache instanceof SnapshotCacheImpl) {
+                // the empty cache is readable until the first update replaces it
+                ((SnapshotCacheImpl) emptyCache).publish();
+            }
+            setCache(emptyCache);
             try {
-                update();
+                update(this.completeCacheUpdateFactory.get());
             } catch (OwsExceptionReport e) {
                 LOGGER.warn("Couldn't load cache from datasource, maybe the datasource isn't configured yet?", e);
             }
@@ -132,6 +178,20 @@ public class SosContentCacheControllerImpl extends AbstractSchedulingContentCach
         setInitialized(true);
     }
 
+    /**
+     * Updates the loaded cache from the datasource while requests are served from it. As the changes since the
+     * cache was persisted are unknown, a complete update is executed.
+     */
+    private void refreshInBackground() {
+        this.updateExecutor.execute(() -> {
+            try {
+                update(this.completeCacheUpdateFactory.get());
+            } catch (OwsExceptionReport e) {
+                LOGGER.warn("Couldn't refresh loaded cache from datasource", e);
+            }
+        });
+    }
+
     @Override
     public WritableContentCache getCache() {
         return this.cache;
@@ -143,6 +203,7 @@ public class SosContentCacheControllerImpl extends AbstractSchedulingContentCach
 
     @Override
     public void destroy() {
+        this.updateExecutor.shutdownNow();
         lock();
         try {
             persistenceStrategy.persistOnShutdown(getCache());
@@ -171,7 +232,25 @@ public class SosContentCacheControllerImpl extends AbstractSchedulingContentCach
 
     @Override
     public void update() throws OwsExceptionReport {
+        if (isIncrementalUpdatePossible()) {
+            DatasetModificationUpdate update = new DatasetModificationUpdate(this.cacheFeederHandler);
+            try {
+                update(update);
+                if (update.isApplied()) {
+                    this.incrementalUpdateCount.incrementAndGet();
+                    return;
+                }
+            } catch (OwsExceptionReport e) {
+                LOGGER.warn("Incremental cache update failed, executing complete update.", e);
+            }
+        }
         update(this.completeCacheUpdateFactory.get());
+        this.incrementalUpdateCount.set(0);
+    }
+
+    private boolean isIncrementalUpdatePossible() {
+        return this.cacheFeederHandler != null
+                && this.incrementalUpdateCount.get() < this.incrementalCacheUpdates;
     }
 
     private void runCurrent() throws OwsExceptionReport {
@@ -299,7 +378,20 @@ public class SosContentCacheControllerImpl extends AbstractSchedulingContentCach
             LOGGER.trace(STARTING_UPDATE, getUpdate());
             getUpdate().reset();
             getUpdate().setCache(cache);
-            getUpdate().execute();
+            // the modifications of a dataset modification update are done by multiple threads and can not be
+            // enclosed in an update of the snapshot cache, which is bound to the current thread
+            if (cache instanceof SnapshotCacheImpl && !(getUpdate() instanceof DatasetModificationUpdate)) {
+                // publish all modifications of this update at once
+                SnapshotCacheImpl snapshotCache = (SnapshotCacheImpl) cache;
+                snapshotCache.beginUpdate();
+                try {
+                    getUpdate().execute();
+                } finally {
+                    snapshotCache.endUpdate();
+                }
+            } else {
+                getUpdate().execute();
+            }
             LOGGER.trace(FINISHED_UPDATE, getUpdate());
             if (getUpdate().failed()) {
                 LOGGER.warn(UPDATE_FAILED, getUpdate().getFailureCause());
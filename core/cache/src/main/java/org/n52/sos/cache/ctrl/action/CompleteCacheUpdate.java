@@ -27,9 +27,11 @@
  */
 package org.n52.sos.cache.ctrl.action;
 
+import org.n52.iceland.cache.ctrl.ContentCacheFactory;
 import org.n52.iceland.coding.SupportedTypeRepository;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.sos.cache.InMemoryCacheImpl;
+import org.n52.sos.cache.SnapshotCacheImpl;
 import org.n52.sos.cache.SosWritableContentCache;
 import org.n52.sos.ds.CacheFeederHandler;
 
@@ -41,19 +43,26 @@ import org.n52.sos.ds.CacheFeederHandler;
 public class CompleteCacheUpdate
         extends CacheFeederDAOCacheUpdate {
 
-    private SupportedTypeRepository supportedTypeRepository;
+    private final ContentCacheFactory cacheFactory;
 
     public CompleteCacheUpdate(CacheFeederHandler cacheFeederDAO, SupportedTypeRepository supportedTypeRepository) {
+        this(cacheFeederDAO,
+                () -> (InMemoryCacheImpl) new InMemoryCacheImpl().setSupportedTypeRepository(supportedTypeRepository));
+    }
+
+    public CompleteCacheUpdate(CacheFeederHandler cacheFeederDAO, ContentCacheFactory cacheFactory) {
         super(cacheFeederDAO);
-        this.supportedTypeRepository = supportedTypeRepository;
+        this.cacheFactory = cacheFactory;
     }
 
     @Override
     public void execute() {
         try {
-            SosWritableContentCache cache = (SosWritableContentCache) new InMemoryCacheImpl()
-                    .setSupportedTypeRepository(supportedTypeRepository);
+            SosWritableContentCache cache = (SosWritableContentCache) cacheFactory.get();
             getCacheFeederDAO().updateCache(cache);
+            if (cache instanceof SnapshotCacheImpl) {
+                ((SnapshotCacheImpl) cache).publish();
+            }
             setCache(cache);
         } catch (OwsExceptionReport ex) {
             fail(ex);
@@ -27,6 +27,8 @@
  */
 package org.n52.sos.cache.ctrl.action;
 
+import java.util.Collection;
+
 import org.n52.shetland.ogc.om.OmObservation;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.sos.ds.CacheFeederHandler;
@@ -42,9 +44,26 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public class DeleteObservationUpdate extends CacheFeederDAOCacheUpdate {
     private final OmObservation observation;
 
+    private final Collection<String> offerings;
+
     public DeleteObservationUpdate(CacheFeederHandler dao, OmObservation o) {
         super(dao);
         this.observation = o;
+        this.offerings = null;
+    }
+
+    /**
+     * Update only the offerings whose observations were deleted.
+     *
+     * @param dao
+     *            the cache feeder
+     * @param offerings
+     *            the identifiers of the modified offerings, the complete cache is updated if {@code null}
+     */
+    public DeleteObservationUpdate(CacheFeederHandler dao, Collection<String> offerings) {
+        super(dao);
+        this.observation = null;
+        this.offerings = offerings;
     }
 
     @Override
@@ -54,6 +73,8 @@ public class DeleteObservationUpdate extends CacheFeederDAOCacheUpdate {
 
                 getCacheFeederDAO().updateCacheOfferings(getCache(),
                         observation.getObservationConstellation().getOfferings());
+            } else if (offerings != null) {
+                getCacheFeederDAO().updateCacheOfferings(getCache(), offerings);
             } else {
                 getCacheFeederDAO().updateCache(getCache());
             }
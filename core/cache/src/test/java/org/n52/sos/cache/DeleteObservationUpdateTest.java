@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.cache.ctrl.action.DeleteObservationUpdate;
+
+public class DeleteObservationUpdateTest {
+
+    private final RecordingCacheFeederHandler handler = new RecordingCacheFeederHandler();
+
+    @Test
+    public void should_update_only_the_modified_offerings() {
+        execute(new DeleteObservationUpdate(handler, Arrays.asList("offering")));
+        assertThat(handler.offerings, contains("offering"));
+        assertThat(handler.complete, is(0));
+    }
+
+    @Test
+    public void should_not_update_the_complete_cache_if_nothing_was_deleted() {
+        execute(new DeleteObservationUpdate(handler, Collections.<String> emptySet()));
+        assertThat(handler.complete, is(0));
+    }
+
+    @Test
+    public void should_update_the_complete_cache_if_the_offerings_are_unknown() {
+        execute(new DeleteObservationUpdate(handler, (Collection<String>) null));
+        assertThat(handler.offerings, is(nullValue()));
+        assertThat(handler.complete, is(1));
+    }
+
+    private void execute(DeleteObservationUpdate update) {
+        update.setCache(new InMemoryCacheImpl());
+        update.execute();
+    }
+
+    private static class RecordingCacheFeederHandler extends NoOpCacheFeederHandler {
+
+        private Collection<String> offerings;
+
+        private int complete;
+
+        @Override
+        public void updateCacheOfferings(SosWritableContentCache cache, Collection<String> offerings)
+                throws OwsExceptionReport {
+            this.offerings = offerings;
+        }
+
+        @Override
+        public void updateCache(SosWritableContentCache cache) throws OwsExceptionReport {
+            complete++;
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test that the {@link DictionaryCacheImpl} returns the same results as the {@link InMemoryCacheImpl} when both are
+ * modified in the same way.
+ */
+public class DictionaryCacheImplTest {
+    private static final String OFFERING = "offering";
+    private static final String OTHER_OFFERING = "other-offering";
+    private static final String PARENT_OFFERING = "parent-offering";
+    private static final String PROCEDURE = "procedure";
+    private static final String OTHER_PROCEDURE = "other-procedure";
+    private static final String PARENT_PROCEDURE = "parent-procedure";
+    private static final String OBSERVABLE_PROPERTY = "observable-property";
+    private static final String OTHER_OBSERVABLE_PROPERTY = "other-observable-property";
+    private static final String FEATURE = "feature";
+    private static final String OTHER_FEATURE = "other-feature";
+    private static final String PARENT_FEATURE = "parent-feature";
+    private static final String RELATED_FEATURE = "related-feature";
+    private static final String ROLE = "role";
+    private static final String RESULT_TEMPLATE = "result-template";
+    private static final String OBSERVATION_TYPE = "observation-type";
+    private static final String FEATURE_TYPE = "feature-type";
+    private static final String PROCEDURE_FORMAT = "procedure-format";
+    private static final String UNKNOWN = "unknown";
+
+    private final Map<String, Function<SosWritableContentCache, Object>> reads = new LinkedHashMap<>();
+
+    private DictionaryCacheImpl dictionaryCache;
+
+    private InMemoryCacheImpl inMemoryCache;
+
+    @Before
+    public void setUp() {
+        dictionaryCache = new DictionaryCacheImpl();
+        inMemoryCache = new InMemoryCacheImpl();
+        fill(dictionaryCache);
+        fill(inMemoryCache);
+        dictionaryCache.publish();
+
+        reads.put("offerings", SosWritableContentCache::getOfferings);
+        reads.put("procedures", SosWritableContentCache::getProcedures);
+        reads.put("observable properties", SosWritableContentCache::getObservableProperties);
+        reads.put("features", SosWritableContentCache::getFeaturesOfInterest);
+        reads.put("result templates", SosWritableContentCache::getResultTemplates);
+        reads.put("related features", SosWritableContentCache::getRelatedFeatures);
+        for (String offering : Arrays.asList(OFFERING, OTHER_OFFERING, PARENT_OFFERING, UNKNOWN)) {
+            reads.put("procedures of " + offering, cache -> cache.getProceduresForOffering(offering));
+            reads.put("observable properties of " + offering,
+                    cache -> cache.getObservablePropertiesForOffering(offering));
+            reads.put("features of " + offering, cache -> cache.getFeaturesOfInterestForOffering(offering));
+            reads.put("related features of " + offering, cache -> cache.getRelatedFeaturesForOffering(offering));
+            reads.put("result templates of " + offering, cache -> cache.getResultTemplatesForOffering(offering));
+            reads.put("observation types of " + offering, cache -> cache.getObservationTypesForOffering(offering));
+            reads.put("allowed observation types of " + offering,
+                    cache -> cache.getAllowedObservationTypesForOffering(offering));
+            reads.put("feature types of " + offering, cache -> cache.getFeatureOfInterestTypesForOffering(offering));
+            reads.put("name of " + offering, cache -> cache.getNameForOffering(offering));
+            reads.put("parents of " + offering, cache -> cache.getParentOfferings(offering, true, false));
+            reads.put("children of " + offering, cache -> cache.getChildOfferings(offering, true, true));
+            reads.put("has " + offering, cache -> cache.hasOffering(offering));
+        }
+        for (String procedure : Arrays.asList(PROCEDURE, OTHER_PROCEDURE, PARENT_PROCEDURE, UNKNOWN)) {
+            reads.put("offerings of " + procedure, cache -> cache.getOfferingsForProcedure(procedure));
+            reads.put("observable properties of " + procedure,
+                    cache -> cache.getObservablePropertiesForProcedure(procedure));
+            reads.put("parents of " + procedure, cache -> cache.getParentProcedures(procedure, true, false));
+            reads.put("children of " + procedure, cache -> cache.getChildProcedures(procedure, true, true));
+            reads.put("formats of " + procedure, cache -> cache.getProcedureDescriptionFormatsForProcedure(procedure));
+            reads.put("name of " + procedure, cache -> cache.getProcedureHumanReadableNameForIdentifier(procedure));
+            reads.put("has " + procedure, cache -> cache.hasProcedure(procedure));
+        }
+        for (String observableProperty : Arrays.asList(OBSERVABLE_PROPERTY, OTHER_OBSERVABLE_PROPERTY, UNKNOWN)) {
+            reads.put("offerings of " + observableProperty,
+                    cache -> cache.getOfferingsForObservableProperty(observableProperty));
+            reads.put("procedures of " + observableProperty,
+                    cache -> cache.getProceduresForObservableProperty(observableProperty));
+        }
+        for (String feature : Arrays.asList(FEATURE, OTHER_FEATURE, PARENT_FEATURE, UNKNOWN)) {
+            reads.put("offerings of " + feature, cache -> cache.getOfferingsForFeatureOfInterest(feature));
+            reads.put("procedures of " + feature, cache -> cache.getProceduresForFeatureOfInterest(feature));
+            reads.put("parents of " + feature, cache -> cache.getParentFeatures(feature, true, true));
+            reads.put("children of " + feature, cache -> cache.getChildFeatures(feature, true, false));
+            reads.put("has " + feature, cache -> cache.hasFeatureOfInterest(feature));
+        }
+        reads.put("roles of " + RELATED_FEATURE, cache -> cache.getRolesForRelatedFeature(RELATED_FEATURE));
+        reads.put("features of " + RESULT_TEMPLATE, cache -> cache.getFeaturesOfInterestForResultTemplate(
+                RESULT_TEMPLATE));
+        reads.put("observable properties of " + RESULT_TEMPLATE,
+                cache -> cache.getObservablePropertiesForResultTemplate(RESULT_TEMPLATE));
+        reads.put("offering for name", cache -> cache.getOfferingIdentifierForHumanReadableName("offering-name"));
+        reads.put("procedure for name",
+                cache -> cache.getProcedureIdentifierForHumanReadableName("procedure-name"));
+    }
+
+    private static void fill(SosWritableContentCache cache) {
+        cache.addOffering(OFFERING);
+        cache.addOffering(OTHER_OFFERING);
+        cache.addOffering(PARENT_OFFERING);
+        cache.addParentOffering(OFFERING, PARENT_OFFERING);
+        cache.setNameForOffering(OFFERING, "offering-name");
+        cache.addOfferingIdentifierHumanReadableName(OFFERING, "offering-name");
+
+        cache.setProcedures(Arrays.asList(PROCEDURE, OTHER_PROCEDURE, PARENT_PROCEDURE));
+        cache.addParentProcedure(PROCEDURE, PARENT_PROCEDURE);
+        cache.addProcedureIdentifierHumanReadableName(PROCEDURE, "procedure-name");
+        cache.addProcedureDescriptionFormatsForProcedure(PROCEDURE, Collections.singleton(PROCEDURE_FORMAT));
+        cache.setProceduresForOffering(OFFERING, Arrays.asList(PROCEDURE, OTHER_PROCEDURE));
+        cache.addProcedureForOffering(OTHER_OFFERING, OTHER_PROCEDURE);
+        cache.setOfferingsForProcedure(PROCEDURE, Collections.singleton(OFFERING));
+        cache.addOfferingForProcedure(OTHER_PROCEDURE, OFFERING);
+        cache.addOfferingForProcedure(OTHER_PROCEDURE, OTHER_OFFERING);
+
+        cache.setObservablePropertiesForOffering(OFFERING,
+                Arrays.asList(OBSERVABLE_PROPERTY, OTHER_OBSERVABLE_PROPERTY));
+        cache.addObservablePropertyForOffering(OTHER_OFFERING, OTHER_OBSERVABLE_PROPERTY);
+        cache.addObservablePropertyForProcedure(PROCEDURE, OBSERVABLE_PROPERTY);
+        cache.addObservablePropertyForProcedure(OTHER_PROCEDURE, OTHER_OBSERVABLE_PROPERTY);
+        cache.addOfferingForObservableProperty(OBSERVABLE_PROPERTY, OFFERING);
+        cache.addProcedureForObservableProperty(OBSERVABLE_PROPERTY, PROCEDURE);
+        cache.setProceduresForObservableProperty(OTHER_OBSERVABLE_PROPERTY, Collections.singleton(OTHER_PROCEDURE));
+
+        cache.setFeaturesOfInterest(Arrays.asList(FEATURE, OTHER_FEATURE, PARENT_FEATURE));
+        cache.addParentFeature(FEATURE, PARENT_FEATURE);
+        cache.addFeatureOfInterestForOffering(OFFERING, FEATURE);
+        cache.addFeatureOfInterestForOffering(OTHER_OFFERING, OTHER_FEATURE);
+        cache.addProcedureForFeatureOfInterest(FEATURE, PROCEDURE);
+        cache.addProcedureForFeatureOfInterest(OTHER_FEATURE, OTHER_PROCEDURE);
+        cache.addRelatedFeatureForOffering(OFFERING, RELATED_FEATURE);
+        cache.addRoleForRelatedFeature(RELATED_FEATURE, ROLE);
+
+        cache.addResultTemplate(RESULT_TEMPLATE);
+        cache.addResultTemplateForOffering(OFFERING, RESULT_TEMPLATE);
+        cache.addFeatureOfInterestForResultTemplate(RESULT_TEMPLATE, FEATURE);
+        cache.addObservablePropertyForResultTemplate(RESULT_TEMPLATE, OBSERVABLE_PROPERTY);
+
+        cache.addObservationTypesForOffering(OFFERING, OBSERVATION_TYPE);
+        cache.addAllowedObservationTypeForOffering(OFFERING, OBSERVATION_TYPE);
+        cache.addFeatureOfInterestTypesForOffering(OFFERING, FEATURE_TYPE);
+
+        // removals have to drop the identifiers from the relations as well
+        cache.removeProcedureForOffering(OFFERING, OTHER_PROCEDURE);
+        cache.removeOfferingForProcedure(OTHER_PROCEDURE, OFFERING);
+        cache.removeObservablePropertyForOffering(OFFERING, OTHER_OBSERVABLE_PROPERTY);
+        cache.removeFeatureOfInterestForOffering(OTHER_OFFERING, OTHER_FEATURE);
+        cache.removeFeatureOfInterest(OTHER_FEATURE);
+    }
+
+    @Test
+    public void should_return_same_results_as_in_memory_cache() {
+        reads.forEach((name, read) -> assertThat(name, read.apply(dictionaryCache),
+                is(equalTo(read.apply(inMemoryCache)))));
+    }
+
+    @Test
+    public void should_return_same_results_after_modifications() {
+        for (SosWritableContentCache cache : Arrays.<SosWritableContentCache> asList(dictionaryCache,
+                inMemoryCache)) {
+            cache.addProcedureForOffering(OFFERING, UNKNOWN);
+            cache.removeProceduresForOffering(OTHER_OFFERING);
+            cache.setObservablePropertiesForProcedure(PROCEDURE, Collections.singleton(OTHER_OBSERVABLE_PROPERTY));
+            cache.removeProcedure(OTHER_PROCEDURE);
+            cache.removeRoleForRelatedFeature(RELATED_FEATURE, ROLE);
+            cache.removeResultTemplate(RESULT_TEMPLATE);
+            cache.removeOffering(PARENT_OFFERING);
+        }
+        should_return_same_results_as_in_memory_cache();
+    }
+
+    @Test
+    public void should_return_stored_identifiers() {
+        Set<String> procedures = dictionaryCache.getProceduresForOffering(OFFERING);
+        assertThat(procedures, containsInAnyOrder(PROCEDURE));
+        String procedure = procedures.iterator().next();
+        assertThat(dictionaryCache.getProcedures().stream().filter(PROCEDURE::equals).findFirst().get(),
+                is(sameInstance(procedure)));
+        assertThat(dictionaryCache.getOfferingsForProcedure(new String(PROCEDURE)),
+                is(equalTo(inMemoryCache.getOfferingsForProcedure(PROCEDURE))));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdentifierSetTest {
+    private IdentifierDictionary dictionary;
+
+    @Before
+    public void setUp() {
+        dictionary = new IdentifierDictionary();
+    }
+
+    @Test
+    public void should_intern_identifiers() {
+        String identifier = "urn:ogc:def:identifier";
+        int id = dictionary.intern(identifier);
+        assertThat(dictionary.intern(new String(identifier)), is(id));
+        assertThat(dictionary.canonical(new String(identifier)), is(sameInstance(identifier)));
+        assertThat(dictionary.lookup("unknown"), is(-1));
+    }
+
+    @Test
+    public void should_behave_like_a_set() {
+        IdentifierSet set = new IdentifierSet(dictionary, Arrays.asList("c", "a", "b"));
+        assertThat(set.add("a"), is(false));
+        assertThat(set.remove("b"), is(true));
+        assertThat(set.remove("unknown"), is(false));
+        assertThat(set.contains("a"), is(true));
+        assertThat(set.contains("b"), is(false));
+        assertThat(set, is(equalTo(new HashSet<>(Arrays.asList("a", "c")))));
+        assertThat(set.hashCode(), is(new HashSet<>(Arrays.asList("a", "c")).hashCode()));
+    }
+
+    @Test
+    public void should_switch_between_array_and_bitmap() {
+        IdentifierSet set = new IdentifierSet(dictionary);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < IdentifierSet.MAX_ARRAY_SIZE * 2; ++i) {
+            set.add("id" + i);
+            expected.add("id" + i);
+        }
+        assertThat(set, is(equalTo(expected)));
+        for (int i = 0; i < IdentifierSet.MAX_ARRAY_SIZE * 2 - 3; ++i) {
+            set.remove("id" + i);
+        }
+        assertThat(set, containsInAnyOrder("id8189", "id8190", "id8191"));
+        assertThat(set.size(), is(3));
+    }
+
+    @Test
+    public void should_remove_with_iterator() {
+        IdentifierSet set = new IdentifierSet(dictionary, Arrays.asList("a", "b", "c"));
+        Iterator<String> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().equals("b")) {
+                iterator.remove();
+            }
+        }
+        assertThat(set, contains("b"));
+    }
+
+    @Test
+    public void should_retain_ids_of_other_set() {
+        IdentifierSet large = new IdentifierSet(dictionary);
+        for (int i = 0; i < IdentifierSet.MAX_ARRAY_SIZE * 2; ++i) {
+            large.add("id" + i);
+        }
+        IdentifierSet small = new IdentifierSet(dictionary, Arrays.asList("id1", "id2", "other"));
+        IdentifierSet copy = new IdentifierSet(dictionary, large);
+        assertThat(copy.retainAll(small), is(true));
+        assertThat(copy, containsInAnyOrder("id1", "id2"));
+        assertThat(small.retainAll(large), is(true));
+        assertThat(small, containsInAnyOrder("id1", "id2"));
+        assertThat(large.size(), is(IdentifierSet.MAX_ARRAY_SIZE * 2));
+    }
+
+    @Test
+    public void should_store_values_in_dictionary_cache() {
+        DictionaryCacheImpl cache = new DictionaryCacheImpl();
+        cache.setProceduresForOffering("offering", Arrays.asList("p1", "p2"));
+        cache.addProcedureForOffering("offering", "p3");
+        cache.publish();
+        assertThat(cache.getProceduresForOffering("offering"), containsInAnyOrder("p1", "p2", "p3"));
+        cache.removeProcedureForOffering("offering", "p1");
+        assertThat(cache.getProceduresForOffering("offering"), containsInAnyOrder("p2", "p3"));
+        assertThat(cache.getOfferingsForProcedure("p2").isEmpty(), is(true));
+    }
+}
@@ -180,4 +180,46 @@ public class InMemoryCacheImplTest {
        MatcherAssert.assertThat(readCache.isRelatedFeatureSampled(relatedFeature), Is.is(Boolean.TRUE));
     }
 
+    @Test
+    public void should_return_max_phenomenon_time_of_procedure_hierarchy() {
+        final InMemoryCacheImpl cache = new InMemoryCacheImpl();
+        final String procedure = "test-procedure";
+        final String childProcedure = "test-procedure-child";
+        cache.addParentProcedure(childProcedure, procedure);
+        cache.setMinPhenomenonTimeForProcedure(procedure, new DateTime(10L));
+        cache.setMaxPhenomenonTimeForProcedure(procedure, new DateTime(50L));
+        cache.setMinPhenomenonTimeForProcedure(childProcedure, new DateTime(20L));
+        cache.setMaxPhenomenonTimeForProcedure(childProcedure, new DateTime(90L));
+
+       MatcherAssert.assertThat(cache.getMaxPhenomenonTimeForProcedure(procedure).getMillis(), Is.is(90L));
+       MatcherAssert.assertThat(cache.getMinPhenomenonTimeForProcedure(procedure).getMillis(), Is.is(10L));
+       MatcherAssert.assertThat(cache.getMaxPhenomenonTimeForProcedure(childProcedure).getMillis(), Is.is(90L));
+       MatcherAssert.assertThat(cache.getMinPhenomenonTimeForProcedure(childProcedure).getMillis(), Is.is(20L));
+    }
+
+    @Test
+    public void should_return_no_max_phenomenon_time_if_only_min_is_set() {
+        final InMemoryCacheImpl cache = new InMemoryCacheImpl();
+        final String procedure = "test-procedure";
+        cache.setMinPhenomenonTimeForProcedure(procedure, new DateTime(10L));
+
+       MatcherAssert.assertThat(cache.hasMaxPhenomenonTimeForProcedure(procedure), Is.is(Boolean.FALSE));
+       MatcherAssert.assertThat(cache.getMaxPhenomenonTimeForProcedure(procedure), IsNull.nullValue());
+    }
+
+    @Test
+    public void should_return_empty_procedure_description_formats_for_unknown_procedure() {
+        final InMemoryCacheImpl cache = new InMemoryCacheImpl();
+        final String procedure = "test-procedure";
+
+       MatcherAssert.assertThat(cache.getProcedureDescriptionFormatsForProcedure(procedure),
+               IsNot.not(IsNull.nullValue()));
+       Assert.assertTrue(cache.getProcedureDescriptionFormatsForProcedure(procedure).isEmpty());
+
+        cache.addProcedureDescriptionFormatsForProcedure(procedure, Collections.singleton("test-format"));
+
+       MatcherAssert.assertThat(cache.getProcedureDescriptionFormatsForProcedure(procedure),
+               Is.is(Collections.singleton("test-format")));
+    }
+
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.n52.iceland.cache.ctrl.persistence.NoOpCachePersistenceStrategy;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.cache.ctrl.CompleteCacheUpdateFactoryImpl;
+import org.n52.sos.cache.ctrl.SosContentCacheControllerImpl;
+
+public class IncrementalCacheUpdateTest {
+
+    private SosContentCacheControllerImpl controller;
+
+    private final CountingCacheFeederHandler handler = new CountingCacheFeederHandler();
+
+    @After
+    public void tearDown() {
+        if (controller != null) {
+            controller.destroy();
+        }
+    }
+
+    private void createController(int incrementalUpdates) {
+        CompleteCacheUpdateFactoryImpl cacheUpdateFactory = new CompleteCacheUpdateFactoryImpl();
+        cacheUpdateFactory.setCacheFeederHandler(handler);
+        controller = new SosContentCacheControllerImpl();
+        controller.setCacheFactory(InMemoryCacheImpl::new);
+        controller.setPersistenceStrategy(new NoOpCachePersistenceStrategy());
+        controller.setCompleteCacheUpdateFactory(cacheUpdateFactory);
+        controller.setCacheFeederHandler(handler);
+        controller.setIncrementalCacheUpdates(incrementalUpdates);
+        controller.init();
+    }
+
+    @Test
+    public void should_only_execute_complete_updates_if_disabled() throws OwsExceptionReport {
+        createController(0);
+        controller.update();
+        assertThat(handler.complete.get(), is(2));
+        assertThat(handler.incremental.get(), is(0));
+    }
+
+    @Test
+    public void should_execute_complete_update_after_incremental_updates() throws OwsExceptionReport {
+        createController(2);
+        assertThat(handler.complete.get(), is(1));
+        controller.update();
+        controller.update();
+        assertThat(handler.complete.get(), is(1));
+        assertThat(handler.incremental.get(), is(2));
+        controller.update();
+        assertThat(handler.complete.get(), is(2));
+        controller.update();
+        assertThat(handler.incremental.get(), is(3));
+    }
+
+    @Test
+    public void should_fall_back_to_complete_update() throws OwsExceptionReport {
+        createController(2);
+        handler.applicable = false;
+        controller.update();
+        assertThat(handler.complete.get(), is(2));
+    }
+
+    private static class CountingCacheFeederHandler extends NoOpCacheFeederHandler {
+        private final AtomicInteger complete = new AtomicInteger(0);
+
+        private final AtomicInteger incremental = new AtomicInteger(0);
+
+        private boolean applicable = true;
+
+        @Override
+        public void updateCache(SosWritableContentCache cache) throws OwsExceptionReport {
+            complete.incrementAndGet();
+        }
+
+        @Override
+        public boolean updateCacheIncrementally(SosWritableContentCache cache) throws OwsExceptionReport {
+            incremental.incrementAndGet();
+            return applicable;
+        }
+    }
+}
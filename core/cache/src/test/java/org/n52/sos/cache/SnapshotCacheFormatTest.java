@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.locationtech.jts.geom.Envelope;
+import org.n52.janmayen.i18n.MultilingualString;
+import org.n52.shetland.util.ReferencedEnvelope;
+
+public class SnapshotCacheFormatTest {
+    private static final String OFFERING = "offering";
+    private static final String PROCEDURE = "procedure";
+    private static final String FEATURE = "feature";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void should_read_written_snapshot() throws IOException {
+        SnapshotCacheImpl cache = populate(new SnapshotCacheImpl());
+        SnapshotCacheImpl read = writeAndRead(cache);
+        assertThat(read, is(instanceOf(SnapshotCacheImpl.class)));
+        assertThat(read.isPublished(), is(true));
+        assertThat(read, is(equalTo(cache)));
+        assertThat(read.getFeatureOfInterestIdentifierForHumanReadableName("Feature"), is(FEATURE));
+    }
+
+    @Test
+    public void should_read_written_dictionary_snapshot() throws IOException {
+        SnapshotCacheImpl cache = populate(new DictionaryCacheImpl());
+        SnapshotCacheImpl read = writeAndRead(cache);
+        assertThat(read, is(instanceOf(DictionaryCacheImpl.class)));
+        assertThat(read, is(equalTo(cache)));
+    }
+
+    @Test(expected = IOException.class)
+    public void should_reject_corrupt_snapshot() throws IOException {
+        Path file = folder.newFile().toPath();
+        SnapshotCacheFormat.write(populate(new SnapshotCacheImpl()), file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 42 }), 20);
+        }
+        SnapshotCacheFormat.read(file);
+    }
+
+    private SnapshotCacheImpl writeAndRead(SnapshotCacheImpl cache) throws IOException {
+        Path file = folder.newFile().toPath();
+        SnapshotCacheFormat.write(cache, file);
+        return SnapshotCacheFormat.read(file);
+    }
+
+    private static SnapshotCacheImpl populate(SnapshotCacheImpl cache) {
+        DateTime time = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+        MultilingualString name = new MultilingualString();
+        name.addLocalization(Locale.GERMAN, "Angebot");
+        cache.addProcedureForOffering(OFFERING, PROCEDURE);
+        cache.addFeatureOfInterestForOffering(OFFERING, FEATURE);
+        cache.addPublishedOffering(OFFERING);
+        cache.setMinPhenomenonTimeForOffering(OFFERING, time);
+        cache.setEnvelopeForOffering(OFFERING, new ReferencedEnvelope(new Envelope(1, 2, 3, 4), 4326));
+        cache.addFeatureOfInterestIdentifierHumanReadableName(FEATURE, "Feature");
+        cache.setNameForOffering(OFFERING, "Offering");
+        cache.setI18nNameForOffering(OFFERING, name);
+        cache.addSupportedLanguage(Locale.GERMAN);
+        cache.setMinPhenomenonTime(time);
+        cache.setDefaultEPSGCode(4326);
+        cache.setGlobalEnvelope(new ReferencedEnvelope(new Envelope(), 4326));
+        cache.publish();
+        return cache;
+    }
+}
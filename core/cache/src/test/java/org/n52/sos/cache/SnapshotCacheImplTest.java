@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SnapshotCacheImplTest {
+    private static final String OFFERING = "offering";
+    private static final String PROCEDURE = "procedure";
+    private static final String OTHER_PROCEDURE = "other-procedure";
+
+    private SnapshotCacheImpl cache;
+
+    @Before
+    public void setUp() {
+        cache = new SnapshotCacheImpl();
+        cache.addProcedureForOffering(OFFERING, PROCEDURE);
+        cache.publish();
+    }
+
+    @Test
+    public void should_be_published() {
+        assertThat(cache.isPublished(), is(true));
+        assertThat(new SnapshotCacheImpl().isPublished(), is(false));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void should_return_read_only_views() {
+        cache.getProceduresForOffering(OFFERING).add(OTHER_PROCEDURE);
+    }
+
+    @Test
+    public void should_not_modify_returned_views_of_older_snapshots() {
+        Set<String> procedures = cache.getProceduresForOffering(OFFERING);
+        cache.addProcedureForOffering(OFFERING, OTHER_PROCEDURE);
+        assertThat(procedures, contains(PROCEDURE));
+        assertThat(cache.getProceduresForOffering(OFFERING).size(), is(2));
+    }
+
+    @Test
+    public void should_publish_modifications_at_end_of_update() throws Exception {
+        cache.beginUpdate();
+        try {
+            cache.removeProcedureForOffering(OFFERING, PROCEDURE);
+            cache.addProcedureForOffering(OFFERING, OTHER_PROCEDURE);
+            assertThat(cache.getProceduresForOffering(OFFERING), contains(OTHER_PROCEDURE));
+            assertThat(readInOtherThread(), contains(PROCEDURE));
+        } finally {
+            cache.endUpdate();
+        }
+        assertThat(readInOtherThread(), contains(OTHER_PROCEDURE));
+    }
+
+    @Test
+    public void should_publish_nested_updates_with_outermost_update() throws Exception {
+        cache.beginUpdate();
+        try {
+            cache.beginUpdate();
+            try {
+                cache.addProcedureForOffering(OFFERING, OTHER_PROCEDURE);
+            } finally {
+                cache.endUpdate();
+            }
+            assertThat(readInOtherThread(), contains(PROCEDURE));
+        } finally {
+            cache.endUpdate();
+        }
+        assertThat(readInOtherThread().size(), is(2));
+    }
+
+    @Test
+    public void should_remove_empty_relations() {
+        cache.removeProcedureForOffering(OFFERING, PROCEDURE);
+        assertThat(cache.getProceduresForOffering(OFFERING), is(empty()));
+    }
+
+    @Test
+    public void should_be_equal_to_cache_with_same_content() {
+        SnapshotCacheImpl other = new SnapshotCacheImpl();
+        other.setProceduresForOffering(OFFERING, Collections.singleton(PROCEDURE));
+        other.publish();
+        assertThat(other, is(equalTo(cache)));
+        assertThat(other.hashCode(), is(cache.hashCode()));
+    }
+
+    @Test
+    public void should_survive_serialization() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(cache);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            SnapshotCacheImpl read = (SnapshotCacheImpl) ois.readObject();
+            assertThat(read, is(equalTo(cache)));
+            assertThat(read.isPublished(), is(true));
+            read.addProcedureForOffering(OFFERING, OTHER_PROCEDURE);
+            assertThat(read.getProceduresForOffering(OFFERING).size(), is(2));
+        }
+    }
+
+    private Set<String> readInOtherThread() throws Exception {
+        return CompletableFuture.supplyAsync(() -> cache.getProceduresForOffering(OFFERING)).get();
+    }
+}
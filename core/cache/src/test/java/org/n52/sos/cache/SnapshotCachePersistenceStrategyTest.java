@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.n52.iceland.cache.WritableContentCache;
+
+public class SnapshotCachePersistenceStrategyTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private SnapshotCachePersistenceStrategy strategy;
+
+    @Before
+    public void setUp() throws IOException {
+        Path cacheFile = folder.newFolder().toPath().resolve("cache.tmp");
+        strategy = new SnapshotCachePersistenceStrategy() {
+            @Override
+            public Path getCacheFile() {
+                return cacheFile;
+            }
+        };
+    }
+
+    @Test
+    public void should_load_persisted_snapshot() {
+        strategy.persistCache(new SnapshotCacheImpl());
+        assertThat(Files.exists(strategy.getSnapshotFile()), is(true));
+        assertThat(Files.exists(strategy.getCacheFile()), is(false));
+        Optional<WritableContentCache> cache = strategy.load();
+        assertThat(cache.isPresent(), is(true));
+        assertThat(cache.get(), is(instanceOf(SnapshotCacheImpl.class)));
+    }
+
+    @Test
+    public void should_not_load_outdated_snapshot() {
+        strategy.persistCache(new SnapshotCacheImpl());
+        strategy.persistCache(new InMemoryCacheImpl());
+        assertThat(Files.exists(strategy.getSnapshotFile()), is(false));
+        Optional<WritableContentCache> cache = strategy.load();
+        assertThat(cache.isPresent(), is(true));
+        assertThat(cache.get(), is(not(instanceOf(SnapshotCacheImpl.class))));
+    }
+
+}
@@ -62,25 +62,38 @@ public final class TestDataSqlScriptGenerator {
     private static final int FILENAME_INDEX = 3;
     private static final int X_COORD_INDEX = 0;
     private static final int Y_COORD_INDEX = 1;
-    private static final String SQL_INSERT_FEATURE = "SELECT insert_feature_of_interest('test_feature_%s', %s, %s);";
+    /**
+     * Prefix of the generated feature of interest identifiers
+     */
+    public static final String FEATURE_PREFIX = "test_feature_";
+    /**
+     * Prefix of the generated procedure identifiers
+     */
+    public static final String PROCEDURE_PREFIX = "http://www.example.org/sensors/";
+    /**
+     * Prefix of the generated offering identifiers
+     */
+    public static final String OFFERING_PREFIX = "test_offering_";
+    public static final String OBSERVED_PROPERTY_ID = "test_observable_property_1";
+    public static final String UNIT_ID = "test_unit_1";
+    public static final long TIMESTAMP_INCREMENT_IN_MS = 600000L;
+    public static final double RESULT_MIN_VALUE = 0.0;
+    public static final double RESULT_MAX_VALUE = 100.0;
+    private static final String SQL_INSERT_FEATURE
+            = "SELECT insert_feature_of_interest('" + FEATURE_PREFIX + "%s', %s, %s);";
     private static final String SQL_TIMESTAMP_PATTERN = "yyyy-MM-dd HH:mm";
     private static final String SQL_INSERT_SENSOR
-            = "SELECT insert_procedure('http://www.example.org/sensors/%s', '%s', '%s', %s, %s, 0.0, '%s', '%s');";
+            = "SELECT insert_procedure('" + PROCEDURE_PREFIX + "%s', '%s', '%s', %s, %s, 0.0, '%s', '%s');";
     private static final String OBSERVATION_TYPE = "Measurement";
-    private static final String OBSERVED_PROPERTY_ID = "test_observable_property_1";
     private static final String FEATURE_TYPE = "Point";
-    private static final String SQL_INSERT_OFFERING = "SELECT insert_offering('test_offering_%s');";
+    private static final String SQL_INSERT_OFFERING = "SELECT insert_offering('" + OFFERING_PREFIX + "%s');";
     private static final String SQL_INSERT_OBSERVATION_CONSTELLATION
             = "SELECT insert_observation_constellation(" +
-              "'%s', 'http://www.example.org/sensors/%s', 'test_offering_%s', '%s');";
-    private static final long TIMESTAMP_INCREMENT_IN_MS = 600000L;
-    private static final String UNIT_ID = "test_unit_1";
-    private static final double RESULT_MIN_VALUE = 0.0;
-    private static final double RESULT_MAX_VALUE = 100.0;
+              "'%s', '" + PROCEDURE_PREFIX + "%s', '" + OFFERING_PREFIX + "%s', '%s');";
     private static final String SQL_INSERT_NUMERIC_OBSERVATION
             = "SELECT insert_numeric_observation(insert_observation(" +
-              "get_observation_constellation('%s', 'http://www.example.org/sensors/%s', 'test_offering_%s', '%s'), " +
-              "'test_feature_%s', '%s', '%s'), %s);";
+              "get_observation_constellation('%s', '" + PROCEDURE_PREFIX + "%s', '" + OFFERING_PREFIX + "%s', '%s'), " +
+              "'" + FEATURE_PREFIX + "%s', '%s', '%s'), %s);";
     private static final String HEADER_FILE_NAME = "/generate-test-data-header.sql";
     private static final String FOOTER_FILE_NAME = "/generate-test-data-footer.sql";
     private static final Random RANDOM = new Random(System.currentTimeMillis());
@@ -88,6 +101,42 @@ public final class TestDataSqlScriptGenerator {
     private TestDataSqlScriptGenerator() {
     }
 
+    /**
+     * @param featureId
+     *            the index of the feature
+     * @return the identifier of the generated feature of interest
+     */
+    public static String getFeatureIdentifier(int featureId) {
+        return FEATURE_PREFIX + featureId;
+    }
+
+    /**
+     * @param sensorId
+     *            the index of the sensor
+     * @return the identifier of the generated procedure
+     */
+    public static String getProcedureIdentifier(int sensorId) {
+        return PROCEDURE_PREFIX + sensorId;
+    }
+
+    /**
+     * @param sensorId
+     *            the index of the sensor
+     * @return the identifier of the generated offering of the sensor
+     */
+    public static String getOfferingIdentifier(int sensorId) {
+        return OFFERING_PREFIX + sensorId;
+    }
+
+    /**
+     * @param observationBatch
+     *            the index of the observation batch
+     * @return the phenomenon time of the observations of the batch
+     */
+    public static DateTime getPhenomenonTime(int observationBatch) {
+        return new DateTime(observationBatch * TIMESTAMP_INCREMENT_IN_MS);
+    }
+
     /**
      * Creates a SQL script containing test data
      *
@@ -157,7 +206,7 @@ public final class TestDataSqlScriptGenerator {
             for (int observationBatch = 0; observationBatch < obsPerFeaturePerSensorCount; observationBatch++) {
                 // 1 generate timestamp by incrementing from 0l by
                 // TIMESTAMP_INCREMENT_IN_MS
-                DateTime timeStamp = new DateTime(observationBatch * TIMESTAMP_INCREMENT_IN_MS);
+                DateTime timeStamp = getPhenomenonTime(observationBatch);
 
                 // feature loop
                 for (int featureId = 0; featureId < featuresCount; featureId++) {
@@ -301,8 +350,24 @@ public final class TestDataSqlScriptGenerator {
     }
 
     private static double generateRandomResult(double min, double max) {
+        return generateRandomResult(RANDOM, min, max);
+    }
+
+    /**
+     * Generates a random result value in the range of the generated test data, e.g. to create the same data
+     * reproducibly with a seeded {@link Random}.
+     *
+     * @param random
+     *            the random number generator
+     * @param min
+     *            the minimum value
+     * @param max
+     *            the maximum value
+     * @return the result value
+     */
+    public static double generateRandomResult(Random random, double min, double max) {
         if (max > min) {
-            return min + (RANDOM.nextDouble() * (Math.abs(max) + Math.abs(min)));
+            return min + (random.nextDouble() * (Math.abs(max) + Math.abs(min)));
         }
         throw new IllegalArgumentException(String.format("Give parameter values wrong: max: %s, min:%s", max, min));
     }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.Session;
+import org.n52.sensorweb.server.db.old.dao.DbQuery;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.series.db.beans.dataset.DatasetType;
+import org.n52.series.db.old.dao.PhenomenonDao;
+import org.n52.series.db.old.dao.ProcedureDao;
+
+/**
+ * Offering, procedure and phenomenon relations of the published datasets. The relations of all offerings are
+ * loaded with a constant number of queries and looked up in memory, instead of querying the procedures and
+ * phenomena for each offering. Like the per-offering queries, only published datasets that are not deleted and
+ * not initialized are related.
+ *
+ * @since 6.1.2
+ */
+class DatasetRelations {
+
+    private final Map<Long, ProcedureEntity> procedures = new HashMap<>();
+
+    private final Map<Long, PhenomenonEntity> phenomena = new HashMap<>();
+
+    private final Map<Long, Set<Long>> proceduresForOffering = new HashMap<>();
+
+    private final Map<Long, Map<Long, Set<Long>>> phenomenaForOfferingAndProcedure = new HashMap<>();
+
+    /**
+     * @param datasets
+     *            the already loaded datasets
+     * @param session
+     *            the session to load the procedures and phenomena
+     * @param query
+     *            the query to load the procedures and phenomena
+     */
+    DatasetRelations(Collection<DatasetEntity> datasets, Session session, DbQuery query) {
+        // load all procedures and phenomena at once, the dataset references are resolved from the session
+        new ProcedureDao(session).getAllInstances(query).forEach(p -> procedures.put(p.getId(), p));
+        new PhenomenonDao(session).getAllInstances(query).forEach(p -> phenomena.put(p.getId(), p));
+        datasets.stream().filter(DatasetRelations::isVisible).forEach(this::add);
+    }
+
+    private static boolean isVisible(DatasetEntity dataset) {
+        return !dataset.isDeleted() && dataset.isPublished()
+                && !dataset.getDatasetType().equals(DatasetType.not_initialized);
+    }
+
+    private void add(DatasetEntity dataset) {
+        if (dataset.getOffering() == null || dataset.getProcedure() == null || dataset.getPhenomenon() == null) {
+            return;
+        }
+        Long offering = dataset.getOffering().getId();
+        Long procedure = dataset.getProcedure().getId();
+        procedures.putIfAbsent(procedure, dataset.getProcedure());
+        phenomena.putIfAbsent(dataset.getPhenomenon().getId(), dataset.getPhenomenon());
+        proceduresForOffering.computeIfAbsent(offering, k -> new LinkedHashSet<>()).add(procedure);
+        phenomenaForOfferingAndProcedure.computeIfAbsent(offering, k -> new HashMap<>())
+                .computeIfAbsent(procedure, k -> new LinkedHashSet<>()).add(dataset.getPhenomenon().getId());
+    }
+
+    Collection<ProcedureEntity> getProcedures(OfferingEntity offering) {
+        return get(proceduresForOffering.getOrDefault(offering.getId(), Collections.emptySet()), procedures);
+    }
+
+    Collection<PhenomenonEntity> getPhenomena(OfferingEntity offering, ProcedureEntity procedure) {
+        return get(phenomenaForOfferingAndProcedure.getOrDefault(offering.getId(), Collections.emptyMap())
+                .getOrDefault(procedure.getId(), Collections.emptySet()), phenomena);
+    }
+
+    private static <T> Set<T> get(Set<Long> ids, Map<Long, T> entities) {
+        return ids.stream().map(entities::get).filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -66,8 +66,6 @@ import org.n52.series.db.beans.dataset.DatasetType;
 import org.n52.series.db.old.HibernateSessionStore;
 import org.n52.series.db.old.dao.DatasetDao;
 import org.n52.series.db.old.dao.OfferingDao;
-import org.n52.series.db.old.dao.PhenomenonDao;
-import org.n52.series.db.old.dao.ProcedureDao;
 import org.n52.shetland.ogc.gml.ReferenceType;
 import org.n52.shetland.ogc.gml.time.TimePeriod;
 import org.n52.shetland.ogc.ows.exception.CodedException;
@@ -136,11 +134,12 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
         Session session = null;
         try {
             session = sessionStore.getSession();
-            Collection<OfferingEntity> offerings = getOfferings(session);
+            Collection<DatasetEntity> datasets = getDatasets(session);
+            Collection<OfferingEntity> offerings = getOfferings(session, datasets);
+            DatasetRelations relations = getDatasetRelations(session, datasets);
             List<SosObservationOffering> sosOfferings = new ArrayList<>(offerings.size());
             for (OfferingEntity offering : offerings) {
-                Collection<ProcedureEntity> procedures =
-                        GetCapabilitiesHandler.this.getProceduresForOfferingEntity(offering, session);
+                Collection<ProcedureEntity> procedures = relations.getProcedures(offering);
                 ReferencedEnvelope envelopeForOffering = getCache().getEnvelopeForOffering(offering.getIdentifier());
                 Set<String> featuresForoffering = getFOI4offering(offering.getIdentifier());
                 Collection<String> responseFormats = getResponseFormatRepository()
@@ -244,7 +243,9 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
         try {
             session = sessionStore.getSession();
 
-            Collection<OfferingEntity> offerings = getOfferings(session);
+            Collection<DatasetEntity> datasets = getDatasets(session);
+            Collection<OfferingEntity> offerings = getOfferings(session, datasets);
+            DatasetRelations relations = getDatasetRelations(session, datasets);
             List<SosObservationOffering> sosOfferings = new ArrayList<>(offerings.size());
             Map<String, List<SosObservationOfferingExtension>> extensions =
                     this.capabilitiesExtensionService.getActiveOfferingExtensions();
@@ -255,11 +256,11 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
                 sosOfferings.add(new SosObservationOffering());
             } else {
                 if (checkListOnlyParentOfferings()) {
-                    sosOfferings.addAll(
-                            createAndGetParentOfferings(offerings, sectionSpecificContentObject, extensions, session));
+                    sosOfferings.addAll(createAndGetParentOfferings(offerings, sectionSpecificContentObject,
+                            extensions, relations));
                 } else {
                     for (OfferingEntity offering : offerings) {
-                        Collection<ProcedureEntity> procedures = getProceduresForOfferingEntity(offering, session);
+                        Collection<ProcedureEntity> procedures = relations.getProcedures(offering);
                         if (!procedures.isEmpty()) {
                             Collection<String> observationTypes = getObservationTypes(offering);
                             if (observationTypes != null && !observationTypes.isEmpty()) {
@@ -306,7 +307,7 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
                                                 .forEach(sosObservationOffering::addExtension);
                                     }
 
-                                    setUpPhenomenaForOffering(offering, procedures, sosObservationOffering, session);
+                                    setUpPhenomenaForOffering(offering, procedures, sosObservationOffering, relations);
                                     setUpTimeForOffering(offering, sosObservationOffering);
                                     setUpRelatedFeaturesForOffering(offering, sosObservationOffering);
                                     setUpFeatureOfInterestTypesForOffering(offering, sosObservationOffering);
@@ -337,12 +338,19 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
         }
     }
 
-    private Collection<OfferingEntity> getOfferings(Session session) {
+    private Collection<DatasetEntity> getDatasets(Session session) {
+        return new DatasetDao(session).get(createDbQuery(IoParameters.createDefaults()));
+    }
+
+    private DatasetRelations getDatasetRelations(Session session, Collection<DatasetEntity> datasets) {
+        return new DatasetRelations(datasets, session, createDbQuery(IoParameters.createDefaults()));
+    }
+
+    private Collection<OfferingEntity> getOfferings(Session session, Collection<DatasetEntity> datasets) {
         OfferingDao offeringDao = new OfferingDao(session);
         Collection<OfferingEntity> offerings =
                 offeringDao.getAllInstances(createDbQuery(IoParameters.createDefaults()));
         Collection<OfferingEntity> allOfferings = offeringDao.get(createDbQuery(IoParameters.createDefaults()));
-        Collection<DatasetEntity> datasets = new DatasetDao(session).get(createDbQuery(IoParameters.createDefaults()));
         Set<OfferingEntity> notVisibleOfferings = datasets.stream().filter(
                 d -> d.isDeleted() || !d.isPublished() && !d.getDatasetType().equals(DatasetType.not_initialized))
                 .map(d -> d.getOffering()).collect(Collectors.toSet());
@@ -353,7 +361,7 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
 
     private Collection<? extends SosObservationOffering> createAndGetParentOfferings(
             Collection<OfferingEntity> offerings, SectionSpecificContentObject sectionSpecificContentObject,
-            Map<String, List<SosObservationOfferingExtension>> extensions, Session session)
+            Map<String, List<SosObservationOfferingExtension>> extensions, DatasetRelations relations)
             throws OwsExceptionReport {
         Map<OfferingEntity, Set<OfferingEntity>> parentChilds = getParentOfferings(offerings);
 
@@ -361,7 +369,7 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
         for (Entry<OfferingEntity, Set<OfferingEntity>> entry : parentChilds.entrySet()) {
             Collection<String> observationTypes = getObservationTypes(entry);
             if (CollectionHelper.isNotEmpty(observationTypes)) {
-                Collection<ProcedureEntity> procedures = getProceduresForOfferingEntity(entry, session);
+                Collection<ProcedureEntity> procedures = getProceduresForOfferingEntity(entry, relations);
                 if (CollectionHelper.isNotEmpty(procedures)) {
                     Set<OfferingEntity> allOfferings = new HashSet<>();
                     allOfferings.addAll(entry.getValue());
@@ -405,8 +413,7 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
                         sosObservationOffering.addExtension(relatedOfferings);
                     }
 
-                    setUpPhenomenaForOffering(allOfferings, procedures, sosObservationOffering,
-                            session);
+                    setUpPhenomenaForOffering(allOfferings, procedures, sosObservationOffering, relations);
                     setUpTimeForOffering(allOfferings.stream().map(OfferingEntity::getIdentifier),
                             sosObservationOffering);
                     setUpRelatedFeaturesForOffering(allOfferings, sosObservationOffering);
@@ -478,32 +485,28 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
 
 
     protected void setUpPhenomenaForOffering(Collection<OfferingEntity> allOfferings,
-            Collection<ProcedureEntity> procedures, SosObservationOffering sosObservationOffering, Session session) {
+            Collection<ProcedureEntity> procedures, SosObservationOffering sosObservationOffering,
+            DatasetRelations relations) {
         for (ProcedureEntity procedure : procedures) {
-            setUpPhenomenaForOffering(allOfferings, procedure, sosObservationOffering, session);
+            setUpPhenomenaForOffering(allOfferings, procedure, sosObservationOffering, relations);
         }
     }
 
     protected void setUpPhenomenaForOffering(OfferingEntity offering, Collection<ProcedureEntity> procedures,
-            SosObservationOffering sosObservationOffering, Session session) {
-        setUpPhenomenaForOffering(Sets.newHashSet(offering), procedures, sosObservationOffering, session);
+            SosObservationOffering sosObservationOffering, DatasetRelations relations) {
+        setUpPhenomenaForOffering(Sets.newHashSet(offering), procedures, sosObservationOffering, relations);
     }
 
     protected void setUpPhenomenaForOffering(Collection<OfferingEntity> allOfferings, ProcedureEntity procedure,
-            SosObservationOffering sosObservationOffering, Session session) {
+            SosObservationOffering sosObservationOffering, DatasetRelations relations) {
         for (OfferingEntity offering : allOfferings) {
-            setUpPhenomenaForOffering(offering, procedure, sosObservationOffering, session);
+            setUpPhenomenaForOffering(offering, procedure, sosObservationOffering, relations);
         }
     }
 
     protected void setUpPhenomenaForOffering(OfferingEntity offering, ProcedureEntity procedure,
-            SosObservationOffering sosOffering, Session session) {
-        Map<String, String> map = new HashMap<>();
-        map.put(IoParameters.OFFERINGS, Long.toString(offering.getId()));
-        map.put(IoParameters.PROCEDURES, Long.toString(procedure.getId()));
-
-        Collection<PhenomenonEntity> observableProperties =
-                new PhenomenonDao(session).get(createDbQuery(IoParameters.createFromSingleValueMap(map)));
+            SosObservationOffering sosOffering, DatasetRelations relations) {
+        Collection<PhenomenonEntity> observableProperties = relations.getPhenomena(offering, procedure);
         Set<String> validObsProps = getCache().getObservablePropertiesForOffering(offering.getIdentifier());
 
         Collection<String> phenomenons = new LinkedList<>();
@@ -570,23 +573,15 @@ public class GetCapabilitiesHandler extends AbstractSosGetCapabilitiesHandler im
     }
 
     private Collection<ProcedureEntity> getProceduresForOfferingEntity(
-            Entry<OfferingEntity, Set<OfferingEntity>> entry, Session session)
-            throws OwsExceptionReport {
+            Entry<OfferingEntity, Set<OfferingEntity>> entry, DatasetRelations relations) {
         Collection<ProcedureEntity> procedures = new HashSet<>();
         for (OfferingEntity offering : entry.getValue()) {
-            procedures.addAll(getProceduresForOfferingEntity(offering, session));
+            procedures.addAll(relations.getProcedures(offering));
         }
-        procedures.addAll(getProceduresForOfferingEntity(entry.getKey(), session));
+        procedures.addAll(relations.getProcedures(entry.getKey()));
         return procedures;
     }
 
-    private Collection<ProcedureEntity> getProceduresForOfferingEntity(OfferingEntity offering, Session session)
-            throws OwsExceptionReport {
-        Map<String, String> map = new HashMap<>(1);
-        map.put(IoParameters.OFFERINGS, Long.toString(offering.getId()));
-        return new ProcedureDao(session).get(createDbQuery(IoParameters.createFromSingleValueMap(map)));
-    }
-
     @Override
     public DbQuery createDbQuery(IoParameters parameters) {
         return dbQueryFactory.createFrom(parameters);
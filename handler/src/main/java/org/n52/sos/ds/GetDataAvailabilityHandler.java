@@ -27,15 +27,18 @@
  */
 package org.n52.sos.ds;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -133,9 +136,12 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
         try {
             GDARequestContext context = new GDARequestContext(request);
             boolean gdaV20 = checkForGDAv20(request);
+            Map<String, Set<String>> childOfferings = new HashMap<>();
             for (final DatasetEntity entity : new DatasetDao<>(session).getAllInstances(createDbQuery(request))) {
                 if (gdaV20) {
                     processDataAvailabilityV2(entity, context, session);
+                    childOfferings.computeIfAbsent(entity.getOffering().getIdentifier(),
+                            identifier -> getChildOfferings(entity.getOffering()));
                 } else {
                     processDataAvailability(entity, context, session);
                 }
@@ -143,6 +149,8 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
             if (!gdaV20) {
                 return checkForDuplictation(context.getDataAvailabilityList());
             }
+            checkForParentOfferings(context,
+                    childOfferings.values().stream().flatMap(Set::stream).collect(Collectors.toSet()));
             return context.getDataAvailabilityList();
         } finally {
             sessionStore.returnSession(session);
@@ -209,49 +217,82 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
             }
             context.addDataAvailability(dataAvailability);
         }
-        checkForParentOfferings(context, entity.getOffering());
     }
 
     private TimePeriod createTimePeriod(DatasetEntity entity) {
         return new TimePeriod(entity.getFirstValueAt(), entity.getLastValueAt());
     }
 
-    private void checkForParentOfferings(GDARequestContext context, OfferingEntity offeringEntity) {
-        if (context.isSetDataAvailabilityList()) {
-            List<String> requestedOfferings = context.getRequest().getOfferings();
-            for (String requestedOffering : requestedOfferings) {
-                Set<String> childOfferings = getChildOfferings(offeringEntity);
-                if (!childOfferings.isEmpty()) {
-                    if (context.hasDataAvailability(requestedOffering)) {
-                        Set<DataAvailability> parentDataAvailabilities =
-                                context.getDataAvailability(requestedOffering);
-                        for (String childOffering : childOfferings) {
-                            Set<DataAvailability> childDataAvailabilities = context.getDataAvailability(childOffering);
-                            for (DataAvailability childDataAvailability : childDataAvailabilities) {
-                                for (DataAvailability parentDataAvailability : parentDataAvailabilities) {
-                                    parentDataAvailability.merge(childDataAvailability, true);
-                                }
-                            }
-                        }
-                    } else {
-                        Set<DataAvailability> parentDataAvailabilities = Sets.newHashSet();
-                        for (String childOffering : childOfferings) {
-                            Set<DataAvailability> childDataAvailabilities = context.getDataAvailability(childOffering);
-                            for (DataAvailability childDataAvailability : childDataAvailabilities) {
-                                addParentDataAvailabilityIfMissing(parentDataAvailabilities, childDataAvailability,
-                                        new ReferenceType(requestedOffering));
-                                for (DataAvailability parentDataAvailability : parentDataAvailabilities) {
-                                    parentDataAvailability.merge(childDataAvailability, true);
-                                }
-                            }
-                        }
-                        context.addDataAvailabilities(parentDataAvailabilities);
+    /**
+     * Merge the {@link DataAvailability}s of the child offerings into the {@link DataAvailability}s of the requested
+     * offerings. The {@link DataAvailability}s are grouped by offering and constellation, so each
+     * {@link DataAvailability} is only visited once per requested offering.
+     *
+     * @param context
+     *            Request context with the {@link DataAvailability}s of all datasets
+     * @param childOfferings
+     *            the child offerings of the offerings of the datasets
+     */
+    static void checkForParentOfferings(GDARequestContext context, Set<String> childOfferings) {
+        if (!context.isSetDataAvailabilityList() || childOfferings.isEmpty()) {
+            return;
+        }
+        Map<String, List<DataAvailability>> dataAvailabilitiesByOffering = context.getDataAvailabilityByOffering();
+        for (String requestedOffering : context.getRequest().getOfferings()) {
+            Map<List<ReferenceType>, List<DataAvailability>> parentDataAvailabilities =
+                    dataAvailabilitiesByOffering.getOrDefault(requestedOffering, Collections.emptyList()).stream()
+                            .collect(Collectors.groupingBy(GetDataAvailabilityHandler::getConstellation));
+            boolean hasParentDataAvailabilities = !parentDataAvailabilities.isEmpty();
+            ReferenceType offering = getParentOfferingReference(requestedOffering, context);
+            for (String childOffering : childOfferings) {
+                for (DataAvailability childDataAvailability : dataAvailabilitiesByOffering
+                        .getOrDefault(childOffering, Collections.emptyList())) {
+                    List<DataAvailability> parents = hasParentDataAvailabilities
+                            ? parentDataAvailabilities.get(getConstellation(childDataAvailability))
+                            : parentDataAvailabilities.computeIfAbsent(getConstellation(childDataAvailability),
+                                    constellation -> createParentDataAvailability(childDataAvailability, offering));
+                    if (parents != null) {
+                        parents.forEach(parent -> merge(parent, childDataAvailability));
                     }
                 }
             }
+            if (!hasParentDataAvailabilities) {
+                parentDataAvailabilities.values().forEach(context::addDataAvailabilities);
+            }
+        }
+    }
+
+    /**
+     * Merge the phenomenon time and the observation types of the child into the parent {@link DataAvailability}.
+     * {@link DataAvailability#merge(DataAvailability, boolean)} can not be used, as it adds the observation types to
+     * the unmodifiable set returned by {@link ObservationFormatDescriptor#getObservationTypes()}.
+     */
+    private static void merge(DataAvailability parent, DataAvailability child) {
+        parent.getPhenomenonTime().extendToContain(child.getPhenomenonTime());
+        if (parent.isSetFormatDescriptors() && child.isSetFormatDescriptors()) {
+            for (ObservationFormatDescriptor childFormat : child.getFormatDescriptor()
+                    .getObservationFormatDescriptors()) {
+                parent.getFormatDescriptor().getObservationFormatDescriptors().stream()
+                        .filter(format -> format.getResponseFormat().equals(childFormat.getResponseFormat()))
+                        .forEach(format -> format.setObservationTypes(Sets
+                                .union(format.getObservationTypes(), childFormat.getObservationTypes())
+                                .immutableCopy()));
+            }
         }
     }
 
+    private static List<ReferenceType> getConstellation(DataAvailability dataAvailability) {
+        return Arrays.asList(dataAvailability.getProcedure(), dataAvailability.getObservedProperty(),
+                dataAvailability.getFeatureOfInterest());
+    }
+
+    private static List<DataAvailability> createParentDataAvailability(DataAvailability childDataAvailability,
+            ReferenceType offering) {
+        DataAvailability parentDataAvailability = childDataAvailability.copy();
+        parentDataAvailability.setOffering(offering);
+        return Lists.newArrayList(parentDataAvailability);
+    }
+
     private Set<String> getChildOfferings(OfferingEntity offering) {
         Set<String> childs = Sets.newTreeSet();
         if (offering.hasChildren()) {
@@ -269,25 +310,16 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
                 || GetDataAvailabilityConstants.NS_GDA_20.equals(request.getNamespace()) || isForceGDAv20Response();
     }
 
-    private List<DataAvailability> checkForDuplictation(List<DataAvailability> dataAvailabilityValues) {
-        List<DataAvailability> checked = Lists.newLinkedList();
+    static List<DataAvailability> checkForDuplictation(List<DataAvailability> dataAvailabilityValues) {
+        // DataAvailability#equals() and #hashCode() compare procedure, observed property, feature and offering
+        Map<DataAvailability, DataAvailability> checked = new LinkedHashMap<>();
         for (DataAvailability dataAvailability : dataAvailabilityValues) {
-            if (checked.isEmpty()) {
-                checked.add(dataAvailability);
-            } else {
-                boolean notDuplicated = true;
-                for (DataAvailability checkedDA : checked) {
-                    if (dataAvailability.equals(checkedDA)) {
-                        checkedDA.getPhenomenonTime().extendToContain(dataAvailability.getPhenomenonTime());
-                        notDuplicated = false;
-                    }
-                }
-                if (notDuplicated) {
-                    checked.add(dataAvailability);
-                }
-            }
+            checked.merge(dataAvailability, dataAvailability, (checkedDA, duplicate) -> {
+                checkedDA.getPhenomenonTime().extendToContain(duplicate.getPhenomenonTime());
+                return checkedDA;
+            });
         }
-        return checked;
+        return Lists.newLinkedList(checked.values());
     }
 
     private ReferenceType getProcedureReference(DatasetEntity entity, GDARequestContext context) {
@@ -338,6 +370,13 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
         return context.getOffering(identifier);
     }
 
+    private static ReferenceType getParentOfferingReference(String identifier, GDARequestContext context) {
+        if (!context.hasOfferings(identifier)) {
+            context.addOfferings(identifier, new ReferenceType(identifier));
+        }
+        return context.getOffering(identifier);
+    }
+
     /**
      * Check if optional count should be added
      *
@@ -427,20 +466,6 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
         return formatDescriptors;
     }
 
-    private boolean addParentDataAvailabilityIfMissing(Set<DataAvailability> parentDataAvailabilities,
-            DataAvailability childDataAvailability, ReferenceType offering) {
-        boolean notContained = true;
-        for (DataAvailability parentDataAvailability : parentDataAvailabilities) {
-            if (parentDataAvailability.sameConstellation(childDataAvailability)) {
-                notContained = false;
-            }
-        }
-        if (notContained) {
-            parentDataAvailabilities.add(childDataAvailability.copy());
-        }
-        return notContained;
-    }
-
     private DbQuery createDbQuery(GetDataAvailabilityRequest req) {
         Map<String, String> map = Maps.newHashMap();
         if (req.isSetFeaturesOfInterest()) {
@@ -591,6 +616,10 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
             return das;
         }
 
+        public Map<String, List<DataAvailability>> getDataAvailabilityByOffering() {
+            return dataAvailabilityValues.stream().collect(Collectors.groupingBy(DataAvailability::getOfferingString));
+        }
+
         public boolean isSetDataAvailabilityList() {
             return getDataAvailabilityList() != null && !getDataAvailabilityList().isEmpty();
         }
@@ -34,6 +34,7 @@ import java.util.Optional;
 
 import javax.inject.Inject;
 
+import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.joda.time.Period;
 import org.joda.time.format.PeriodFormat;
@@ -55,8 +56,11 @@ import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.util.CollectionHelper;
 import org.n52.sos.cache.SosWritableContentCache;
 import org.n52.sos.ds.cache.CacheFeederSettingDefinitionProvider;
+import org.n52.sos.ds.cache.DatasetChangeTracker;
+import org.n52.sos.ds.cache.IncrementalCacheUpdate;
 import org.n52.sos.ds.cache.InitialCacheUpdate;
 import org.n52.sos.ds.cache.base.OfferingCacheUpdate;
+import org.n52.sos.service.SosSettings;
 import org.n52.sos.util.GeometryHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,6 +88,11 @@ public class SosCacheFeederHandler implements CacheFeederHandler {
      * update executor service.
      */
     private int cacheThreadCount = 5;
+    /**
+     * Defines the maximum number of sessions used concurrently by the cache
+     * update, {@code 0} for one session per thread.
+     */
+    private int cacheSessionCount;
     private Locale defaultLocale;
     private I18NDAORepository i18NDAORepository;
     private OwsServiceMetadataRepository serviceMetadataRepository;
@@ -91,6 +100,8 @@ public class SosCacheFeederHandler implements CacheFeederHandler {
     private GeometryHandler geometryHandler;
     private DbQueryFactory dbQueryFactory;
     private Optional<StaticCapabilitiesProvider> staticCapabilitiesProvider = Optional.empty();
+    private final DatasetChangeTracker changeTracker = new DatasetChangeTracker();
+    private volatile boolean incrementalCacheUpdates;
 
     @Inject
     public void setConnectionProvider(HibernateSessionStore sessionStore) {
@@ -133,6 +144,25 @@ public class SosCacheFeederHandler implements CacheFeederHandler {
         this.cacheThreadCount = threads;
     }
 
+    @Setting(CacheFeederSettingDefinitionProvider.CACHE_SESSION_COUNT)
+    public void setCacheSessionCount(int sessions) throws ConfigurationError {
+        Validation.greaterEqualZero("Cache Session Count", sessions);
+        this.cacheSessionCount = sessions;
+    }
+
+    /**
+     * @param incrementalCacheUpdates
+     *            the number of incremental updates between two complete updates, {@code 0} disables incremental
+     *            updates and the recording of the dataset modifications
+     */
+    @Setting(SosSettings.INCREMENTAL_CACHE_UPDATES)
+    public void setIncrementalCacheUpdates(int incrementalCacheUpdates) {
+        this.incrementalCacheUpdates = incrementalCacheUpdates > 0;
+        if (!this.incrementalCacheUpdates) {
+            changeTracker.reset();
+        }
+    }
+
     @Override
     public void updateCache(SosWritableContentCache cache) throws OwsExceptionReport {
         checkCacheNotNull(cache);
@@ -148,9 +178,14 @@ public class SosCacheFeederHandler implements CacheFeederHandler {
                     geometryHandler,
                     dbQueryFactory);
             session = this.sessionStore.getSession();
+            if (incrementalCacheUpdates) {
+                // record the state before the update, so that modifications during the update are not missed
+                changeTracker.record(session);
+            }
             update.setCache(cache);
             update.setErrors(errors);
             update.setSession(session);
+            update.setMaxSessions(cacheSessionCount);
 
             LOGGER.debug("Starting cache update");
             long cacheUpdateStartTime = System.currentTimeMillis();
@@ -172,11 +207,63 @@ public class SosCacheFeederHandler implements CacheFeederHandler {
             }
         }
         if (!errors.isEmpty()) {
+            changeTracker.reset();
             throw new CompositeOwsException(errors);
         }
 
     }
 
+    @Override
+    public boolean updateCacheIncrementally(SosWritableContentCache cache) throws OwsExceptionReport {
+        checkCacheNotNull(cache);
+        if (!incrementalCacheUpdates) {
+            return false;
+        }
+        List<OwsExceptionReport> errors = CollectionHelper.synchronizedList();
+        Session session = this.sessionStore.getSession();
+        try {
+            Optional<DatasetChangeTracker.Changes> changes = changeTracker.update(session);
+            if (!changes.isPresent()) {
+                return false;
+            }
+            if (changes.get().isEmpty()) {
+                LOGGER.debug("No modified datasets, skipping incremental cache update");
+                return true;
+            }
+            IncrementalCacheUpdate update = new IncrementalCacheUpdate(
+                    this.cacheThreadCount,
+                    this.defaultLocale,
+                    this.sessionStore,
+                    this.geometryHandler,
+                    dbQueryFactory,
+                    changes.get());
+            update.setCache(cache);
+            update.setErrors(errors);
+            update.setSession(session);
+            update.setMaxSessions(cacheSessionCount);
+
+            LOGGER.info("Starting incremental cache update for {}", changes.get());
+            long cacheUpdateStartTime = System.currentTimeMillis();
+            update.execute();
+            logCacheLoadTime(cacheUpdateStartTime);
+        } catch (HibernateException e) {
+            LOGGER.error(ERROR_UPDATE_CACHE, e);
+            errors.add(new NoApplicableCodeException().causedBy(e).withMessage(ERROR_UPDATE_CACHE));
+        } finally {
+            try {
+                this.sessionStore.returnSession(session);
+            } catch (Exception e2) {
+                LOGGER.error(ERROR_RETURNING_CONNECTION, e2);
+            }
+        }
+        if (!errors.isEmpty()) {
+            // the recorded state does not match the cache anymore
+            changeTracker.reset();
+            throw new CompositeOwsException(errors);
+        }
+        return true;
+    }
+
     @Override
     public void updateCacheOfferings(SosWritableContentCache cache, Collection<String> offeringsNeedingUpdate)
             throws OwsExceptionReport {
@@ -191,10 +278,12 @@ public class SosCacheFeederHandler implements CacheFeederHandler {
                 this.defaultLocale,
                 this.geometryHandler,
                 this.sessionStore,
+                offeringsNeedingUpdate,
                 dbQueryFactory);
         update.setCache(cache);
         update.setErrors(errors);
         update.setSession(session);
+        update.setMaxSessions(cacheSessionCount);
 
         LOGGER.info("Starting offering cache update for {} offering(s)", offeringsNeedingUpdate.size());
         long cacheUpdateStartTime = System.currentTimeMillis();
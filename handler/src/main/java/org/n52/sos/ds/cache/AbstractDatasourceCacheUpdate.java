@@ -45,6 +45,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public abstract class AbstractDatasourceCacheUpdate extends DatasourceCacheUpdate implements ApiQueryHelper {
     private Session session;
     private DbQueryFactory dbQueryFactory;
+    private int maxSessions;
 
     public Session getSession() {
         return session;
@@ -62,6 +63,18 @@ public abstract class AbstractDatasourceCacheUpdate extends DatasourceCacheUpdat
         return dbQueryFactory;
     }
 
+    /**
+     * @return the maximum number of sessions used concurrently by parallel updates, {@code 0} for one session per
+     *         thread
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
     @Override
     public DbQuery createDbQuery(IoParameters parameters) {
         return getDbQueryFactory().createFrom(parameters);
@@ -27,13 +27,22 @@
  */
 package org.n52.sos.ds.cache;
 
-import org.n52.iceland.util.action.CompositeParallelAction;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.HibernateException;
+import org.n52.series.db.beans.DatasetEntity;
 import org.n52.series.db.old.HibernateSessionStore;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Executes the updates returned by {@link #getUpdatesToExecute()} in parallel using a
+ * {@link CacheUpdateTaskScheduler}.
+ *
  * @author <a href="mailto:c.autermann@52north.org">Christian Autermann</a>
  * @author <a href="mailto:shane@axiomalaska.com">Shane StClair</a>
  *
@@ -47,17 +56,43 @@ public abstract class AbstractQueueingDatasourceCacheUpdate<T extends AbstractTh
 
     private final String threadGroupName;
 
-    private final ThreadLocalSessionFactory sessionFactory;
+    private final HibernateSessionStore sessionStore;
 
     public AbstractQueueingDatasourceCacheUpdate(int threads, String threadGroupName,
             HibernateSessionStore sessionStore) {
         this.threads = threads;
         this.threadGroupName = threadGroupName;
-        this.sessionFactory = new ThreadLocalSessionFactory(sessionStore);
+        this.sessionStore = sessionStore;
     }
 
     protected abstract T[] getUpdatesToExecute() throws OwsExceptionReport;
 
+    /**
+     * Count the datasets per referenced entity, e.g. per offering or procedure, to estimate the cost of the updates.
+     *
+     * @param property
+     *            the dataset property referencing the entity
+     * @return the dataset count by entity id, empty if the count failed
+     */
+    protected Map<Long, Long> getDatasetCounts(String property) {
+        try {
+            List<Object[]> rows = getSession()
+                    .createQuery(String.format("select d.%1$s.id, count(d) from %2$s d group by d.%1$s.id", property,
+                            DatasetEntity.class.getSimpleName()), Object[].class)
+                    .list();
+            Map<Long, Long> counts = new HashMap<>(rows.size());
+            for (Object[] row : rows) {
+                if (row[0] != null) {
+                    counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+                }
+            }
+            return counts;
+        } catch (HibernateException e) {
+            LOGGER.warn("Error while counting datasets by {}, tasks are executed unordered", property, e);
+            return Collections.emptyMap();
+        }
+    }
+
     @Override
     public void execute() {
         LOGGER.debug("AbstractQueueingDatasourceCacheUpdate init");
@@ -68,36 +103,13 @@ public abstract class AbstractQueueingDatasourceCacheUpdate<T extends AbstractTh
             getErrors().add(ex);
             return;
         }
-        CompositeParallelAction<AbstractThreadableDatasourceCacheUpdate> compositeParallelAction =
-                new CompositeParallelAction<AbstractThreadableDatasourceCacheUpdate>(threads, threadGroupName,
-                        updatesToExecute) {
-
-                @Override
-                protected void pre(AbstractThreadableDatasourceCacheUpdate action) {
+        // execute multiple threads
+        new CacheUpdateTaskScheduler(threads, getMaxSessions(), threadGroupName, sessionStore)
+                .execute(updatesToExecute, action -> {
                     action.setCache(getCache());
                     action.setErrors(getErrors());
-                    action.setSessionFactory(sessionFactory);
                     action.setDbQueryFactory(getDbQueryFactory());
-                }
-
-                @Override
-                protected void post(AbstractThreadableDatasourceCacheUpdate action) {
-                    if (action.getSession() != null) {
-                        try {
-                            action.getSession().clear();
-                        } catch (Exception e) {
-                            LOGGER.error("Error while returning connection after cache update!", e);
-                        }
-                    }
-                }
-            };
-        // execute multiple threads
-        compositeParallelAction.execute();
-
-        try {
-            sessionFactory.close();
-        } catch (Exception e) {
-            LOGGER.error("Error while closing SessionFactory", e);
-        }
+                    action.setMaxSessions(getMaxSessions());
+                });
     }
 }
@@ -36,6 +36,8 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public abstract class AbstractThreadableDatasourceCacheUpdate extends AbstractDatasourceCacheUpdate
         implements ApiQueryHelper {
     private ThreadLocalSessionFactory sessionFactory;
+    private long estimatedCost = 1L;
+    private CacheUpdateSubtaskExecutor subtaskExecutor;
 
     public ThreadLocalSessionFactory getSessionFactory() {
         return sessionFactory;
@@ -45,6 +47,29 @@ public abstract class AbstractThreadableDatasourceCacheUpdate extends AbstractDa
         this.sessionFactory = sessionFactory;
     }
 
+    /**
+     * @return the estimated cost of this update, used to start expensive updates first
+     */
+    public long getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    public void setEstimatedCost(long estimatedCost) {
+        this.estimatedCost = estimatedCost;
+    }
+
+    /**
+     * @return the executor for subtasks of this update, {@code null} if the update is not executed by a
+     *         {@link CacheUpdateTaskScheduler}
+     */
+    public CacheUpdateSubtaskExecutor getSubtaskExecutor() {
+        return subtaskExecutor;
+    }
+
+    public void setSubtaskExecutor(CacheUpdateSubtaskExecutor subtaskExecutor) {
+        this.subtaskExecutor = subtaskExecutor;
+    }
+
     @Override
     public Session getSession() {
         if (super.getSession() == null && sessionFactory != null) {
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.cache;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+
+/**
+ * Executes parts of a cache update task in parallel, e.g. the evaluation of the datasets of a large offering. Each
+ * subtask gets its own session, the results are returned in the order of the subtasks so that the task can merge
+ * them and update the cache once.
+ *
+ * @since 6.1.2
+ */
+public interface CacheUpdateSubtaskExecutor {
+
+    /**
+     * Executes the subtasks and blocks until all of them have finished. The session of the task is released while
+     * the subtasks are executed, so entities loaded by it are detached afterwards.
+     *
+     * @param <R>
+     *            the result type
+     * @param task
+     *            the task the subtasks belong to
+     * @param subtasks
+     *            the subtasks to execute
+     * @return the results of the subtasks
+     * @throws OwsExceptionReport
+     *             if a subtask failed
+     */
+    <R> List<R> invokeAll(AbstractThreadableDatasourceCacheUpdate task, List<? extends Subtask<R>> subtasks)
+            throws OwsExceptionReport;
+
+    /**
+     * Part of a cache update task.
+     *
+     * @param <R>
+     *            the result type
+     */
+    @FunctionalInterface
+    interface Subtask<R> {
+        R execute(Session session) throws OwsExceptionReport;
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.n52.iceland.exception.ows.concrete.GenericThrowableWrapperException;
+import org.n52.series.db.old.HibernateSessionStore;
+import org.n52.shetland.ogc.ows.exception.CompositeOwsException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes {@link AbstractThreadableDatasourceCacheUpdate}s on a work-stealing {@link ForkJoinPool}. Tasks are
+ * queued in descending order of their {@link AbstractThreadableDatasourceCacheUpdate#getEstimatedCost() estimated
+ * cost} and started in that order, so that expensive tasks are started first and do not dominate the tail of the
+ * update. Tasks can split their work into subtasks using the {@link CacheUpdateSubtaskExecutor}, idle workers steal
+ * these subtasks. The number of concurrently used sessions is bounded independently of the parallelism.
+ *
+ * @since 6.1.2
+ */
+class CacheUpdateTaskScheduler implements CacheUpdateSubtaskExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheUpdateTaskScheduler.class);
+
+    private static final int SLOWEST_TASKS_TO_LOG = 5;
+
+    private final int parallelism;
+
+    private final String threadGroupName;
+
+    private final SessionPool sessionPool;
+
+    private final AtomicInteger workerCount = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param parallelism
+     *            the number of worker threads
+     * @param maxSessions
+     *            the maximum number of concurrently used sessions, one session per worker thread if {@code < 1}
+     * @param threadGroupName
+     *            the name prefix of the worker threads
+     * @param sessionStore
+     *            the session store
+     */
+    CacheUpdateTaskScheduler(int parallelism, int maxSessions, String threadGroupName,
+            HibernateSessionStore sessionStore) {
+        this.parallelism = Math.max(1, parallelism);
+        this.threadGroupName = threadGroupName;
+        this.sessionPool = new SessionPool(sessionStore, maxSessions > 0 ? maxSessions : this.parallelism);
+    }
+
+    /**
+     * Executes the tasks and blocks until all of them have finished. Each task is prepared with {@code pre} and
+     * gets a session assigned for the duration of its execution. Errors are reported to the task's error list.
+     *
+     * @param tasks
+     *            the tasks to execute
+     * @param pre
+     *            callback to initialize a task before its execution
+     */
+    <T extends AbstractThreadableDatasourceCacheUpdate> void execute(T[] tasks, TaskPreparation<? super T> pre) {
+        List<T> ordered = new ArrayList<>(Arrays.asList(tasks));
+        ordered.sort(Comparator.comparingLong(AbstractThreadableDatasourceCacheUpdate::getEstimatedCost)
+                .reversed());
+        List<TaskTiming> timings = Collections.synchronizedList(new ArrayList<>(ordered.size()));
+        // FIFO mode, so the tasks are started in the order of their estimated cost
+        ForkJoinPool pool = new ForkJoinPool(parallelism, this::newWorker, null, true);
+        try {
+            LOGGER.debug("Scheduling {} cache update tasks on {} threads using at most {} sessions", ordered.size(),
+                    parallelism, sessionPool.getMaxSessions());
+            List<ForkJoinTask<?>> submitted = new ArrayList<>(ordered.size());
+            for (T task : ordered) {
+                submitted.add(pool.submit(() -> run(task, pre, timings)));
+            }
+            for (ForkJoinTask<?> task : submitted) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    LOGGER.error("Error while executing cache update task", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for the cache update tasks", e);
+            pool.shutdownNow();
+        } finally {
+            pool.shutdown();
+            sessionPool.close();
+        }
+        logTimings(timings);
+    }
+
+    @Override
+    public <R> List<R> invokeAll(AbstractThreadableDatasourceCacheUpdate task,
+            List<? extends Subtask<R>> subtasks) throws OwsExceptionReport {
+        List<SubtaskExecution<R>> executions = new ArrayList<>(subtasks.size());
+        for (Subtask<R> subtask : subtasks) {
+            executions.add(new SubtaskExecution<>(subtask));
+        }
+        // the subtasks may need all sessions, so the task must not hold one while waiting for them
+        Session session = task.getSession();
+        task.setSession(null);
+        if (session != null) {
+            sessionPool.release(session);
+        }
+        try {
+            ForkJoinTask.invokeAll(executions);
+        } finally {
+            try {
+                task.setSession(sessionPool.acquire());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                task.getErrors().add(new GenericThrowableWrapperException(e)
+                        .withMessage("Interrupted while waiting for a session for %s!", task));
+            }
+        }
+        List<R> results = new ArrayList<>(executions.size());
+        List<OwsExceptionReport> errors = new ArrayList<>(0);
+        for (SubtaskExecution<R> execution : executions) {
+            if (execution.getError() != null) {
+                errors.add(execution.getError());
+            } else {
+                results.add(execution.join());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new CompositeOwsException(errors);
+        }
+        return results;
+    }
+
+    private <T extends AbstractThreadableDatasourceCacheUpdate> void run(T task, TaskPreparation<? super T> pre,
+            List<TaskTiming> timings) {
+        long start = System.nanoTime();
+        try {
+            pre.prepare(task);
+            task.setSession(sessionPool.acquire());
+            task.setSubtaskExecutor(this);
+            task.execute();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.getErrors().add(new GenericThrowableWrapperException(e)
+                    .withMessage("Interrupted while waiting for a session for %s!", task));
+        } catch (RuntimeException e) {
+            LOGGER.error("Error while executing cache update task {}", task, e);
+            task.getErrors().add(new GenericThrowableWrapperException(e)
+                    .withMessage("Error while executing cache update task %s!", task));
+        } finally {
+            // the session may have been exchanged while the subtasks of the task were executed
+            Session session = task.getSession();
+            task.setSession(null);
+            task.setSubtaskExecutor(null);
+            if (session != null) {
+                sessionPool.release(session);
+            }
+            long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            timings.add(new TaskTiming(task, duration));
+            LOGGER.debug("Executed cache update task {} (estimated cost: {}) in {} ms", task,
+                    task.getEstimatedCost(), duration);
+        }
+    }
+
+    private ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(String.format("%s-%d", threadGroupName, workerCount.incrementAndGet()));
+        return thread;
+    }
+
+    private void logTimings(List<TaskTiming> timings) {
+        if (LOGGER.isDebugEnabled() && !timings.isEmpty()) {
+            List<TaskTiming> sorted = new ArrayList<>(timings);
+            sorted.sort(Comparator.comparingLong(TaskTiming::getDuration).reversed());
+            LOGGER.debug("Slowest cache update tasks: {}",
+                    sorted.subList(0, Math.min(SLOWEST_TASKS_TO_LOG, sorted.size())));
+        }
+    }
+
+    /**
+     * Callback to initialize a task before its execution.
+     */
+    @FunctionalInterface
+    interface TaskPreparation<T extends AbstractThreadableDatasourceCacheUpdate> {
+        void prepare(T task);
+    }
+
+    /**
+     * Bounded pool of sessions. Sessions are created lazily up to the maximum and cleared before they are handed
+     * to the next task.
+     */
+    private static final class SessionPool {
+
+        private final HibernateSessionStore sessionStore;
+
+        private final int maxSessions;
+
+        private final Semaphore permits;
+
+        private final BlockingQueue<Session> idle = new LinkedBlockingQueue<>();
+
+        private final List<Session> created = Collections.synchronizedList(new ArrayList<>());
+
+        SessionPool(HibernateSessionStore sessionStore, int maxSessions) {
+            this.sessionStore = sessionStore;
+            this.maxSessions = maxSessions;
+            this.permits = new Semaphore(maxSessions, true);
+        }
+
+        int getMaxSessions() {
+            return maxSessions;
+        }
+
+        Session acquire() throws InterruptedException {
+            permits.acquire();
+            try {
+                Session session = idle.poll();
+                if (session == null) {
+                    session = sessionStore.getSession();
+                    created.add(session);
+                }
+                return session;
+            } catch (HibernateException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        void release(Session session) {
+            try {
+                session.clear();
+            } catch (Exception e) {
+                LOGGER.error("Error while returning connection after cache update!", e);
+            }
+            idle.offer(session);
+            permits.release();
+        }
+
+        void close() {
+            synchronized (created) {
+                for (Session session : created) {
+                    try {
+                        sessionStore.returnSession(session);
+                    } catch (Exception e) {
+                        LOGGER.error("Error while returning connection after cache update!", e);
+                    }
+                }
+                created.clear();
+            }
+            idle.clear();
+        }
+    }
+
+    /**
+     * Executes a subtask with a session of the pool and keeps its error, so that the remaining subtasks are not
+     * cancelled.
+     */
+    private final class SubtaskExecution<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Subtask<R> subtask;
+
+        private transient OwsExceptionReport error;
+
+        SubtaskExecution(Subtask<R> subtask) {
+            this.subtask = subtask;
+        }
+
+        OwsExceptionReport getError() {
+            return error;
+        }
+
+        @Override
+        protected R compute() {
+            Session session = null;
+            try {
+                session = sessionPool.acquire();
+                return subtask.execute(session);
+            } catch (OwsExceptionReport e) {
+                this.error = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.error = new GenericThrowableWrapperException(e)
+                        .withMessage("Interrupted while waiting for a session for a subtask!");
+            } catch (RuntimeException e) {
+                LOGGER.error("Error while executing cache update subtask", e);
+                this.error = new GenericThrowableWrapperException(e)
+                        .withMessage("Error while executing cache update subtask!");
+            } finally {
+                if (session != null) {
+                    sessionPool.release(session);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class TaskTiming {
+
+        private final AbstractThreadableDatasourceCacheUpdate task;
+
+        private final long duration;
+
+        TaskTiming(AbstractThreadableDatasourceCacheUpdate task, long duration) {
+            this.task = task;
+            this.duration = duration;
+        }
+
+        long getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d ms", task, duration);
+        }
+    }
+}
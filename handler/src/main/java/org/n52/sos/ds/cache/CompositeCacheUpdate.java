@@ -57,6 +57,7 @@ public abstract class CompositeCacheUpdate extends AbstractDatasourceCacheUpdate
                 action.setErrors(getErrors());
                 action.setSession(getSession());
                 action.setDbQueryFactory(getDbQueryFactory());
+                action.setMaxSessions(getMaxSessions());
             }
 
             @Override
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.cache;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.criterion.Projections;
+import org.hibernate.sql.JoinType;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.DescribableEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the state of all datasets to determine the offerings, procedures and features of interest that
+ * have to be updated in the cache. The state of a dataset consists of its relations, its temporal extent and its
+ * flags. It is queried with a single projection query, so determining the modifications is cheap compared to a
+ * complete cache update.
+ *
+ * @since 6.1.2
+ */
+public class DatasetChangeTracker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetChangeTracker.class);
+
+    private static final String OFFERING_ALIAS = "off";
+
+    private static final String PROCEDURE_ALIAS = "proc";
+
+    private static final String FEATURE_ALIAS = "feat";
+
+    private Map<Long, DatasetState> states;
+
+    /**
+     * Record the current state of the datasets, e.g. before a complete cache update.
+     *
+     * @param session
+     *            the session
+     */
+    public synchronized void record(Session session) {
+        try {
+            this.states = query(session);
+        } catch (HibernateException e) {
+            LOGGER.warn("Could not record the state of the datasets, changes can not be tracked!", e);
+            this.states = null;
+        }
+    }
+
+    /**
+     * Discard the recorded state, the next call of {@link #update(Session)} will not be able to determine changes.
+     */
+    public synchronized void reset() {
+        this.states = null;
+    }
+
+    /**
+     * Determine the changes since the last recorded state and record the current state.
+     *
+     * @param session
+     *            the session
+     * @return the changes or an empty optional if the changes can not be determined, either because there is no
+     *         recorded state or because datasets were removed
+     */
+    public synchronized Optional<Changes> update(Session session) {
+        Map<Long, DatasetState> previous = this.states;
+        record(session);
+        Map<Long, DatasetState> current = this.states;
+        if (previous == null || current == null) {
+            return Optional.empty();
+        }
+        if (!current.keySet().containsAll(previous.keySet())) {
+            LOGGER.debug("Datasets were removed, changes can not be applied incrementally.");
+            return Optional.empty();
+        }
+        Changes changes = new Changes();
+        current.forEach((id, state) -> {
+            DatasetState old = previous.get(id);
+            if (!state.equals(old)) {
+                changes.add(state);
+                if (old != null) {
+                    // the relations of the dataset may have changed
+                    changes.add(old);
+                }
+            }
+        });
+        return Optional.of(changes);
+    }
+
+    private Map<Long, DatasetState> query(Session session) {
+        List<?> rows = session.createCriteria(DatasetEntity.class)
+                .createAlias(DatasetEntity.PROPERTY_OFFERING, OFFERING_ALIAS)
+                .createAlias(DatasetEntity.PROPERTY_PROCEDURE, PROCEDURE_ALIAS)
+                .createAlias(DatasetEntity.PROPERTY_FEATURE, FEATURE_ALIAS, JoinType.LEFT_OUTER_JOIN)
+                .setProjection(Projections.projectionList()
+                        .add(Projections.property(DatasetEntity.PROPERTY_ID))
+                        .add(Projections.property(alias(OFFERING_ALIAS)))
+                        .add(Projections.property(alias(PROCEDURE_ALIAS)))
+                        .add(Projections.property(alias(FEATURE_ALIAS)))
+                        .add(Projections.property(DatasetEntity.PROPERTY_FIRST_VALUE_AT))
+                        .add(Projections.property(DatasetEntity.PROPERTY_LAST_VALUE_AT))
+                        .add(Projections.property(DatasetEntity.PROPERTY_PUBLISHED))
+                        .add(Projections.property(DatasetEntity.PROPERTY_DELETED)))
+                .list();
+        Map<Long, DatasetState> result = new HashMap<>(rows.size());
+        for (Object row : rows) {
+            Object[] values = (Object[]) row;
+            result.put((Long) values[0], new DatasetState((String) values[1], (String) values[2],
+                    (String) values[3], (Date) values[4], (Date) values[5], (Boolean) values[6],
+                    (Boolean) values[7]));
+        }
+        return result;
+    }
+
+    private static String alias(String alias) {
+        return alias + "." + DescribableEntity.IDENTIFIER;
+    }
+
+    /**
+     * The identifiers of the offerings, procedures and features of interest with modified datasets.
+     */
+    public static final class Changes {
+        private final Set<String> offerings = new HashSet<>();
+
+        private final Set<String> procedures = new HashSet<>();
+
+        private final Set<String> features = new HashSet<>();
+
+        private void add(DatasetState state) {
+            this.offerings.add(state.offering);
+            this.procedures.add(state.procedure);
+            if (state.feature != null) {
+                this.features.add(state.feature);
+            }
+        }
+
+        public Set<String> getOfferings() {
+            return Collections.unmodifiableSet(offerings);
+        }
+
+        public Set<String> getProcedures() {
+            return Collections.unmodifiableSet(procedures);
+        }
+
+        public Set<String> getFeatures() {
+            return Collections.unmodifiableSet(features);
+        }
+
+        public boolean isEmpty() {
+            return offerings.isEmpty() && procedures.isEmpty() && features.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d offering(s), %d procedure(s) and %d feature(s)", offerings.size(),
+                    procedures.size(), features.size());
+        }
+    }
+
+    private static final class DatasetState {
+        private final String offering;
+
+        private final String procedure;
+
+        private final String feature;
+
+        private final Long firstValueAt;
+
+        private final Long lastValueAt;
+
+        private final Boolean published;
+
+        private final Boolean deleted;
+
+        DatasetState(String offering, String procedure, String feature, Date firstValueAt, Date lastValueAt,
+                Boolean published, Boolean deleted) {
+            this.offering = offering;
+            this.procedure = procedure;
+            this.feature = feature;
+            // compare the instants, the values may be of different Date subclasses
+            this.firstValueAt = firstValueAt == null ? null : firstValueAt.getTime();
+            this.lastValueAt = lastValueAt == null ? null : lastValueAt.getTime();
+            this.published = published;
+            this.deleted = deleted;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(offering, procedure, feature, firstValueAt, lastValueAt, published, deleted);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DatasetState)) {
+                return false;
+            }
+            DatasetState other = (DatasetState) obj;
+            return Objects.equals(offering, other.offering) && Objects.equals(procedure, other.procedure)
+                    && Objects.equals(feature, other.feature) && Objects.equals(firstValueAt, other.firstValueAt)
+                    && Objects.equals(lastValueAt, other.lastValueAt) && Objects.equals(published, other.published)
+                    && Objects.equals(deleted, other.deleted);
+        }
+    }
+}
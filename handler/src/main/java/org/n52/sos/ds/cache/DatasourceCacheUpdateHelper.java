@@ -27,15 +27,22 @@
  */
 package org.n52.sos.ds.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.hibernate.Session;
+import org.hibernate.criterion.Restrictions;
 import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.DescribableEntity;
 import org.n52.series.db.beans.ProcedureEntity;
 import org.n52.shetland.util.CollectionHelper;
+import org.n52.sos.ds.hibernate.util.HibernateConstants;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -45,6 +52,31 @@ import com.google.common.collect.Sets;
  */
 public interface DatasourceCacheUpdateHelper {
 
+    /**
+     * Load the entities with the given identifiers. The identifiers are queried in chunks that respect the
+     * maximum size of SQL {@code IN} lists.
+     *
+     * @param session
+     *            the session
+     * @param type
+     *            the entity type
+     * @param identifiers
+     *            the identifiers
+     * @param <T>
+     *            the entity type
+     * @return the entities
+     */
+    @SuppressWarnings("unchecked")
+    default <T extends DescribableEntity> List<T> getEntitiesByIdentifier(Session session, Class<T> type,
+            Collection<String> identifiers) {
+        List<T> entities = new ArrayList<>(identifiers.size());
+        for (List<String> chunk : Iterables.partition(identifiers, HibernateConstants.LIMIT_EXPRESSION_DEPTH)) {
+            entities.addAll(session.createCriteria(type).add(Restrictions.in(DescribableEntity.IDENTIFIER, chunk))
+                    .list());
+        }
+        return entities;
+    }
+
     default Set<String> getAllOfferingIdentifiersFromDatasetEntitys(Collection<DatasetEntity> datasets) {
         Set<String> offerings = Sets.newTreeSet();
         if (datasets != null && !datasets.isEmpty()) {
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.cache;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+
+import org.n52.sensorweb.server.db.old.dao.DbQueryFactory;
+import org.n52.series.db.old.HibernateSessionStore;
+import org.n52.sos.ds.cache.base.FeatureOfInterestCacheUpdate;
+import org.n52.sos.ds.cache.base.ObservationTimeCacheUpdate;
+import org.n52.sos.ds.cache.base.OfferingCacheUpdate;
+import org.n52.sos.ds.cache.base.ProcedureCacheUpdate;
+import org.n52.sos.util.GeometryHandler;
+
+/**
+ * Updates the cached data of the offerings, procedures and features of interest whose datasets have been modified.
+ * The global temporal extent is recalculated as it may be affected by any modification.
+ *
+ * @see DatasetChangeTracker
+ * @since 6.1.2
+ */
+public class IncrementalCacheUpdate extends CompositeCacheUpdate {
+
+    public IncrementalCacheUpdate(int threadCount,
+                                  Locale defaultLocale,
+                                  HibernateSessionStore sessionStore,
+                                  GeometryHandler geometryHandler,
+                                  DbQueryFactory dbQueryFactory,
+                                  DatasetChangeTracker.Changes changes) {
+        super(dbQueryFactory, createUpdates(threadCount, defaultLocale, sessionStore, geometryHandler,
+                                            dbQueryFactory, changes));
+    }
+
+    private static AbstractDatasourceCacheUpdate[] createUpdates(int threadCount,
+                                                                 Locale defaultLocale,
+                                                                 HibernateSessionStore sessionStore,
+                                                                 GeometryHandler geometryHandler,
+                                                                 DbQueryFactory dbQueryFactory,
+                                                                 DatasetChangeTracker.Changes changes) {
+        // the updates process all entities if no identifiers are given, so skip them in this case
+        List<AbstractDatasourceCacheUpdate> updates = new LinkedList<>();
+        if (!changes.getFeatures().isEmpty()) {
+            updates.add(new FeatureOfInterestCacheUpdate(changes.getFeatures()));
+        }
+        updates.add(new ObservationTimeCacheUpdate());
+        if (!changes.getOfferings().isEmpty()) {
+            updates.add(new OfferingCacheUpdate(threadCount,
+                                                defaultLocale,
+                                                geometryHandler,
+                                                sessionStore,
+                                                changes.getOfferings(),
+                                                dbQueryFactory));
+        }
+        if (!changes.getProcedures().isEmpty()) {
+            updates.add(new ProcedureCacheUpdate(threadCount, sessionStore, changes.getProcedures(),
+                                                 dbQueryFactory));
+        }
+        return updates.toArray(new AbstractDatasourceCacheUpdate[updates.size()]);
+    }
+}
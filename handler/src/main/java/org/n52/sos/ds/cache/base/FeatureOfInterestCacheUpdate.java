@@ -27,6 +27,7 @@
  */
 package org.n52.sos.ds.cache.base;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -41,6 +42,7 @@ import org.n52.series.db.old.dao.DatasetDao;
 import org.n52.series.db.old.dao.FeatureDao;
 import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.sos.ds.cache.AbstractThreadableDatasourceCacheUpdate;
+import org.n52.sos.ds.cache.DatasourceCacheUpdateHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,16 +54,34 @@ import com.google.common.collect.Sets;
  *
  * @since 4.0.0
  */
-public class FeatureOfInterestCacheUpdate extends AbstractThreadableDatasourceCacheUpdate {
+public class FeatureOfInterestCacheUpdate extends AbstractThreadableDatasourceCacheUpdate
+        implements DatasourceCacheUpdateHelper {
     private static final Logger LOGGER = LoggerFactory.getLogger(FeatureOfInterestCacheUpdate.class);
 
+    private final Collection<String> featureIdsToUpdate = new ArrayList<>();
+
+    public FeatureOfInterestCacheUpdate() {
+        this(null);
+    }
+
+    /**
+     * @param featureIdsToUpdate
+     *            the identifiers of the features to update, all features are updated if {@code null} or empty
+     */
+    public FeatureOfInterestCacheUpdate(Collection<String> featureIdsToUpdate) {
+        if (featureIdsToUpdate != null) {
+            this.featureIdsToUpdate.addAll(featureIdsToUpdate);
+        }
+    }
+
     @Override
     public void execute() {
         LOGGER.debug("Executing FeatureOfInterestCacheUpdate");
         startStopwatch();
         try {
-            Collection<FeatureEntity> features =
-                    new FeatureDao(getSession()).get(createDbQuery(IoParameters.createDefaults()));
+            Collection<FeatureEntity> features = featureIdsToUpdate.isEmpty()
+                    ? new FeatureDao(getSession()).get(createDbQuery(IoParameters.createDefaults()))
+                    : getEntitiesByIdentifier(getSession(), FeatureEntity.class, featureIdsToUpdate);
             for (FeatureEntity featureEntity : features) {
                 String identifier = featureEntity.getIdentifier();
                 getCache().addFeatureOfInterest(identifier);
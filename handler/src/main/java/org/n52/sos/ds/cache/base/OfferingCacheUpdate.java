@@ -29,10 +29,12 @@ package org.n52.sos.ds.cache.base;
 
 import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
 
 import org.n52.iceland.exception.ows.concrete.GenericThrowableWrapperException;
 import org.n52.io.request.IoParameters;
 import org.n52.sensorweb.server.db.old.dao.DbQueryFactory;
+import org.n52.series.db.beans.DatasetEntity;
 import org.n52.series.db.beans.OfferingEntity;
 import org.n52.series.db.old.HibernateSessionStore;
 import org.n52.series.db.old.dao.OfferingDao;
@@ -98,6 +100,7 @@ public class OfferingCacheUpdate extends AbstractQueueingDatasourceCacheUpdate<O
                 if (offeringsIdToUpdate == null || offeringsIdToUpdate.isEmpty()) {
                     return offeringDAO.get(createDbQuery(IoParameters.createDefaults()));
                 }
+                return getEntitiesByIdentifier(getSession(), OfferingEntity.class, offeringsIdToUpdate);
             }
         } catch (Exception e) {
             getErrors().add(new GenericThrowableWrapperException(e)
@@ -123,9 +126,12 @@ public class OfferingCacheUpdate extends AbstractQueueingDatasourceCacheUpdate<O
     @Override
     protected OfferingCacheUpdateTask[] getUpdatesToExecute() throws OwsExceptionReport {
         Collection<OfferingCacheUpdateTask> offeringUpdateTasks = Lists.newArrayList();
+        Map<Long, Long> datasetCounts = getDatasetCounts(DatasetEntity.PROPERTY_OFFERING);
         for (OfferingEntity offering : getOfferingsToUpdate()) {
-            offeringUpdateTasks
-                    .add(new OfferingCacheUpdateTask(offering.getId(), this.defaultLanguage, geometryHandler));
+            OfferingCacheUpdateTask task =
+                    new OfferingCacheUpdateTask(offering.getId(), this.defaultLanguage, geometryHandler);
+            task.setEstimatedCost(datasetCounts.getOrDefault(offering.getId(), 1L));
+            offeringUpdateTasks.add(task);
         }
         return offeringUpdateTasks.toArray(new OfferingCacheUpdateTask[offeringUpdateTasks.size()]);
     }
@@ -27,8 +27,10 @@
  */
 package org.n52.sos.ds.cache.base;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
@@ -50,16 +52,19 @@ import org.n52.series.db.beans.dataset.DatasetType;
 import org.n52.series.db.beans.i18n.I18nEntity;
 import org.n52.series.db.old.dao.DatasetDao;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
-import org.n52.shetland.util.CollectionHelper;
 import org.n52.shetland.util.DateTimeHelper;
 import org.n52.shetland.util.ReferencedEnvelope;
 import org.n52.sos.ds.ApiQueryHelper;
 import org.n52.sos.ds.DatabaseQueryHelper;
 import org.n52.sos.ds.cache.AbstractThreadableDatasourceCacheUpdate;
+import org.n52.sos.ds.cache.CacheUpdateSubtaskExecutor;
 import org.n52.sos.ds.cache.DatasourceCacheUpdateHelper;
 import org.n52.sos.ds.cache.ProcedureFlag;
 import org.n52.sos.util.GeometryHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -75,6 +80,15 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUpdate
         implements ApiQueryHelper, DatabaseQueryHelper, DatasourceCacheUpdateHelper {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(OfferingCacheUpdateTask.class);
+
+    /**
+     * The number of datasets evaluated by one subtask, offerings with more datasets are split.
+     */
+    private static final int DATASETS_PER_SUBTASK = 100;
+
+    private static final String DATASET_IDS = "datasetIds";
+
     private final Long offeringId;
 
     private final Locale defaultLanguage;
@@ -123,11 +137,6 @@ public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUp
         // since they are performed once per offering
 
         getCache().addOffering(identifier);
-        if (datasets != null && !datasets.isEmpty() && datasets.stream()
-                .anyMatch(d -> d.isPublished() || d.getDatasetType()
-                        .equals(DatasetType.not_initialized) && !d.isDeleted())) {
-            getCache().addPublishedOffering(identifier);
-        }
         addOfferingNamesAndDescriptionsToCache(offering, session);
 
         if (offering.hasParents()) {
@@ -136,21 +145,6 @@ public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUp
             getCache().addPublishedOfferings(parents);
         }
 
-        // only check once, check flag in other methods
-        // Procedures
-        final Map<ProcedureFlag, Set<String>> procedureIdentifiers = getProcedureIdentifier();
-
-        getCache().setProceduresForOffering(identifier, procedureIdentifiers.get(ProcedureFlag.PARENT));
-        Set<String> hiddenChilds = procedureIdentifiers.get(ProcedureFlag.HIDDEN_CHILD);
-        if (!hiddenChilds.isEmpty()) {
-            getCache().setHiddenChildProceduresForOffering(identifier, hiddenChilds);
-        }
-
-        // Observable properties
-        getCache().setObservablePropertiesForOffering(identifier, getObservablePropertyIdentifier());
-
-        // Observation types
-        getCache().setObservationTypesForOffering(identifier, getObservationTypes(datasets));
         if (offering.hasObservationTypes()) {
             getCache().setAllowedObservationTypeForOffering(identifier, toStringSet(offering.getObservationTypes()));
         }
@@ -160,20 +154,10 @@ public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUp
             getCache().setRelatedFeaturesForOffering(identifier, getRelatedFeatures(offering.getRelatedFeatures()));
         }
 
-        // Features of Interest
-        getCache().setFeaturesOfInterestForOffering(identifier, getAllFeatureIdentifiersFromDatasets(datasets));
-        getCache().setFeatureOfInterestTypesForOffering(identifier, getFeatureTypes(datasets));
         if (offering.hasFeatureTypes()) {
             getCache().setAllowedFeatureOfInterestTypeForOffering(identifier, toStringSet(offering.getFeatureTypes()));
         }
 
-        // Spatial Envelope
-        ReferencedEnvelope envelop = getEnvelopeForOffering(offering);
-        getCache().setEnvelopeForOffering(identifier, envelop);
-        if (envelop.isSetEnvelope()) {
-            getCache().updateGlobalEnvelope(envelop.getEnvelope());
-        }
-
         // Temporal extent
         // TODO get from datasets
         getCache().setMinPhenomenonTimeForOffering(identifier,
@@ -182,6 +166,102 @@ public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUp
                 DateTimeHelper.makeDateTime(offering.getSamplingTimeEnd()));
         getCache().setMinResultTimeForOffering(identifier, DateTimeHelper.makeDateTime(offering.getResultTimeStart()));
         getCache().setMaxResultTimeForOffering(identifier, DateTimeHelper.makeDateTime(offering.getResultTimeEnd()));
+
+        ReferencedEnvelope offeringEnvelope = null;
+        if (offering.isSetGeometry()) {
+            offeringEnvelope = new ReferencedEnvelope(
+                    geometryHandler.switchCoordinateAxisFromToDatasourceIfNeeded(offering.getGeometry()));
+        }
+
+        // the offering is detached afterwards if the datasets are evaluated by subtasks
+        DatasetSummary summary = summarizeDatasets();
+
+        if (summary.isPublished()) {
+            getCache().addPublishedOffering(identifier);
+        }
+
+        // Procedures
+        getCache().setProceduresForOffering(identifier, summary.getProcedures());
+        if (!summary.getHiddenChildProcedures().isEmpty()) {
+            getCache().setHiddenChildProceduresForOffering(identifier, summary.getHiddenChildProcedures());
+        }
+
+        // Observable properties
+        getCache().setObservablePropertiesForOffering(identifier, summary.getObservableProperties());
+
+        // Observation types
+        getCache().setObservationTypesForOffering(identifier, summary.getObservationTypes());
+
+        // Features of Interest
+        getCache().setFeaturesOfInterestForOffering(identifier, summary.getFeatures());
+        getCache().setFeatureOfInterestTypesForOffering(identifier, summary.getFeatureTypes());
+
+        // Spatial Envelope
+        ReferencedEnvelope envelop = offeringEnvelope != null ? offeringEnvelope : summary.getEnvelope();
+        getCache().setEnvelopeForOffering(identifier, envelop);
+        if (envelop.isSetEnvelope()) {
+            getCache().updateGlobalEnvelope(envelop.getEnvelope());
+        }
+    }
+
+    /**
+     * Evaluate the datasets of the offering. The datasets of large offerings are split into chunks that are
+     * evaluated by subtasks with their own sessions, the results are merged so that the cache is updated once.
+     *
+     * @return the merged summary of the datasets
+     * @throws OwsExceptionReport
+     *             if the evaluation fails
+     */
+    private DatasetSummary summarizeDatasets() throws OwsExceptionReport {
+        if (datasets.size() <= DATASETS_PER_SUBTASK || getSubtaskExecutor() == null) {
+            return summarize(datasets);
+        }
+        List<Long> ids = datasets.stream().map(DatasetEntity::getId).collect(Collectors.toList());
+        this.datasets.clear();
+        List<CacheUpdateSubtaskExecutor.Subtask<DatasetSummary>> subtasks = new ArrayList<>();
+        for (List<Long> chunk : Lists.partition(ids, DATASETS_PER_SUBTASK)) {
+            subtasks.add(session -> summarize(getDatasets(session, chunk)));
+        }
+        LOGGER.debug("Splitting the {} datasets of offering {} into {} subtasks", ids.size(), identifier,
+                subtasks.size());
+        DatasetSummary summary = new DatasetSummary();
+        getSubtaskExecutor().invokeAll(this, subtasks).forEach(summary::merge);
+        return summary;
+    }
+
+    private List<DatasetEntity> getDatasets(Session session, List<Long> ids) {
+        return session
+                .createQuery(String.format("from %s d where d.%s in :%s", DatasetEntity.class.getSimpleName(),
+                        DatasetEntity.PROPERTY_ID, DATASET_IDS), DatasetEntity.class)
+                .setParameter(DATASET_IDS, ids).list();
+    }
+
+    private DatasetSummary summarize(Collection<DatasetEntity> datasets) throws OwsExceptionReport {
+        DatasetSummary summary = new DatasetSummary();
+        if (datasets == null || datasets.isEmpty()) {
+            return summary;
+        }
+        summary.published = datasets.stream().anyMatch(d -> d.isPublished()
+                || d.getDatasetType().equals(DatasetType.not_initialized) && !d.isDeleted());
+        summary.procedures.addAll(getAllProcedureIdentifiersFromDatasets(datasets, ProcedureFlag.PARENT));
+        summary.hiddenChildProcedures
+                .addAll(getAllProcedureIdentifiersFromDatasets(datasets, ProcedureFlag.HIDDEN_CHILD));
+        summary.observableProperties.addAll(getAllObservablePropertyIdentifiersFromDatasets(datasets));
+        summary.observationTypes.addAll(getObservationTypes(datasets));
+        summary.features.addAll(getAllFeatureIdentifiersFromDatasets(datasets));
+        summary.featureTypes.addAll(getFeatureTypes(datasets));
+        summary.hasDatasets = true;
+        for (DatasetEntity de : datasets) {
+            if (de.isSetFeature() && de.getFeature().isSetGeometry()
+                    && !de.getFeature().getGeometryEntity().isEmpty()) {
+                if (summary.srid < 0) {
+                    summary.srid = de.getFeature().getGeometryEntity().getGeometry().getSRID();
+                }
+                summary.envelope.expandToInclude(geometryHandler.switchCoordinateAxisFromToDatasourceIfNeeded(
+                        de.getFeature().getGeometryEntity().getGeometry()).getEnvelopeInternal());
+            }
+        }
+        return summary;
     }
 
     protected void addOfferingNamesAndDescriptionsToCache(OfferingEntity offering, Session session)
@@ -252,19 +332,6 @@ public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUp
         return parentOfferings;
     }
 
-    protected Map<ProcedureFlag, Set<String>> getProcedureIdentifier() throws OwsExceptionReport {
-        Set<String> procedures = new HashSet<>(0);
-        Set<String> hiddenChilds = new HashSet<>(0);
-        if (CollectionHelper.isNotEmpty(datasets)) {
-            procedures.addAll(getAllProcedureIdentifiersFromDatasets(datasets, ProcedureFlag.PARENT));
-            hiddenChilds.addAll(getAllProcedureIdentifiersFromDatasets(datasets, ProcedureFlag.HIDDEN_CHILD));
-        }
-        Map<ProcedureFlag, Set<String>> allProcedures = Maps.newEnumMap(ProcedureFlag.class);
-        allProcedures.put(ProcedureFlag.PARENT, procedures);
-        allProcedures.put(ProcedureFlag.HIDDEN_CHILD, hiddenChilds);
-        return allProcedures;
-    }
-
     protected Collection<String> getValidFeaturesOfInterestFrom(Collection<String> featureOfInterestIdentifiers) {
         Set<String> features = new HashSet<>(featureOfInterestIdentifiers.size());
         for (String featureIdentifier : featureOfInterestIdentifiers) {
@@ -273,36 +340,6 @@ public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUp
         return features;
     }
 
-    protected Set<String> getObservablePropertyIdentifier() throws OwsExceptionReport {
-        if (CollectionHelper.isNotEmpty(datasets)) {
-            return getAllObservablePropertyIdentifiersFromDatasets(datasets);
-        } else {
-            return Sets.newHashSet();
-        }
-    }
-
-    protected ReferencedEnvelope getEnvelopeForOffering(OfferingEntity offering) throws OwsExceptionReport {
-        if (offering.isSetGeometry()) {
-            return new ReferencedEnvelope(
-                    geometryHandler.switchCoordinateAxisFromToDatasourceIfNeeded(offering.getGeometry()));
-        } else if (datasets != null && !datasets.isEmpty()) {
-            Envelope e = new Envelope();
-            int srid = -1;
-            for (DatasetEntity de : datasets) {
-                if (de.isSetFeature() && de.getFeature().isSetGeometry()
-                        && !de.getFeature().getGeometryEntity().isEmpty()) {
-                    if (srid < 0) {
-                        srid = de.getFeature().getGeometryEntity().getGeometry().getSRID();
-                    }
-                    e.expandToInclude(geometryHandler.switchCoordinateAxisFromToDatasourceIfNeeded(
-                            de.getFeature().getGeometryEntity().getGeometry()).getEnvelopeInternal());
-                }
-            }
-            return new ReferencedEnvelope(e, srid);
-        }
-        return new ReferencedEnvelope();
-    }
-
     protected Collection<String> getRelatedFeatures(Set<RelatedFeatureEntity> relatedFeatures) {
         return relatedFeatures.stream().map(rf -> rf.getFeature().getIdentifier()).collect(Collectors.toSet());
     }
@@ -325,4 +362,83 @@ public class OfferingCacheUpdateTask extends AbstractThreadableDatasourceCacheUp
                     .withMessage("Error while processing offering cache update task for '%s'!", identifier));
         }
     }
+
+    @Override
+    public String toString() {
+        return String.format("%s [offeringId=%s]", getClass().getSimpleName(), offeringId);
+    }
+
+    /**
+     * The values of the datasets of an offering that are stored in the cache, mergeable to combine the results of
+     * subtasks.
+     */
+    static final class DatasetSummary {
+
+        private boolean published;
+
+        private boolean hasDatasets;
+
+        private final Set<String> procedures = new HashSet<>(0);
+
+        private final Set<String> hiddenChildProcedures = new HashSet<>(0);
+
+        private final Set<String> observableProperties = Sets.newTreeSet();
+
+        private final Set<String> observationTypes = new HashSet<>(0);
+
+        private final Set<String> features = Sets.newTreeSet();
+
+        private final Set<String> featureTypes = new HashSet<>(0);
+
+        private final Envelope envelope = new Envelope();
+
+        private int srid = -1;
+
+        boolean isPublished() {
+            return published;
+        }
+
+        Set<String> getProcedures() {
+            return procedures;
+        }
+
+        Set<String> getHiddenChildProcedures() {
+            return hiddenChildProcedures;
+        }
+
+        Set<String> getObservableProperties() {
+            return observableProperties;
+        }
+
+        Set<String> getObservationTypes() {
+            return observationTypes;
+        }
+
+        Set<String> getFeatures() {
+            return features;
+        }
+
+        Set<String> getFeatureTypes() {
+            return featureTypes;
+        }
+
+        ReferencedEnvelope getEnvelope() {
+            return hasDatasets ? new ReferencedEnvelope(envelope, srid) : new ReferencedEnvelope();
+        }
+
+        void merge(DatasetSummary other) {
+            published |= other.published;
+            hasDatasets |= other.hasDatasets;
+            procedures.addAll(other.procedures);
+            hiddenChildProcedures.addAll(other.hiddenChildProcedures);
+            observableProperties.addAll(other.observableProperties);
+            observationTypes.addAll(other.observationTypes);
+            features.addAll(other.features);
+            featureTypes.addAll(other.featureTypes);
+            envelope.expandToInclude(other.envelope);
+            if (srid < 0) {
+                srid = other.srid;
+            }
+        }
+    }
 }
@@ -29,9 +29,11 @@ package org.n52.sos.ds.cache.base;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 
 import org.n52.io.request.IoParameters;
 import org.n52.sensorweb.server.db.old.dao.DbQueryFactory;
+import org.n52.series.db.beans.DatasetEntity;
 import org.n52.series.db.beans.ProcedureEntity;
 import org.n52.series.db.old.HibernateSessionStore;
 import org.n52.series.db.old.dao.ProcedureDao;
@@ -57,6 +59,8 @@ public class ProcedureCacheUpdate extends AbstractQueueingDatasourceCacheUpdate<
 
     private Collection<ProcedureEntity> procedures = new ArrayList<>();
 
+    private final Collection<String> procedureIdsToUpdate = new ArrayList<>();
+
     /**
      * constructor
      *
@@ -65,8 +69,25 @@ public class ProcedureCacheUpdate extends AbstractQueueingDatasourceCacheUpdate<
      * @param dbQueryFactory The db query factory
      */
     public ProcedureCacheUpdate(int threads, HibernateSessionStore sessionStore, DbQueryFactory dbQueryFactory) {
+        this(threads, sessionStore, null, dbQueryFactory);
+    }
+
+    /**
+     * constructor
+     *
+     * @param threads
+     *            Thread count
+     * @param procedureIdsToUpdate
+     *            the identifiers of the procedures to update, all procedures are updated if {@code null} or empty
+     * @param dbQueryFactory The db query factory
+     */
+    public ProcedureCacheUpdate(int threads, HibernateSessionStore sessionStore,
+            Collection<String> procedureIdsToUpdate, DbQueryFactory dbQueryFactory) {
         super(threads, THREAD_GROUP_NAME, sessionStore);
         setDbQueryFactory(dbQueryFactory);
+        if (procedureIdsToUpdate != null) {
+            this.procedureIdsToUpdate.addAll(procedureIdsToUpdate);
+        }
     }
 
     @Override
@@ -74,7 +95,11 @@ public class ProcedureCacheUpdate extends AbstractQueueingDatasourceCacheUpdate<
         // single threaded updates
         LOGGER.debug("Executing ProcedureCacheUpdate (Single Threaded Tasks)");
         startStopwatch();
-        procedures = new ProcedureDao(getSession()).get(createDbQuery(IoParameters.createDefaults()));
+        if (procedureIdsToUpdate.isEmpty()) {
+            procedures = new ProcedureDao(getSession()).get(createDbQuery(IoParameters.createDefaults()));
+        } else {
+            procedures = getEntitiesByIdentifier(getSession(), ProcedureEntity.class, procedureIdsToUpdate);
+        }
         LOGGER.debug("Finished executing ProcedureCacheUpdate (Single Threaded Tasks) ({})", getStopwatchResult());
 
         // multi-threaded execution
@@ -87,9 +112,11 @@ public class ProcedureCacheUpdate extends AbstractQueueingDatasourceCacheUpdate<
     @Override
     protected ProcedureCacheUpdateTask[] getUpdatesToExecute() {
         Collection<ProcedureCacheUpdateTask> procedureUpdateTasks = Lists.newArrayList();
+        Map<Long, Long> datasetCounts = getDatasetCounts(DatasetEntity.PROPERTY_PROCEDURE);
         for (ProcedureEntity procedure : procedures) {
-            procedureUpdateTasks
-                    .add(new ProcedureCacheUpdateTask(procedure.getId()));
+            ProcedureCacheUpdateTask task = new ProcedureCacheUpdateTask(procedure.getId());
+            task.setEstimatedCost(datasetCounts.getOrDefault(procedure.getId(), 1L));
+            procedureUpdateTasks.add(task);
         }
         return procedureUpdateTasks.toArray(new ProcedureCacheUpdateTask[procedureUpdateTasks.size()]);
     }
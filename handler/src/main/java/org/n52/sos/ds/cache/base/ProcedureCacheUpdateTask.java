@@ -180,4 +180,9 @@ class ProcedureCacheUpdateTask extends AbstractThreadableDatasourceCacheUpdate i
                     .withMessage("Error while processing procedure cache update task!"));
         }
     }
+
+    @Override
+    public String toString() {
+        return String.format("%s [procedureId=%s]", getClass().getSimpleName(), procedureId);
+    }
 }
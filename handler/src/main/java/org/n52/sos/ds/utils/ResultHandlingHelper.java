@@ -27,10 +27,13 @@
  */
 package org.n52.sos.ds.utils;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -150,14 +153,61 @@ public class ResultHandlingHelper implements HibernateUnproxy {
                 noDataPlaceholder, valueOrder, true, null, session);
     }
 
+    /**
+     * Write result values from observations according to ResultEncoding and
+     * ResultStructure. Each observation is written to the writer as soon as
+     * it is created and evicted from the session afterwards, so the
+     * observations can be queried while they are written.
+     *
+     * @param observations
+     *            Observations to create result values from
+     * @param count
+     *            The number of result values, written as element count
+     * @param sosResultEncoding
+     *            The ResultEncoding
+     * @param sosResultStructure
+     *            The ResultStructure
+     * @param noDataPlaceholder
+     *            the no data placeholder
+     * @param session
+     *            The Hibernate session
+     * @param out
+     *            the writer
+     * @throws OwsExceptionReport
+     *             If creation fails
+     * @throws IOException
+     *             If writing fails
+     */
+    public void writeResultValuesFromObservations(final Iterator<DataEntity<?>> observations, long count,
+            final SosResultEncoding sosResultEncoding, final SosResultStructure sosResultStructure,
+            String noDataPlaceholder, Session session, Writer out) throws OwsExceptionReport, IOException {
+        if (observations.hasNext()) {
+            final Map<Integer, String> valueOrder = getValueOrderMap(sosResultStructure.get()
+                    .get());
+            final String blockSeparator = getBlockSeparator(sosResultEncoding.get()
+                    .get());
+            final StringBuilder builder = new StringBuilder();
+            addElementCount(builder, count, blockSeparator);
+            while (observations.hasNext()) {
+                DataEntity<?> observation = observations.next();
+                addResultValues(builder, observation, sosResultEncoding, sosResultStructure, noDataPlaceholder,
+                        valueOrder, null, session);
+                if (observations.hasNext()) {
+                    builder.append(blockSeparator);
+                }
+                out.append(builder);
+                builder.setLength(0);
+                session.evict(observation);
+            }
+        }
+    }
+
     private String createResultValuesFromObservations(final Collection<DataEntity<?>> observations,
             final SosResultEncoding sosResultEncoding, final SosResultStructure sosResultStructure,
             String noDataPlaceholder, Map<Integer, String> valueOrder, boolean addCount,
             VerticalMetadataEntity vertical, Session session) throws OwsExceptionReport {
         final StringBuilder builder = new StringBuilder();
         if (CollectionHelper.isNotEmpty(observations)) {
-            final String tokenSeparator = getTokenSeparator(sosResultEncoding.get()
-                    .get());
             final String blockSeparator = getBlockSeparator(sosResultEncoding.get()
                     .get());
             if (addCount) {
@@ -173,79 +223,9 @@ public class ResultHandlingHelper implements HibernateUnproxy {
                 addElementCount(builder, size, blockSeparator);
             }
             for (final DataEntity<?> obs : observations) {
-                DataEntity<?> observation = unproxy(obs, session);
-                if (observation instanceof ProfileDataEntity) {
-                    builder.append(createResultValuesFromObservations(((ProfileDataEntity) observation).getValue(),
-                            sosResultEncoding, sosResultStructure, noDataPlaceholder, valueOrder, false,
-                            ((ProfileDataEntity) observation).getDataset()
-                                    .getVerticalMetadata(),
-                            session));
-                    builder.append(blockSeparator);
-                } else if (observation instanceof TrajectoryDataEntity) {
-                    builder.append(createResultValuesFromObservations(((TrajectoryDataEntity) observation).getValue(),
-                            sosResultEncoding, sosResultStructure, noDataPlaceholder, valueOrder, false, null,
-                            session));
-                    builder.append(blockSeparator);
-                } else {
-                    for (final Entry<Integer, String> entry : valueOrder.entrySet()) {
-                        final String definition = entry.getValue();
-                        switch (definition) {
-                            case OmConstants.PHENOMENON_TIME:
-                                builder.append(getTimeStringForPhenomenonTime(observation.getSamplingTimeStart(),
-                                        observation.getSamplingTimeEnd(), noDataPlaceholder));
-                                break;
-                            case OmConstants.RESULT_TIME:
-                                if (observation.hasResultTime()) {
-                                    builder.append(getTimeStringForResultTime(observation.getResultTime(),
-                                            noDataPlaceholder));
-                                } else {
-                                    builder.append(getTimeStringForResultTime(observation.getSamplingTimeEnd(),
-                                            noDataPlaceholder));
-                                }
-                                break;
-                            case OmConstants.PARAM_NAME_SAMPLING_GEOMETRY:
-                                builder.append(
-                                        getSamplingGeometry(observation, tokenSeparator, sosResultStructure.get()
-                                                .get(), noDataPlaceholder));
-                                break;
-                            case OmConstants.OM_PARAMETER:
-                            case OmConstants.PARAMETER:
-                                builder.append(getParameters(observation, tokenSeparator, sosResultStructure.get()
-                                        .get(), vertical));
-                                break;
-                            case OM_PROCEDURE:
-                                if (observation.getDataset()
-                                        .getProcedure() != null && observation.getDataset()
-                                                .getProcedure()
-                                                .isSetIdentifier()) {
-                                    builder.append(observation.getDataset()
-                                            .getProcedure()
-                                            .getIdentifier());
-                                } else {
-                                    builder.append("");
-                                }
-                                break;
-                            case OM_FEATURE_OF_INTEREST:
-                                if (observation.getDataset()
-                                        .getFeature() != null && observation.getDataset()
-                                                .getFeature()
-                                                .isSetIdentifier()) {
-                                    builder.append(observation.getDataset()
-                                            .getFeature()
-                                            .getIdentifier());
-                                } else {
-                                    builder.append("");
-                                }
-                                break;
-                            default:
-                                builder.append(getValueAsStringForObservedProperty(observation, definition));
-                                break;
-                        }
-                        builder.append(tokenSeparator);
-                    }
-                    builder.delete(builder.lastIndexOf(tokenSeparator), builder.length());
-                    builder.append(blockSeparator);
-                }
+                addResultValues(builder, obs, sosResultEncoding, sosResultStructure, noDataPlaceholder, valueOrder,
+                        vertical, session);
+                builder.append(blockSeparator);
             }
             if (builder.length() > 0) {
                 builder.delete(builder.lastIndexOf(blockSeparator), builder.length());
@@ -254,6 +234,105 @@ public class ResultHandlingHelper implements HibernateUnproxy {
         return builder.toString();
     }
 
+    /**
+     * Add the result values of a single observation without trailing block separator
+     *
+     * @param builder
+     *            the builder to add the values to
+     * @param obs
+     *            Observation to create result values from
+     * @param sosResultEncoding
+     *            The ResultEncoding
+     * @param sosResultStructure
+     *            The ResultStructure
+     * @param noDataPlaceholder
+     *            the no data placeholder
+     * @param valueOrder
+     *            the order of the values
+     * @param vertical
+     *            the vertical metadata of profile observations
+     * @param session
+     *            The Hibernate session
+     * @throws OwsExceptionReport
+     *             If creation fails
+     */
+    private void addResultValues(StringBuilder builder, DataEntity<?> obs, SosResultEncoding sosResultEncoding,
+            SosResultStructure sosResultStructure, String noDataPlaceholder, Map<Integer, String> valueOrder,
+            VerticalMetadataEntity vertical, Session session) throws OwsExceptionReport {
+        final String tokenSeparator = getTokenSeparator(sosResultEncoding.get()
+                .get());
+        DataEntity<?> observation = unproxy(obs, session);
+        if (observation instanceof ProfileDataEntity) {
+            builder.append(createResultValuesFromObservations(((ProfileDataEntity) observation).getValue(),
+                    sosResultEncoding, sosResultStructure, noDataPlaceholder, valueOrder, false,
+                    ((ProfileDataEntity) observation).getDataset()
+                            .getVerticalMetadata(),
+                    session));
+        } else if (observation instanceof TrajectoryDataEntity) {
+            builder.append(createResultValuesFromObservations(((TrajectoryDataEntity) observation).getValue(),
+                    sosResultEncoding, sosResultStructure, noDataPlaceholder, valueOrder, false, null,
+                    session));
+        } else {
+            for (final Entry<Integer, String> entry : valueOrder.entrySet()) {
+                final String definition = entry.getValue();
+                switch (definition) {
+                    case OmConstants.PHENOMENON_TIME:
+                        builder.append(getTimeStringForPhenomenonTime(observation.getSamplingTimeStart(),
+                                observation.getSamplingTimeEnd(), noDataPlaceholder));
+                        break;
+                    case OmConstants.RESULT_TIME:
+                        if (observation.hasResultTime()) {
+                            builder.append(getTimeStringForResultTime(observation.getResultTime(),
+                                    noDataPlaceholder));
+                        } else {
+                            builder.append(getTimeStringForResultTime(observation.getSamplingTimeEnd(),
+                                    noDataPlaceholder));
+                        }
+                        break;
+                    case OmConstants.PARAM_NAME_SAMPLING_GEOMETRY:
+                        builder.append(
+                                getSamplingGeometry(observation, tokenSeparator, sosResultStructure.get()
+                                        .get(), noDataPlaceholder));
+                        break;
+                    case OmConstants.OM_PARAMETER:
+                    case OmConstants.PARAMETER:
+                        builder.append(getParameters(observation, tokenSeparator, sosResultStructure.get()
+                                .get(), vertical));
+                        break;
+                    case OM_PROCEDURE:
+                        if (observation.getDataset()
+                                .getProcedure() != null && observation.getDataset()
+                                        .getProcedure()
+                                        .isSetIdentifier()) {
+                            builder.append(observation.getDataset()
+                                    .getProcedure()
+                                    .getIdentifier());
+                        } else {
+                            builder.append("");
+                        }
+                        break;
+                    case OM_FEATURE_OF_INTEREST:
+                        if (observation.getDataset()
+                                .getFeature() != null && observation.getDataset()
+                                        .getFeature()
+                                        .isSetIdentifier()) {
+                            builder.append(observation.getDataset()
+                                    .getFeature()
+                                    .getIdentifier());
+                        } else {
+                            builder.append("");
+                        }
+                        break;
+                    default:
+                        builder.append(getValueAsStringForObservedProperty(observation, definition));
+                        break;
+                }
+                builder.append(tokenSeparator);
+            }
+            builder.delete(builder.lastIndexOf(tokenSeparator), builder.length());
+        }
+    }
+
     /**
      * Get token separator from encoding
      *
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.hibernate.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.n52.series.db.old.HibernateSessionStore;
+import org.n52.shetland.ogc.ows.exception.CompositeOwsException;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+
+public class CacheUpdateTaskSchedulerTest {
+    private static final long TIMEOUT = 10000L;
+
+    private final List<OwsExceptionReport> errors = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Session> sessions = Collections.synchronizedList(new ArrayList<>());
+
+    private HibernateSessionStore sessionStore;
+
+    @Before
+    public void setUp() {
+        sessionStore = Mockito.mock(HibernateSessionStore.class);
+        Mockito.when(sessionStore.getSession()).thenAnswer(invocation -> Mockito.mock(Session.class));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void should_start_expensive_tasks_first() {
+        execute(1, 1, task("cheap", 1L), task("expensive", 100L), task("medium", 10L), task("default", 1L));
+        assertThat(executed, contains("expensive", "medium", "cheap", "default"));
+        assertThat(errors, hasSize(0));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void should_not_use_more_sessions_than_allowed() {
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+        Consumer<TestTask> body = task -> {
+            maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+            sleep();
+            inUse.decrementAndGet();
+        };
+        TestTask[] tasks = new TestTask[8];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new TestTask("task-" + i, 1L, body);
+        }
+        execute(4, 2, tasks);
+        assertThat(executed, hasSize(tasks.length));
+        assertThat(maxInUse.get(), is(lessThanOrEqualTo(2)));
+        Mockito.verify(sessionStore, Mockito.atMost(2)).getSession();
+        assertThat(sessions.stream().distinct().count(), is(lessThanOrEqualTo(2L)));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void should_return_the_session_of_a_failing_task() {
+        // with a single session the second task can only run if the failing task returned its session
+        TestTask failing = new TestTask("failing", 2L, task -> {
+            throw new IllegalStateException("failure");
+        });
+        execute(2, 1, failing, task("succeeding", 1L));
+        assertThat(executed, containsInAnyOrder("failing", "succeeding"));
+        assertThat(errors, hasSize(1));
+        assertThat(sessions, hasSize(2));
+        assertThat(sessions.get(1), is(sameInstance(sessions.get(0))));
+        assertThat(failing.getSession(), is(nullValue()));
+        Mockito.verify(sessionStore, Mockito.times(1)).getSession();
+        Mockito.verify(sessions.get(0), Mockito.times(2)).clear();
+        Mockito.verify(sessionStore).returnSession(sessions.get(0));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void should_execute_subtasks_with_the_sessions_of_the_task() {
+        List<Integer> results = new ArrayList<>();
+        List<Session> taskSessions = new ArrayList<>();
+        TestTask splitting = new TestTask("splitting", 1L, task -> {
+            List<CacheUpdateSubtaskExecutor.Subtask<Integer>> subtasks = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                int value = i;
+                subtasks.add(session -> {
+                    sessions.add(session);
+                    sleep();
+                    return value;
+                });
+            }
+            try {
+                results.addAll(task.getSubtaskExecutor().invokeAll(task, subtasks));
+            } catch (OwsExceptionReport e) {
+                errors.add(e);
+            }
+            taskSessions.add(task.getSession());
+        });
+        // a single session can only be used by the subtasks if the task released it
+        execute(4, 1, splitting);
+        assertThat(results, contains(0, 1, 2, 3, 4));
+        assertThat(errors, hasSize(0));
+        assertThat(taskSessions.get(0), is(sameInstance(sessions.get(0))));
+        assertThat(splitting.getSession(), is(nullValue()));
+        Mockito.verify(sessionStore, Mockito.times(1)).getSession();
+        Mockito.verify(sessionStore).returnSession(sessions.get(0));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void should_steal_subtasks() {
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        TestTask splitting = new TestTask("splitting", 1L, task -> {
+            List<CacheUpdateSubtaskExecutor.Subtask<String>> subtasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                subtasks.add(session -> {
+                    threads.add(Thread.currentThread().getName());
+                    sleep();
+                    return null;
+                });
+            }
+            try {
+                task.getSubtaskExecutor().invokeAll(task, subtasks);
+            } catch (OwsExceptionReport e) {
+                errors.add(e);
+            }
+        });
+        execute(4, 4, splitting);
+        assertThat(errors, hasSize(0));
+        assertThat(threads.size(), is(greaterThan(1)));
+        assertThat(threads, everyItem(startsWith("test-cache-update")));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void should_execute_all_subtasks_if_one_fails() {
+        AtomicInteger succeeded = new AtomicInteger();
+        TestTask splitting = new TestTask("splitting", 1L, task -> {
+            List<CacheUpdateSubtaskExecutor.Subtask<Integer>> subtasks = new ArrayList<>();
+            subtasks.add(session -> {
+                throw new NoApplicableCodeException().withMessage("failure");
+            });
+            for (int i = 0; i < 3; i++) {
+                subtasks.add(session -> succeeded.incrementAndGet());
+            }
+            try {
+                task.getSubtaskExecutor().invokeAll(task, subtasks);
+            } catch (OwsExceptionReport e) {
+                errors.add(e);
+            }
+        });
+        execute(2, 2, splitting);
+        assertThat(succeeded.get(), is(3));
+        assertThat(errors, hasSize(1));
+        assertThat(errors.get(0), is(instanceOf(CompositeOwsException.class)));
+    }
+
+    private void execute(int threads, int maxSessions, TestTask... tasks) {
+        new CacheUpdateTaskScheduler(threads, maxSessions, "test-cache-update", sessionStore).execute(tasks,
+                task -> task.setErrors(errors));
+    }
+
+    private TestTask task(String name, long cost) {
+        return new TestTask(name, cost, task -> {
+        });
+    }
+
+    private static void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class TestTask extends AbstractThreadableDatasourceCacheUpdate {
+        private final String name;
+
+        private final Consumer<TestTask> body;
+
+        TestTask(String name, long cost, Consumer<TestTask> body) {
+            this.name = name;
+            this.body = body;
+            setEstimatedCost(cost);
+        }
+
+        @Override
+        public void execute() {
+            executed.add(name);
+            sessions.add(getSession());
+            body.accept(this);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
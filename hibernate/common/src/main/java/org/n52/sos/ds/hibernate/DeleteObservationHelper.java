@@ -27,10 +27,10 @@
  */
 package org.n52.sos.ds.hibernate;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +47,7 @@ import org.n52.series.db.beans.DataEntity;
 import org.n52.series.db.beans.DatasetAggregationEntity;
 import org.n52.series.db.beans.DatasetEntity;
 import org.n52.series.db.beans.GeometryEntity;
+import org.n52.series.db.beans.OfferingEntity;
 import org.n52.series.db.beans.QuantityDataEntity;
 import org.n52.series.db.beans.dataset.ValueType;
 import org.n52.shetland.ogc.filter.TemporalFilter;
@@ -95,26 +96,40 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
 
     boolean isDeletePhysically();
 
-    default void deleteObservation(Collection<DatasetEntity> datasets, Collection<TemporalFilter> filters,
+    /**
+     * Delete the observations of the datasets that match the temporal filters
+     *
+     * @param datasets
+     *            Datasets
+     * @param filters
+     *            Temporal filters
+     * @param session
+     *            Hibernate session
+     * @return the ids of the datasets with deleted observations
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    default Set<Long> deleteObservation(Collection<DatasetEntity> datasets, Collection<TemporalFilter> filters,
             Session session) throws OwsExceptionReport {
+        if (datasets == null || datasets.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
         boolean temporalFilters = filters != null && !filters.isEmpty();
-        Set<Long> modifiedDatasets = new HashSet<>();
-        for (Long s : getSeriesInlcudeChildObs(datasets.stream()
+        Set<Long> modifiedDatasets = getModifiedDatasets(getSeriesInlcudeChildObs(datasets.stream()
                 .map(DatasetEntity::getId)
-                .collect(Collectors.toSet()), session)) {
+                .collect(Collectors.toSet()), session), filters, temporalFilters, session);
+        if (!modifiedDatasets.isEmpty()) {
+            // one set-based update for all datasets instead of one update per dataset
             Query<?> q = session.createQuery(getUpdateQueryString(filters, temporalFilters));
             q.setParameter(DataEntity.PROPERTY_DELETED, true);
-            q.setParameter(DataEntity.PROPERTY_DATASET, s);
+            q.setParameter(DataEntity.PROPERTY_DATASET, modifiedDatasets);
             if (temporalFilters) {
                 checkForPlaceholder(q, filters);
             }
             int executeUpdate = q.executeUpdate();
+            getLogger().debug("{} observations of {} datasets were marked as deleted!", executeUpdate,
+                    modifiedDatasets.size());
             session.flush();
-            if (executeUpdate > 0) {
-                modifiedDatasets.add(s);
-            }
-        }
-        if (!modifiedDatasets.isEmpty()) {
             checkSeriesForFirstLatest(modifiedDatasets, session);
             if (isDeletePhysically()) {
                 // TODO select all parent ids -> delete childs -> delete parents
@@ -125,11 +140,12 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
                 deleteDeletedObservations(modifiedDatasets, filters, temporalFilters, session);
             }
         }
+        return modifiedDatasets;
     }
 
-    default void deleteObservation(DeleteObservationRequest request, Collection<TemporalFilter> filters,
+    default Set<Long> deleteObservation(DeleteObservationRequest request, Collection<TemporalFilter> filters,
             Session session) throws OwsExceptionReport {
-        deleteObservation(getDaoFactory().getSeriesDAO()
+        return deleteObservation(getDaoFactory().getSeriesDAO()
                 .getSeries(request.getProcedures(), request.getObservedProperties(), request.getFeatureIdentifiers(),
                         request.getOfferings(), session),
                 filters, session);
@@ -169,6 +185,58 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
         return datasets instanceof Set ? (Set<Long>) datasets : new LinkedHashSet<>(datasets);
     }
 
+    /**
+     * Get the datasets that contain observations matching the temporal filters
+     *
+     * @param datasets
+     *            Dataset ids
+     * @param filters
+     *            Temporal filters
+     * @param temporalFilters
+     *            Indicator if temporal filters are set
+     * @param session
+     *            Hibernate session
+     * @return the ids of the datasets with matching observations
+     * @throws UnsupportedTimeException
+     *             If the time is not supported
+     * @throws UnsupportedValueReferenceException
+     *             If the value reference is not supported
+     * @throws UnsupportedOperatorException
+     *             If the temporal operator is not supported
+     */
+    default Set<Long> getModifiedDatasets(Collection<Long> datasets, Collection<TemporalFilter> filters,
+            boolean temporalFilters, Session session)
+            throws UnsupportedTimeException, UnsupportedValueReferenceException, UnsupportedOperatorException {
+        if (datasets.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append("select distinct ")
+                .append(DataEntity.PROPERTY_DATASET_ID)
+                .append(FROM_PARAMETER);
+        builder.append(getDaoFactory().getObservationDAO()
+                .getObservationFactory()
+                .observationClass()
+                .getSimpleName());
+        builder.append(WHERE_PARAMETER)
+                .append(DataEntity.PROPERTY_DATASET_ID)
+                .append(IN_PARAMETER)
+                .append(DataEntity.PROPERTY_DATASET);
+        if (temporalFilters) {
+            builder.append(AND_PARAMETER)
+                    .append("(" + SosTemporalRestrictions.filterHql(filters)
+                            .toString())
+                    .append(")");
+        }
+        Query<?> q = session.createQuery(builder.toString());
+        q.setParameter(DataEntity.PROPERTY_DATASET, datasets);
+        if (temporalFilters) {
+            checkForPlaceholder(q, filters);
+        }
+        List<Long> list = (List<Long>) q.list();
+        return list != null ? new LinkedHashSet<>(list) : new LinkedHashSet<>();
+    }
+
     default Set<Long> getParents(Collection<Long> modifiedDatasets, Collection<TemporalFilter> filters,
             boolean temporalFilters, Session session)
             throws UnsupportedTimeException, UnsupportedValueReferenceException, UnsupportedOperatorException {
@@ -291,7 +359,7 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
                 .append(DataEntity.PROPERTY_DELETED);
         builder.append(WHERE_PARAMETER)
                 .append(DataEntity.PROPERTY_DATASET_ID)
-                .append(EQUAL_PARAMETER)
+                .append(IN_PARAMETER)
                 .append(DataEntity.PROPERTY_DATASET);
         if (temporalFilters) {
             builder.append(AND_PARAMETER)
@@ -302,38 +370,147 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
         return builder.toString();
     }
 
-    default void deleteObservationsByIdentifier(DeleteObservationRequest request, DeleteObservationResponse response,
-            Session session) throws OwsExceptionReport, ConverterException {
+    default Set<Long> deleteObservationsByIdentifier(DeleteObservationRequest request,
+            DeleteObservationResponse response, Session session) throws OwsExceptionReport, ConverterException {
         Set<String> ids = request.getObservationIdentifiers();
         List<DataEntity<?>> observations = getDaoFactory().getObservationDAO()
                 .getObservationByIdentifiers(ids, session);
         if (CollectionHelper.isNotEmpty(observations)) {
-            Set<DatasetEntity> modifiedDatasets = new HashSet<>();
-            for (DataEntity<?> observation : observations) {
-                if (DeleteObservationConstants.NS_SOSDO_1_0.equals(request.getResponseFormat())) {
-                    response.setObservationId(request.getObservationIdentifiers()
-                            .iterator()
-                            .next());
-                }
-                modifiedDatasets.add(observation.getDataset());
-                delete(observation, session);
-            }
-            if (!modifiedDatasets.isEmpty()) {
-                checkSeriesForFirstLatest(modifiedDatasets.stream()
-                        .map(DatasetEntity::getId)
-                        .collect(Collectors.toSet()), session);
+            if (DeleteObservationConstants.NS_SOSDO_1_0.equals(request.getResponseFormat())) {
+                response.setObservationId(request.getObservationIdentifiers()
+                        .iterator()
+                        .next());
             }
+            Set<Long> modifiedDatasets = delete(observations, session);
+            checkSeriesForFirstLatest(modifiedDatasets, session);
+            return modifiedDatasets;
         } else {
             if (DeleteObservationConstants.NS_SOSDO_1_0.equals(request.getResponseFormat())) {
                 throw new InvalidParameterValueException(DeleteObservationConstants.PARAM_OBSERVATION, Joiner.on(", ")
                         .join(request.getObservationIdentifiers()));
             }
         }
+        return new LinkedHashSet<>();
     }
 
-    default void deleteObservationByParameter(DeleteObservationRequest request, DeleteObservationResponse response,
-            Session session) throws OwsExceptionReport {
-        deleteObservation(request, request.getTemporalFilters(), session);
+    default Set<Long> deleteObservationByParameter(DeleteObservationRequest request,
+            DeleteObservationResponse response, Session session) throws OwsExceptionReport {
+        return deleteObservation(request, request.getTemporalFilters(), session);
+    }
+
+    /**
+     * Get the identifiers of the offerings of the datasets, e.g. to update the cache for the modified datasets only
+     *
+     * @param datasets
+     *            Dataset ids
+     * @param session
+     *            Hibernate session
+     * @return the offering identifiers
+     */
+    default Set<String> getOfferingIdentifiers(Collection<Long> datasets, Session session) {
+        if (datasets.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append("select distinct d.")
+                .append(DatasetEntity.PROPERTY_OFFERING)
+                .append(".")
+                .append(OfferingEntity.IDENTIFIER)
+                .append(FROM_PARAMETER)
+                .append(DatasetEntity.class.getSimpleName())
+                .append(" d");
+        builder.append(WHERE_PARAMETER)
+                .append("d.")
+                .append(DatasetEntity.PROPERTY_ID)
+                .append(IN_PARAMETER)
+                .append(DataEntity.PROPERTY_DATASET);
+        Query<String> q = session.createQuery(builder.toString(), String.class);
+        q.setParameter(DataEntity.PROPERTY_DATASET, datasets);
+        return new LinkedHashSet<>(q.list());
+    }
+
+    /**
+     * Mark the observations and their child observations as deleted or delete them physically with set-based
+     * statements instead of one statement per observation
+     *
+     * @param observations
+     *            Observations to delete
+     * @param session
+     *            Hibernate session
+     * @return the ids of the datasets of the observations and their child observations
+     */
+    default Set<Long> delete(Collection<DataEntity<?>> observations, Session session) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<Long> parents = new LinkedHashSet<>();
+        Set<Long> datasets = new LinkedHashSet<>();
+        List<DataEntity<?>> entities = new ArrayList<>();
+        for (DataEntity<?> observation : observations) {
+            collectObservationIds(observation, ids, parents, datasets, entities);
+        }
+        if (ids.isEmpty()) {
+            return datasets;
+        }
+        String entity = getDaoFactory().getObservationDAO()
+                .getObservationFactory()
+                .observationClass()
+                .getSimpleName();
+        session.flush();
+        if (isDeletePhysically()) {
+            // the datasets of the child observations may reference them as first or last observation, too
+            clearFirstLastReferences(datasets, ids, session);
+            if (!parents.isEmpty()) {
+                deleteDeletedChildObservations(parents, session);
+            }
+            Query<?> q = session.createQuery(DELETE_PARAMETER + entity + WHERE_PARAMETER + DataEntity.PROPERTY_ID
+                    + IN_PARAMETER + DataEntity.PROPERTY_ID);
+            q.setParameter(DataEntity.PROPERTY_ID, ids);
+            getLogger().debug("{} observations were physically deleted!", q.executeUpdate());
+        } else {
+            Query<?> q = session.createQuery("update " + entity + " set " + DataEntity.PROPERTY_DELETED
+                    + EQUAL_PARAMETER + DataEntity.PROPERTY_DELETED + WHERE_PARAMETER + DataEntity.PROPERTY_ID
+                    + IN_PARAMETER + DataEntity.PROPERTY_ID);
+            q.setParameter(DataEntity.PROPERTY_DELETED, true);
+            q.setParameter(DataEntity.PROPERTY_ID, ids);
+            getLogger().debug("{} observations were marked as deleted!", q.executeUpdate());
+        }
+        // the bulk statements bypass the session, so the deleted entities must not be flushed again
+        entities.forEach(session::detach);
+        session.flush();
+        return datasets;
+    }
+
+    default void collectObservationIds(DataEntity<?> observation, Set<Long> ids, Set<Long> parents,
+            Set<Long> datasets, List<DataEntity<?>> entities) {
+        if (observation != null && observation.getId() != null) {
+            if (observation instanceof CompositeDataEntity) {
+                parents.add(observation.getId());
+                for (DataEntity<?> o : ((CompositeDataEntity) observation).getValue()) {
+                    collectObservationIds(o, ids, parents, datasets, entities);
+                }
+            }
+            ids.add(observation.getId());
+            if (observation.getDataset() != null) {
+                datasets.add(observation.getDataset().getId());
+            }
+            entities.add(observation);
+        }
+    }
+
+    default void clearFirstLastReferences(Collection<Long> datasets, Set<Long> observations, Session session) {
+        for (DatasetEntity dataset : session.byMultipleIds(DatasetEntity.class)
+                .multiLoad(new ArrayList<>(datasets))) {
+            if (dataset == null) {
+                continue;
+            }
+            if (dataset.getFirstObservation() != null
+                    && observations.contains(dataset.getFirstObservation().getId())) {
+                dataset.setFirstObservation(null);
+            }
+            if (dataset.getLastObservation() != null && observations.contains(dataset.getLastObservation().getId())) {
+                dataset.setLastObservation(null);
+            }
+        }
+        session.flush();
     }
 
     default void delete(DataEntity<?> observation, Session session) {
@@ -415,8 +592,11 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
             Map<Long, SeriesTimeExtrema> minMaxTimes = observationDAO.getMinMaxSeriesTimesById(
                     datasets instanceof Set ? (Set<Long>) datasets : new LinkedHashSet<>(datasets), session);
             Set<Long> aggregations = new LinkedHashSet<>();
-            for (Long id : datasets) {
-                DatasetEntity dataset = session.get(DatasetEntity.class, id);
+            for (DatasetEntity dataset : session.byMultipleIds(DatasetEntity.class)
+                    .multiLoad(new ArrayList<>(datasets))) {
+                if (dataset == null) {
+                    continue;
+                }
                 if (dataset.isSetAggregation()) {
                     aggregations.add(dataset.getAggregation().getId());
                 }
@@ -454,8 +634,8 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
                         update = true;
                     }
                     if (!dataset.isSetResultTimeStart() || dataset.isSetResultTimeStart() && !DateTimeHelper
-                            .makeDateTime(dataset.getResultTimeEnd()).equals(extrema.getMinResultTime())) {
-                        dataset.setFirstValueAt(extrema.getMinResultTime()
+                            .makeDateTime(dataset.getResultTimeStart()).equals(extrema.getMinResultTime())) {
+                        dataset.setResultTimeStart(extrema.getMinResultTime()
                                 .toDate());
                         update = true;
                     }
@@ -480,12 +660,12 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
                 }
                 if (update) {
                     session.saveOrUpdate(dataset);
-                    session.flush();
-                }
-                if (!aggregations.isEmpty()) {
-                    updateAggregations(aggregations, session);
                 }
             }
+            session.flush();
+            if (!aggregations.isEmpty()) {
+                updateAggregations(aggregations, session);
+            }
         }
     }
 
@@ -590,13 +590,48 @@ public abstract class AbstractObservationDAO extends AbstractIdentifierNameDescr
             AbstractFeatureEntity feature, OmObservation containerObservation,
             Map<String, CodespaceEntity> codespaceCache, Map<UoM, UnitEntity> unitCache,
             Map<String, FormatEntity> formatCache, Session session) throws OwsExceptionReport {
+        return insertObservationMultiValue(observationConstellation, feature, containerObservation, codespaceCache,
+                unitCache, formatCache, null, session);
+    }
+
+    /**
+     * Insert a multi value observation for observation constellations and
+     * featureOfInterest and collect the dataset updates in the batch
+     *
+     * @param observationConstellation
+     *            Observation constellation objects
+     * @param feature
+     *            FeatureOfInterest object
+     * @param containerObservation
+     *            SOS observation
+     * @param codespaceCache
+     *            Map based codespace object cache to prevent redundant queries
+     * @param unitCache
+     *            Map based unit object cache to prevent redundant queries
+     * @param formatCache
+     *            Map cache for format objects (to prevent redundant querying)
+     * @param datasetUpdates
+     *            Batch of dataset updates, applied by the caller (possibly
+     *            null)
+     * @param session
+     *            Hibernate session
+     * @return The {@link DatasetEntity}
+     *
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    public DatasetEntity insertObservationMultiValue(DatasetEntity observationConstellation,
+            AbstractFeatureEntity feature, OmObservation containerObservation,
+            Map<String, CodespaceEntity> codespaceCache, Map<UoM, UnitEntity> unitCache,
+            Map<String, FormatEntity> formatCache, DatasetUpdateBatch datasetUpdates, Session session)
+            throws OwsExceptionReport {
         List<OmObservation> unfoldObservations =
                 new ObservationUnfolder(containerObservation, getDaoFactory().getSweHelper(),
                         getDaoFactory().getGeometryHandler(), getDaoFactory().getTrajectoryDetectionTimeGap())
                                 .unfold();
         for (OmObservation sosObservation : unfoldObservations) {
             DatasetEntity dataset = insertObservationSingleValue(observationConstellation, feature, sosObservation,
-                    codespaceCache, unitCache, formatCache, session);
+                    codespaceCache, unitCache, formatCache, datasetUpdates, session);
             if (!dataset.equals(observationConstellation)) {
                 return dataset;
             }
@@ -651,15 +686,52 @@ public abstract class AbstractObservationDAO extends AbstractIdentifierNameDescr
      * @throws OwsExceptionReport
      *             If an error occurs
      */
-    @SuppressWarnings("rawtypes")
     public DatasetEntity insertObservationSingleValue(DatasetEntity hObservationConstellation,
             AbstractFeatureEntity hFeature, OmObservation sosObservation, Map<String, CodespaceEntity> codespaceCache,
             Map<UoM, UnitEntity> unitCache, Map<String, FormatEntity> formatCache, Session session)
             throws OwsExceptionReport {
+        return insertObservationSingleValue(hObservationConstellation, hFeature, sosObservation, codespaceCache,
+                unitCache, formatCache, null, session);
+    }
+
+    /**
+     * Insert a single observation for observation constellations and
+     * featureOfInterest with local caching for codespaces and units and
+     * collect the dataset update in the batch
+     *
+     * @param hObservationConstellation
+     *            Observation constellation objects
+     * @param hFeature
+     *            FeatureOfInterest object
+     * @param sosObservation
+     *            SOS observation to insert
+     * @param codespaceCache
+     *            Map cache for codespace objects (to prevent redundant
+     *            querying)
+     * @param unitCache
+     *            Map cache for unit objects (to prevent redundant querying)
+     * @param formatCache
+     *            Map cache for format objects (to prevent redundant querying)
+     * @param datasetUpdates
+     *            Batch of dataset updates, applied by the caller (possibly
+     *            null)
+     * @param session
+     *            Hibernate session
+     * @return The {@link DatasetEntity}
+     *
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    @SuppressWarnings("rawtypes")
+    public DatasetEntity insertObservationSingleValue(DatasetEntity hObservationConstellation,
+            AbstractFeatureEntity hFeature, OmObservation sosObservation, Map<String, CodespaceEntity> codespaceCache,
+            Map<UoM, UnitEntity> unitCache, Map<String, FormatEntity> formatCache, DatasetUpdateBatch datasetUpdates,
+            Session session) throws OwsExceptionReport {
         SingleObservationValue<?> value = (SingleObservationValue) sosObservation.getValue();
         ObservationPersister persister =
                 new ObservationPersister(getDaoFactory(), this, sosObservation, hObservationConstellation, hFeature,
-                        codespaceCache, unitCache, formatCache, getOfferings(hObservationConstellation), session);
+                        codespaceCache, unitCache, formatCache, getOfferings(hObservationConstellation), session)
+                                .setDatasetUpdateBatch(datasetUpdates);
         return value.getValue().accept(persister).getDataset();
     }
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.observation;
+
+import java.util.Date;
+
+import org.n52.series.db.beans.AbstractDatasetEntity;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.GeometryEntity;
+
+/**
+ * In-memory extent of the observations inserted into a dataset within a transaction: the observations with the
+ * first and last phenomenon time, the result time range and the envelope of the observation geometries.
+ *
+ * Only the first and last observation are kept, so the extent does not grow with the number of inserted
+ * observations.
+ *
+ * @since 6.1.2
+ */
+public class DatasetExtent {
+
+    private AbstractDatasetEntity dataset;
+
+    private DataEntity<?> firstObservation;
+
+    private DataEntity<?> lastObservation;
+
+    private Date resultTimeStart;
+
+    private Date resultTimeEnd;
+
+    private GeometryEntity geometry;
+
+    public DatasetExtent(AbstractDatasetEntity dataset) {
+        this.dataset = dataset;
+    }
+
+    /**
+     * @return the most recently added instance of the dataset
+     */
+    public AbstractDatasetEntity getDataset() {
+        return dataset;
+    }
+
+    /**
+     * Set the dataset instance, e.g. after the session was cleared and the dataset was loaded again.
+     *
+     * @param dataset
+     *            the dataset
+     * @return this
+     */
+    public DatasetExtent setDataset(AbstractDatasetEntity dataset) {
+        this.dataset = dataset;
+        return this;
+    }
+
+    public DataEntity<?> getFirstObservation() {
+        return firstObservation;
+    }
+
+    public DataEntity<?> getLastObservation() {
+        return lastObservation;
+    }
+
+    public Date getResultTimeStart() {
+        return resultTimeStart;
+    }
+
+    public Date getResultTimeEnd() {
+        return resultTimeEnd;
+    }
+
+    public GeometryEntity getGeometry() {
+        return geometry;
+    }
+
+    public boolean isSetGeometry() {
+        return geometry != null;
+    }
+
+    public boolean isEmpty() {
+        return firstObservation == null;
+    }
+
+    /**
+     * Add an inserted observation of the dataset to the extent.
+     *
+     * @param observation
+     *            the inserted observation
+     * @return this
+     */
+    public DatasetExtent add(DataEntity<?> observation) {
+        if (firstObservation == null
+                || firstObservation.getSamplingTimeStart().after(observation.getSamplingTimeStart())) {
+            firstObservation = observation;
+        }
+        if (lastObservation == null || lastObservation.getSamplingTimeEnd().before(observation.getSamplingTimeEnd())) {
+            lastObservation = observation;
+        }
+        addResultTime(observation.getResultTime(), observation.getResultTime());
+        if (observation.isSetGeometryEntity()) {
+            expand(observation.getGeometryEntity());
+        } else if (observation.getDataset().isSetFeature() && observation.getDataset().getFeature().isSetGeometry()) {
+            expand(observation.getDataset().getFeature().getGeometryEntity());
+        }
+        return this;
+    }
+
+    /**
+     * Add the values of another extent, e.g. of a dataset to the extent of its aggregation.
+     *
+     * @param other
+     *            the other extent
+     * @return this
+     */
+    public DatasetExtent add(DatasetExtent other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (firstObservation == null || firstObservation.getSamplingTimeStart()
+                .after(other.getFirstObservation().getSamplingTimeStart())) {
+            firstObservation = other.getFirstObservation();
+        }
+        if (lastObservation == null
+                || lastObservation.getSamplingTimeEnd().before(other.getLastObservation().getSamplingTimeEnd())) {
+            lastObservation = other.getLastObservation();
+        }
+        addResultTime(other.getResultTimeStart(), other.getResultTimeEnd());
+        if (other.isSetGeometry()) {
+            expand(other.getGeometry());
+        }
+        return this;
+    }
+
+    private void addResultTime(Date start, Date end) {
+        if (start != null && (resultTimeStart == null || resultTimeStart.after(start))) {
+            resultTimeStart = start;
+        }
+        if (end != null && (resultTimeEnd == null || resultTimeEnd.before(end))) {
+            resultTimeEnd = end;
+        }
+    }
+
+    private void expand(GeometryEntity other) {
+        if (geometry == null) {
+            geometry = new GeometryEntity();
+        }
+        geometry.expand(other);
+    }
+}
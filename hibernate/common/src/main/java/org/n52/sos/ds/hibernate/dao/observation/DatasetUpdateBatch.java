@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.observation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.sos.ds.hibernate.dao.observation.series.AbstractSeriesDAO;
+
+/**
+ * Collects the extents of the inserted observations per dataset to update the first/last values, result times and
+ * geometry of each dataset once per transaction instead of once per observation. The inserted observations are not
+ * flushed one by one either, so Hibernate can write them with JDBC batch inserts.
+ *
+ * The extents are kept by dataset id and only hold the first and last observation, so the batch survives
+ * {@link Session#clear()} calls between the flushes of the inserted observations.
+ *
+ * @since 6.1.2
+ */
+public class DatasetUpdateBatch {
+
+    private final Map<Long, DatasetExtent> extents = new LinkedHashMap<>();
+
+    private int size;
+
+    /**
+     * Add an inserted observation of the dataset.
+     *
+     * @param dataset
+     *            the dataset
+     * @param observation
+     *            the inserted observation
+     */
+    public void add(DatasetEntity dataset, DataEntity<?> observation) {
+        extents.computeIfAbsent(dataset.getId(), id -> new DatasetExtent(dataset)).setDataset(dataset)
+                .add(observation);
+        size++;
+    }
+
+    /**
+     * @return the number of collected observations
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Update each touched dataset once with the collected extents and flush the session. Should be called once
+     * before the transaction is committed.
+     *
+     * @param seriesDAO
+     *            the series DAO
+     * @param session
+     *            Hibernate session
+     */
+    public void apply(AbstractSeriesDAO seriesDAO, Session session) {
+        seriesDAO.updateDatasetsWithExtents(extents.values(), session);
+        extents.clear();
+        size = 0;
+        session.flush();
+    }
+}
@@ -164,6 +164,8 @@ public class ObservationPersister implements ValueVisitor<DataEntity<?>, OwsExce
 
     private Long parent;
 
+    private DatasetUpdateBatch datasetUpdates;
+
     public ObservationPersister(DaoFactory daoFactory, AbstractObservationDAO observationDao,
             OmObservation sosObservation, DatasetEntity hDataset, AbstractFeatureEntity<?> hFeature,
             Map<String, CodespaceEntity> codespaceCache, Map<UoM, UnitEntity> unitCache,
@@ -192,6 +194,18 @@ public class ObservationPersister implements ValueVisitor<DataEntity<?>, OwsExce
         this.offerings = hOfferings;
     }
 
+    /**
+     * Collect the dataset updates in the batch instead of flushing and updating the dataset for each observation.
+     *
+     * @param datasetUpdates
+     *            the batch, may be <code>null</code>
+     * @return this
+     */
+    public ObservationPersister setDatasetUpdateBatch(DatasetUpdateBatch datasetUpdates) {
+        this.datasetUpdates = datasetUpdates;
+        return this;
+    }
+
     private GeometryHandler getGeometryHandler() {
         return daoFactory.getGeometryHandler();
     }
@@ -853,10 +867,14 @@ public class ObservationPersister implements ValueVisitor<DataEntity<?>, OwsExce
                 daos.observation().addObservationContextToObservation(observationContext, observation, session);
         persistParameter(observation, omObservation.getParameterHolder(), observationContext, session);
         session.save(observation);
-        session.flush();
         // persistParameter(observation, omObservation.getParameterHolder(), observationContext, session);
-        if (!(observation instanceof TrajectoryDataEntity)) {
-            daos.dataset.updateDatasetWithObservation(persitedDataset, observation, session);
+        if (datasetUpdates != null && !(observation instanceof TrajectoryDataEntity)) {
+            datasetUpdates.add(persitedDataset, observation);
+        } else {
+            session.flush();
+            if (!(observation instanceof TrajectoryDataEntity)) {
+                daos.dataset.updateDatasetWithObservation(persitedDataset, observation, session);
+            }
         }
         if (daoFactory.isInsertAdditionallyAsProfile() && providedCategory
                 && !(observation instanceof ProfileDataEntity)) {
@@ -31,8 +31,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -40,6 +42,7 @@ import java.util.stream.Collectors;
 
 import org.hibernate.Criteria;
 import org.hibernate.FetchMode;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
@@ -86,6 +89,7 @@ import org.n52.sos.ds.hibernate.DeleteDataHelper;
 import org.n52.sos.ds.hibernate.dao.AbstractIdentifierNameDescriptionDAO;
 import org.n52.sos.ds.hibernate.dao.DaoFactory;
 import org.n52.sos.ds.hibernate.dao.FormatDAO;
+import org.n52.sos.ds.hibernate.dao.observation.DatasetExtent;
 import org.n52.sos.ds.hibernate.dao.observation.ObservationContext;
 import org.n52.sos.ds.hibernate.dao.observation.ObservationFactory;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
@@ -877,61 +881,116 @@ public abstract class AbstractSeriesDAO extends AbstractIdentifierNameDescriptio
      */
     public void updateDatasetWithObservation(AbstractDatasetEntity dataset, DataEntity<?> observation,
             Session session) {
-        boolean minChanged = false;
-        boolean maxChanged = false;
-        if (!dataset.isSetFirstValueAt() || dataset.isSetFirstValueAt()
-                && dataset.getFirstValueAt().after(observation.getSamplingTimeStart())) {
-            minChanged = true;
-            dataset.setFirstValueAt(observation.getSamplingTimeStart());
-            dataset.setFirstObservation(observation);
+        updateDatasetWithObservations(dataset, Collections.singleton(observation), session);
+    }
+
+    /**
+     * Update series values with several observations of the same series, saving the series only once.
+     *
+     * @param dataset
+     *            Series object
+     * @param observations
+     *            Observation objects
+     * @param session
+     *            Hibernate session
+     */
+    public void updateDatasetWithObservations(AbstractDatasetEntity dataset,
+            Collection<? extends DataEntity<?>> observations, Session session) {
+        DatasetExtent extent = new DatasetExtent(dataset);
+        observations.forEach(extent::add);
+        if (!extent.isEmpty()) {
+            updateDatasetValues(dataset, extent, session);
         }
-        if (!dataset.isSetLastValueAt()
-                || dataset.isSetLastValueAt() && dataset.getLastValueAt().before(observation.getSamplingTimeEnd())) {
-            maxChanged = true;
-            dataset.setLastValueAt(observation.getSamplingTimeEnd());
-            dataset.setLastObservation(observation);
+        session.saveOrUpdate(dataset);
+        session.flush();
+        session.refresh(dataset);
+        if (HibernateHelper.isEntitySupported(DatasetAggregationEntity.class)) {
+            if (dataset.isSetAggregation()) {
+                updateDatasetWithObservations(dataset.getAggregation(), observations, session);
+            }
         }
-        if (observation instanceof QuantityDataEntity) {
-            if (minChanged) {
-                dataset.setFirstQuantityValue(((QuantityDataEntity) observation).getValue());
+    }
+
+    /**
+     * Update series values with the extents of the observations inserted within a transaction. Each series and each
+     * aggregation is saved only once, the session is flushed by the caller.
+     *
+     * @param extents
+     *            Extents of the inserted observations per series
+     * @param session
+     *            Hibernate session
+     */
+    public void updateDatasetsWithExtents(Collection<DatasetExtent> extents, Session session) {
+        Map<Long, DatasetExtent> aggregationExtents = new LinkedHashMap<>();
+        for (DatasetExtent extent : extents) {
+            if (extent.isEmpty()) {
+                continue;
             }
-            if (maxChanged) {
-                dataset.setLastQuantityValue(((QuantityDataEntity) observation).getValue());
+            AbstractDatasetEntity dataset = getAttached(extent.getDataset(), session);
+            updateDatasetValues(dataset, extent, session);
+            session.saveOrUpdate(dataset);
+            if (HibernateHelper.isEntitySupported(DatasetAggregationEntity.class) && dataset.isSetAggregation()) {
+                AbstractDatasetEntity aggregation = dataset.getAggregation();
+                aggregationExtents.computeIfAbsent(aggregation.getId(), id -> new DatasetExtent(aggregation))
+                        .add(extent);
             }
         }
-        if (!dataset.isSetResultTimeStart() || dataset.isSetResultTimeStart()
-                && dataset.getResultTimeStart().after(observation.getResultTime())) {
-            dataset.setResultTimeStart(observation.getResultTime());
+        if (!aggregationExtents.isEmpty()) {
+            updateDatasetsWithExtents(aggregationExtents.values(), session);
         }
-        if (!dataset.isSetResultTimeEnd()
-                || dataset.isSetResultTimeEnd() && dataset.getResultTimeEnd().before(observation.getResultTime())) {
-            dataset.setResultTimeEnd(observation.getResultTime());
+    }
+
+    private AbstractDatasetEntity getAttached(AbstractDatasetEntity dataset, Session session) {
+        if (session.contains(dataset)) {
+            return dataset;
         }
-        if (observation.isSetGeometryEntity()) {
-            if (dataset.isSetGeometry()) {
-                dataset.getGeometryEntity().expand(observation.getGeometryEntity());
-            } else {
-                GeometryEntity geometryEntity = new GeometryEntity();
-                geometryEntity.expand(observation.getGeometryEntity());
-                dataset.setGeometryEntity(geometryEntity);
+        return (AbstractDatasetEntity) session.get(Hibernate.getClass(dataset), dataset.getId());
+    }
+
+    private DataEntity<?> getAttached(DataEntity<?> observation, Session session) {
+        if (observation.getId() == null || session.contains(observation)) {
+            return observation;
+        }
+        // the observation was flushed and evicted by a session clear, a reference is sufficient
+        return (DataEntity<?>) session.load(Hibernate.getClass(observation), observation.getId());
+    }
+
+    private void updateDatasetValues(AbstractDatasetEntity dataset, DatasetExtent extent, Session session) {
+        DataEntity<?> first = extent.getFirstObservation();
+        if (!dataset.isSetFirstValueAt() || dataset.isSetFirstValueAt()
+                && dataset.getFirstValueAt().after(first.getSamplingTimeStart())) {
+            dataset.setFirstValueAt(first.getSamplingTimeStart());
+            dataset.setFirstObservation(getAttached(first, session));
+            if (first instanceof QuantityDataEntity) {
+                dataset.setFirstQuantityValue(((QuantityDataEntity) first).getValue());
             }
-        } else if (observation.getDataset().isSetFeature() && observation.getDataset().getFeature().isSetGeometry()) {
+        }
+        DataEntity<?> last = extent.getLastObservation();
+        if (!dataset.isSetLastValueAt()
+                || dataset.isSetLastValueAt() && dataset.getLastValueAt().before(last.getSamplingTimeEnd())) {
+            dataset.setLastValueAt(last.getSamplingTimeEnd());
+            dataset.setLastObservation(getAttached(last, session));
+            if (last instanceof QuantityDataEntity) {
+                dataset.setLastQuantityValue(((QuantityDataEntity) last).getValue());
+            }
+        }
+        if (extent.getResultTimeStart() != null && (!dataset.isSetResultTimeStart()
+                || dataset.getResultTimeStart().after(extent.getResultTimeStart()))) {
+            dataset.setResultTimeStart(extent.getResultTimeStart());
+        }
+        if (extent.getResultTimeEnd() != null && (!dataset.isSetResultTimeEnd()
+                || dataset.getResultTimeEnd().before(extent.getResultTimeEnd()))) {
+            dataset.setResultTimeEnd(extent.getResultTimeEnd());
+        }
+        if (extent.isSetGeometry()) {
             if (dataset.isSetGeometry()) {
-                dataset.getGeometryEntity().expand(observation.getDataset().getFeature().getGeometryEntity());
+                dataset.getGeometryEntity().expand(extent.getGeometry());
             } else {
                 GeometryEntity geometryEntity = new GeometryEntity();
-                geometryEntity.expand(observation.getDataset().getFeature().getGeometryEntity());
+                geometryEntity.expand(extent.getGeometry());
                 dataset.setGeometryEntity(geometryEntity);
             }
         }
-        session.saveOrUpdate(dataset);
-        session.flush();
-        session.refresh(dataset);
-        if (HibernateHelper.isEntitySupported(DatasetAggregationEntity.class)) {
-            if (dataset.isSetAggregation()) {
-                updateDatasetWithObservation(dataset.getAggregation(), observation, session);
-            }
-        }
     }
 
     /**
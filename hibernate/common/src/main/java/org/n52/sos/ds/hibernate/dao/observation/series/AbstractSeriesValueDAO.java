@@ -27,13 +27,27 @@
  */
 package org.n52.sos.ds.hibernate.dao.observation.series;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.hibernate.Criteria;
 import org.hibernate.Session;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.LongType;
+import org.hibernate.type.Type;
 import org.n52.series.db.beans.DataEntity;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.sos.request.GetObservationRequest;
@@ -42,6 +56,8 @@ import org.n52.sos.ds.hibernate.dao.observation.AbstractValueDAO;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
 import org.n52.sos.ds.hibernate.util.ResultFilterRestrictions;
 import org.n52.sos.ds.hibernate.util.ResultFilterRestrictions.SubQueryIdentifier;
+import org.n52.sos.request.ObservationAggregation;
+import org.n52.sos.request.ObservationAggregation.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +74,8 @@ public abstract class AbstractSeriesValueDAO extends AbstractValueDAO {
 
     private static final String QUERY_STREAMING_SERIES_VALUE = "QUERY getStreamingSeriesValuesFor({}): {}";
 
+    private static final String QUERY_AGGREGATED_SERIES_VALUE = "QUERY getAggregatedSeriesValuesFor({}): {}";
+
     public AbstractSeriesValueDAO(DaoFactory daoFactory) {
         super(daoFactory);
     }
@@ -93,12 +111,136 @@ public abstract class AbstractSeriesValueDAO extends AbstractValueDAO {
         } else {
             StringBuilder logArgs = new StringBuilder();
             Criteria c = getSeriesValueCriteriaFor(ctx, logArgs);
-            addChunkValuesToCriteria(c, ctx.getChunkSize(), ctx.getCurrentRow(), ctx.getRequest(), logArgs);
+            if (ctx.isKeysetPagination() && ctx.getChunkSize() > 0) {
+                addKeysetChunkValuesToCriteria(c, ctx, logArgs);
+            } else {
+                addChunkValuesToCriteria(c, ctx.getChunkSize(), ctx.getCurrentRow(), ctx.getRequest(), logArgs);
+            }
             LOGGER.trace(QUERY_STREAMING_SERIES_VALUE, logArgs.toString(), HibernateHelper.getSqlString(c));
             return (List<DataEntity<?>>) c.list();
         }
     }
 
+    /**
+     * Check if the aggregation can be calculated by the database. The values are grouped by the bucket of their
+     * phenomenon time start, which requires a dialect specific SQL expression.
+     *
+     * @param session
+     *            Hibernate session
+     * @return <code>true</code>, if {@link #getAggregatedSeriesValuesFor(ValueQueryContext, ObservationAggregation)}
+     *         is supported
+     */
+    public boolean isAggregationSupported(Session session) {
+        Dialect dialect = HibernateHelper.getDialect(session);
+        return (dialect instanceof PostgreSQL81Dialect || dialect instanceof H2Dialect)
+                && getSamplingTimeStartColumn(session) != null;
+    }
+
+    /**
+     * Query the values aggregated by the database, one value per bucket ordered by time. Result filters are not
+     * supported.
+     *
+     * @param ctx
+     *            {@link ValueQueryContext}
+     * @param aggregation
+     *            the aggregation
+     * @return the aggregated values
+     * @throws OwsExceptionReport
+     *             If an error occurs when querying
+     */
+    @SuppressWarnings("unchecked")
+    public List<DataEntity<?>> getAggregatedSeriesValuesFor(ValueQueryContext ctx, ObservationAggregation aggregation)
+            throws OwsExceptionReport {
+        StringBuilder logArgs = new StringBuilder();
+        Function function = aggregation.getFunction();
+        Criteria c = function.isNumeric()
+                ? getDefaultCriteria(getValuedObservationFactory().numericClass(), ctx.getSession())
+                : getDefaultObservationCriteria(ctx.getSession());
+        addSeriesValueRestrictions(c, ctx, logArgs);
+        c.add(Restrictions.eq(DataEntity.PROPERTY_DATASET_ID, ctx.getDatasetId()));
+        String bucket = String.format("cast(floor(extract(epoch from {alias}.%s) * 1000 / %d) as bigint)",
+                getSamplingTimeStartColumn(ctx.getSession()), aggregation.getInterval());
+        c.setProjection(Projections.projectionList()
+                .add(Projections.sqlGroupProjection(bucket + " as bucket", bucket, new String[] { "bucket" },
+                        new Type[] { LongType.INSTANCE }))
+                .add(getAggregationProjection(function))
+                .add(Projections.max(DataEntity.PROPERTY_RESULT_TIME))
+                .add(Projections.max(DataEntity.PROPERTY_ID)));
+        c.setResultTransformer(Criteria.PROJECTION);
+        logArgs.append(", aggregation(" + aggregation + ")");
+        LOGGER.trace(QUERY_AGGREGATED_SERIES_VALUE, logArgs.toString(), HibernateHelper.getSqlString(c));
+
+        SeriesValueAggregator aggregator = new SeriesValueAggregator(aggregation, ctx.getDataset());
+        List<DataEntity<?>> values = new ArrayList<>();
+        for (Object[] row : (List<Object[]>) c.list()) {
+            values.add(aggregator.create(((Number) row[0]).longValue(), toBigDecimal(row[1]), (Date) row[2],
+                    row[3] != null ? ((Number) row[3]).longValue() : null));
+        }
+        values.sort(Comparator.comparing(DataEntity::getSamplingTimeStart));
+        return values;
+    }
+
+    private Projection getAggregationProjection(Function function) {
+        switch (function) {
+            case MEAN:
+                return Projections.avg(DataEntity.PROPERTY_VALUE);
+            case MIN:
+                return Projections.min(DataEntity.PROPERTY_VALUE);
+            case MAX:
+                return Projections.max(DataEntity.PROPERTY_VALUE);
+            default:
+                return Projections.rowCount();
+        }
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private String getSamplingTimeStartColumn(Session session) {
+        EntityPersister persister = ((SessionFactoryImplementor) session.getSessionFactory()).getMetamodel()
+                .entityPersister(getSeriesValueClass());
+        if (persister instanceof AbstractEntityPersister) {
+            String[] columns = ((AbstractEntityPersister) persister)
+                    .getPropertyColumnNames(DataEntity.PROPERTY_SAMPLING_TIME_START);
+            return columns != null && columns.length == 1 ? columns[0] : null;
+        }
+        return null;
+    }
+
+    /**
+     * Add chunk information as restriction on the ordering time and id of the last value of the previous chunk.
+     * Unlike an offset, the database does not have to skip the values of the previous chunks.
+     *
+     * @param c
+     *            {@link Criteria} to add information
+     * @param ctx
+     *            {@link ValueQueryContext}
+     * @param logArgs
+     *            log arguments
+     */
+    private void addKeysetChunkValuesToCriteria(Criteria c, ValueQueryContext ctx, StringBuilder logArgs) {
+        String orderColumn = getOrderColumn(ctx);
+        // values with the same time are ordered by id
+        c.addOrder(Order.asc(DataEntity.PROPERTY_ID));
+        if (ctx.isSetLastValue()) {
+            DataEntity<?> lastValue = ctx.getLastValue();
+            Date lastTime = DataEntity.PROPERTY_RESULT_TIME.equals(orderColumn)
+                    ? lastValue.getResultTime()
+                    : lastValue.getSamplingTimeStart();
+            // the redundant lower bound allows a range scan on the time index
+            c.add(Restrictions.ge(orderColumn, lastTime));
+            c.add(Restrictions.or(Restrictions.gt(orderColumn, lastTime),
+                    Restrictions.gt(DataEntity.PROPERTY_ID, lastValue.getId())));
+            logArgs.append(", after(" + lastTime + "," + lastValue.getId() + ")");
+        }
+        c.setMaxResults(ctx.getChunkSize());
+        logArgs.append(", chunk(" + ctx.getChunkSize() + ")");
+    }
+
     /**
      * Get {@link Criteria} for parameter
      *
@@ -120,7 +262,16 @@ public abstract class AbstractSeriesValueDAO extends AbstractValueDAO {
     private Criteria getDefaultSeriesValueCriteriaFor(ValueQueryContext ctx, StringBuilder logArgs)
             throws OwsExceptionReport {
         final Criteria c = getDefaultObservationCriteria(ctx.getSession());
-        c.addOrder(Order.asc(getOrderColumn(ctx.getRequest())));
+        c.addOrder(Order.asc(getOrderColumn(ctx)));
+        return addSeriesValueRestrictions(c, ctx, logArgs);
+    }
+
+    private String getOrderColumn(ValueQueryContext ctx) {
+        return ctx.isPhenomenonTimeOrder() ? DataEntity.PROPERTY_SAMPLING_TIME_START : getOrderColumn(ctx.getRequest());
+    }
+
+    private Criteria addSeriesValueRestrictions(Criteria c, ValueQueryContext ctx, StringBuilder logArgs)
+            throws OwsExceptionReport {
         logArgs.append("request, series");
         if (ctx.getRequest() instanceof GetObservationRequest) {
             GetObservationRequest getObsReq = (GetObservationRequest) ctx.getRequest();
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.observation.series;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Optional;
+
+import org.n52.series.db.beans.CountDataEntity;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
+import org.n52.sos.request.ObservationAggregation;
+import org.n52.sos.request.ObservationAggregation.Accumulator;
+import org.n52.sos.request.ObservationAggregation.Function;
+
+/**
+ * Aggregates the time ordered values of a dataset into the buckets of an {@link ObservationAggregation}. The
+ * aggregated values are transient {@link DataEntity}s spanning the bucket, so they are encoded like queried values.
+ *
+ * @since 6.1.2
+ */
+public class SeriesValueAggregator {
+
+    private final ObservationAggregation aggregation;
+
+    private final DatasetEntity dataset;
+
+    private Accumulator accumulator;
+
+    private long bucket;
+
+    private Date resultTime;
+
+    private Long id;
+
+    public SeriesValueAggregator(ObservationAggregation aggregation, DatasetEntity dataset) {
+        this.aggregation = aggregation;
+        this.dataset = dataset;
+    }
+
+    /**
+     * Add the next value.
+     *
+     * @param value
+     *            the value
+     * @return the aggregated value of the previous bucket, if the value starts a new bucket
+     */
+    public Optional<DataEntity<?>> add(DataEntity<?> value) {
+        long valueBucket = aggregation.getBucket(value.getSamplingTimeStart());
+        Optional<DataEntity<?>> completed = Optional.empty();
+        if (accumulator != null && valueBucket != bucket) {
+            completed = finish();
+        }
+        if (accumulator == null) {
+            accumulator = aggregation.createAccumulator();
+            bucket = valueBucket;
+        }
+        accumulator.add(value instanceof QuantityDataEntity ? ((QuantityDataEntity) value).getValue() : null);
+        if (resultTime == null || value.getResultTime() != null && value.getResultTime().after(resultTime)) {
+            resultTime = value.getResultTime();
+        }
+        if (id == null || value.getId() != null && value.getId() > id) {
+            id = value.getId();
+        }
+        return completed;
+    }
+
+    /**
+     * @return the aggregated value of the current bucket, if any value was added since the last bucket was completed
+     */
+    public Optional<DataEntity<?>> finish() {
+        if (accumulator == null) {
+            return Optional.empty();
+        }
+        DataEntity<?> value = create(bucket, accumulator.getValue(), resultTime, id);
+        this.accumulator = null;
+        this.resultTime = null;
+        this.id = null;
+        return Optional.of(value);
+    }
+
+    /**
+     * Create the aggregated value of a bucket.
+     *
+     * @param bucket
+     *            the index of the bucket
+     * @param value
+     *            the aggregated value
+     * @param resultTime
+     *            the latest result time of the values in the bucket
+     * @param id
+     *            the id of a value in the bucket, used as observation id
+     * @return the aggregated value
+     */
+    public DataEntity<?> create(long bucket, BigDecimal value, Date resultTime, Long id) {
+        DataEntity<?> entity;
+        if (aggregation.getFunction() == Function.COUNT) {
+            CountDataEntity count = new CountDataEntity();
+            count.setValue(value != null ? value.intValue() : 0);
+            entity = count;
+        } else {
+            QuantityDataEntity quantity = new QuantityDataEntity();
+            quantity.setValue(value);
+            entity = quantity;
+        }
+        entity.setId(id);
+        entity.setDataset(dataset);
+        entity.setSamplingTimeStart(aggregation.getBucketStart(bucket));
+        entity.setSamplingTimeEnd(aggregation.getBucketEnd(bucket));
+        entity.setResultTime(resultTime != null ? resultTime : aggregation.getBucketEnd(bucket));
+        return entity;
+    }
+}
@@ -29,6 +29,7 @@ package org.n52.sos.ds.hibernate.dao.observation.series;
 
 import org.hibernate.Session;
 import org.hibernate.criterion.Criterion;
+import org.n52.series.db.beans.DataEntity;
 import org.n52.series.db.beans.DatasetEntity;
 import org.n52.shetland.ogc.sos.request.AbstractObservationRequest;
 
@@ -42,6 +43,9 @@ public class ValueQueryContext {
     private Criterion temporalFilterCriterion;
     private int chunkSize;
     private int currentRow;
+    private boolean keysetPagination;
+    private DataEntity<?> lastValue;
+    private boolean phenomenonTimeOrder;
     private Session session;
 
     public ValueQueryContext(AbstractObservationRequest request, DatasetEntity dataset, Session session) {
@@ -93,4 +97,57 @@ public class ValueQueryContext {
         return this;
     }
 
+    public boolean isKeysetPagination() {
+        return keysetPagination;
+    }
+
+    /**
+     * Query the chunks by the key of the last value of the previous chunk instead of the current row.
+     *
+     * @param keysetPagination
+     *            whether to use keyset pagination
+     * @return this
+     */
+    public ValueQueryContext setKeysetPagination(boolean keysetPagination) {
+        this.keysetPagination = keysetPagination;
+        return this;
+    }
+
+    public DataEntity<?> getLastValue() {
+        return lastValue;
+    }
+
+    /**
+     * Set the last value of the previous chunk, the next chunk starts after its ordering time and id.
+     *
+     * @param lastValue
+     *            the last value or {@code null} for the first chunk
+     * @return this
+     */
+    public ValueQueryContext setLastValue(DataEntity<?> lastValue) {
+        this.lastValue = lastValue;
+        return this;
+    }
+
+    public boolean isSetLastValue() {
+        return getLastValue() != null;
+    }
+
+    public boolean isPhenomenonTimeOrder() {
+        return phenomenonTimeOrder;
+    }
+
+    /**
+     * Order the values by phenomenon time even if the request filters by result time. Values that are aggregated or
+     * downsampled have to be streamed in phenomenon time order.
+     *
+     * @param phenomenonTimeOrder
+     *            whether to order by phenomenon time
+     * @return this
+     */
+    public ValueQueryContext setPhenomenonTimeOrder(boolean phenomenonTimeOrder) {
+        this.phenomenonTimeOrder = phenomenonTimeOrder;
+        return this;
+    }
+
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.io.request.IoParameters;
+import org.n52.sensorweb.server.db.old.dao.DbQuery;
+import org.n52.sensorweb.server.db.old.dao.DbQueryFactory;
+import org.n52.sensorweb.server.db.old.dao.DefaultDbQueryFactory;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.DescribableEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.series.db.beans.dataset.DatasetType;
+import org.n52.series.db.old.dao.DatasetDao;
+import org.n52.series.db.old.dao.OfferingDao;
+import org.n52.series.db.old.dao.PhenomenonDao;
+import org.n52.series.db.old.dao.ProcedureDao;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.sos.ds.hibernate.ExtendedHibernateTestCase;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.util.HibernateObservationBuilder;
+
+/**
+ * Test that the bulk loaded {@link DatasetRelations} match the results of the per-offering queries.
+ *
+ * @since 6.1.2
+ */
+public class DatasetRelationsTest extends ExtendedHibernateTestCase {
+
+    private static final DateTime TIME = DateTimeHelper.parseIsoString2DateTime("2020-01-01T00:00:00.000Z");
+
+    private static final DbQueryFactory DB_QUERY_FACTORY = new DefaultDbQueryFactory("4326");
+
+    @Before
+    public void fillDatasets() throws OwsExceptionReport {
+        Session session = getSession();
+        Transaction transaction = null;
+        try {
+            transaction = getTransaction(session);
+            HibernateObservationBuilder builder = new HibernateObservationBuilder(session, getDaoFactory());
+            builder.createObservation("observation", TIME);
+            DatasetEntity template = getDatasets(session).iterator().next();
+            OfferingEntity offering1 = getOffering(session, HibernateObservationBuilder.OFFERING_1);
+            OfferingEntity offering2 = getOffering(session, HibernateObservationBuilder.OFFERING_2);
+            addDataset(session, template, offering1, "NotInitialized", "Phenomenon2",
+                    d -> d.setDatasetType(DatasetType.not_initialized));
+            addDataset(session, template, offering1, "Unpublished", "Phenomenon2", d -> d.setPublished(false));
+            addDataset(session, template, offering2, "Deleted", "Phenomenon3", d -> d.setDeleted(true));
+            addDataset(session, template, offering2, "Visible", "Phenomenon2", d -> { });
+            addDataset(session, template, offering2, HibernateObservationBuilder.PROCEDURE, "Phenomenon3",
+                    d -> d.setDatasetType(DatasetType.not_initialized));
+            transaction.commit();
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @After
+    public void clear() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldOnlyRelateVisibleDatasets() {
+        Session session = getSession();
+        try {
+            DatasetRelations relations = new DatasetRelations(getDatasets(session), session, query());
+            OfferingEntity offering1 = getOffering(session, HibernateObservationBuilder.OFFERING_1);
+            OfferingEntity offering2 = getOffering(session, HibernateObservationBuilder.OFFERING_2);
+            assertThat(identifiers(relations.getProcedures(offering1)),
+                    containsInAnyOrder(HibernateObservationBuilder.PROCEDURE));
+            assertThat(identifiers(relations.getProcedures(offering2)),
+                    containsInAnyOrder(HibernateObservationBuilder.PROCEDURE, "Visible"));
+            for (ProcedureEntity procedure : relations.getProcedures(offering2)) {
+                assertThat(identifiers(relations.getPhenomena(offering2, procedure)), containsInAnyOrder(
+                        procedure.getIdentifier().equals("Visible") ? "Phenomenon2"
+                                : HibernateObservationBuilder.OBSERVABLE_PROPERTY));
+            }
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @Test
+    public void shouldMatchThePerOfferingQueries() {
+        Session session = getSession();
+        try {
+            DatasetRelations relations = new DatasetRelations(getDatasets(session), session, query());
+            Collection<ProcedureEntity> allProcedures = new ProcedureDao(session).getAllInstances(query());
+            for (OfferingEntity offering : new OfferingDao(session).getAllInstances(query())) {
+                assertThat(offering.getIdentifier(), identifiers(relations.getProcedures(offering)),
+                        is(identifiers(new ProcedureDao(session).get(query(offering)))));
+                for (ProcedureEntity procedure : allProcedures) {
+                    assertThat(offering.getIdentifier() + "/" + procedure.getIdentifier(),
+                            identifiers(relations.getPhenomena(offering, procedure)),
+                            is(identifiers(new PhenomenonDao(session).get(query(offering, procedure)))));
+                }
+            }
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    private static DbQuery query() {
+        return DB_QUERY_FACTORY.createFrom(IoParameters.createDefaults());
+    }
+
+    private static DbQuery query(OfferingEntity offering) {
+        Map<String, String> map = new HashMap<>(1);
+        map.put(IoParameters.OFFERINGS, Long.toString(offering.getId()));
+        return DB_QUERY_FACTORY.createFrom(IoParameters.createFromSingleValueMap(map));
+    }
+
+    private static DbQuery query(OfferingEntity offering, ProcedureEntity procedure) {
+        Map<String, String> map = new HashMap<>(2);
+        map.put(IoParameters.OFFERINGS, Long.toString(offering.getId()));
+        map.put(IoParameters.PROCEDURES, Long.toString(procedure.getId()));
+        return DB_QUERY_FACTORY.createFrom(IoParameters.createFromSingleValueMap(map));
+    }
+
+    private static Collection<DatasetEntity> getDatasets(Session session) {
+        return new DatasetDao(session).get(query());
+    }
+
+    private static OfferingEntity getOffering(Session session, String identifier) {
+        return new OfferingDao(session).getAllInstances(query()).stream()
+                .filter(o -> identifier.equals(o.getIdentifier())).findFirst().get();
+    }
+
+    private static void addDataset(Session session, DatasetEntity template, OfferingEntity offering,
+            String procedureIdentifier, String phenomenonIdentifier, Consumer<DatasetEntity> state)
+            throws OwsExceptionReport {
+        DatasetEntity dataset = getDaoFactory().getSeriesDAO().getDatasetFactory().truth();
+        dataset.setOffering(offering);
+        dataset.setProcedure(getProcedure(session, template, procedureIdentifier));
+        dataset.setObservableProperty(getPhenomenon(session, phenomenonIdentifier));
+        dataset.setCategory(template.getCategory());
+        dataset.setPlatform(template.getPlatform());
+        dataset.setFeature(template.getFeature());
+        dataset.setDeleted(false);
+        dataset.setPublished(true);
+        state.accept(dataset);
+        session.save(dataset);
+        session.flush();
+    }
+
+    private static ProcedureEntity getProcedure(Session session, DatasetEntity template, String identifier) {
+        if (identifier.equals(template.getProcedure().getIdentifier())) {
+            return template.getProcedure();
+        }
+        ProcedureEntity procedure = new ProcedureEntity();
+        procedure.setIdentifier(identifier);
+        procedure.setDeleted(false);
+        procedure.setFormat(template.getProcedure().getFormat());
+        session.save(procedure);
+        session.flush();
+        return procedure;
+    }
+
+    private static PhenomenonEntity getPhenomenon(Session session, String identifier) {
+        PhenomenonEntity phenomenon = (PhenomenonEntity) session.createCriteria(PhenomenonEntity.class)
+                .add(Restrictions.eq(PhenomenonEntity.IDENTIFIER, identifier))
+                .uniqueResult();
+        if (phenomenon == null) {
+            phenomenon = new PhenomenonEntity();
+            phenomenon.setIdentifier(identifier);
+            session.save(phenomenon);
+            session.flush();
+        }
+        return phenomenon;
+    }
+
+    private static Set<String> identifiers(Collection<? extends DescribableEntity> entities) {
+        return entities.stream().map(DescribableEntity::getIdentifier).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.shetland.ogc.gml.ReferenceType;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityConstants;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityRequest;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.DataAvailability;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.FormatDescriptor;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.ObservationFormatDescriptor;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.ProcedureDescriptionFormatDescriptor;
+import org.n52.sos.ds.GetDataAvailabilityHandler.GDARequestContext;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Test the merging of duplicated data availabilities and of the data availabilities of child offerings.
+ *
+ * @since 6.1.2
+ */
+public class GetDataAvailabilityHandlerTest {
+
+    private static final String PARENT = "parent";
+
+    private static final String CHILD_1 = "child1";
+
+    private static final String CHILD_2 = "child2";
+
+    private static final DateTime T0 = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    /**
+     * The references are shared like in the handler, as {@link DataAvailability} compares them by identity.
+     */
+    private final Map<String, ReferenceType> references = new HashMap<>();
+
+    private GDARequestContext context;
+
+    @Before
+    public void setUp() {
+        GetDataAvailabilityRequest request = new GetDataAvailabilityRequest();
+        request.setNamespace(GetDataAvailabilityConstants.NS_GDA_20);
+        request.addOffering(PARENT);
+        context = new GDARequestContext(request);
+    }
+
+    @Test
+    public void shouldMergeDuplicatedDataAvailabilities() {
+        DataAvailability first = dataAvailability("procedure1", CHILD_1, 0, 1);
+        DataAvailability other = dataAvailability("procedure1", CHILD_2, 2, 3);
+        DataAvailability duplicate = dataAvailability("procedure1", CHILD_1, 4, 5);
+        DataAvailability last = dataAvailability("procedure2", CHILD_1, 6, 7);
+
+        List<DataAvailability> checked =
+                GetDataAvailabilityHandler.checkForDuplictation(Arrays.asList(first, other, duplicate, last));
+
+        assertThat(checked, contains(sameInstance(first), sameInstance(other), sameInstance(last)));
+        assertPeriod(first, 0, 5);
+        assertPeriod(other, 2, 3);
+    }
+
+    @Test
+    public void shouldCreateParentDataAvailabilitiesFromChildOfferings() {
+        DataAvailability child1 = dataAvailability("procedure1", CHILD_1, 0, 1);
+        DataAvailability child2 = dataAvailability("procedure1", CHILD_2, 2, 3);
+        DataAvailability child3 = dataAvailability("procedure2", CHILD_2, 1, 2);
+        Arrays.asList(child1, child2, child3).forEach(context::addDataAvailability);
+
+        GetDataAvailabilityHandler.checkForParentOfferings(context, Sets.newHashSet(CHILD_1, CHILD_2));
+
+        assertThat(context.getDataAvailabilityList(), hasSize(5));
+        assertThat(getParents(), hasSize(2));
+        assertPeriod(getParent("procedure1"), 0, 3);
+        assertPeriod(getParent("procedure2"), 1, 2);
+        // the child data availabilities are not modified
+        assertPeriod(child1, 0, 1);
+        assertPeriod(child2, 2, 3);
+    }
+
+    @Test
+    public void shouldMergeObservationTypesOfChildOfferings() {
+        context.addDataAvailability(dataAvailability("procedure1", CHILD_1, 0, 1, "type1"));
+        context.addDataAvailability(dataAvailability("procedure1", CHILD_2, 2, 3, "type2"));
+
+        GetDataAvailabilityHandler.checkForParentOfferings(context, Sets.newHashSet(CHILD_1, CHILD_2));
+
+        Set<ObservationFormatDescriptor> formats =
+                getParent("procedure1").getFormatDescriptor().getObservationFormatDescriptors();
+        assertThat(formats, hasSize(1));
+        assertThat(formats.iterator().next().getObservationTypes(), containsInAnyOrder("type1", "type2"));
+    }
+
+    @Test
+    public void shouldMergeChildOfferingsIntoExistingParentDataAvailabilities() {
+        DataAvailability parent = dataAvailability("procedure1", PARENT, 1, 2);
+        DataAvailability child1 = dataAvailability("procedure1", CHILD_1, 0, 1);
+        DataAvailability child2 = dataAvailability("procedure1", CHILD_2, 2, 3);
+        DataAvailability child3 = dataAvailability("procedure2", CHILD_2, 4, 5);
+        Arrays.asList(parent, child1, child2, child3).forEach(context::addDataAvailability);
+
+        GetDataAvailabilityHandler.checkForParentOfferings(context, Sets.newHashSet(CHILD_1, CHILD_2));
+
+        assertThat(context.getDataAvailabilityList(), hasSize(4));
+        assertThat(getParents(), contains(sameInstance(parent)));
+        assertPeriod(parent, 0, 3);
+    }
+
+    @Test
+    public void shouldIgnoreOfferingsThatAreNotChildOfferings() {
+        DataAvailability child1 = dataAvailability("procedure1", CHILD_1, 0, 1);
+        DataAvailability other = dataAvailability("procedure1", "other", 2, 3);
+        Arrays.asList(child1, other).forEach(context::addDataAvailability);
+
+        GetDataAvailabilityHandler.checkForParentOfferings(context, Collections.singleton(CHILD_1));
+
+        assertThat(getParents(), hasSize(1));
+        assertPeriod(getParent("procedure1"), 0, 1);
+    }
+
+    private List<DataAvailability> getParents() {
+        return context.getDataAvailabilityList().stream().filter(da -> PARENT.equals(da.getOfferingString()))
+                .collect(Collectors.toList());
+    }
+
+    private DataAvailability getParent(String procedure) {
+        Optional<DataAvailability> parent =
+                getParents().stream().filter(da -> procedure.equals(da.getProcedure().getHref())).findFirst();
+        assertThat(procedure, parent.isPresent(), is(true));
+        return parent.get();
+    }
+
+    private void assertPeriod(DataAvailability dataAvailability, int start, int end) {
+        assertThat(dataAvailability.getPhenomenonTime().getStart(), is(T0.plusHours(start)));
+        assertThat(dataAvailability.getPhenomenonTime().getEnd(), is(T0.plusHours(end)));
+    }
+
+    private DataAvailability dataAvailability(String procedure, String offering, int start, int end) {
+        return dataAvailability(procedure, offering, start, end, "observationType");
+    }
+
+    private DataAvailability dataAvailability(String procedure, String offering, int start, int end,
+            String observationType) {
+        if (!context.hasOfferings(offering)) {
+            context.addOfferings(offering, new ReferenceType(offering));
+        }
+        DataAvailability dataAvailability = new DataAvailability(reference(procedure), reference("observedProperty"),
+                reference("feature"), context.getOffering(offering),
+                new TimePeriod(T0.plusHours(start), T0.plusHours(end)));
+        Set<ObservationFormatDescriptor> observationFormats = Sets.newHashSet(
+                new ObservationFormatDescriptor("responseFormat", Sets.newHashSet(observationType)));
+        dataAvailability.setFormatDescriptor(
+                new FormatDescriptor(new ProcedureDescriptionFormatDescriptor("procedureFormat"), observationFormats));
+        return dataAvailability;
+    }
+
+    private ReferenceType reference(String identifier) {
+        return references.computeIfAbsent(identifier, ReferenceType::new);
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.Criteria;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.n52.iceland.i18n.I18NDAORepository;
+import org.n52.series.db.beans.ComplexDataEntity;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.delobs.DeleteObservationRequest;
+import org.n52.shetland.ogc.sos.delobs.DeleteObservationResponse;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.n52.sos.ds.hibernate.dao.observation.ObservationFactory;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+import org.n52.sos.ds.hibernate.util.HibernateObservationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test for the deletion of composite observations by identifier.
+ *
+ * @since 6.1.2
+ */
+public class DeleteObservationHelperTest extends ExtendedHibernateTestCase {
+
+    private static final String COMPOSITE = "composite";
+
+    private static final List<String> COMPONENTS = Arrays.asList("component1", "component2");
+
+    private static final DateTime FIRST = DateTimeHelper.parseIsoString2DateTime("2020-01-01T00:00:00.000Z");
+
+    private static final DateTime SECOND = FIRST.plusHours(1);
+
+    @After
+    public void clear() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldDeleteCompositeObservationPhysically() throws Exception {
+        Set<Long> deleted = deleteFirstCompositeObservation(true);
+        Session session = getSession();
+        try {
+            for (Long id : deleted) {
+                assertThat(session.get(getObservationClass(), id), is(nullValue()));
+            }
+            assertComponentDatasetsStartAtSecondObservation(session);
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @Test
+    public void shouldMarkCompositeObservationAsDeleted() throws Exception {
+        Set<Long> deleted = deleteFirstCompositeObservation(false);
+        Session session = getSession();
+        try {
+            for (Long id : deleted) {
+                DataEntity<?> observation = session.get(getObservationClass(), id);
+                assertThat(observation, is(notNullValue()));
+                assertThat(observation.isDeleted(), is(true));
+            }
+            assertComponentDatasetsStartAtSecondObservation(session);
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    /**
+     * Insert two composite observations, delete the first one by identifier and return the ids of the deleted
+     * observation and its child observations
+     */
+    private Set<Long> deleteFirstCompositeObservation(boolean physically) throws Exception {
+        Helper helper = new Helper(physically);
+        Set<Long> deleted;
+        Session session = getSession();
+        Transaction transaction = null;
+        try {
+            HibernateMetadataCache.init(session);
+            transaction = getTransaction(session);
+            CompositeObservationBuilder builder = new CompositeObservationBuilder(session, helper.getDaoFactory());
+            ComplexDataEntity first = builder.createCompositeObservation(COMPOSITE + 1, FIRST);
+            ComplexDataEntity second = builder.createCompositeObservation(COMPOSITE + 2, SECOND);
+            deleted = ids(first);
+            Set<Long> datasets = new HashSet<>();
+            datasets.add(first.getDataset().getId());
+            first.getValue().forEach(o -> datasets.add(o.getDataset().getId()));
+            second.getValue().forEach(o -> datasets.add(o.getDataset().getId()));
+            // set the first and last observations of the datasets to the inserted observations
+            helper.checkSeriesForFirstLatest(datasets, session);
+            transaction.commit();
+        } finally {
+            returnSession(session);
+        }
+        session = getSession();
+        try {
+            transaction = getTransaction(session);
+            DeleteObservationRequest request = new DeleteObservationRequest();
+            request.addObservationIdentifier(COMPOSITE + 1);
+            helper.deleteObservationsByIdentifier(request, new DeleteObservationResponse(), session);
+            transaction.commit();
+        } finally {
+            returnSession(session);
+        }
+        return deleted;
+    }
+
+    private void assertComponentDatasetsStartAtSecondObservation(Session session) {
+        for (String component : COMPONENTS) {
+            DatasetEntity dataset = (DatasetEntity) session.createCriteria(DatasetEntity.class)
+                    .createAlias(DatasetEntity.PROPERTY_PHENOMENON, "p")
+                    .add(Restrictions.eq("p." + PhenomenonEntity.IDENTIFIER, component))
+                    .uniqueResult();
+            assertThat(dataset.getFirstObservation(), is(notNullValue()));
+            assertThat(dataset.getFirstObservation().getIdentifier(), is(COMPOSITE + 2 + "/" + component));
+            assertThat(new DateTime(dataset.getFirstValueAt()).getMillis(), is(SECOND.getMillis()));
+        }
+    }
+
+    private static Set<Long> ids(ComplexDataEntity composite) {
+        Set<Long> ids = composite.getValue().stream().map(DataEntity::getId).collect(Collectors.toSet());
+        ids.add(composite.getId());
+        return ids;
+    }
+
+    private static class Helper implements DeleteObservationHelper {
+
+        private static final Logger LOGGER = LoggerFactory.getLogger(DeleteObservationHelperTest.class);
+
+        private final DaoFactory daoFactory = new DaoFactory();
+
+        private final boolean physically;
+
+        Helper(boolean physically) {
+            this.physically = physically;
+            daoFactory.setI18NDAORepository(new I18NDAORepository());
+            // include the child observations in the extents of their datasets
+            daoFactory.setIncludeChildObservableProperties(true);
+        }
+
+        @Override
+        public DaoFactory getDaoFactory() {
+            return daoFactory;
+        }
+
+        @Override
+        public Logger getLogger() {
+            return LOGGER;
+        }
+
+        @Override
+        public boolean isDeletePhysically() {
+            return physically;
+        }
+    }
+
+    private static class CompositeObservationBuilder extends HibernateObservationBuilder {
+
+        private final Session session;
+
+        private final ObservationFactory observationFactory;
+
+        CompositeObservationBuilder(Session session, DaoFactory daoFactory) throws OwsExceptionReport {
+            super(session, daoFactory);
+            this.session = session;
+            this.observationFactory = daoFactory.getObservationDAO().getObservationFactory();
+        }
+
+        @SuppressWarnings("unchecked")
+        ComplexDataEntity createCompositeObservation(String id, DateTime time) throws OwsExceptionReport {
+            ComplexDataEntity composite = observationFactory.complex();
+            composite.setValue(new HashSet<>());
+            composite.setDataset(getDataset(COMPOSITE, composite));
+            createObservation(composite, id, time.toDate(), time.toDate(), time.toDate(), null, null);
+            for (String component : COMPONENTS) {
+                QuantityDataEntity child = observationFactory.numeric();
+                child.setValue(BigDecimal.ONE);
+                child.setParent(composite.getId());
+                child.setDataset(getDataset(component, child));
+                createObservation(child, id + "/" + component, time.toDate(), time.toDate(), time.toDate(), null,
+                        null);
+                composite.getValue().add(child);
+            }
+            session.update(composite);
+            session.flush();
+            return composite;
+        }
+
+        private DatasetEntity getDataset(String observableProperty, DataEntity<?> observation)
+                throws OwsExceptionReport {
+            DatasetEntity dataset = (DatasetEntity) session.createCriteria(DatasetEntity.class)
+                    .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
+                    .add(Restrictions.eq(DatasetEntity.PROPERTY_PHENOMENON, getObservableProperty(observableProperty)))
+                    .uniqueResult();
+            if (dataset == null) {
+                dataset = getSeries(getOffering1(), observation);
+                dataset.setObservableProperty(getObservableProperty(observableProperty));
+                session.update(dataset);
+                session.flush();
+            }
+            return dataset;
+        }
+
+        private PhenomenonEntity getObservableProperty(String identifier) {
+            PhenomenonEntity observableProperty = (PhenomenonEntity) session.createCriteria(PhenomenonEntity.class)
+                    .add(Restrictions.eq(PhenomenonEntity.IDENTIFIER, identifier))
+                    .uniqueResult();
+            if (observableProperty == null) {
+                observableProperty = new PhenomenonEntity();
+                observableProperty.setIdentifier(identifier);
+                observableProperty.setName(identifier);
+                session.save(observableProperty);
+                session.flush();
+            }
+            return observableProperty;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.observation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.mockito.Mockito;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.FeatureEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
+import org.n52.sos.ds.hibernate.dao.observation.series.AbstractSeriesDAO;
+
+public class DatasetExtentTest {
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void should_keep_first_and_last_observation() {
+        DatasetEntity dataset = dataset(1L, false);
+        DataEntity<?> second = observation(dataset, 2000L, 20000L);
+        DataEntity<?> first = observation(dataset, 1000L, 30000L);
+        DataEntity<?> third = observation(dataset, 3000L, 10000L);
+        DatasetExtent extent = new DatasetExtent(dataset).add(second).add(first).add(third);
+        assertThat(extent.isEmpty(), is(false));
+        assertThat(extent.getFirstObservation(), is(sameInstance(first)));
+        assertThat(extent.getLastObservation(), is(sameInstance(third)));
+        assertThat(extent.getResultTimeStart(), is(new Date(10000L)));
+        assertThat(extent.getResultTimeEnd(), is(new Date(30000L)));
+    }
+
+    @Test
+    public void should_use_the_feature_geometry_if_the_observation_has_none() {
+        DatasetExtent withoutGeometry = new DatasetExtent(dataset(1L, false));
+        withoutGeometry.add(observation(withoutGeometry.getDataset(), 1000L, 1000L));
+        assertThat(withoutGeometry.isSetGeometry(), is(false));
+        DatasetExtent withFeatureGeometry = new DatasetExtent(dataset(2L, true));
+        withFeatureGeometry.add(observation(withFeatureGeometry.getDataset(), 1000L, 1000L));
+        assertThat(withFeatureGeometry.isSetGeometry(), is(true));
+    }
+
+    @Test
+    public void should_merge_extents() {
+        DatasetEntity dataset = dataset(1L, false);
+        DataEntity<?> first = observation(dataset, 1000L, 1000L);
+        DataEntity<?> last = observation(dataset, 5000L, 5000L);
+        DatasetExtent extent = new DatasetExtent(dataset).add(observation(dataset, 3000L, 3000L));
+        extent.add(new DatasetExtent(dataset)).add(new DatasetExtent(dataset).add(first))
+                .add(new DatasetExtent(dataset).add(last));
+        assertThat(extent.getFirstObservation(), is(sameInstance(first)));
+        assertThat(extent.getLastObservation(), is(sameInstance(last)));
+        assertThat(extent.getResultTimeStart(), is(new Date(1000L)));
+        assertThat(extent.getResultTimeEnd(), is(new Date(5000L)));
+    }
+
+    @Test
+    public void should_apply_one_extent_per_dataset() {
+        DatasetEntity dataset1 = dataset(1L, false);
+        DatasetEntity dataset2 = dataset(2L, false);
+        DataEntity<?> first = observation(dataset1, 1000L, 1000L);
+        DataEntity<?> last = observation(dataset1, 3000L, 3000L);
+        DatasetUpdateBatch batch = new DatasetUpdateBatch();
+        batch.add(dataset1, last);
+        batch.add(dataset2, observation(dataset2, 2000L, 2000L));
+        batch.add(dataset1, first);
+        assertThat(batch.size(), is(3));
+
+        Session session = Mockito.mock(Session.class);
+        List<DatasetExtent> applied = apply(batch, session);
+
+        assertThat(batch.isEmpty(), is(true));
+        assertThat(applied.size(), is(2));
+        assertThat(applied.get(0).getDataset(), is(sameInstance(dataset1)));
+        assertThat(applied.get(0).getFirstObservation(), is(sameInstance(first)));
+        assertThat(applied.get(0).getLastObservation(), is(sameInstance(last)));
+        assertThat(applied.get(1).getDataset(), is(sameInstance(dataset2)));
+        Mockito.verify(session).flush();
+    }
+
+    @Test
+    public void should_keep_the_most_recent_dataset_instance() {
+        DatasetEntity dataset = dataset(1L, false);
+        DatasetEntity reloaded = dataset(1L, false);
+        DatasetUpdateBatch batch = new DatasetUpdateBatch();
+        batch.add(dataset, observation(dataset, 1000L, 1000L));
+        batch.add(reloaded, observation(reloaded, 2000L, 2000L));
+        List<DatasetExtent> applied = apply(batch, Mockito.mock(Session.class));
+        assertThat(applied.size(), is(1));
+        assertThat(applied.get(0).getDataset(), is(sameInstance(reloaded)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DatasetExtent> apply(DatasetUpdateBatch batch, Session session) {
+        AbstractSeriesDAO seriesDAO = Mockito.mock(AbstractSeriesDAO.class);
+        List<DatasetExtent> applied = new ArrayList<>();
+        // copy the extents, the batch clears them after the update
+        Mockito.doAnswer(invocation -> applied.addAll((Collection<DatasetExtent>) invocation.getArgument(0)))
+                .when(seriesDAO).updateDatasetsWithExtents(Mockito.any(), Mockito.eq(session));
+        batch.apply(seriesDAO, session);
+        return applied;
+    }
+
+    private DatasetEntity dataset(long id, boolean featureGeometry) {
+        DatasetEntity dataset = new DatasetEntity();
+        dataset.setId(id);
+        if (featureGeometry) {
+            FeatureEntity feature = new FeatureEntity();
+            feature.setIdentifier("feature-" + id);
+            feature.setGeometry(geometryFactory.createPoint(new Coordinate(id, id)));
+            dataset.setFeature(feature);
+        }
+        return dataset;
+    }
+
+    private DataEntity<?> observation(DatasetEntity dataset, long phenomenonTime, long resultTime) {
+        QuantityDataEntity observation = new QuantityDataEntity();
+        observation.setDataset(dataset);
+        observation.setSamplingTimeStart(new Date(phenomenonTime));
+        observation.setSamplingTimeEnd(new Date(phenomenonTime));
+        observation.setResultTime(new Date(resultTime));
+        return observation;
+    }
+}
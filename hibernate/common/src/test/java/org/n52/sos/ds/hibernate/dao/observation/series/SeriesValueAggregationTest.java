@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.observation.series;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.sos.ds.hibernate.ExtendedHibernateTestCase;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+import org.n52.sos.ds.hibernate.util.HibernateObservationBuilder;
+import org.n52.sos.ds.hibernate.util.SosTemporalRestrictions;
+import org.n52.sos.request.ObservationAggregation;
+import org.n52.sos.request.ObservationAggregation.Function;
+
+/**
+ * Test for the aggregation of series values by the database and while they are streamed. The result times of the
+ * values descend while their phenomenon times ascend, so ordering by result time reverses the values.
+ *
+ * @since 6.1.2
+ */
+public class SeriesValueAggregationTest extends ExtendedHibernateTestCase {
+
+    private static final DateTime START = DateTimeHelper.parseIsoString2DateTime("2020-01-01T00:00:00.000Z");
+
+    private static final int VALUES = 12;
+
+    private static final int CHUNK_SIZE = 5;
+
+    private static final long HOUR = 60L * 60L * 1000L;
+
+    private final ObservationAggregation aggregation = new ObservationAggregation(Function.MEAN, HOUR);
+
+    private DaoFactory daoFactory;
+
+    private AbstractSeriesValueDAO valueDAO;
+
+    @Before
+    public void fillObservations() throws OwsExceptionReport {
+        daoFactory = getDaoFactory();
+        valueDAO = daoFactory.getValueDAO();
+        Session session = getSession();
+        Transaction transaction = null;
+        try {
+            HibernateMetadataCache.init(session);
+            transaction = getTransaction(session);
+            QuantityObservationBuilder builder = new QuantityObservationBuilder(session, daoFactory);
+            for (int i = 0; i < VALUES; i++) {
+                DateTime phenomenonTime = START.plusMinutes(10 * i);
+                DateTime resultTime = START.plusHours(2 * VALUES - i);
+                builder.value = BigDecimal.valueOf(i);
+                builder.createObservation(String.valueOf(i), phenomenonTime, phenomenonTime, resultTime,
+                        phenomenonTime, phenomenonTime);
+            }
+            session.flush();
+            transaction.commit();
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @After
+    public void clearObservations() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldAggregateInDatabase() throws OwsExceptionReport {
+        Session session = getSession();
+        try {
+            assertThat(valueDAO.isAggregationSupported(session), is(true));
+            List<DataEntity<?>> values = valueDAO.getAggregatedSeriesValuesFor(
+                    new ValueQueryContext(resultTimeRequest(), getDataset(session), session)
+                            .setTemporalFilterCriterion(resultTimeCriterion()),
+                    aggregation);
+            assertBuckets(values);
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @Test
+    public void shouldAggregateStreamedValuesInPhenomenonTimeOrder() throws OwsExceptionReport {
+        Session session = getSession();
+        try {
+            DatasetEntity dataset = getDataset(session);
+            SeriesValueAggregator aggregator = new SeriesValueAggregator(aggregation, dataset);
+            List<DataEntity<?>> values = new ArrayList<>();
+            for (DataEntity<?> value : queryValues(dataset, true, session)) {
+                aggregator.add(value).ifPresent(values::add);
+            }
+            aggregator.finish().ifPresent(values::add);
+            assertBuckets(values);
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @Test
+    public void shouldOrderByResultTimeIfNotAggregated() throws OwsExceptionReport {
+        Session session = getSession();
+        try {
+            List<DataEntity<?>> values = queryValues(getDataset(session), false, session);
+            assertThat(values.size(), is(VALUES));
+            assertThat(values.get(0).getSamplingTimeStart().getTime(),
+                    is(START.plusMinutes(10 * (VALUES - 1)).getMillis()));
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    /**
+     * Query all values in chunks, like the chunk streaming value does.
+     */
+    private List<DataEntity<?>> queryValues(DatasetEntity dataset, boolean phenomenonTimeOrder, Session session)
+            throws OwsExceptionReport {
+        List<DataEntity<?>> values = new ArrayList<>();
+        List<DataEntity<?>> chunk;
+        DataEntity<?> lastValue = null;
+        do {
+            chunk = valueDAO.getStreamingSeriesValuesFor(new ValueQueryContext(resultTimeRequest(), dataset, session)
+                    .setTemporalFilterCriterion(resultTimeCriterion()).setChunkSize(CHUNK_SIZE)
+                    .setKeysetPagination(true).setLastValue(lastValue).setPhenomenonTimeOrder(phenomenonTimeOrder));
+            if (!chunk.isEmpty()) {
+                lastValue = chunk.get(chunk.size() - 1);
+            }
+            values.addAll(chunk);
+        } while (chunk.size() == CHUNK_SIZE);
+        return values;
+    }
+
+    private void assertBuckets(List<DataEntity<?>> values) {
+        assertThat(values.size(), is(2));
+        assertThat(values.get(0).getSamplingTimeStart().getTime(), is(START.getMillis()));
+        assertThat(values.get(1).getSamplingTimeStart().getTime(), is(START.getMillis() + HOUR));
+        // the mean of 0..5 and 6..11
+        assertThat(((QuantityDataEntity) values.get(0)).getValue().doubleValue(), is(closeTo(2.5, 0.000001)));
+        assertThat(((QuantityDataEntity) values.get(1)).getValue().doubleValue(), is(closeTo(8.5, 0.000001)));
+    }
+
+    private GetObservationRequest resultTimeRequest() {
+        GetObservationRequest request = new GetObservationRequest();
+        request.addTemporalFilter(resultTimeFilter());
+        return request;
+    }
+
+    private Criterion resultTimeCriterion() throws OwsExceptionReport {
+        return SosTemporalRestrictions.filter(resultTimeFilter());
+    }
+
+    private TemporalFilter resultTimeFilter() {
+        return new TemporalFilter(TimeOperator.TM_During,
+                new TimePeriod(START.minusDays(1), START.plusDays(2)), "om:resultTime");
+    }
+
+    private DatasetEntity getDataset(Session session) {
+        return (DatasetEntity) session.createCriteria(DatasetEntity.class)
+                .createAlias(DatasetEntity.PROPERTY_OFFERING, "o")
+                .add(Restrictions.eq("o." + OfferingEntity.IDENTIFIER, HibernateObservationBuilder.OFFERING_1))
+                .uniqueResult();
+    }
+
+    private static class QuantityObservationBuilder extends HibernateObservationBuilder {
+
+        private BigDecimal value;
+
+        QuantityObservationBuilder(Session session, DaoFactory daoFactory) {
+            super(session, daoFactory);
+        }
+
+        @Override
+        protected DataEntity<?> createObservation(OfferingEntity offering) throws OwsExceptionReport {
+            QuantityDataEntity observation = getObservationDao().getObservationFactory().numeric();
+            observation.setValue(value);
+            observation.setDataset(getSeries(offering, observation));
+            return observation;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.observation.series;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.sos.ds.hibernate.ExtendedHibernateTestCase;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+import org.n52.sos.ds.hibernate.util.HibernateObservationBuilder;
+import org.n52.sos.ds.hibernate.util.SosTemporalRestrictions;
+
+/**
+ * Test for the keyset pagination of series values. Every {@value #VALUES_PER_TIME} values share the same time, so
+ * the chunk boundaries fall between values with equal times.
+ *
+ * @since 6.1.2
+ */
+public class SeriesValueKeysetPaginationTest extends ExtendedHibernateTestCase {
+
+    private static final DateTime START = DateTimeHelper.parseIsoString2DateTime("2020-01-01T00:00:00.000Z");
+
+    private static final int VALUES = 12;
+
+    private static final int VALUES_PER_TIME = 3;
+
+    private static final int CHUNK_SIZE = 5;
+
+    private DaoFactory daoFactory;
+
+    private AbstractSeriesValueDAO valueDAO;
+
+    @Before
+    public void fillObservations() throws OwsExceptionReport {
+        daoFactory = getDaoFactory();
+        valueDAO = daoFactory.getValueDAO();
+        Session session = getSession();
+        Transaction transaction = null;
+        try {
+            HibernateMetadataCache.init(session);
+            transaction = getTransaction(session);
+            QuantityObservationBuilder builder = new QuantityObservationBuilder(session, daoFactory);
+            for (int i = 0; i < VALUES; i++) {
+                DateTime time = START.plusMinutes(10 * (i / VALUES_PER_TIME));
+                builder.value = BigDecimal.valueOf(i);
+                builder.createObservation(String.valueOf(i), time, time, time, time, time);
+            }
+            session.flush();
+            transaction.commit();
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @After
+    public void clearObservations() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldNotSkipOrRepeatValuesWithEqualPhenomenonTime() throws OwsExceptionReport {
+        assertKeysetMatchesOffsetPagination(new GetObservationRequest());
+    }
+
+    @Test
+    public void shouldNotSkipOrRepeatValuesWithEqualResultTime() throws OwsExceptionReport {
+        GetObservationRequest request = new GetObservationRequest();
+        request.addTemporalFilter(new TemporalFilter(TimeOperator.TM_During,
+                new TimePeriod(START.minusDays(1), START.plusDays(1)), "om:resultTime"));
+        assertKeysetMatchesOffsetPagination(request);
+    }
+
+    private void assertKeysetMatchesOffsetPagination(GetObservationRequest request) throws OwsExceptionReport {
+        Session session = getSession();
+        try {
+            DatasetEntity dataset = getDataset(session);
+            List<DataEntity<?>> keysetValues = queryValues(request, dataset, true, CHUNK_SIZE, session);
+            // a single offset query without a chunk size returns all values at once
+            List<DataEntity<?>> allValues = queryValues(request, dataset, false, 0, session);
+            List<DataEntity<?>> offsetValues = queryValues(request, dataset, false, CHUNK_SIZE, session);
+            List<Long> keysetIds = getIds(keysetValues);
+            assertThat(keysetIds.size(), is(VALUES));
+            assertThat(new HashSet<>(keysetIds).size(), is(VALUES));
+            assertThat(new HashSet<>(keysetIds), is(new HashSet<>(getIds(allValues))));
+            assertThat(getTimes(keysetValues), is(getTimes(allValues)));
+            assertThat(getTimes(keysetValues), is(getTimes(offsetValues)));
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    /**
+     * Query all values in chunks, like the chunk streaming value does.
+     */
+    private List<DataEntity<?>> queryValues(GetObservationRequest request, DatasetEntity dataset, boolean keyset,
+            int chunkSize, Session session) throws OwsExceptionReport {
+        List<DataEntity<?>> values = new ArrayList<>();
+        List<DataEntity<?>> chunk;
+        DataEntity<?> lastValue = null;
+        do {
+            ValueQueryContext ctx = new ValueQueryContext(request, dataset, session).setChunkSize(chunkSize)
+                    .setKeysetPagination(keyset).setLastValue(lastValue).setCurrentRow(values.size());
+            if (request.isSetTemporalFilter()) {
+                ctx.setTemporalFilterCriterion(
+                        SosTemporalRestrictions.filter(request.getTemporalFilters().iterator().next()));
+            }
+            chunk = valueDAO.getStreamingSeriesValuesFor(ctx);
+            if (!chunk.isEmpty()) {
+                lastValue = chunk.get(chunk.size() - 1);
+            }
+            values.addAll(chunk);
+        } while (chunkSize > 0 && chunk.size() == chunkSize);
+        return values;
+    }
+
+    private List<Long> getIds(List<DataEntity<?>> values) {
+        return values.stream().map(DataEntity::getId).collect(Collectors.toList());
+    }
+
+    private List<Long> getTimes(List<DataEntity<?>> values) {
+        return values.stream().map(value -> value.getSamplingTimeStart().getTime()).collect(Collectors.toList());
+    }
+
+    private DatasetEntity getDataset(Session session) {
+        return (DatasetEntity) session.createCriteria(DatasetEntity.class)
+                .createAlias(DatasetEntity.PROPERTY_OFFERING, "o")
+                .add(Restrictions.eq("o." + OfferingEntity.IDENTIFIER, HibernateObservationBuilder.OFFERING_1))
+                .uniqueResult();
+    }
+
+    private static class QuantityObservationBuilder extends HibernateObservationBuilder {
+
+        private BigDecimal value;
+
+        QuantityObservationBuilder(Session session, DaoFactory daoFactory) {
+            super(session, daoFactory);
+        }
+
+        @Override
+        protected DataEntity<?> createObservation(OfferingEntity offering) throws OwsExceptionReport {
+            QuantityDataEntity observation = getObservationDao().getObservationFactory().numeric();
+            observation.setValue(value);
+            observation.setDataset(getSeries(offering, observation));
+            return observation;
+        }
+    }
+}
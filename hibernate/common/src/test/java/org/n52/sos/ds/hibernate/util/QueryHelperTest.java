@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * @since 6.1.2
+ */
+public class QueryHelperTest {
+
+    @Test
+    public void shouldReturnSingleListBelowLimit() {
+        List<List<String>> lists = QueryHelper.getListsForIdentifiers(getIdentifiers(999));
+        assertThat(lists, hasSize(1));
+        assertThat(lists.get(0), hasSize(999));
+    }
+
+    @Test
+    public void shouldKeepLastChunk() {
+        List<String> identifiers = getIdentifiers(2500);
+        List<List<String>> lists = QueryHelper.getListsForIdentifiers(identifiers);
+        assertThat(lists, hasSize(3));
+        List<String> joined = new ArrayList<>();
+        lists.forEach(joined::addAll);
+        assertThat(joined, is(identifiers));
+    }
+
+    @Test
+    public void shouldRespectExpressionLimit() {
+        List<Integer> sizes = QueryHelper.getListsForIdentifiers(getIdentifiers(9999)).stream().map(List::size)
+                .collect(Collectors.toList());
+        assertThat(sizes, everyItem(lessThan(1000)));
+        assertThat(sizes.stream().mapToInt(Integer::intValue).sum(), is(9999));
+    }
+
+    private List<String> getIdentifiers(int size) {
+        return IntStream.range(0, size).mapToObj(i -> "feature" + i)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
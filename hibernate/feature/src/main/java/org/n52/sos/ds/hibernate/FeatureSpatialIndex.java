@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.event.events.FeatureInsertion;
+import org.n52.sos.event.events.ObservationInsertion;
+import org.n52.sos.event.events.ResultInsertion;
+import org.n52.sos.event.events.SensorDeletion;
+import org.n52.sos.event.events.UpdateCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * In-memory spatial index of the feature geometries. The geometries are kept in a packed {@link STRtree}, so spatial
+ * filters resolve to the identifiers of the matching features before any feature entity is loaded, and envelopes of
+ * features are computed without loading the features.
+ *
+ * An {@link STRtree} can not be modified once it is built. The index is therefore loaded lazily and discarded when
+ * features may have been inserted, changed or deleted; the next query loads it again.
+ *
+ * @since 6.1.2
+ */
+public class FeatureSpatialIndex implements EventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureSpatialIndex.class);
+
+    private static final Set<Class<? extends Event>> TYPES = ImmutableSet.of(FeatureInsertion.class,
+            ObservationInsertion.class, ResultInsertion.class, SensorDeletion.class, UpdateCache.class);
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Object loadLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Get the identifiers of the features whose geometry is contained in one of the filter geometries.
+     *
+     * @param filters
+     *            the filter geometries
+     * @param loader
+     *            the loader of the feature geometries, used if the index is not loaded
+     * @return the identifiers of the matching features
+     * @throws OwsExceptionReport
+     *             If the feature geometries can not be loaded
+     */
+    public Set<String> getFeatureIdentifiers(Collection<Geometry> filters, Loader loader) throws OwsExceptionReport {
+        Snapshot current = getSnapshot(loader);
+        Set<String> identifiers = new HashSet<>();
+        for (Geometry filter : filters) {
+            for (Object item : current.tree.query(filter.getEnvelopeInternal())) {
+                String identifier = (String) item;
+                if (!identifiers.contains(identifier) && filter.contains(current.geometries.get(identifier))) {
+                    identifiers.add(identifier);
+                }
+            }
+        }
+        return identifiers;
+    }
+
+    /**
+     * Get the envelope of the geometries of the features.
+     *
+     * @param identifiers
+     *            the feature identifiers
+     * @param loader
+     *            the loader of the feature geometries, used if the index is not loaded
+     * @return the envelope, a null envelope if none of the features has a geometry
+     * @throws OwsExceptionReport
+     *             If the feature geometries can not be loaded
+     */
+    public Envelope getEnvelope(Collection<String> identifiers, Loader loader) throws OwsExceptionReport {
+        Snapshot current = getSnapshot(loader);
+        Envelope envelope = new Envelope();
+        for (String identifier : identifiers) {
+            Geometry geometry = current.geometries.get(identifier);
+            if (geometry != null) {
+                envelope.expandToInclude(geometry.getEnvelopeInternal());
+            }
+        }
+        return envelope;
+    }
+
+    /**
+     * Discard the loaded index.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * @return if the index is loaded and up to date
+     */
+    public boolean isLoaded() {
+        return getCurrentSnapshot() != null;
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return Collections.unmodifiableSet(TYPES);
+    }
+
+    @Override
+    public void handle(Event event) {
+        if (event instanceof ObservationInsertion) {
+            checkObservations(((ObservationInsertion) event).getRequest().getObservations());
+        } else if (event instanceof ResultInsertion) {
+            checkObservations(((ResultInsertion) event).getResponse().getObservations());
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Observations only change the index if they reference unknown features or if their sampling geometries may
+     * extend the feature geometries.
+     */
+    private void checkObservations(List<OmObservation> observations) {
+        Snapshot current = getCurrentSnapshot();
+        if (current != null && (observations == null || observations.stream().anyMatch(o -> o == null
+                || o.isSetSpatialFilteringProfileParameter()
+                || !current.identifiers.contains(o.getObservationConstellation().getFeatureOfInterestIdentifier())))) {
+            invalidate();
+        }
+    }
+
+    private Snapshot getCurrentSnapshot() {
+        Snapshot current = snapshot;
+        return current != null && current.generation == generation.get() ? current : null;
+    }
+
+    private Snapshot getSnapshot(Loader loader) throws OwsExceptionReport {
+        Snapshot current = getCurrentSnapshot();
+        if (current != null) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = getCurrentSnapshot();
+            if (current == null) {
+                // an invalidation while loading leaves the loaded snapshot outdated for the next query
+                long loadedGeneration = generation.get();
+                current = new Snapshot(loadedGeneration, loader.load());
+                snapshot = current;
+                LOGGER.debug("Loaded spatial index of {} features", current.identifiers.size());
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Loader of the feature geometries.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * @return the geometries of all features by identifier, the geometry may be <code>null</code>
+         * @throws OwsExceptionReport
+         *             If an error occurs
+         */
+        Map<String, Geometry> load() throws OwsExceptionReport;
+    }
+
+    private static final class Snapshot {
+        private final long generation;
+
+        private final Set<String> identifiers;
+
+        private final Map<String, Geometry> geometries;
+
+        private final STRtree tree = new STRtree();
+
+        Snapshot(long generation, Map<String, Geometry> features) {
+            this.generation = generation;
+            this.identifiers = ImmutableSet.copyOf(features.keySet());
+            ImmutableMap.Builder<String, Geometry> builder = ImmutableMap.builder();
+            features.entrySet().stream()
+                    .filter(e -> e.getValue() != null && !e.getValue().isEmpty())
+                    .forEach(e -> {
+                        builder.put(e.getKey(), e.getValue());
+                        tree.insert(e.getValue().getEnvelopeInternal(), e.getKey());
+                    });
+            this.geometries = builder.build();
+            // build the tree before it is shared, queries on a built tree are read-only
+            tree.build();
+        }
+    }
+}
@@ -35,6 +35,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -115,6 +116,8 @@ public class HibernateFeatureQueryHandler
 
     private ProfileHandler profileHandler;
 
+    private FeatureSpatialIndex featureSpatialIndex;
+
     @Inject
     public void setDaoFactory(DaoFactory daoFactory) {
         this.daoFactory = daoFactory;
@@ -140,6 +143,11 @@ public class HibernateFeatureQueryHandler
         this.profileHandler = profileHandler;
     }
 
+    @Inject
+    public void setFeatureSpatialIndex(FeatureSpatialIndex featureSpatialIndex) {
+        this.featureSpatialIndex = featureSpatialIndex;
+    }
+
     @Setting(I18NSettings.I18N_DEFAULT_LANGUAGE)
     public void setDefaultLocale(String defaultLocale) {
         this.defaultLocale = LocaleHelper.decode(defaultLocale);
@@ -186,24 +194,12 @@ public class HibernateFeatureQueryHandler
                 }
                 return c.list();
             } else {
-                Criteria c = session.createCriteria(FeatureEntity.class);
-                if (queryObject.isSetFeatures()) {
-                    c.add(Restrictions.in(FeatureEntity.IDENTIFIER, queryObject.getFeatures()));
-                }
                 List<String> identifiers = new LinkedList<>();
                 if (queryObject.isSetSpatialFilters()) {
                     SpatialFilter filter = queryObject.getSpatialFitler();
-                    final List<AbstractFeatureEntity> features = daoFactory.getFeatureDAO().getFeatures(session);
                     final Geometry envelope = getGeometryHandler().getFilterForNonSpatialDatasource(filter);
-                    FeatureVisitorContext context = getDefaultContext()
-                            .setSession(session)
-                            .setRequestedLanguage(queryObject.getI18N());
-                    for (final AbstractFeatureEntity feature : features) {
-                        final Geometry geom = new GeometryVisitorImpl(context).visit(feature);
-                        if (geom != null && !geom.isEmpty() && envelope.contains(geom)) {
-                            identifiers.add(feature.getIdentifier());
-                        }
-                    }
+                    identifiers.addAll(featureSpatialIndex.getFeatureIdentifiers(Collections.singleton(envelope),
+                            getFeatureGeometryLoader(queryObject, session)));
                 }
                 return identifiers;
             }
@@ -265,28 +261,10 @@ public class HibernateFeatureQueryHandler
                         return new ReferencedEnvelope(geometry.getEnvelopeInternal(), srid);
                     }
                 } else {
-                    final Envelope envelope = new Envelope();
-                    final List<AbstractFeatureEntity> featuresOfInterest =
-                            daoFactory.getFeatureDAO().getFeatureOfInterestObjects(queryObject.getFeatures(), session);
-                    for (final AbstractFeatureEntity feature : featuresOfInterest) {
-                        try {
-                            // TODO Check if prepareGeometryForResponse required
-                            // transform/switch
-                            // final Geometry geom =
-                            // getGeometryHandler().prepareGeometryForResponse(getGeomtery(feature),
-                            // queryObject.getRequestedSrid());
-                            FeatureVisitorContext context = getDefaultContext()
-                                    .setSession(session)
-                                    .setRequestedLanguage(queryObject.getI18N());
-                            final Geometry geom = new GeometryVisitorImpl(context).visit(feature);
-                            if (geom != null && !geom.isEmpty()) {
-                                envelope.expandToInclude(geom.getEnvelopeInternal());
-                            }
-                        } catch (final OwsExceptionReport owse) {
-                            LOGGER.warn(String.format("Error while adding '%s' to envelope!",
-                                    feature.getId()), owse);
-                        }
-                    }
+                    // TODO Check if prepareGeometryForResponse required
+                    // transform/switch
+                    final Envelope envelope = featureSpatialIndex.getEnvelope(queryObject.getFeatures(),
+                            getFeatureGeometryLoader(queryObject, session));
                     if (!envelope.isNull()) {
                         return new ReferencedEnvelope(envelope, getGeometryHandler().getStorageEPSG());
                     }
@@ -439,8 +417,22 @@ public class HibernateFeatureQueryHandler
                 envelopes.add(getGeometryHandler().getFilterForNonSpatialDatasource(filter));
             }
         }
+        Collection<String> features = queryObject.getFeatures();
+        if (hasSpatialFilter) {
+            // resolve the spatial filters to candidate features before any feature is loaded
+            Set<String> candidates = featureSpatialIndex.getFeatureIdentifiers(envelopes,
+                    getFeatureGeometryLoader(queryObject, session));
+            if (queryObject.isSetFeatures()) {
+                candidates.retainAll(queryObject.getFeatures());
+            }
+            if (candidates.isEmpty()) {
+                return featureMap;
+            }
+            features = candidates;
+        }
+        // the DAO queries the identifiers in chunks below the IN expression limit
         final List<AbstractFeatureEntity> featuresOfInterest =
-                daoFactory.getFeatureDAO().getFeatureOfInterestObjects(queryObject.getFeatures(), session);
+                daoFactory.getFeatureDAO().getFeatureOfInterestObjects(features, session);
         for (final AbstractFeatureEntity feature : featuresOfInterest) {
             final AbstractSamplingFeature sosAbstractFeature =
                     (AbstractSamplingFeature) createSosAbstractFeature(feature, queryObject, session);
@@ -478,6 +470,33 @@ public class HibernateFeatureQueryHandler
         }
     }
 
+    /**
+     * Creates the loader of the {@link FeatureSpatialIndex} from the geometries of all features
+     *
+     * @param queryObject Query object
+     * @param session the session
+     * @return the loader
+     */
+    protected FeatureSpatialIndex.Loader getFeatureGeometryLoader(FeatureQueryHandlerQueryObject queryObject,
+            Session session) {
+        return () -> {
+            FeatureVisitorContext context = getDefaultContext()
+                    .setSession(session)
+                    .setRequestedLanguage(queryObject.getI18N());
+            Map<String, Geometry> geometries = new HashMap<>();
+            for (final AbstractFeatureEntity feature : daoFactory.getFeatureDAO().getFeatures(session)) {
+                Geometry geometry = null;
+                try {
+                    geometry = new GeometryVisitorImpl(context).visit(feature);
+                } catch (final OwsExceptionReport owse) {
+                    LOGGER.warn(String.format("Error while indexing the geometry of '%s'!", feature.getId()), owse);
+                }
+                geometries.put(feature.getIdentifier(), geometry);
+            }
+            return geometries;
+        };
+    }
+
     protected GeometryHandler getGeometryHandler() {
         return geometryHandler;
     }
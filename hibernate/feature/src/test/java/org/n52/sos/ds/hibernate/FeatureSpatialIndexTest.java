@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.event.events.UpdateCache;
+
+public class FeatureSpatialIndexTest {
+
+    private final GeometryFactory factory = new GeometryFactory();
+
+    private final Map<String, Geometry> geometries = new HashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private FeatureSpatialIndex index;
+
+    @Before
+    public void setUp() {
+        index = new FeatureSpatialIndex();
+        geometries.put("a", point(1, 1));
+        geometries.put("b", point(5, 5));
+        geometries.put("c", factory.createLineString(new Coordinate[] { new Coordinate(2, 2),
+            new Coordinate(12, 2) }));
+        geometries.put("d", null);
+    }
+
+    @Test
+    public void shouldReturnFeaturesContainedInFilters() throws OwsExceptionReport {
+        assertThat(index.getFeatureIdentifiers(Collections.singleton(box(0, 0, 6, 6)), this::load),
+                containsInAnyOrder("a", "b"));
+        assertThat(index.getFeatureIdentifiers(Arrays.asList(box(0, 0, 2, 2), box(0, 0, 20, 20)), this::load),
+                containsInAnyOrder("a", "b", "c"));
+        assertThat(index.getFeatureIdentifiers(Collections.singleton(box(20, 20, 30, 30)), this::load), is(empty()));
+    }
+
+    @Test
+    public void shouldReturnEnvelopeOfFeatures() throws OwsExceptionReport {
+        assertThat(index.getEnvelope(Arrays.asList("a", "c", "d", "unknown"), this::load),
+                is(new Envelope(1, 12, 1, 2)));
+        assertThat(index.getEnvelope(Collections.singleton("d"), this::load).isNull(), is(true));
+    }
+
+    @Test
+    public void shouldLoadOnlyOnce() throws OwsExceptionReport {
+        index.getFeatureIdentifiers(Collections.singleton(box(0, 0, 6, 6)), this::load);
+        index.getEnvelope(Collections.singleton("a"), this::load);
+        assertThat(index.isLoaded(), is(true));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void shouldReloadAfterInvalidation() throws OwsExceptionReport {
+        index.getFeatureIdentifiers(Collections.singleton(box(0, 0, 6, 6)), this::load);
+        geometries.put("e", point(3, 3));
+        index.handle(new UpdateCache());
+        assertThat(index.isLoaded(), is(false));
+        assertThat(index.getFeatureIdentifiers(Collections.singleton(box(0, 0, 6, 6)), this::load),
+                containsInAnyOrder("a", "b", "e"));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotPublishSnapshotInvalidatedWhileLoading() throws OwsExceptionReport {
+        index.getEnvelope(Collections.singleton("a"), () -> {
+            index.invalidate();
+            return load();
+        });
+        assertThat(index.isLoaded(), is(false));
+    }
+
+    private Map<String, Geometry> load() {
+        loads.incrementAndGet();
+        return new HashMap<>(geometries);
+    }
+
+    private Geometry point(double x, double y) {
+        return factory.createPoint(new Coordinate(x, y));
+    }
+
+    private Geometry box(double minX, double minY, double maxX, double maxY) {
+        return factory.toGeometry(new Envelope(minX, maxX, minY, maxY));
+    }
+}
@@ -105,6 +105,7 @@ public class HibernateFeatureQueryHandlerTest extends HibernateTestCase {
         featureQueryHandler.setGeometryHandler(geometryHandler);
         featureQueryHandler.setContentCacheController(contentCacheController);
         featureQueryHandler.setI18NDAORepository(i18NDAORepository);
+        featureQueryHandler.setFeatureSpatialIndex(new FeatureSpatialIndex());
         featureQueryHandler.setProfileHandler(new ProfileHandler() {
 
             @Override
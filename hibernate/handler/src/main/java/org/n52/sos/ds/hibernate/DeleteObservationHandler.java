@@ -27,6 +27,13 @@
  */
 package org.n52.sos.ds.hibernate;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 import javax.inject.Inject;
 
 import org.hibernate.HibernateException;
@@ -62,6 +69,11 @@ public class DeleteObservationHandler extends AbstractDeleteObservationHandler
     @Inject
     private DaoFactory daoFactory;
 
+    @Inject
+    private TransactionalLocks transactionalLocks;
+
+    private final Lock lock = new ReentrantLock();
+
     private Boolean deletePhysically = false;
 
     @Setting("service.transactional.DeletePhysically")
@@ -80,8 +92,24 @@ public class DeleteObservationHandler extends AbstractDeleteObservationHandler
     }
 
     @Override
-    public synchronized DeleteObservationResponse deleteObservation(DeleteObservationRequest request)
+    public DeleteObservationResponse deleteObservation(DeleteObservationRequest request)
             throws OwsExceptionReport {
+        return deleteObservation(request, new HashSet<>());
+    }
+
+    @Override
+    public DeleteObservationResponse deleteObservation(DeleteObservationRequest request,
+            Collection<String> modifiedOfferings) throws OwsExceptionReport {
+        Set<String> keys = getKeys(request);
+        try (TransactionalLocks.Locked locked = keys.isEmpty()
+                ? transactionalLocks.lockAll(lock)
+                : transactionalLocks.lock(lock, keys)) {
+            return deleteObservations(request, modifiedOfferings);
+        }
+    }
+
+    private DeleteObservationResponse deleteObservations(DeleteObservationRequest request,
+            Collection<String> modifiedOfferings) throws OwsExceptionReport {
         DeleteObservationResponse response = new DeleteObservationResponse(request.getResponseFormat());
         response.setService(request.getService());
         response.setVersion(request.getVersion());
@@ -90,12 +118,12 @@ public class DeleteObservationHandler extends AbstractDeleteObservationHandler
         try {
             session = getSessionHolder().getSession();
             transaction = getTransaction(session);
-            if (request.isSetObservationIdentifiers()) {
-                deleteObservationsByIdentifier(request, response, session);
-            } else {
-                deleteObservationByParameter(request, response, session);
-            }
+            Set<Long> modifiedDatasets = request.isSetObservationIdentifiers()
+                    ? deleteObservationsByIdentifier(request, response, session)
+                    : deleteObservationByParameter(request, response, session);
+            Set<String> offerings = getOfferingIdentifiers(modifiedDatasets, session);
             transaction.commit();
+            modifiedOfferings.addAll(offerings);
         } catch (HibernateException he) {
             if (transaction != null) {
                 transaction.rollback();
@@ -109,6 +137,31 @@ public class DeleteObservationHandler extends AbstractDeleteObservationHandler
         return response;
     }
 
+    /**
+     * Get the keys to lock for the request. Every deleted observation belongs to one of the requested procedures,
+     * observed properties, features and offerings, so locking them excludes concurrent insertions into the
+     * affected datasets. Deletions by observation identifier or by temporal filter only lock all keys.
+     */
+    private Set<String> getKeys(DeleteObservationRequest request) {
+        Set<String> keys = new TreeSet<>();
+        if (!request.isSetObservationIdentifiers()) {
+            if (request.isSetprocedures()) {
+                request.getProcedures().forEach(p -> keys.add(TransactionalLocks.getProcedureKey(p)));
+            }
+            if (request.isSetObservedProperty()) {
+                request.getObservedProperties()
+                        .forEach(o -> keys.add(TransactionalLocks.getObservablePropertyKey(o)));
+            }
+            if (request.isSetFeatureIdentifiers()) {
+                request.getFeatureIdentifiers().forEach(f -> keys.add(TransactionalLocks.getFeatureKey(f)));
+            }
+            if (request.isSetOfferings()) {
+                request.getOfferings().forEach(o -> keys.add(TransactionalLocks.getOfferingKey(o)));
+            }
+        }
+        return keys;
+    }
+
     @Override
     public DaoFactory getDaoFactory() {
         return daoFactory;
@@ -27,6 +27,11 @@
  */
 package org.n52.sos.ds.hibernate;
 
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 import javax.inject.Inject;
 
 import org.hibernate.HibernateException;
@@ -58,6 +63,11 @@ public class InsertFeatureOfInterestHandler extends AbstractInsertFeatureOfInter
     @Inject
     private DaoFactory daoFactory;
 
+    @Inject
+    private TransactionalLocks transactionalLocks;
+
+    private final Lock lock = new ReentrantLock();
+
     private HibernateSessionHolder sessionHolder;
 
     public InsertFeatureOfInterestHandler() {
@@ -75,7 +85,20 @@ public class InsertFeatureOfInterestHandler extends AbstractInsertFeatureOfInter
     }
 
     @Override
-    public synchronized InsertFeatureOfInterestResponse insertFeatureOfInterest(InsertFeatureOfInterestRequest request)
+    public InsertFeatureOfInterestResponse insertFeatureOfInterest(InsertFeatureOfInterestRequest request)
+            throws OwsExceptionReport {
+        Set<String> keys = new TreeSet<>();
+        for (AbstractFeature abstractFeature : request.getFeatureMembers()) {
+            if (abstractFeature.isSetIdentifier()) {
+                keys.add(TransactionalLocks.getFeatureKey(abstractFeature.getIdentifier()));
+            }
+        }
+        try (TransactionalLocks.Locked locked = transactionalLocks.lock(lock, keys)) {
+            return transactionalLocks.retryOnConstraintViolation(() -> insertFeatures(request));
+        }
+    }
+
+    private InsertFeatureOfInterestResponse insertFeatures(InsertFeatureOfInterestRequest request)
             throws OwsExceptionReport {
         Session session = null;
         Transaction transaction = null;
@@ -117,6 +140,7 @@ public class InsertFeatureOfInterestHandler extends AbstractInsertFeatureOfInter
     protected synchronized void initForTesting(DaoFactory daoFactory, ConnectionProvider connectionProvider) {
         this.daoFactory = daoFactory;
         this.connectionProvider = connectionProvider;
+        this.transactionalLocks = new TransactionalLocks();
     }
 
     protected void handleHibernateException(HibernateException he) throws OwsExceptionReport {
@@ -32,6 +32,8 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.inject.Inject;
 import javax.persistence.PersistenceException;
@@ -69,6 +71,7 @@ import org.n52.shetland.ogc.sos.response.InsertObservationResponse;
 import org.n52.sos.ds.AbstractInsertObservationHandler;
 import org.n52.sos.ds.hibernate.dao.DaoFactory;
 import org.n52.sos.ds.hibernate.dao.observation.AbstractObservationDAO;
+import org.n52.sos.ds.hibernate.dao.observation.DatasetUpdateBatch;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
 import org.n52.sos.ds.hibernate.util.TransactionHelper;
 import org.n52.sos.service.SosSettings;
@@ -109,6 +112,11 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
     @Inject
     private DaoFactory daoFactory;
 
+    @Inject
+    private TransactionalLocks transactionalLocks;
+
+    private final Lock lock = new ReentrantLock();
+
     private HibernateSessionHolder sessionHolder;
 
     private boolean strictSpatialFilteringProfile;
@@ -140,7 +148,18 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
     }
 
     @Override
-    public synchronized InsertObservationResponse insertObservation(final InsertObservationRequest request)
+    public InsertObservationResponse insertObservation(final InsertObservationRequest request)
+            throws OwsExceptionReport {
+        Set<String> keys = TransactionalLocks.getObservationKeys(request.getObservations());
+        if (request.isSetOfferings()) {
+            request.getOfferings().forEach(offering -> keys.add(TransactionalLocks.getOfferingKey(offering)));
+        }
+        try (TransactionalLocks.Locked locked = transactionalLocks.lock(lock, keys)) {
+            return transactionalLocks.retryOnConstraintViolation(() -> insertObservations(request));
+        }
+    }
+
+    private InsertObservationResponse insertObservations(final InsertObservationRequest request)
             throws OwsExceptionReport {
         final InsertObservationResponse response = new InsertObservationResponse();
         response.setService(request.getService());
@@ -158,6 +177,7 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
             InsertObservationCache cache = new InsertObservationCache();
 
             cache.addOfferings(request.getOfferings());
+            DatasetUpdateBatch datasetUpdates = new DatasetUpdateBatch();
 
             // counter for batch flushing
             int obsCount = 0;
@@ -169,7 +189,7 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
                             .withMessage(LOG_SAMPLING_GEOMETRY);
                 }
 
-                insertObservation(sosObservation, cache, exceptions, session);
+                insertObservation(sosObservation, cache, exceptions, datasetUpdates, session);
 
                 // flush every FLUSH_INTERVAL
                 if (++obsCount % FLUSH_THRESHOLD == 0) {
@@ -186,6 +206,7 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
                 throw exceptions;
             }
 
+            datasetUpdates.apply(getDaoFactory().getSeriesDAO(), session);
             session.flush();
             transaction.commit();
         } catch (PersistenceException pe) {
@@ -204,7 +225,8 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
     }
 
     private void insertObservation(OmObservation sosObservation, InsertObservationCache cache,
-            CompositeOwsException exceptions, Session session) throws OwsExceptionReport, CodedException {
+            CompositeOwsException exceptions, DatasetUpdateBatch datasetUpdates, Session session)
+            throws OwsExceptionReport, CodedException {
 
         checkSpatialFilteringProfile(sosObservation);
 
@@ -248,10 +270,12 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
             DatasetEntity dataset = null;
             if (sosObservation.getValue() instanceof SingleObservationValue) {
                 dataset = observationDAO.insertObservationSingleValue(hDataset, hFeature, sosObservation,
-                        cache.getCodespaceCache(), cache.getUnitCache(), cache.getFormatCache(), session);
+                        cache.getCodespaceCache(), cache.getUnitCache(), cache.getFormatCache(), datasetUpdates,
+                        session);
             } else if (sosObservation.getValue() instanceof MultiObservationValues) {
                 dataset = observationDAO.insertObservationMultiValue(hDataset, hFeature, sosObservation,
-                        cache.getCodespaceCache(), cache.getUnitCache(), cache.getFormatCache(), session);
+                        cache.getCodespaceCache(), cache.getUnitCache(), cache.getFormatCache(), datasetUpdates,
+                        session);
             }
             if (dataset != null && cache.containsConstellation(sosObsConst, offeringID)
                     && !cache.get(sosObsConst, offeringID).equals(dataset)) {
@@ -365,6 +389,7 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler
     protected synchronized void initForTesting(DaoFactory daoFactory, ConnectionProvider connectionProvider) {
         this.daoFactory = daoFactory;
         this.connectionProvider = connectionProvider;
+        this.transactionalLocks = new TransactionalLocks();
     }
 
     private static class InsertObservationCache {
@@ -33,6 +33,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.inject.Inject;
 import javax.persistence.PersistenceException;
@@ -90,6 +92,7 @@ import org.n52.sos.ds.AbstractInsertResultHandler;
 import org.n52.sos.ds.hibernate.dao.DaoFactory;
 import org.n52.sos.ds.hibernate.dao.FormatDAO;
 import org.n52.sos.ds.hibernate.dao.observation.AbstractObservationDAO;
+import org.n52.sos.ds.hibernate.dao.observation.DatasetUpdateBatch;
 import org.n52.sos.ds.hibernate.dao.observation.ObservationContext;
 import org.n52.sos.ds.hibernate.dao.observation.series.AbstractSeriesDAO;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
@@ -127,6 +130,11 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
     @Inject
     private DaoFactory daoFactory;
 
+    @Inject
+    private TransactionalLocks transactionalLocks;
+
+    private final Lock lock = new ReentrantLock();
+
     private HibernateSessionHolder sessionHolder;
 
     private boolean convertComplexProfileToSingleProfiles;
@@ -148,13 +156,19 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
     }
 
     @Override
-    public synchronized InsertResultResponse insertResult(final InsertResultRequest request)
+    public InsertResultResponse insertResult(final InsertResultRequest request)
+            throws OwsExceptionReport {
+        return transactionalLocks.retryOnConstraintViolation(() -> insertResultValues(request));
+    }
+
+    private InsertResultResponse insertResultValues(final InsertResultRequest request)
             throws OwsExceptionReport {
         final InsertResultResponse response = new InsertResultResponse();
         response.setService(request.getService());
         response.setVersion(request.getVersion());
         Session session = null;
         Transaction transaction = null;
+        TransactionalLocks.Locked locked = null;
 
         Map<String, CodespaceEntity> codespaceCache = Maps.newHashMap();
         Map<UoM, UnitEntity> unitCache = Maps.newHashMap();
@@ -162,12 +176,14 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
 
         try {
             session = getHibernateSessionHolder().getSession();
-            transaction = getTransaction(session);
             final ResultTemplateEntity resultTemplate = getDaoFactory().getResultTemplateDAO()
                     .getResultTemplateObject(request.getTemplateIdentifier(), session);
             final OmObservation o = getSingleObservationFromResultValues(response.getVersion(), resultTemplate,
                     request.getResultValues(), session);
             final List<OmObservation> observations = getSingleObservationsFromObservation(o);
+            // the datasets are only known after parsing the result values, lock them before the transaction begins
+            locked = transactionalLocks.lock(lock, TransactionalLocks.getObservationKeys(observations));
+            transaction = getTransaction(session);
             if (o.getObservationConstellation().isSetFeatureOfInterest()
                     && o.getObservationConstellation().isSetProcedure()) {
                 response.setObservation(o);
@@ -184,6 +200,9 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
             final AbstractObservationDAO observationDAO = getDaoFactory().getObservationDAO();
             LOGGER.debug("Start saving {} observations.", size);
             Map<String, AbstractFeatureEntity> featureEntityMap = new HashMap<>();
+            // observations are committed one by one if existing observations should be skipped
+            final DatasetUpdateBatch datasetUpdates =
+                    abortInsertResultForExistingObservations() ? new DatasetUpdateBatch() : null;
             for (final OmObservation observation : observations) {
                 OmObservationConstellation omObsConst = observation.getObservationConstellation();
                 if (!obsConsts.containsKey(omObsConst)) {
@@ -204,33 +223,47 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
                 } else {
                     feature = getFeature(omObsConst.getFeatureOfInterest(), featureEntityMap, session);
                 }
-                try {
-                    if (observation.getValue() instanceof SingleObservationValue) {
-                        observationDAO.insertObservationSingleValue(obsConst, feature, observation, codespaceCache,
-                                unitCache, formatCache, session);
-                    } else if (observation.getValue() instanceof MultiObservationValues) {
-                        observationDAO.insertObservationMultiValue(obsConst, feature, observation, codespaceCache,
-                                unitCache, formatCache, session);
-                    }
-                    if (!abortInsertResultForExistingObservations()) {
-                        transaction.commit();
-                        if (!session.isOpen()) {
-                            session = getHibernateSessionHolder().getSession();
+                // a concurrent insertion of the same reference entity is retried once if key locking is enabled
+                boolean retry = transactionalLocks.isKeyLocking();
+                boolean done = false;
+                while (!done) {
+                    try {
+                        if (observation.getValue() instanceof SingleObservationValue) {
+                            observationDAO.insertObservationSingleValue(obsConst, feature, observation,
+                                    codespaceCache, unitCache, formatCache, datasetUpdates, session);
+                        } else if (observation.getValue() instanceof MultiObservationValues) {
+                            observationDAO.insertObservationMultiValue(obsConst, feature, observation,
+                                    codespaceCache, unitCache, formatCache, datasetUpdates, session);
                         }
-                        transaction = getTransaction(session);
-                    }
-                } catch (PersistenceException pe) {
-                    if (abortInsertResultForExistingObservations()) {
-                        throw pe;
-                    } else {
-                        transaction.rollback();
-                        if (session.isConnected() || session.isOpen()) {
-                            session.clear();
+                        if (!abortInsertResultForExistingObservations()) {
+                            transaction.commit();
+                            if (!session.isOpen()) {
+                                session = getHibernateSessionHolder().getSession();
+                            }
+                            transaction = getTransaction(session);
+                        }
+                        done = true;
+                    } catch (PersistenceException pe) {
+                        if (abortInsertResultForExistingObservations()) {
+                            throw pe;
                         } else {
-                            session = getHibernateSessionHolder().getSession();
+                            transaction.rollback();
+                            if (session.isConnected() || session.isOpen()) {
+                                session.clear();
+                            } else {
+                                session = getHibernateSessionHolder().getSession();
+                            }
+                            transaction = getTransaction(session);
+                            codespaceCache.clear();
+                            unitCache.clear();
+                            formatCache.clear();
+                            if (retry && TransactionalLocks.isConstraintViolation(pe)) {
+                                retry = false;
+                            } else {
+                                LOGGER.debug("Already existing observation would be ignored!", pe);
+                                done = true;
+                            }
                         }
-                        transaction = getTransaction(session);
-                        LOGGER.debug("Already existing observation would be ignored!", pe);
                     }
                 }
                 if ((++insertion % FLUSH_THRESHOLD) == 0) {
@@ -239,6 +272,9 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
                     LOGGER.debug("Saved {}/{} observations.", insertion, size);
                 }
             }
+            if (datasetUpdates != null) {
+                datasetUpdates.apply(obsConstDao, session);
+            }
             LOGGER.debug("Saved {} observations.", size);
             transaction.commit();
         } catch (final HibernateException he) {
@@ -248,7 +284,13 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
             // XXX exception text
             throw new NoApplicableCodeException().causedBy(he);
         } finally {
-            getHibernateSessionHolder().returnSession(session);
+            try {
+                getHibernateSessionHolder().returnSession(session);
+            } finally {
+                if (locked != null) {
+                    locked.close();
+                }
+            }
         }
         return response;
     }
@@ -667,6 +709,7 @@ public class InsertResultHandler extends AbstractInsertResultHandler implements
     protected synchronized void initForTesting(DaoFactory daoFactory, ConnectionProvider connectionProvider) {
         this.daoFactory = daoFactory;
         this.connectionProvider = connectionProvider;
+        this.transactionalLocks = new TransactionalLocks();
     }
 
 }
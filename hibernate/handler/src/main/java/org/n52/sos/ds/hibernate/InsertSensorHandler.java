@@ -38,7 +38,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -133,6 +137,11 @@ public class InsertSensorHandler extends AbstractInsertSensorHandler implements
     @Inject
     private DaoFactory daoFactory;
 
+    @Inject
+    private TransactionalLocks transactionalLocks;
+
+    private final Lock lock = new ReentrantLock();
+
     private HibernateSessionHolder sessionHolder;
 
     public InsertSensorHandler() {
@@ -145,7 +154,14 @@ public class InsertSensorHandler extends AbstractInsertSensorHandler implements
     }
 
     @Override
-    public synchronized InsertSensorResponse insertSensor(final InsertSensorRequest request)
+    public InsertSensorResponse insertSensor(final InsertSensorRequest request)
+            throws OwsExceptionReport {
+        try (TransactionalLocks.Locked locked = transactionalLocks.lock(lock, getKeys(request))) {
+            return transactionalLocks.retryOnConstraintViolation(() -> insertProcedure(request));
+        }
+    }
+
+    private InsertSensorResponse insertProcedure(final InsertSensorRequest request)
             throws OwsExceptionReport {
         final InsertSensorResponse response = new InsertSensorResponse();
         response.setService(request.getService());
@@ -277,6 +293,32 @@ public class InsertSensorHandler extends AbstractInsertSensorHandler implements
         return response;
     }
 
+    private Set<String> getKeys(InsertSensorRequest request) {
+        Set<String> keys = new TreeSet<>();
+        keys.add(TransactionalLocks.getProcedureKey(request.getAssignedProcedureIdentifier()));
+        for (SosOffering offering : request.getAssignedOfferings()) {
+            keys.add(TransactionalLocks.getOfferingKey(offering.getIdentifier()));
+        }
+        if (request.getObservableProperty() != null) {
+            for (String observableProperty : request.getObservableProperty()) {
+                keys.add(TransactionalLocks.getObservablePropertyKey(observableProperty));
+            }
+        }
+        if (request.getRelatedFeatures() != null) {
+            for (SwesFeatureRelationship relatedFeature : request.getRelatedFeatures()) {
+                if (relatedFeature.getFeature() != null && relatedFeature.getFeature().isSetIdentifier()) {
+                    keys.add(TransactionalLocks.getFeatureKey(relatedFeature.getFeature().getIdentifier()));
+                }
+            }
+        }
+        if (request.getProcedureDescription() != null
+                && request.getProcedureDescription().isSetFeaturesOfInterestMap()) {
+            keys.addAll(request.getProcedureDescription().getFeaturesOfInterestMap().keySet().stream()
+                    .map(TransactionalLocks::getFeatureKey).collect(Collectors.toSet()));
+        }
+        return keys;
+    }
+
     private boolean checkPreconditionsOfStaticReferenceValues(final InsertSensorRequest request) {
         return request.getProcedureDescription().getProcedureDescription() instanceof AbstractProcessV20
                 && ((AbstractProcessV20) request.getProcedureDescription().getProcedureDescription())
@@ -522,6 +564,7 @@ public class InsertSensorHandler extends AbstractInsertSensorHandler implements
     protected synchronized void initForTesting(DaoFactory daoFactory, ConnectionProvider connectionProvider) {
         this.daoFactory = daoFactory;
         this.connectionProvider = connectionProvider;
+        this.transactionalLocks = new TransactionalLocks();
     }
 
 }
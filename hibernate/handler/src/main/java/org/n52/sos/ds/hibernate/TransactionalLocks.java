@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.janmayen.http.HTTPStatus;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.ows.exception.CodedException;
+import org.n52.shetland.ogc.ows.exception.CompositeOwsException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Locks of the transactional handlers. By default each handler serializes its requests with its own lock. If key
+ * locking is enabled, a request only locks the procedures, offerings, observable properties and features it
+ * modifies, so that requests for independent datasets are executed in parallel. Requests that modify unknown
+ * entities take a global write lock instead. Reference entities like units or codespaces are shared by the
+ * datasets and not locked. If two requests insert the same reference entity, one of them fails with a constraint
+ * violation and is retried by {@link #retryOnConstraintViolation(TransactionalOperation)}.
+ *
+ * @since 6.1.2
+ */
+@Configurable
+public class TransactionalLocks {
+
+    public static final String KEY_LOCKING = "service.transactional.keyLocking";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionalLocks.class);
+
+    private static final int STRIPES = 1024;
+
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
+    private static final String PROCEDURE = "procedure:";
+
+    private static final String OFFERING = "offering:";
+
+    private static final String OBSERVABLE_PROPERTY = "observableProperty:";
+
+    private static final String FEATURE = "feature:";
+
+    private final Striped<Lock> stripes = Striped.lock(STRIPES);
+
+    private final ReadWriteLock global = new ReentrantReadWriteLock(true);
+
+    private boolean keyLocking;
+
+    @Setting(KEY_LOCKING)
+    public void setKeyLocking(boolean keyLocking) {
+        this.keyLocking = keyLocking;
+    }
+
+    public boolean isKeyLocking() {
+        return keyLocking;
+    }
+
+    /**
+     * Lock the keys, or the handler lock if key locking is disabled.
+     *
+     * @param handlerLock
+     *            the lock of the handler
+     * @param keys
+     *            the keys of the modified entities
+     * @return the acquired locks, to be closed after the transaction
+     */
+    public Locked lock(Lock handlerLock, Collection<String> keys) {
+        if (!isKeyLocking()) {
+            return acquire(Collections.singletonList(handlerLock));
+        }
+        // the global lock is acquired first and the stripes are returned in a consistent order,
+        // so the locks can not deadlock
+        List<Lock> locks = new ArrayList<>();
+        locks.add(global.readLock());
+        stripes.bulkGet(keys).forEach(locks::add);
+        return acquire(locks);
+    }
+
+    /**
+     * Lock all keys with the global write lock, or the handler lock if key locking is disabled. Used by requests
+     * whose modified entities are not known in advance.
+     *
+     * @param handlerLock
+     *            the lock of the handler
+     * @return the acquired locks, to be closed after the transaction
+     */
+    public Locked lockAll(Lock handlerLock) {
+        if (!isKeyLocking()) {
+            return acquire(Collections.singletonList(handlerLock));
+        }
+        return acquire(Collections.singletonList(global.writeLock()));
+    }
+
+    /**
+     * Execute the operation and execute it a second time if key locking is enabled and the first execution failed
+     * because of a constraint violation. The constraint violation is caused by a concurrent request that inserted
+     * the same reference entity, which is found by the second execution.
+     *
+     * @param <T>
+     *            the result type
+     * @param operation
+     *            the operation that executes a transaction
+     * @return the result of the operation
+     * @throws OwsExceptionReport
+     *             if the operation fails
+     */
+    public <T> T retryOnConstraintViolation(TransactionalOperation<T> operation) throws OwsExceptionReport {
+        try {
+            return operation.execute();
+        } catch (OwsExceptionReport | RuntimeException e) {
+            // a constraint violation that is reported as client error is caused by the request itself
+            if (!isKeyLocking() || !isConstraintViolation(e) || e instanceof OwsExceptionReport
+                    && ((OwsExceptionReport) e).getStatus() == HTTPStatus.BAD_REQUEST) {
+                throw e;
+            }
+            LOGGER.debug("Retry transaction after constraint violation", e);
+            return operation.execute();
+        }
+    }
+
+    private Locked acquire(List<Lock> locks) {
+        List<Lock> acquired = new ArrayList<>(locks.size());
+        try {
+            for (Lock lock : locks) {
+                lock.lock();
+                acquired.add(lock);
+            }
+        } catch (RuntimeException e) {
+            new Locked(acquired).close();
+            throw e;
+        }
+        return new Locked(acquired);
+    }
+
+    /**
+     * Get the keys of the entities that are created or modified by inserting the observations.
+     *
+     * @param observations
+     *            the observations
+     * @return the keys
+     */
+    public static Set<String> getObservationKeys(Collection<OmObservation> observations) {
+        Set<String> keys = new TreeSet<>();
+        for (OmObservation observation : observations) {
+            OmObservationConstellation constellation = observation.getObservationConstellation();
+            if (constellation != null) {
+                addKey(keys, PROCEDURE, constellation.getProcedureIdentifier());
+                addKey(keys, OBSERVABLE_PROPERTY, constellation.getObservablePropertyIdentifier());
+                addKey(keys, FEATURE, constellation.getFeatureOfInterestIdentifier());
+                if (constellation.getOfferings() != null) {
+                    constellation.getOfferings().forEach(offering -> addKey(keys, OFFERING, offering));
+                }
+            }
+        }
+        return keys;
+    }
+
+    public static String getProcedureKey(String procedure) {
+        return PROCEDURE + procedure;
+    }
+
+    public static String getOfferingKey(String offering) {
+        return OFFERING + offering;
+    }
+
+    public static String getObservablePropertyKey(String observableProperty) {
+        return OBSERVABLE_PROPERTY + observableProperty;
+    }
+
+    public static String getFeatureKey(String feature) {
+        return FEATURE + feature;
+    }
+
+    static boolean isConstraintViolation(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException || t instanceof SQLException
+                    && ((SQLException) t).getSQLState() != null
+                    && ((SQLException) t).getSQLState().startsWith(INTEGRITY_CONSTRAINT_VIOLATION)) {
+                return true;
+            }
+            if (t instanceof CompositeOwsException) {
+                for (CodedException e : ((CompositeOwsException) t).getExceptions()) {
+                    if (isConstraintViolation(e)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void addKey(Set<String> keys, String prefix, String identifier) {
+        if (identifier != null && !identifier.isEmpty()) {
+            keys.add(prefix + identifier);
+        }
+    }
+
+    /**
+     * Operation that executes a transaction.
+     *
+     * @param <T>
+     *            the result type
+     */
+    @FunctionalInterface
+    public interface TransactionalOperation<T> {
+        T execute() throws OwsExceptionReport;
+    }
+
+    /**
+     * Acquired locks, released in reverse order on {@link #close()}.
+     */
+    public static final class Locked implements AutoCloseable {
+        private final List<Lock> locks;
+
+        private Locked(List<Lock> locks) {
+            this.locks = locks;
+        }
+
+        @Override
+        public void close() {
+            for (Lock lock : Lists.reverse(locks)) {
+                lock.unlock();
+            }
+        }
+    }
+}
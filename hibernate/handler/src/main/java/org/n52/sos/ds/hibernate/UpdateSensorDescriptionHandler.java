@@ -27,7 +27,10 @@
  */
 package org.n52.sos.ds.hibernate;
 
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.inject.Inject;
 
@@ -69,6 +72,11 @@ public class UpdateSensorDescriptionHandler extends AbstractUpdateSensorDescript
     @Inject
     private DaoFactory daoFactory;
 
+    @Inject
+    private TransactionalLocks transactionalLocks;
+
+    private final Lock lock = new ReentrantLock();
+
     private HibernateSessionHolder sessionHolder;
 
     public UpdateSensorDescriptionHandler() {
@@ -81,8 +89,15 @@ public class UpdateSensorDescriptionHandler extends AbstractUpdateSensorDescript
     }
 
     @Override
-    public synchronized UpdateSensorResponse updateSensorDescription(UpdateSensorRequest request)
+    public UpdateSensorResponse updateSensorDescription(UpdateSensorRequest request)
             throws OwsExceptionReport {
+        try (TransactionalLocks.Locked locked = transactionalLocks.lock(lock,
+                Collections.singleton(TransactionalLocks.getProcedureKey(request.getProcedureIdentifier())))) {
+            return transactionalLocks.retryOnConstraintViolation(() -> updateProcedureHistory(request));
+        }
+    }
+
+    private UpdateSensorResponse updateProcedureHistory(UpdateSensorRequest request) throws OwsExceptionReport {
         Session session = null;
         Transaction transaction = null;
         try {
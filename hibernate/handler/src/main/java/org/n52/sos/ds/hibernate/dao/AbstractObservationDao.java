@@ -98,6 +98,8 @@ public abstract class AbstractObservationDao extends AbstractDaoImpl {
 
     private int chunkSize;
 
+    private boolean keysetPagination = true;
+
     @Inject
     public void setEncoderRepository(EncoderRepository encoderRepository) {
         this.encoderRepository = encoderRepository;
@@ -141,6 +143,21 @@ public abstract class AbstractObservationDao extends AbstractDaoImpl {
         return chunkSize;
     }
 
+    /**
+     * Set whether chunks are queried by the key of the last value instead of the row offset
+     *
+     * @param keysetPagination
+     *            whether to use keyset pagination
+     */
+    @Setting(HibernateStreamingSettings.KEYSET_PAGINATION)
+    public void setKeysetPagination(boolean keysetPagination) {
+        this.keysetPagination = keysetPagination;
+    }
+
+    public boolean isKeysetPagination() {
+        return keysetPagination;
+    }
+
     /**
      * Get ObservationConstellations and check if size limit is exceeded
      *
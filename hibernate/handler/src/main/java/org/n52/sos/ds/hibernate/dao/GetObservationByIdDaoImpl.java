@@ -216,7 +216,8 @@ public class GetObservationByIdDaoImpl extends AbstractObservationDao
                             session);
             OmObservation observationTemplate = createSosObservationFromSeries.next();
             HibernateSeriesStreamingValue streamingValue = new HibernateChunkSeriesStreamingValue(
-                    sessionHolder.getConnectionProvider(), daoFactory, request, series, getChunkSize());
+                    sessionHolder.getConnectionProvider(), daoFactory, request, series, getChunkSize(),
+                    isKeysetPagination());
             streamingValue.setResponseFormat(request.getResponseFormat());
             streamingValue.setObservationTemplate(observationTemplate);
             observationTemplate.setValue(streamingValue);
@@ -49,6 +49,9 @@ import org.n52.iceland.exception.ows.concrete.NotYetSupportedException;
 import org.n52.janmayen.http.HTTPStatus;
 import org.n52.series.db.beans.DataEntity;
 import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.dataset.DatasetType;
+import org.n52.series.db.beans.dataset.ObservationType;
+import org.n52.series.db.beans.dataset.ValueType;
 import org.n52.shetland.ogc.gml.time.IndeterminateValue;
 import org.n52.shetland.ogc.om.ObservationStream;
 import org.n52.shetland.ogc.om.OmObservation;
@@ -64,7 +67,8 @@ import org.n52.sos.ds.hibernate.util.ObservationTimeExtrema;
 import org.n52.sos.ds.hibernate.util.observation.HibernateObservationUtilities;
 import org.n52.sos.ds.hibernate.util.observation.HibernateOmObservationCreatorContext;
 import org.n52.sos.ds.hibernate.values.dataset.HibernateChunkSeriesStreamingValue;
-import org.n52.sos.ds.hibernate.values.dataset.HibernateSeriesStreamingValue;
+import org.n52.sos.request.ObservationAggregation;
+import org.n52.sos.request.ObservationDownsampling;
 import org.n52.sos.service.profile.ProfileHandler;
 import org.n52.svalbard.encode.Encoder;
 import org.n52.svalbard.encode.ObservationEncoder;
@@ -285,6 +289,8 @@ public class GetObservationDaoImpl extends AbstractObservationDao implements org
         List<DatasetEntity> serieses = daoFactory.getSeriesDAO().getSeries(request, features, session);
         checkMaxNumberOfReturnedSeriesSize(serieses.size());
         int maxNumberOfValuesPerSeries = getMaxNumberOfValuesPerSeries(serieses.size());
+        ObservationAggregation aggregation = ObservationAggregation.fromRequest(request).orElse(null);
+        ObservationDownsampling downsampling = ObservationDownsampling.fromRequest(request).orElse(null);
         for (DatasetEntity series : serieses) {
             ObservationStream createSosObservationFromSeries = series.hasEreportingProfile()
                     ? HibernateObservationUtilities.createSosObservationFromEReportingSeries(series, request,
@@ -294,12 +300,20 @@ public class GetObservationDaoImpl extends AbstractObservationDao implements org
                             getRequestedLocale(request), getProcedureDescriptionFormat(request.getResponseFormat()),
                             observationCreatorContext, session);
             OmObservation observationTemplate = createSosObservationFromSeries.next();
-            HibernateSeriesStreamingValue streamingValue = new HibernateChunkSeriesStreamingValue(
-                    sessionHolder.getConnectionProvider(), daoFactory, request, series, getChunkSize());
+            HibernateChunkSeriesStreamingValue streamingValue = new HibernateChunkSeriesStreamingValue(
+                    sessionHolder.getConnectionProvider(), daoFactory, request, series, getChunkSize(),
+                    isKeysetPagination());
             streamingValue.setResponseFormat(request.getResponseFormat());
             streamingValue.setTemporalFilterCriterion(temporalFilterCriterion);
             streamingValue.setObservationTemplate(observationTemplate);
             streamingValue.setMaxNumberOfValues(maxNumberOfValuesPerSeries);
+            boolean aggregated = aggregation != null && isAggregatable(series, aggregation);
+            if (aggregated) {
+                streamingValue.setAggregation(aggregation);
+            }
+            if (downsampling != null && (aggregated || isDownsamplable(series))) {
+                streamingValue.setDownsampling(downsampling);
+            }
             observationTemplate.setValue(streamingValue);
             result.add(observationTemplate);
         }
@@ -314,6 +328,40 @@ public class GetObservationDaoImpl extends AbstractObservationDao implements org
         return result;
     }
 
+    /**
+     * Check if the values of the dataset can be aggregated. Trajectories are never aggregated and except for
+     * counting only quantity values.
+     *
+     * @param series
+     *            the dataset
+     * @param aggregation
+     *            the requested aggregation
+     * @return <code>true</code>, if the values can be aggregated
+     */
+    private boolean isAggregatable(DatasetEntity series, ObservationAggregation aggregation) {
+        if (isTrajectory(series)) {
+            return false;
+        }
+        return !aggregation.getFunction().isNumeric() || ValueType.quantity.equals(series.getValueType());
+    }
+
+    /**
+     * Check if the values of the dataset can be downsampled, i.e. if they are quantity values of a non-trajectory
+     * dataset. Aggregated values can always be downsampled.
+     *
+     * @param series
+     *            the dataset
+     * @return <code>true</code>, if the values can be downsampled
+     */
+    private boolean isDownsamplable(DatasetEntity series) {
+        return !isTrajectory(series) && ValueType.quantity.equals(series.getValueType());
+    }
+
+    private boolean isTrajectory(DatasetEntity series) {
+        return DatasetType.trajectory.equals(series.getDatasetType())
+                || ObservationType.trajectory.equals(series.getObservationType());
+    }
+
     private String getProcedureDescriptionFormat(String responseFormat) {
         Encoder<XmlObject, OmObservation> encoder = getEncoder(new XmlEncoderKey(responseFormat, OmObservation.class));
         if (encoder != null && encoder instanceof ObservationEncoder) {
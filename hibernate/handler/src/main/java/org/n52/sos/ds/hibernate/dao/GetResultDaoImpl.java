@@ -27,22 +27,33 @@
  */
 package org.n52.sos.ds.hibernate.dao;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
 import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.Transaction;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.ds.ConnectionProvider;
 import org.n52.janmayen.http.HTTPStatus;
 import org.n52.series.db.beans.DataEntity;
 import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.dataset.DatasetType;
+import org.n52.series.db.beans.dataset.ObservationType;
 import org.n52.shetland.ogc.filter.TemporalFilter;
 import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
@@ -58,18 +69,22 @@ import org.n52.sos.ds.dao.GetResultDao;
 import org.n52.sos.ds.dao.GetResultTemplateDao;
 import org.n52.sos.ds.hibernate.HibernateSessionHolder;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.n52.sos.ds.hibernate.util.ScrollableResultsIterator;
 import org.n52.sos.ds.hibernate.util.SosTemporalRestrictions;
 import org.n52.sos.ds.hibernate.util.SpatialRestrictions;
+import org.n52.sos.ds.hibernate.values.HibernateStreamingSettings;
 import org.n52.sos.ds.utils.ResultHandlingHelper;
 import org.n52.sos.exception.ows.concrete.UnsupportedOperatorException;
 import org.n52.sos.exception.ows.concrete.UnsupportedTimeException;
 import org.n52.sos.exception.ows.concrete.UnsupportedValueReferenceException;
+import org.n52.sos.ogc.sos.StreamingGetResultResponse;
 import org.n52.sos.service.profile.ProfileHandler;
 import org.n52.svalbard.util.SweHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+@Configurable
 @SuppressFBWarnings({ "EI_EXPOSE_REP", "EI_EXPOSE_REP2" })
 public class GetResultDaoImpl extends AbstractDaoImpl implements GetResultDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(GetResultDaoImpl.class);
@@ -86,6 +101,10 @@ public class GetResultDaoImpl extends AbstractDaoImpl implements GetResultDao {
 
     private Optional<GetResultTemplateDao> getResultTemplateDao;
 
+    private boolean streaming;
+
+    private int chunkSize;
+
     @Inject
     public void setConnectionProvider(ConnectionProvider connectionProvider) {
         this.sessionHolder = new HibernateSessionHolder(connectionProvider);
@@ -111,6 +130,32 @@ public class GetResultDaoImpl extends AbstractDaoImpl implements GetResultDao {
         this.getResultTemplateDao = getResultTemplateDao;
     }
 
+    /**
+     * Set whether the result values are queried and written when the response is encoded
+     *
+     * @param streaming
+     *            whether to stream the result values
+     */
+    @Setting(HibernateStreamingSettings.GET_RESULT)
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Set the chunk size, used as fetch size when streaming the result values
+     *
+     * @param chunkSize
+     *            Size to set
+     */
+    @Setting(HibernateStreamingSettings.CHUNK_SIZE)
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
     public SweHelper getSweHelper() {
         return getDaoFactory().getSweHelper();
     }
@@ -168,8 +213,19 @@ public class GetResultDaoImpl extends AbstractDaoImpl implements GetResultDao {
         if (resultTemplate != null) {
             SosResultEncoding resultEncoding = resultTemplate.getResultEncoding();
             SosResultStructure resultStructure = resultTemplate.getResultStructure();
-            final List<DataEntity<?>> observations =
-                    queryObservations(request, request.getFeatureIdentifiers(), session);
+            List<DatasetEntity> series =
+                    getDaoFactory().getSeriesDAO().getSeries(request, request.getFeatureIdentifiers(), session);
+            if (CollectionHelper.isEmpty(series)) {
+                response.setResultValues(getResultHandlingHelper().createResultValuesFromObservations(null,
+                        resultEncoding, resultStructure,
+                        getProfileHandler().getActiveProfile().getResponseNoDataPlaceholder(), session));
+                return response;
+            }
+            Set<Long> datasetIds = series.stream().map(DatasetEntity::getId).collect(Collectors.toSet());
+            if (isStreaming() && series.stream().noneMatch(this::isTrajectory)) {
+                return createStreamingResponse(request, response, datasetIds, resultEncoding, resultStructure);
+            }
+            final List<DataEntity<?>> observations = queryObservations(request, datasetIds, session);
             response.setResultValues(getResultHandlingHelper().createResultValuesFromObservations(observations,
                     resultEncoding, resultStructure,
                     getProfileHandler().getActiveProfile().getResponseNoDataPlaceholder(), session));
@@ -178,14 +234,120 @@ public class GetResultDaoImpl extends AbstractDaoImpl implements GetResultDao {
         return response;
     }
 
+    /**
+     * Create a response whose result values are counted, queried and written when the response is encoded.
+     *
+     * @param request
+     *            GetResult request
+     * @param response
+     *            GetResult response
+     * @param datasetIds
+     *            Ids of the requested datasets
+     * @param resultEncoding
+     *            the result encoding
+     * @param resultStructure
+     *            the result structure
+     * @return the streaming response
+     */
+    private GetResultResponse createStreamingResponse(GetResultRequest request, GetResultResponse response,
+            Set<Long> datasetIds, SosResultEncoding resultEncoding, SosResultStructure resultStructure) {
+        String noDataPlaceholder = getProfileHandler().getActiveProfile().getResponseNoDataPlaceholder();
+        StreamingGetResultResponse streamingResponse = new StreamingGetResultResponse(response.getService(),
+                response.getVersion(),
+                out -> writeObservations(request, datasetIds, resultEncoding, resultStructure, noDataPlaceholder,
+                        out));
+        streamingResponse.setExtensions(response.getExtensions());
+        return streamingResponse;
+    }
+
+    /**
+     * Count and scroll the observations in a new session and write their result values. Both queries run in one
+     * read-only transaction with isolation level {@link Connection#TRANSACTION_REPEATABLE_READ}, so that the
+     * written element count matches the written blocks even if observations are inserted or deleted concurrently.
+     * The connection pool restores the default isolation level when the connection is returned.
+     *
+     * @param request
+     *            GetResult request
+     * @param datasetIds
+     *            Ids of the requested datasets
+     * @param resultEncoding
+     *            the result encoding
+     * @param resultStructure
+     *            the result structure
+     * @param noDataPlaceholder
+     *            the no data placeholder
+     * @param out
+     *            the writer
+     * @throws IOException
+     *             If an error occurs while querying or writing
+     */
+    private void writeObservations(GetResultRequest request, Set<Long> datasetIds, SosResultEncoding resultEncoding,
+            SosResultStructure resultStructure, String noDataPlaceholder, Writer out) throws IOException {
+        Session session = null;
+        Transaction transaction = null;
+        Integer isolation = null;
+        try {
+            session = sessionHolder.getSession();
+            session.setDefaultReadOnly(true);
+            isolation = session.doReturningWork(connection -> {
+                int previous = connection.getTransactionIsolation();
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                return previous;
+            });
+            transaction = session.beginTransaction();
+            long count = countObservations(request, datasetIds, session);
+            Criteria c = createObservationCriteria(request, datasetIds, session)
+                    .addOrder(Order.asc(DataEntity.PROPERTY_SAMPLING_TIME_START)).setReadOnly(true);
+            if (chunkSize > 0) {
+                c.setFetchSize(chunkSize);
+            }
+            LOGGER.trace("QUERY writeObservations(request, datasetIds): {}", HibernateHelper.getSqlString(c));
+            ScrollableResults results = c.scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                getResultHandlingHelper().writeResultValuesFromObservations(
+                        new ScrollableResultsIterator<>(results, session, r -> (DataEntity<?>) r.get(0)), count,
+                        resultEncoding, resultStructure, noDataPlaceholder, session, out);
+            } finally {
+                results.close();
+            }
+            transaction.commit();
+        } catch (HibernateException | OwsExceptionReport e) {
+            throw new IOException("Error while querying result data!", e);
+        } finally {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            resetTransactionIsolation(session, isolation);
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    /**
+     * Restore the transaction isolation of the connection before the session is returned, as the connection is
+     * reused by other requests.
+     */
+    private void resetTransactionIsolation(Session session, Integer isolation) {
+        if (session != null && isolation != null) {
+            try {
+                session.doWork(connection -> connection.setTransactionIsolation(isolation));
+            } catch (HibernateException e) {
+                LOGGER.warn("Error while restoring the transaction isolation!", e);
+            }
+        }
+    }
+
+    private boolean isTrajectory(DatasetEntity dataset) {
+        return DatasetType.trajectory.equals(dataset.getDatasetType())
+                || ObservationType.trajectory.equals(dataset.getObservationType());
+    }
+
     /**
      * Query series observations from database depending on requested filters
      *
      * @param request
      *            GetObservation request
-     * @param featureIdentifiers
-     *            Set of feature identifiers. If <tt>null</tt>, query filter will not be added. If
-     *            <tt>empty</tt>, <tt>null</tt> will be returned.
+     * @param datasetIds
+     *            Ids of the requested datasets
      * @param session
      *            Hibernate session
      * @return List of Observation objects
@@ -193,27 +355,46 @@ public class GetResultDaoImpl extends AbstractDaoImpl implements GetResultDao {
      *             If an error occurs.
      */
     @SuppressWarnings("unchecked")
-    private List<DataEntity<?>> queryObservations(GetResultRequest request, Collection<String> featureIdentifiers,
-            Session session) throws OwsExceptionReport {
+    private List<DataEntity<?>> queryObservations(GetResultRequest request, Set<Long> datasetIds, Session session)
+            throws OwsExceptionReport {
+        final Criteria c = createObservationCriteria(request, datasetIds, session)
+                .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
+                .addOrder(Order.asc(DataEntity.PROPERTY_SAMPLING_TIME_START));
+        LOGGER.trace("QUERY queryObservation(request, featureIdentifiers): {}", HibernateHelper.getSqlString(c));
+        return c.list();
+    }
+
+    /**
+     * Count series observations in database depending on requested filters
+     *
+     * @param request
+     *            GetObservation request
+     * @param datasetIds
+     *            Ids of the requested datasets
+     * @param session
+     *            Hibernate session
+     * @return Number of observations
+     * @throws OwsExceptionReport
+     *             If an error occurs.
+     */
+    private long countObservations(GetResultRequest request, Set<Long> datasetIds, Session session)
+            throws OwsExceptionReport {
+        final Criteria c = createObservationCriteria(request, datasetIds, session)
+                .setProjection(Projections.rowCount());
+        LOGGER.trace("QUERY countObservations(request, datasetIds): {}", HibernateHelper.getSqlString(c));
+        return (Long) c.uniqueResult();
+    }
+
+    private Criteria createObservationCriteria(GetResultRequest request, Set<Long> datasetIds, Session session)
+            throws OwsExceptionReport {
         final Criteria c = createCriteriaFor(DataEntity.class, session);
         addSpatialFilteringProfileRestrictions(c, request, session);
         addParentChildRestriction(c);
-
-        List<DatasetEntity> series = getDaoFactory().getSeriesDAO().getSeries(request, featureIdentifiers, session);
-        if (CollectionHelper.isEmpty(series)) {
-            return null;
-        } else {
-            c.add(Restrictions.in(DataEntity.PROPERTY_DATASET_ID,
-                    series.stream().map(DatasetEntity::getId).collect(Collectors.toSet())));
-        }
-
+        c.add(Restrictions.in(DataEntity.PROPERTY_DATASET_ID, datasetIds));
         if (request.getTemporalFilter() != null && !request.getTemporalFilter().isEmpty()) {
             addTemporalFilter(c, request.getTemporalFilter());
         }
-
-        LOGGER.trace("QUERY queryObservation(request, featureIdentifiers): {}", HibernateHelper.getSqlString(c));
-        return c.list();
-
+        return c;
     }
 
     /**
@@ -236,19 +417,17 @@ public class GetResultDaoImpl extends AbstractDaoImpl implements GetResultDao {
     }
 
     /**
-     * Create Hibernate Criteria for the class and add ascending of phenomenon start time
+     * Create Hibernate Criteria for the class restricted to not deleted entities
      *
      * @param clazz
      *            The class for the Criteria
      * @param session
      *            Hibernate session
-     * @return Hibernate Criteria for the class and add ascending of phenomenon start time
+     * @return Hibernate Criteria for the class
      */
     @SuppressWarnings("rawtypes")
     private Criteria createCriteriaFor(Class clazz, Session session) {
-        return session.createCriteria(clazz).setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
-                .add(Restrictions.eq(DataEntity.PROPERTY_DELETED, false))
-                .addOrder(Order.asc(DataEntity.PROPERTY_SAMPLING_TIME_START));
+        return session.createCriteria(clazz).add(Restrictions.eq(DataEntity.PROPERTY_DELETED, false));
     }
 
     private void addParentChildRestriction(Criteria c) {
@@ -38,4 +38,8 @@ public interface HibernateStreamingSettings {
 
     String CHUNK_SIZE = "service.streaming.datasource.chunkSize";
 
+    String KEYSET_PAGINATION = "service.streaming.datasource.keysetPagination";
+
+    String GET_RESULT = "service.streaming.datasource.getResult";
+
 }
@@ -27,17 +27,22 @@
  */
 package org.n52.sos.ds.hibernate.values.dataset;
 
-import java.util.Collection;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.n52.iceland.ds.ConnectionProvider;
 import org.n52.janmayen.http.HTTPStatus;
+import org.n52.series.db.beans.CountDataEntity;
 import org.n52.series.db.beans.DataEntity;
 import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
 import org.n52.series.db.beans.TrajectoryDataEntity;
 import org.n52.series.db.beans.dataset.DatasetType;
 import org.n52.series.db.beans.dataset.ObservationType;
@@ -47,9 +52,14 @@ import org.n52.shetland.ogc.ows.exception.CodedException;
 import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.sos.request.AbstractObservationRequest;
-import org.n52.shetland.util.CollectionHelper;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
 import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.n52.sos.ds.hibernate.dao.observation.series.SeriesValueAggregator;
 import org.n52.sos.ds.hibernate.dao.observation.series.ValueQueryContext;
+import org.n52.sos.ds.hibernate.util.ObservationTimeExtrema;
+import org.n52.sos.request.ObservationAggregation;
+import org.n52.sos.request.ObservationDownsampling;
+import org.n52.sos.request.ObservationDownsampling.Reducer;
 
 /**
  * Hibernate dataset streaming value implementation for chunk results
@@ -68,9 +78,19 @@ public class HibernateChunkSeriesStreamingValue extends HibernateSeriesStreaming
 
     private int currentRow;
 
+    private boolean keysetPagination;
+
+    private DataEntity<?> lastValue;
+
     private boolean noChunk;
 
-    private int currentResultSize;
+    private ObservationAggregation aggregation;
+
+    private SeriesValueAggregator aggregator;
+
+    private ObservationDownsampling downsampling;
+
+    private Reducer<DataEntity<?>> reducer;
 
     /**
      * constructor
@@ -94,15 +114,58 @@ public class HibernateChunkSeriesStreamingValue extends HibernateSeriesStreaming
         this.chunkSize = chunkSize;
     }
 
+    /**
+     * constructor
+     *
+     * @param connectionProvider
+     *            the connection provider
+     * @param daoFactory
+     *            the DAO factory
+     * @param request
+     *            {@link AbstractObservationRequest}
+     * @param dataset
+     *            Datasource dataset id
+     * @param chunkSize
+     *            size of the chunk
+     * @param keysetPagination
+     *            query the next chunk by the key of the last value instead of the row offset
+     * @throws CodedException
+     *             If an error occurs
+     */
+    public HibernateChunkSeriesStreamingValue(ConnectionProvider connectionProvider, DaoFactory daoFactory,
+            AbstractObservationRequest request, DatasetEntity dataset, int chunkSize, boolean keysetPagination)
+            throws OwsExceptionReport {
+        this(connectionProvider, daoFactory, request, dataset, chunkSize);
+        this.keysetPagination = keysetPagination;
+    }
+
+    /**
+     * Aggregate the values of the dataset instead of returning each value.
+     *
+     * @param aggregation
+     *            the aggregation
+     */
+    public void setAggregation(ObservationAggregation aggregation) {
+        this.aggregation = aggregation;
+    }
+
+    /**
+     * Downsample the (aggregated) values of the dataset.
+     *
+     * @param downsampling
+     *            the downsampling
+     */
+    public void setDownsampling(ObservationDownsampling downsampling) {
+        this.downsampling = downsampling;
+    }
+
     @Override
     public boolean hasNext() throws OwsExceptionReport {
         boolean next = false;
         if ((seriesValuesResult == null || !seriesValuesResult.hasNext()) && getSession().isOpen()) {
             if (!noChunk) {
-                getNextResults();
-                if (chunkSize <= 0 || currentResultSize < chunkSize) {
-                    noChunk = true;
-                }
+                List<DataEntity<?>> values = downsampling != null ? getNextDownsampledResults() : getNextResults();
+                this.seriesValuesResult = values.iterator();
             }
         }
         if (seriesValuesResult != null) {
@@ -159,18 +222,158 @@ public class HibernateChunkSeriesStreamingValue extends HibernateSeriesStreaming
     /**
      * Get the next results from database
      *
+     * @return the next (aggregated) values
      * @throws OwsExceptionReport
      *             If an error occurs when querying the next results
      */
-    private void getNextResults() throws OwsExceptionReport {
+    private List<DataEntity<?>> getNextResults() throws OwsExceptionReport {
+        if (aggregation != null) {
+            return getNextAggregatedResults();
+        }
+        List<DataEntity<?>> values = queryNextChunk();
+        if (chunkSize <= 0 || values.size() < chunkSize) {
+            noChunk = true;
+        }
+        return values;
+    }
+
+    /**
+     * Get the next downsampled results. The (aggregated) values are reduced while they are streamed, until at least
+     * one value is selected.
+     *
+     * @return the next selected values
+     * @throws OwsExceptionReport
+     *             If an error occurs when querying the next results
+     */
+    private List<DataEntity<?>> getNextDownsampledResults() throws OwsExceptionReport {
+        if (reducer == null) {
+            Optional<Reducer<DataEntity<?>>> created = createReducer();
+            if (!created.isPresent()) {
+                noChunk = true;
+                return Collections.emptyList();
+            }
+            reducer = created.get();
+        }
+        List<DataEntity<?>> values = new LinkedList<>();
+        while (values.isEmpty() && !noChunk) {
+            for (DataEntity<?> value : getNextResults()) {
+                values.addAll(reducer.add(value.getSamplingTimeStart().getTime(), getNumericValue(value), value));
+                getSession().evict(value);
+            }
+            if (noChunk) {
+                values.addAll(reducer.finish());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Create the reducer for the phenomenon time range of the requested values.
+     *
+     * @return the reducer, or an empty optional if there are no values
+     * @throws OwsExceptionReport
+     *             If an error occurs when querying the time range
+     */
+    private Optional<Reducer<DataEntity<?>>> createReducer() throws OwsExceptionReport {
+        ObservationTimeExtrema timeExtrema = seriesValueTimeDAO.getTimeExtremaForSeries(
+                request, series, temporalFilterCriterion, getSession());
+        if (!timeExtrema.isSetPhenomenonTimes()) {
+            return Optional.empty();
+        }
+        long start = timeExtrema.getMinPhenomenonTime().getMillis();
+        long end = timeExtrema.getMaxPhenomenonTime().getMillis();
+        if (aggregation != null) {
+            start = aggregation.getBucketStart(aggregation.getBucket(new Date(start))).getTime();
+            end = aggregation.getBucketStart(aggregation.getBucket(new Date(end))).getTime();
+        }
+        return Optional.of(downsampling.createReducer(start, end));
+    }
+
+    private BigDecimal getNumericValue(DataEntity<?> value) {
+        if (value instanceof QuantityDataEntity) {
+            return ((QuantityDataEntity) value).getValue();
+        } else if (value instanceof CountDataEntity && ((CountDataEntity) value).getValue() != null) {
+            return BigDecimal.valueOf(((CountDataEntity) value).getValue());
+        }
+        return null;
+    }
+
+    /**
+     * Get the next aggregated results. The database aggregates the values if the dialect supports it, otherwise the
+     * chunks are aggregated while they are streamed, until at least one bucket is complete.
+     *
+     * @return the next aggregated values
+     * @throws OwsExceptionReport
+     *             If an error occurs when querying the next results
+     */
+    private List<DataEntity<?>> getNextAggregatedResults() throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = getSession();
+            if (!hasResultFilter() && seriesValueDAO.isAggregationSupported(session)) {
+                List<DataEntity<?>> values = seriesValueDAO.getAggregatedSeriesValuesFor(
+                        new ValueQueryContext(request, dataset, session)
+                                .setTemporalFilterCriterion(temporalFilterCriterion),
+                        aggregation);
+                if (downsampling == null) {
+                    checkMaxNumberOfReturnedValues(values.size());
+                }
+                noChunk = true;
+                return values;
+            }
+        } catch (final HibernateException he) {
+            returnSession(session);
+            throw new NoApplicableCodeException().causedBy(he).withMessage(ERROR_LOG)
+                    .setStatus(HTTPStatus.INTERNAL_SERVER_ERROR);
+        }
+        if (aggregator == null) {
+            aggregator = new SeriesValueAggregator(aggregation, dataset);
+        }
+        List<DataEntity<?>> values = new LinkedList<>();
+        while (values.isEmpty() && !noChunk) {
+            List<DataEntity<?>> chunk = queryNextChunk();
+            if (chunkSize <= 0 || chunk.size() < chunkSize) {
+                noChunk = true;
+            }
+            for (DataEntity<?> value : chunk) {
+                aggregator.add(value).ifPresent(values::add);
+                getSession().evict(value);
+            }
+            if (noChunk) {
+                aggregator.finish().ifPresent(values::add);
+            }
+        }
+        if (downsampling == null) {
+            // the buckets are returned instead of the values, so they count against the limit
+            checkMaxNumberOfReturnedValues(values.size());
+        }
+        return values;
+    }
+
+    private boolean hasResultFilter() {
+        return request instanceof GetObservationRequest && ((GetObservationRequest) request).hasResultFilter();
+    }
+
+    /**
+     * Query the next chunk of values from database
+     *
+     * @return the values of the next chunk
+     * @throws OwsExceptionReport
+     *             If an error occurs when querying the next results
+     */
+    private List<DataEntity<?>> queryNextChunk() throws OwsExceptionReport {
         Session session = null;
         try {
             session = getSession();
             ValueQueryContext valueQueryContext = new ValueQueryContext(request, dataset, session)
                     .setTemporalFilterCriterion(temporalFilterCriterion).setChunkSize(chunkSize)
-                    .setCurrentRow(currentRow);
-            Collection<DataEntity<?>> resutltValues = seriesValueDAO.getStreamingSeriesValuesFor(valueQueryContext);
+                    .setCurrentRow(currentRow).setKeysetPagination(keysetPagination).setLastValue(lastValue)
+                    .setPhenomenonTimeOrder(aggregation != null || downsampling != null);
+            List<DataEntity<?>> resutltValues = seriesValueDAO.getStreamingSeriesValuesFor(valueQueryContext);
             currentRow += chunkSize;
+            if (!resutltValues.isEmpty()) {
+                lastValue = resutltValues.get(resutltValues.size() - 1);
+            }
             if (DatasetType.trajectory.equals(dataset.getDatasetType())
                     || ObservationType.trajectory.equals(dataset.getObservationType())) {
                 List<DataEntity<?>> list = new LinkedList<>();
@@ -183,8 +386,10 @@ public class HibernateChunkSeriesStreamingValue extends HibernateSeriesStreaming
                 }
                 resutltValues = list;
             }
-            checkMaxNumberOfReturnedValues(resutltValues.size());
-            setSeriesValuesResult(resutltValues);
+            if (aggregation == null && downsampling == null) {
+                checkMaxNumberOfReturnedValues(resutltValues.size());
+            }
+            return resutltValues;
         } catch (final HibernateException he) {
             returnSession(session);
             throw new NoApplicableCodeException().causedBy(he).withMessage(ERROR_LOG)
@@ -192,18 +397,4 @@ public class HibernateChunkSeriesStreamingValue extends HibernateSeriesStreaming
         }
     }
 
-    /**
-     * Check the queried {@link DataEntity}s for null and set them as iterator to local variable.
-     *
-     * @param seriesValuesResult
-     *            Queried {@link DataEntity}s
-     */
-    private void setSeriesValuesResult(Collection<DataEntity<?>> seriesValuesResult) {
-        if (CollectionHelper.isNotEmpty(seriesValuesResult)) {
-            this.currentResultSize = seriesValuesResult.size();
-            this.seriesValuesResult = seriesValuesResult.iterator();
-        }
-
-    }
-
 }
@@ -369,6 +369,7 @@ public abstract class AbstractInsertDAOTest extends HibernateTestCase {
         featureQueryHandler.setGeometryHandler(geometryHandler);
         featureQueryHandler.setContentCacheController(contentCacheController);
         featureQueryHandler.setProfileHandler(new ProfileHanlderMock());
+        featureQueryHandler.setFeatureSpatialIndex(new FeatureSpatialIndex());
         ObservationHelper observationHelper = new ObservationHelper();
         observationHelper.setBindingRepository(bindingRepository);
         observationHelper.setDecoderRepository(decoderRepository);
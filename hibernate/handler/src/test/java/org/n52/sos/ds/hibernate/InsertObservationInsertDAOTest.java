@@ -27,12 +27,19 @@
  */
 package org.n52.sos.ds.hibernate;
 
+import static org.junit.Assert.fail;
+
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Session;
+import org.joda.time.DateTime;
 import org.junit.Before;
 import org.junit.Test;
 import org.n52.iceland.convert.ConverterException;
+import org.n52.series.db.beans.DatasetEntity;
 import org.n52.shetland.ogc.gml.time.TimeInstant;
 import org.n52.shetland.ogc.om.OmConstants;
 import org.n52.shetland.ogc.om.OmObservation;
@@ -45,6 +52,7 @@ import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
 import org.n52.sos.event.events.ObservationInsertion;
 import org.n52.svalbard.encode.exception.EncodingException;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 public class InsertObservationInsertDAOTest extends AbstractObservationInsertDAOTest {
@@ -196,4 +204,79 @@ public class InsertObservationInsertDAOTest extends AbstractObservationInsertDAO
         assertInsertionAftermathBeforeAndAfterCacheReload();
     }
 
+    @Test
+    public void testInsertObservationsUpdatesDatasetExtent()
+            throws OwsExceptionReport, ConverterException, InterruptedException {
+        InsertObservationRequest req = createInsertObservationRequest(
+                ImmutableMap.of(TIME2, VAL2, TIME1, VAL1, TIME3, VAL3));
+        InsertObservationResponse resp = insertObservationDAO.insertObservation(req);
+        this.serviceEventBus.submit(new ObservationInsertion(req, resp));
+        assertInsertionAftermathBeforeAndAfterCacheReload();
+        checkDatasetExtent(TIME1, VAL1, TIME3, VAL3);
+    }
+
+    @Test
+    public void testInsertDuplicateObservationKeepsDatasetExtent()
+            throws OwsExceptionReport, ConverterException, InterruptedException {
+        InsertObservationRequest req = createInsertObservationRequest(ImmutableMap.of(TIME1, VAL1, TIME2, VAL2));
+        InsertObservationResponse resp = insertObservationDAO.insertObservation(req);
+        this.serviceEventBus.submit(new ObservationInsertion(req, resp));
+        checkDatasetExtent(TIME1, VAL1, TIME2, VAL2);
+        try {
+            insertObservationDAO.insertObservation(
+                    createInsertObservationRequest(ImmutableMap.of(TIME3, VAL3, TIME1, VAL1)));
+            fail("Duplicate observation should be rejected");
+        } catch (OwsExceptionReport owse) {
+            // expected, the whole batch is rolled back
+        }
+        checkDatasetExtent(TIME1, VAL1, TIME2, VAL2);
+    }
+
+    private InsertObservationRequest createInsertObservationRequest(Map<DateTime, Double> values)
+            throws OwsExceptionReport, ConverterException {
+        InsertObservationRequest req = new InsertObservationRequest();
+        req.setAssignedSensorId(PROCEDURE3);
+        req.setOfferings(Lists.newArrayList(OFFERING3));
+        List<OmObservation> observations = Lists.newArrayList();
+        Session session = null;
+        try {
+            session = getSession();
+            for (Map.Entry<DateTime, Double> value : values.entrySet()) {
+                DateTime time = value.getKey();
+                OmObservation obs = new OmObservation();
+                obs.setObservationConstellation(getOmObsConst(PROCEDURE3, OBSPROP3, TEMP_UNIT, OFFERING3, FEATURE3,
+                        OmConstants.OBS_TYPE_MEASUREMENT, session));
+                obs.setResultTime(new TimeInstant(time));
+                SingleObservationValue<BigDecimal> obsVal = new SingleObservationValue<BigDecimal>();
+                obsVal.setPhenomenonTime(new TimeInstant(time));
+                obsVal.setValue(new QuantityValue(value.getValue(), TEMP_UNIT));
+                obs.setValue(obsVal);
+                observations.add(obs);
+            }
+        } finally {
+            returnSession(session);
+        }
+        req.setObservation(observations);
+        return req;
+    }
+
+    private void checkDatasetExtent(DateTime firstTime, Double firstValue, DateTime lastTime, Double lastValue) {
+        Session session = null;
+        try {
+            session = getSession();
+            List<DatasetEntity> datasets = daoFactory.getSeriesDAO().getSeries(PROCEDURE3, OBSPROP3, OFFERING3,
+                    Collections.singleton(FEATURE3), session);
+            assertThat(datasets, hasSize(1));
+            DatasetEntity dataset = datasets.get(0);
+            assertThat(dataset.getFirstValueAt().getTime(), is(firstTime.getMillis()));
+            assertThat(dataset.getLastValueAt().getTime(), is(lastTime.getMillis()));
+            assertThat(dataset.getResultTimeStart().getTime(), is(firstTime.getMillis()));
+            assertThat(dataset.getResultTimeEnd().getTime(), is(lastTime.getMillis()));
+            assertThat(dataset.getFirstQuantityValue(), comparesEqualTo(BigDecimal.valueOf(firstValue)));
+            assertThat(dataset.getLastQuantityValue(), comparesEqualTo(BigDecimal.valueOf(lastValue)));
+        } finally {
+            returnSession(session);
+        }
+    }
+
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.After;
+import org.junit.Test;
+import org.n52.janmayen.http.HTTPStatus;
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.sos.SosProcedureDescriptionUnknownType;
+
+public class TransactionalLocksTest {
+
+    private static final String PROCEDURE_1 = "procedure_1";
+
+    private static final String PROCEDURE_2 = "procedure_2";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Lock handlerLock = new ReentrantLock();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldLockDifferentKeysConcurrently() throws Exception {
+        TransactionalLocks locks = new TransactionalLocks();
+        locks.setKeyLocking(true);
+        try (TransactionalLocks.Locked locked = lock(locks, PROCEDURE_1)) {
+            Future<Boolean> other = executor.submit(() -> {
+                try (TransactionalLocks.Locked l = lock(locks, PROCEDURE_2)) {
+                    return true;
+                }
+            });
+            assertThat(other.get(5, TimeUnit.SECONDS), is(true));
+        }
+    }
+
+    @Test
+    public void shouldBlockSameKey() throws Exception {
+        TransactionalLocks locks = new TransactionalLocks();
+        locks.setKeyLocking(true);
+        Future<Boolean> other;
+        try (TransactionalLocks.Locked locked = lock(locks, PROCEDURE_1)) {
+            other = executor.submit(() -> {
+                try (TransactionalLocks.Locked l = lock(locks, PROCEDURE_1)) {
+                    return true;
+                }
+            });
+            assertThat(isBlocked(other), is(true));
+        }
+        assertThat(other.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldBlockAllKeys() throws Exception {
+        TransactionalLocks locks = new TransactionalLocks();
+        locks.setKeyLocking(true);
+        Future<Boolean> other;
+        try (TransactionalLocks.Locked locked = locks.lockAll(handlerLock)) {
+            other = executor.submit(() -> {
+                try (TransactionalLocks.Locked l = lock(locks, PROCEDURE_2)) {
+                    return true;
+                }
+            });
+            assertThat(isBlocked(other), is(true));
+        }
+        assertThat(other.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldWaitForKeysBeforeLockingAll() throws Exception {
+        TransactionalLocks locks = new TransactionalLocks();
+        locks.setKeyLocking(true);
+        Future<Boolean> other;
+        try (TransactionalLocks.Locked locked = lock(locks, PROCEDURE_1)) {
+            other = executor.submit(() -> {
+                try (TransactionalLocks.Locked l = locks.lockAll(handlerLock)) {
+                    return true;
+                }
+            });
+            assertThat(isBlocked(other), is(true));
+        }
+        assertThat(other.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldRetryOnConstraintViolation() throws Exception {
+        TransactionalLocks locks = new TransactionalLocks();
+        locks.setKeyLocking(true);
+        AtomicInteger executions = new AtomicInteger();
+        assertThat(locks.retryOnConstraintViolation(() -> {
+            if (executions.incrementAndGet() == 1) {
+                throw new NoApplicableCodeException().causedBy(constraintViolation());
+            }
+            return true;
+        }), is(true));
+        assertThat(executions.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotRetryWithoutKeyLocking() {
+        TransactionalLocks locks = new TransactionalLocks();
+        AtomicInteger executions = new AtomicInteger();
+        assertThrows(NoApplicableCodeException.class, () -> locks.retryOnConstraintViolation(() -> {
+            executions.incrementAndGet();
+            throw new NoApplicableCodeException().causedBy(constraintViolation());
+        }));
+        assertThat(executions.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotRetryClientErrors() {
+        TransactionalLocks locks = new TransactionalLocks();
+        locks.setKeyLocking(true);
+        AtomicInteger executions = new AtomicInteger();
+        assertThrows(NoApplicableCodeException.class, () -> locks.retryOnConstraintViolation(() -> {
+            executions.incrementAndGet();
+            throw new NoApplicableCodeException().causedBy(constraintViolation()).setStatus(HTTPStatus.BAD_REQUEST);
+        }));
+        assertThat(executions.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotRetryOtherErrors() {
+        TransactionalLocks locks = new TransactionalLocks();
+        locks.setKeyLocking(true);
+        AtomicInteger executions = new AtomicInteger();
+        assertThrows(NoApplicableCodeException.class, () -> locks.retryOnConstraintViolation(() -> {
+            executions.incrementAndGet();
+            throw new NoApplicableCodeException().causedBy(new SQLException("timeout", "57014"));
+        }));
+        assertThat(executions.get(), is(1));
+    }
+
+    @Test
+    public void shouldUseHandlerLockWithoutKeyLocking() throws Exception {
+        TransactionalLocks locks = new TransactionalLocks();
+        Future<Boolean> other;
+        try (TransactionalLocks.Locked locked = lock(locks, PROCEDURE_1)) {
+            other = executor.submit(() -> {
+                try (TransactionalLocks.Locked l = lock(locks, PROCEDURE_2)) {
+                    return true;
+                }
+            });
+            assertThat(isBlocked(other), is(true));
+        }
+        assertThat(other.get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void shouldCreateObservationKeys() {
+        OmObservation observation = new OmObservation();
+        SamplingFeature feature = new SamplingFeature(new CodeWithAuthority("feature"));
+        observation.setObservationConstellation(new OmObservationConstellation(
+                new SosProcedureDescriptionUnknownType(PROCEDURE_1, "format", ""),
+                new OmObservableProperty("property"), feature));
+        observation.getObservationConstellation().setOfferings(Collections.singleton("offering"));
+        assertThat(TransactionalLocks.getObservationKeys(Collections.singleton(observation)),
+                containsInAnyOrder(TransactionalLocks.getProcedureKey(PROCEDURE_1),
+                        TransactionalLocks.getObservablePropertyKey("property"),
+                        TransactionalLocks.getFeatureKey("feature"), TransactionalLocks.getOfferingKey("offering")));
+    }
+
+    private static ConstraintViolationException constraintViolation() {
+        return new ConstraintViolationException("duplicate", new SQLException("duplicate key", "23505"), "un_unit");
+    }
+
+    private TransactionalLocks.Locked lock(TransactionalLocks locks, String procedure) {
+        return locks.lock(handlerLock, Collections.singleton(TransactionalLocks.getProcedureKey(procedure)));
+    }
+
+    private boolean isBlocked(Future<Boolean> future) throws Exception {
+        try {
+            future.get(200, TimeUnit.MILLISECONDS);
+            return false;
+        } catch (TimeoutException e) {
+            return true;
+        }
+    }
+}
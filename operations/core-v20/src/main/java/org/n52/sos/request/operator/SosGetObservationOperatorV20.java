@@ -46,7 +46,6 @@ import org.n52.shetland.ogc.ows.exception.CompositeOwsException;
 import org.n52.shetland.ogc.ows.exception.InvalidParameterValueException;
 import org.n52.shetland.ogc.ows.exception.MissingParameterValueException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
-import org.n52.shetland.ogc.ows.extension.Extensions;
 import org.n52.shetland.ogc.sos.ExtendedIndeterminateTime;
 import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
@@ -59,6 +58,8 @@ import org.n52.shetland.util.CollectionHelper;
 import org.n52.sos.ds.AbstractGetObservationHandler;
 import org.n52.sos.exception.ows.concrete.InvalidOfferingParameterException;
 import org.n52.sos.exception.ows.concrete.MissingOfferingParameterException;
+import org.n52.sos.request.ObservationAggregation;
+import org.n52.sos.request.ObservationDownsampling;
 import org.n52.sos.wsdl.Metadata;
 import org.n52.sos.wsdl.Metadatas;
 import org.n52.svalbard.ConformanceClasses;
@@ -267,13 +268,12 @@ public class SosGetObservationOperatorV20 extends
 
         if (getActiveProfile().isMergeValues()) {
             if (!request.getExtensions().containsExtension(Sos2Constants.Extensions.MergeObservationsIntoDataArray)) {
-                Extensions extensions = new Extensions();
-                extensions.addExtension(new SwesExtension<SweBoolean>()
+                // keep the other extensions, e.g. the aggregation
+                request.addExtension(new SwesExtension<SweBoolean>()
                         .setDefinition(Sos2Constants.Extensions.MergeObservationsIntoDataArray.name())
                         .setValue((SweBoolean) new SweBoolean()
                                 .setValue(getProfileHandler().getActiveProfile().isMergeValues())
                                 .setDefinition(Sos2Constants.Extensions.MergeObservationsIntoDataArray.name())));
-                request.setExtensions(extensions);
             }
         }
         try {
@@ -281,6 +281,16 @@ public class SosGetObservationOperatorV20 extends
         } catch (OwsExceptionReport owse) {
             exceptions.add(owse);
         }
+        try {
+            ObservationAggregation.fromRequest(request);
+        } catch (OwsExceptionReport owse) {
+            exceptions.add(owse);
+        }
+        try {
+            ObservationDownsampling.fromRequest(request);
+        } catch (OwsExceptionReport owse) {
+            exceptions.add(owse);
+        }
         checkExtensions(request, exceptions);
         exceptions.throwIfNotEmpty();
 
@@ -28,6 +28,7 @@
 package org.n52.sos.request.operator;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 import org.n52.iceland.request.operator.RequestOperator;
@@ -39,6 +40,7 @@ import org.n52.shetland.ogc.sos.delobs.DeleteObservationConstants;
 import org.n52.shetland.ogc.sos.delobs.DeleteObservationRequest;
 import org.n52.shetland.ogc.sos.delobs.DeleteObservationResponse;
 import org.n52.sos.ds.AbstractDeleteObservationHandler;
+import org.n52.sos.event.events.DeleteObservationEvent;
 import org.n52.sos.exception.ows.concrete.InvalidOfferingParameterException;
 import org.n52.sos.exception.ows.concrete.MissingOfferingParameterException;
 
@@ -61,7 +63,9 @@ public class DeleteObservationRequestOperator extends
 
     @Override
     public DeleteObservationResponse receive(DeleteObservationRequest request) throws OwsExceptionReport {
-        DeleteObservationResponse response = getOperationHandler().deleteObservation(request);
+        Set<String> modifiedOfferings = new HashSet<>();
+        DeleteObservationResponse response = getOperationHandler().deleteObservation(request, modifiedOfferings);
+        getServiceEventBus().submit(new DeleteObservationEvent(request, response, modifiedOfferings));
         return response;
     }
 
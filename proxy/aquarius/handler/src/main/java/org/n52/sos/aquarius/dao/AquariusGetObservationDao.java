@@ -71,6 +71,7 @@ import org.n52.shetland.ogc.sos.response.GetObservationResponse;
 import org.n52.sos.aquarius.ds.AquariusConnector;
 import org.n52.sos.aquarius.ds.AquariusHelper;
 import org.n52.sos.aquarius.ds.AquariusTimeHelper;
+import org.n52.sos.aquarius.ds.AquariusTimeSeriesStore;
 import org.n52.sos.aquarius.ds.Point;
 import org.n52.sos.aquarius.ds.TimeSeriesData;
 import org.n52.sos.aquarius.harvest.AquariusEntityBuilder;
@@ -114,6 +115,8 @@ public class AquariusGetObservationDao extends AbstractAquariusDao
 
     private DbQueryFactory dbQueryFactory;
 
+    private AquariusTimeSeriesStore timeSeriesStore;
+
     @Inject
     public void setDatasetAssembler(DatasetAssembler assembler) {
         this.assembler = assembler;
@@ -144,6 +147,11 @@ public class AquariusGetObservationDao extends AbstractAquariusDao
         this.dbQueryFactory = dbQueryFactory;
     }
 
+    @Inject
+    public void setTimeSeriesStore(AquariusTimeSeriesStore timeSeriesStore) {
+        this.timeSeriesStore = timeSeriesStore;
+    }
+
     @Override
     @Transactional()
     public GetObservationResponse queryObservationData(GetObservationRequest request, GetObservationResponse response)
@@ -184,29 +192,13 @@ public class AquariusGetObservationDao extends AbstractAquariusDao
             List<DatasetEntity> datasets = getDatasets(createDbQuery(request)).collect(Collectors.toList());
             Counter counter = new Counter();
             for (DatasetEntity dataset : datasets) {
-                String identifier = dataset.getIdentifier();
-                Collection<TimeSeriesDataServiceResponse> data = Lists.newArrayList();
-                if (request.hasTemporalFilters()) {
-                    // query with temporal filter
-                    for (IndeterminateValue temporalFilter : request.getFirstLatestTemporalFilter()) {
-                        checkAndAdd(data, queryForTemporalFilter(identifier, temporalFilter, connection));
-                    }
-                    for (TemporalFilter temporalFilter : request.getNotFirstLatestTemporalFilter()) {
-                        if (temporalFilter != null) {
-                            checkAndAdd(data, queryForTemporalFilter(identifier, temporalFilter, connection));
-                        }
-                    }
-                } else {
-                    checkAndAdd(data, connection.getTimeSeriesData(identifier, null, null));
-                }
-                if (!data.isEmpty() || data.isEmpty()
-                        && getProfileHandler().getActiveProfile().isShowMetadataOfEmptyObservations()) {
+                Optional<List<DataEntity<?>>> dataEntities = isTimeSeriesStoreEnabled()
+                        ? queryStoredData(request, dataset, connection, counter)
+                        : queryData(request, dataset, connection, counter);
+                if (dataEntities.isPresent()
+                        || getProfileHandler().getActiveProfile().isShowMetadataOfEmptyObservations()) {
                     AquariusStreamingValue streamingValue = new AquariusStreamingValue(observationHelper);
-                    List<DataEntity<?>> dataEntities = new LinkedList<>();
-                    for (TimeSeriesDataServiceResponse timeSeriesData : data) {
-                        dataEntities.addAll(convertTimeSeriesData(timeSeriesData, dataset, counter));
-                    }
-                    streamingValue.setResultValues(dataEntities);
+                    streamingValue.setResultValues(dataEntities.orElseGet(LinkedList::new));
                     ObservationStream observationStream = new DatasetOmObservationCreator(dataset, request,
                             requestedLocale, pdf, observationCreatorContext, session).create();
                     OmObservation observationTemplate = observationStream.next();
@@ -226,6 +218,66 @@ public class AquariusGetObservationDao extends AbstractAquariusDao
         return response;
     }
 
+    private Optional<List<DataEntity<?>>> queryData(GetObservationRequest request, DatasetEntity dataset,
+            AquariusConnector connection, Counter counter) throws OwsExceptionReport {
+        String identifier = dataset.getIdentifier();
+        Collection<TimeSeriesDataServiceResponse> data = Lists.newArrayList();
+        if (request.hasTemporalFilters()) {
+            // query with temporal filter
+            for (IndeterminateValue temporalFilter : request.getFirstLatestTemporalFilter()) {
+                checkAndAdd(data, queryForTemporalFilter(identifier, temporalFilter, connection));
+            }
+            for (TemporalFilter temporalFilter : request.getNotFirstLatestTemporalFilter()) {
+                if (temporalFilter != null) {
+                    checkAndAdd(data, queryForTemporalFilter(identifier, temporalFilter, connection));
+                }
+            }
+        } else {
+            checkAndAdd(data, connection.getTimeSeriesData(identifier, null, null));
+        }
+        if (data.isEmpty()) {
+            return Optional.empty();
+        }
+        List<DataEntity<?>> dataEntities = new LinkedList<>();
+        for (TimeSeriesDataServiceResponse timeSeriesData : data) {
+            dataEntities.addAll(convertTimeSeriesData(timeSeriesData, dataset, counter));
+        }
+        return Optional.of(dataEntities);
+    }
+
+    private Optional<List<DataEntity<?>>> queryStoredData(GetObservationRequest request, DatasetEntity dataset,
+            AquariusConnector connection, Counter counter) throws OwsExceptionReport {
+        String identifier = dataset.getIdentifier();
+        List<Point> points = new LinkedList<>();
+        if (request.hasTemporalFilters()) {
+            for (IndeterminateValue temporalFilter : request.getFirstLatestTemporalFilter()) {
+                if (ExtendedIndeterminateTime.FIRST.equals(temporalFilter)) {
+                    checkAndAdd(points, timeSeriesStore.getFirstPoint(identifier, connection));
+                } else if (ExtendedIndeterminateTime.LATEST.equals(temporalFilter)) {
+                    checkAndAdd(points, timeSeriesStore.getLastPoint(identifier, connection));
+                }
+            }
+            for (TemporalFilter temporalFilter : request.getNotFirstLatestTemporalFilter()) {
+                if (temporalFilter != null) {
+                    points.addAll(timeSeriesStore.getPoints(identifier, temporalFilter, connection));
+                }
+            }
+        } else {
+            points.addAll(timeSeriesStore.getPoints(identifier, null, null, connection));
+        }
+        return points.isEmpty() ? Optional.empty() : Optional.of(convertData(points, dataset, counter));
+    }
+
+    private boolean isTimeSeriesStoreEnabled() {
+        return timeSeriesStore != null && timeSeriesStore.isEnabled();
+    }
+
+    private void checkAndAdd(Collection<Point> points, Point point) {
+        if (point != null) {
+            points.add(point);
+        }
+    }
+
     private void checkAndAdd(Collection<TimeSeriesDataServiceResponse> data, TimeSeriesDataServiceResponse ts) {
         if (ts != null) {
             data.add(ts);
@@ -313,6 +365,11 @@ public class AquariusGetObservationDao extends AbstractAquariusDao
                     .ofNullable(checkTimeStart(Hibernate.unproxy(dataset.getFirstObservation(), DataEntity.class)));
         } else {
             try {
+                if (isTimeSeriesStoreEnabled()) {
+                    return Optional.ofNullable(timeSeriesStore
+                            .getFirstPoint(dataset.getIdentifier(), getAquariusConnector()))
+                            .map(point -> createDataEntity(dataset, point, new Counter()));
+                }
                 TimeSeriesDataServiceResponse timeSeriesData =
                         getAquariusConnector().getTimeSeriesDataFirstPoint(dataset.getIdentifier());
                 return Optional.of(createDataEntity(dataset,
@@ -333,6 +390,11 @@ public class AquariusGetObservationDao extends AbstractAquariusDao
                     .ofNullable(checkTimeStart(Hibernate.unproxy(dataset.getLastObservation(), DataEntity.class)));
         } else {
             try {
+                if (isTimeSeriesStoreEnabled()) {
+                    return Optional.ofNullable(timeSeriesStore
+                            .getLastPoint(dataset.getIdentifier(), getAquariusConnector()))
+                            .map(point -> createDataEntity(dataset, point, new Counter()));
+                }
                 TimeSeriesDataServiceResponse timeSeriesData =
                         getAquariusConnector().getTimeSeriesDataLastPoint(dataset.getIdentifier());
                 return Optional.of(createDataEntity(dataset,
@@ -354,6 +416,10 @@ public class AquariusGetObservationDao extends AbstractAquariusDao
 
     private List<DataEntity<?>> getData(Date start, Date end, DatasetEntity series, AquariusConnector connector)
             throws OwsExceptionReport {
+        if (isTimeSeriesStoreEnabled()) {
+            return convertData(timeSeriesStore.getPoints(series.getIdentifier(), new DateTime(start),
+                    new DateTime(end), connector), series, new Counter());
+        }
         TimeSeriesDataServiceResponse timeSeriesData =
                 connector.getTimeSeriesData(series.getIdentifier(), new DateTime(start), new DateTime(end));
         return convertTimeSeriesData(timeSeriesData, series, new Counter());
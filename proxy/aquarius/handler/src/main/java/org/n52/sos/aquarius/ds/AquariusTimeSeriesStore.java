@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.aquarius.ds;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aquaticinformatics.aquarius.sdk.timeseries.servicemodels.Publish.TimeSeriesDataServiceResponse;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Local read-through store for the points of the Aquarius time series. The first request of a time series loads all
+ * points, later requests only query the points after the last stored timestamp from Aquarius if the sync interval
+ * has expired. The requested time ranges, the first and the latest point are served from the stored points.
+ *
+ * <p>
+ * The store is kept in memory and not in the datasource of the proxy, because the series model has no tables for the
+ * raw Aquarius points. It is therefore empty after a restart. The number of time series and the number of points
+ * per time series are bounded. If a time series has more points, only the newest points are kept and requests for
+ * older points are forwarded to Aquarius.
+ */
+@Configurable
+@SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+public class AquariusTimeSeriesStore implements AquariusTimeHelper {
+
+    public static final String SYNC_INTERVAL = "proxy.aquarius.store.syncInterval";
+
+    public static final String MAX_TIME_SERIES = "proxy.aquarius.store.maxTimeSeries";
+
+    public static final String MAX_POINTS = "proxy.aquarius.store.maxPoints";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AquariusTimeSeriesStore.class);
+
+    private static final int DEFAULT_MAX_TIME_SERIES = 100;
+
+    private static final int DEFAULT_MAX_POINTS = 100000;
+
+    private AquariusHelper aquariusHelper;
+
+    private long syncInterval;
+
+    private int maxPoints = DEFAULT_MAX_POINTS;
+
+    private Cache<String, StoredTimeSeries> timeSeries = createCache(DEFAULT_MAX_TIME_SERIES);
+
+    @Inject
+    public void setAquariusHelper(AquariusHelper aquariusHelper) {
+        this.aquariusHelper = aquariusHelper;
+    }
+
+    /**
+     * Set the interval in seconds after which the new points of a time series are queried from Aquarius. A value
+     * of 0 disables the store.
+     *
+     * @param syncInterval
+     *            the interval in seconds
+     */
+    @Setting(SYNC_INTERVAL)
+    public void setSyncInterval(int syncInterval) {
+        this.syncInterval = TimeUnit.SECONDS.toMillis(Math.max(0, syncInterval));
+        if (!isEnabled()) {
+            clear();
+        }
+    }
+
+    @Setting(MAX_TIME_SERIES)
+    public void setMaxTimeSeries(int maxTimeSeries) {
+        this.timeSeries = createCache(Math.max(1, maxTimeSeries));
+    }
+
+    /**
+     * Set the maximum number of points that are kept per time series. Older points are dropped from the store.
+     *
+     * @param maxPoints
+     *            the maximum number of points
+     */
+    @Setting(MAX_POINTS)
+    public void setMaxPoints(int maxPoints) {
+        this.maxPoints = Math.max(1, maxPoints);
+        clear();
+    }
+
+    public boolean isEnabled() {
+        return syncInterval > 0;
+    }
+
+    /**
+     * Get the points of the time series in the time range, both inclusive.
+     *
+     * @param timeSeriesUniqueId
+     *            the time series unique id
+     * @param from
+     *            the start of the time range or <code>null</code>
+     * @param to
+     *            the end of the time range or <code>null</code>
+     * @param connector
+     *            the connector to query new points
+     * @return the points
+     * @throws OwsExceptionReport
+     *             if the query of new points fails
+     */
+    public List<Point> getPoints(String timeSeriesUniqueId, DateTime from, DateTime to, AquariusConnector connector)
+            throws OwsExceptionReport {
+        return getPoints(timeSeriesUniqueId, toInstant(from), true, toInstant(to), true, connector);
+    }
+
+    /**
+     * Get the points of the time series that match the temporal filter. The operators
+     * {@code During}, {@code Equals}, {@code Begins}, {@code Ends}, {@code Before} and {@code After} are evaluated,
+     * for other operators no points are returned.
+     *
+     * @param timeSeriesUniqueId
+     *            the time series unique id
+     * @param temporalFilter
+     *            the temporal filter
+     * @param connector
+     *            the connector to query new points
+     * @return the points
+     * @throws OwsExceptionReport
+     *             if the query of new points fails
+     */
+    public List<Point> getPoints(String timeSeriesUniqueId, TemporalFilter temporalFilter,
+            AquariusConnector connector) throws OwsExceptionReport {
+        Time time = temporalFilter.getTime();
+        Instant start = getStart(time);
+        Instant end = getEnd(time);
+        if (start == null || end == null) {
+            return Collections.emptyList();
+        }
+        switch (temporalFilter.getOperator()) {
+            case TM_During:
+                return time instanceof TimePeriod
+                        ? getPoints(timeSeriesUniqueId, start, true, end, true, connector)
+                        : Collections.emptyList();
+            case TM_Equals:
+                return time instanceof TimeInstant
+                        ? getPoints(timeSeriesUniqueId, start, true, start, true, connector)
+                        : Collections.emptyList();
+            case TM_Begins:
+                return getPoints(timeSeriesUniqueId, start, true, start, true, connector);
+            case TM_Ends:
+                return getPoints(timeSeriesUniqueId, end, true, end, true, connector);
+            case TM_Before:
+                return getPoints(timeSeriesUniqueId, null, true, start, false, connector);
+            case TM_After:
+                return getPoints(timeSeriesUniqueId, end, false, null, true, connector);
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    public Point getFirstPoint(String timeSeriesUniqueId, AquariusConnector connector) throws OwsExceptionReport {
+        StoredTimeSeries stored = sync(timeSeriesUniqueId, connector);
+        if (stored.isTruncated()) {
+            return queryFirstPoint(timeSeriesUniqueId, connector);
+        }
+        return stored.getFirst();
+    }
+
+    public Point getLastPoint(String timeSeriesUniqueId, AquariusConnector connector) throws OwsExceptionReport {
+        return sync(timeSeriesUniqueId, connector).getLast();
+    }
+
+    public void invalidate(String timeSeriesUniqueId) {
+        timeSeries.invalidate(timeSeriesUniqueId);
+    }
+
+    public void clear() {
+        timeSeries.invalidateAll();
+    }
+
+    /**
+     * Query the points in the time range from Aquarius, the bounds are inclusive.
+     *
+     * @param timeSeriesUniqueId
+     *            the time series unique id
+     * @param from
+     *            the start of the time range or <code>null</code>
+     * @param to
+     *            the end of the time range or <code>null</code>
+     * @param connector
+     *            the connector
+     * @return the points
+     * @throws OwsExceptionReport
+     *             if the query fails
+     */
+    protected List<Point> queryPoints(String timeSeriesUniqueId, DateTime from, DateTime to,
+            AquariusConnector connector) throws OwsExceptionReport {
+        return toPoints(connector.getTimeSeriesData(timeSeriesUniqueId, from, to));
+    }
+
+    /**
+     * Query the first point from Aquarius.
+     *
+     * @param timeSeriesUniqueId
+     *            the time series unique id
+     * @param connector
+     *            the connector
+     * @return the first point or <code>null</code>
+     * @throws OwsExceptionReport
+     *             if the query fails
+     */
+    protected Point queryFirstPoint(String timeSeriesUniqueId, AquariusConnector connector)
+            throws OwsExceptionReport {
+        List<Point> points = toPoints(connector.getTimeSeriesDataFirstPoint(timeSeriesUniqueId));
+        return points.isEmpty() ? null : points.get(0);
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private List<Point> toPoints(TimeSeriesDataServiceResponse response) {
+        if (response != null) {
+            TimeSeriesData data = aquariusHelper.applyChecker(response);
+            if (data.hasPoints()) {
+                return data.getPoints();
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private List<Point> getPoints(String timeSeriesUniqueId, Instant from, boolean fromInclusive, Instant to,
+            boolean toInclusive, AquariusConnector connector) throws OwsExceptionReport {
+        StoredTimeSeries stored = sync(timeSeriesUniqueId, connector);
+        if (stored.covers(from)) {
+            return stored.getPoints(from, fromInclusive, to, toInclusive);
+        }
+        // the requested range starts before the oldest point that is still stored
+        LOGGER.debug("Query points of time series {} from {} to {} from Aquarius", timeSeriesUniqueId, from, to);
+        StoredTimeSeries queried = new StoredTimeSeries(Integer.MAX_VALUE);
+        queried.append(queryPoints(timeSeriesUniqueId, from != null ? toDateTime(from) : null,
+                to != null ? toDateTime(to) : null, connector));
+        return queried.getPoints(from, fromInclusive, to, toInclusive);
+    }
+
+    private StoredTimeSeries sync(String timeSeriesUniqueId, AquariusConnector connector)
+            throws OwsExceptionReport {
+        StoredTimeSeries stored = timeSeries.asMap().computeIfAbsent(timeSeriesUniqueId,
+                id -> new StoredTimeSeries(maxPoints));
+        synchronized (stored) {
+            long now = currentTimeMillis();
+            if (stored.getLastSync() < 0 || now - stored.getLastSync() >= syncInterval) {
+                Point last = stored.getLast();
+                DateTime from = last != null ? toDateTime(last.getInstant()) : null;
+                LOGGER.debug("Sync time series {} from {}", timeSeriesUniqueId, from);
+                stored.append(queryPoints(timeSeriesUniqueId, from, null, connector));
+                stored.setLastSync(now);
+            }
+        }
+        return stored;
+    }
+
+    private Instant getStart(Time time) {
+        if (time instanceof TimeInstant) {
+            return toInstant(((TimeInstant) time).getValue());
+        } else if (time instanceof TimePeriod) {
+            return toInstant(((TimePeriod) time).getStart());
+        }
+        return null;
+    }
+
+    private Instant getEnd(Time time) {
+        if (time instanceof TimeInstant) {
+            return toInstant(((TimeInstant) time).getValue());
+        } else if (time instanceof TimePeriod) {
+            return toInstant(((TimePeriod) time).getEnd());
+        }
+        return null;
+    }
+
+    private Instant toInstant(DateTime dateTime) {
+        return dateTime != null ? Instant.ofEpochMilli(dateTime.getMillis()) : null;
+    }
+
+    private static Cache<String, StoredTimeSeries> createCache(int maxTimeSeries) {
+        return CacheBuilder.newBuilder().maximumSize(maxTimeSeries).build();
+    }
+
+    /**
+     * The newest points of a time series ordered by time.
+     */
+    private static final class StoredTimeSeries {
+        private final List<Point> points = new ArrayList<>();
+
+        private final int maxPoints;
+
+        private boolean truncated;
+
+        private long lastSync = -1;
+
+        StoredTimeSeries(int maxPoints) {
+            this.maxPoints = maxPoints;
+        }
+
+        synchronized long getLastSync() {
+            return lastSync;
+        }
+
+        synchronized void setLastSync(long lastSync) {
+            this.lastSync = lastSync;
+        }
+
+        synchronized boolean isTruncated() {
+            return truncated;
+        }
+
+        /**
+         * Check if the stored points contain all points at or after the instant.
+         */
+        synchronized boolean covers(Instant from) {
+            return !truncated || from != null && !points.isEmpty() && !from.isBefore(points.get(0).getInstant());
+        }
+
+        /**
+         * Append the points after the last stored point, the query of new points includes the last stored point.
+         * The oldest points are dropped if more than the maximum number of points are stored.
+         */
+        synchronized void append(List<Point> newPoints) {
+            Instant last = points.isEmpty() ? null : points.get(points.size() - 1).getInstant();
+            for (Point point : newPoints) {
+                if (point != null && (last == null || point.getInstant().isAfter(last))) {
+                    points.add(point);
+                    last = point.getInstant();
+                }
+            }
+            if (points.size() > maxPoints) {
+                points.subList(0, points.size() - maxPoints).clear();
+                truncated = true;
+            }
+        }
+
+        synchronized Point getFirst() {
+            return points.isEmpty() ? null : points.get(0);
+        }
+
+        synchronized Point getLast() {
+            return points.isEmpty() ? null : points.get(points.size() - 1);
+        }
+
+        synchronized List<Point> getPoints(Instant from, boolean fromInclusive, Instant to, boolean toInclusive) {
+            int start = from != null ? indexOf(from, !fromInclusive) : 0;
+            int end = to != null ? indexOf(to, toInclusive) : points.size();
+            if (start >= end) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<>(points.subList(start, end));
+        }
+
+        /**
+         * Binary search for the index of the first point at or after the instant, or strictly after the instant.
+         */
+        private int indexOf(Instant instant, boolean after) {
+            int low = 0;
+            int high = points.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                Instant pointInstant = points.get(mid).getInstant();
+                if (pointInstant.isBefore(instant) || after && pointInstant.equals(instant)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2012-2023 52°North Spatial Information Research GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.aquarius.ds;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+
+import com.aquaticinformatics.aquarius.sdk.timeseries.servicemodels.Publish.StatisticalDateTimeOffset;
+import com.aquaticinformatics.aquarius.sdk.timeseries.servicemodels.Publish.TimeSeriesPoint;
+
+public class AquariusTimeSeriesStoreTest {
+
+    private static final String TIME_SERIES = "ts";
+
+    private static final long HOUR = 3600000L;
+
+    private TestStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new TestStore();
+        store.setSyncInterval(60);
+        for (int i = 0; i < 5; i++) {
+            store.remote.add(point(i));
+        }
+    }
+
+    @Test
+    public void should_query_only_new_points_after_sync_interval() throws Exception {
+        Assertions.assertEquals(5, store.getPoints(TIME_SERIES, null, null, null).size());
+        Assertions.assertNull(store.queries.get(0)[0]);
+
+        store.remote.add(point(5));
+        Assertions.assertEquals(5, store.getPoints(TIME_SERIES, null, null, null).size());
+        Assertions.assertEquals(1, store.queries.size());
+
+        store.now += 60000L;
+        Assertions.assertEquals(6, store.getPoints(TIME_SERIES, null, null, null).size());
+        Assertions.assertEquals(2, store.queries.size());
+        Assertions.assertEquals(time(4), store.queries.get(1)[0]);
+        Assertions.assertEquals(time(5), store.getLastPoint(TIME_SERIES, null).getInstant());
+    }
+
+    @Test
+    public void should_evaluate_temporal_filters() throws Exception {
+        TimePeriod period = new TimePeriod(new DateTime(time(1).toEpochMilli()), new DateTime(time(3).toEpochMilli()));
+        TimeInstant instant = new TimeInstant(new DateTime(time(2).toEpochMilli()));
+        Assertions.assertEquals(instants(1, 2, 3), filter(TimeOperator.TM_During, period));
+        Assertions.assertEquals(instants(2), filter(TimeOperator.TM_Equals, instant));
+        Assertions.assertEquals(instants(1), filter(TimeOperator.TM_Begins, period));
+        Assertions.assertEquals(instants(3), filter(TimeOperator.TM_Ends, period));
+        Assertions.assertEquals(instants(0, 1), filter(TimeOperator.TM_Before, instant));
+        Assertions.assertEquals(instants(0), filter(TimeOperator.TM_Before, period));
+        Assertions.assertEquals(instants(3, 4), filter(TimeOperator.TM_After, instant));
+        Assertions.assertEquals(instants(4), filter(TimeOperator.TM_After, period));
+        Assertions.assertEquals(instants(), filter(TimeOperator.TM_Meets, period));
+        Assertions.assertEquals(1, store.queries.size());
+    }
+
+    @Test
+    public void should_keep_only_the_newest_points() throws Exception {
+        store.setMaxPoints(3);
+        Assertions.assertEquals(instants(2, 3, 4), instants(store.getPoints(TIME_SERIES,
+                new DateTime(time(2).toEpochMilli()), null, null)));
+        Assertions.assertEquals(1, store.queries.size());
+
+        Assertions.assertEquals(instants(0, 1, 2, 3, 4), instants(store.getPoints(TIME_SERIES, null, null, null)));
+        Assertions.assertEquals(2, store.queries.size());
+        Assertions.assertEquals(time(0), store.getFirstPoint(TIME_SERIES, null).getInstant());
+    }
+
+    private List<Instant> filter(TimeOperator operator, org.n52.shetland.ogc.gml.time.Time time) throws Exception {
+        return instants(store.getPoints(TIME_SERIES, new TemporalFilter(operator, time, "phenomenonTime"), null));
+    }
+
+    private static List<Instant> instants(List<Point> points) {
+        return points.stream().map(Point::getInstant).collect(Collectors.toList());
+    }
+
+    private static List<Instant> instants(int... hours) {
+        List<Instant> instants = new ArrayList<>();
+        for (int hour : hours) {
+            instants.add(time(hour));
+        }
+        return instants;
+    }
+
+    private static Instant time(int hour) {
+        return Instant.ofEpochMilli(hour * HOUR);
+    }
+
+    private static Point point(int hour) {
+        return new Point(new TimeSeriesPoint()
+                .setTimestamp(new StatisticalDateTimeOffset().setDateTimeOffset(time(hour))));
+    }
+
+    /**
+     * Store that queries the points from a list instead of Aquarius.
+     */
+    private static class TestStore extends AquariusTimeSeriesStore {
+        private final List<Point> remote = new ArrayList<>();
+
+        private final List<Instant[]> queries = new ArrayList<>();
+
+        private long now;
+
+        @Override
+        protected List<Point> queryPoints(String timeSeriesUniqueId, DateTime from, DateTime to,
+                AquariusConnector connector) {
+            Instant start = from != null ? Instant.ofEpochMilli(from.getMillis()) : null;
+            Instant end = to != null ? Instant.ofEpochMilli(to.getMillis()) : null;
+            queries.add(new Instant[] { start, end });
+            return remote.stream()
+                    .filter(p -> (start == null || !p.getInstant().isBefore(start))
+                            && (end == null || !p.getInstant().isAfter(end)))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        protected Point queryFirstPoint(String timeSeriesUniqueId, AquariusConnector connector) {
+            return remote.get(0);
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    }
+}